@@ -4,15 +4,46 @@
 
 package com.codeup.booknova;
 
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.codeup.booknova.analytics.RollupBackfillJob;
+import com.codeup.booknova.api.ApiServer;
+import com.codeup.booknova.infra.config.AppConfig;
 import com.codeup.booknova.ui.NovaBookApplication;
+import com.codeup.booknova.ui.service.ServiceManager;
 
 /**
  * Main class for NovaBook - Library Management System
+ * <p>
+ * Starts the JavaFX client, or with {@code --headless} only the JSON API
+ * ({@link ApiServer}). {@code --rebuild-analytics} rebuilds the circulation
+ * rollups with {@link RollupBackfillJob} ({@code analytics.backfill.partitions}
+ * parallel scans) and exits.
+ * </p>
  */
 public class NovaBook {
 
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("--headless")) {
+            System.out.println("🚀 Starting BookNova API (headless)");
+            ApiServer.main(args);
+            return;
+        }
+        if (Arrays.asList(args).contains("--rebuild-analytics")) {
+            int partitions = (int) new AppConfig().getLong("analytics.backfill.partitions", 4);
+            ExecutorService scans = Executors.newFixedThreadPool(partitions);
+            try {
+                RollupBackfillJob.Result result = new RollupBackfillJob(
+                        ServiceManager.getInstance().getJdbcTemplate(), scans, partitions).run();
+                System.out.println("Analytics rebuilt: " + result);
+            } finally {
+                scans.shutdown();
+            }
+            return;
+        }
         // Launch JavaFX Application
         System.out.println("🚀 Starting BookNova - Library Management System");
         NovaBookApplication.main(args);
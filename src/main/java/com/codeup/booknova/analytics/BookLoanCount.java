@@ -0,0 +1,12 @@
+package com.codeup.booknova.analytics;
+
+/**
+ * Number of loans of one book in a period.
+ *
+ * @param bookId the book id
+ * @param title the book title, or {@code null} if the book was deleted
+ * @param loans the number of loans
+ * @version 1.0
+ * @since 1.0
+ */
+public record BookLoanCount(int bookId, String title, long loans) {}
@@ -0,0 +1,206 @@
+package com.codeup.booknova.analytics;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.codeup.booknova.domain.MemberRole;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+
+/**
+ * Circulation figures read from the rollup tables.
+ * <p>
+ * Every query reads {@code loan_daily_role}, {@code loan_daily_book} or
+ * {@code member_month_activity} by their date key, so its cost grows with the
+ * number of days in the range (times two roles, or times the books borrowed
+ * in it) and not with the size of {@code loan}. Each call runs as a
+ * {@link JdbcTemplateLight#report report}, with the report timeout and within
+ * the limit of concurrent reports.
+ * </p>
+ * <p>Example:</p>
+ * <pre>{@code
+ * CirculationAnalytics analytics = new CirculationAnalytics(jdbc);
+ * List<BookLoanCount> top = analytics.topBooks(LocalDate.now().minusDays(30), LocalDate.now(), 10);
+ * }</pre>
+ *
+ * @version 1.0
+ * @since 1.0
+ * @see CirculationRollups
+ */
+public class CirculationAnalytics {
+    private final JdbcTemplateLight jdbc;
+
+    public CirculationAnalytics(JdbcTemplateLight jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Returns the most borrowed books in a date range.
+     *
+     * @param from the first day, inclusive
+     * @param to the last day, inclusive
+     * @param limit the maximum number of books
+     * @return the books, most loans first
+     * @throws DatabaseException if the query fails
+     */
+    public List<BookLoanCount> topBooks(LocalDate from, LocalDate to, int limit) throws DatabaseException {
+        return jdbc.report(() -> jdbc.query("SELECT r.book_id, b.title, SUM(r.loans) AS loans FROM loan_daily_book r "
+                + "LEFT JOIN book b ON b.id = r.book_id WHERE r.stat_date BETWEEN ? AND ? "
+                + "GROUP BY r.book_id, b.title HAVING SUM(r.loans) > 0 ORDER BY loans DESC, r.book_id LIMIT ?",
+                range(from, to, limit),
+                rs -> new BookLoanCount(rs.getInt("book_id"), rs.getString("title"), rs.getLong("loans"))));
+    }
+
+    /**
+     * Returns the number of loans of every book borrowed in a date range, e.g.
+     * to rank search suggestions by popularity.
+     *
+     * @param from the first day, inclusive
+     * @param to the last day, inclusive
+     * @return loans by book id; books without loans are absent
+     * @throws DatabaseException if the query fails
+     */
+    public Map<Integer, Long> loansPerBook(LocalDate from, LocalDate to) throws DatabaseException {
+        List<BookLoanCount> counts = jdbc.report(() -> jdbc.query("SELECT book_id, SUM(loans) AS loans FROM loan_daily_book "
+                + "WHERE stat_date BETWEEN ? AND ? GROUP BY book_id HAVING SUM(loans) > 0",
+                range(from, to, 0),
+                rs -> new BookLoanCount(rs.getInt("book_id"), null, rs.getLong("loans"))));
+        Map<Integer, Long> loans = new HashMap<>(counts.size() * 2);
+        for (BookLoanCount count : counts) {
+            loans.put(count.bookId(), count.loans());
+        }
+        return loans;
+    }
+
+    /**
+     * Returns the number of loans per day. Days without loans are omitted.
+     *
+     * @param from the first day, inclusive
+     * @param to the last day, inclusive
+     * @return one entry per day with loans, in date order
+     * @throws DatabaseException if the query fails
+     */
+    public List<PeriodCount> loansPerDay(LocalDate from, LocalDate to) throws DatabaseException {
+        return jdbc.report(() -> jdbc.query("SELECT stat_date, SUM(loans) AS loans FROM loan_daily_role "
+                + "WHERE stat_date BETWEEN ? AND ? GROUP BY stat_date HAVING SUM(loans) > 0 ORDER BY stat_date",
+                range(from, to, 0),
+                rs -> new PeriodCount(rs.getDate("stat_date").toLocalDate(), rs.getLong("loans"))));
+    }
+
+    /**
+     * Returns the number of loans per month, summed from {@link #loansPerDay}.
+     *
+     * @param from the first day, inclusive
+     * @param to the last day, inclusive
+     * @return one entry per month with loans, keyed by its first day, in date order
+     * @throws DatabaseException if the query fails
+     */
+    public List<PeriodCount> loansPerMonth(LocalDate from, LocalDate to) throws DatabaseException {
+        List<PeriodCount> months = new ArrayList<>();
+        LocalDate month = null;
+        long count = 0;
+        for (PeriodCount day : loansPerDay(from, to)) {
+            LocalDate dayMonth = day.period().withDayOfMonth(1);
+            if (!dayMonth.equals(month)) {
+                if (month != null) {
+                    months.add(new PeriodCount(month, count));
+                }
+                month = dayMonth;
+                count = 0;
+            }
+            count += day.count();
+        }
+        if (month != null) {
+            months.add(new PeriodCount(month, count));
+        }
+        return months;
+    }
+
+    /**
+     * Returns the number of members with at least one loan, per month.
+     *
+     * @param from a day in the first month
+     * @param to a day in the last month
+     * @return one entry per month with activity, keyed by its first day, in date order
+     * @throws DatabaseException if the query fails
+     */
+    public List<PeriodCount> activeMembersPerMonth(LocalDate from, LocalDate to) throws DatabaseException {
+        return jdbc.report(() -> jdbc.query("SELECT stat_month, COUNT(*) AS members FROM member_month_activity "
+                + "WHERE stat_month BETWEEN ? AND ? GROUP BY stat_month ORDER BY stat_month",
+                range(from.withDayOfMonth(1), to.withDayOfMonth(1), 0),
+                rs -> new PeriodCount(rs.getDate("stat_month").toLocalDate(), rs.getLong("members"))));
+    }
+
+    /**
+     * Returns the share of late returns per member role, for returns in a date range.
+     *
+     * @param from the first day, inclusive
+     * @param to the last day, inclusive
+     * @return one entry per role with returns
+     * @throws DatabaseException if the query fails
+     */
+    public List<RoleOverdueRate> overdueRateByRole(LocalDate from, LocalDate to) throws DatabaseException {
+        return jdbc.report(() -> jdbc.query("SELECT member_role, SUM(returned) AS returned, SUM(returned_late) AS returned_late "
+                + "FROM loan_daily_role WHERE stat_date BETWEEN ? AND ? GROUP BY member_role "
+                + "HAVING SUM(returned) > 0 ORDER BY member_role",
+                range(from, to, 0),
+                rs -> new RoleOverdueRate(MemberRole.valueOf(rs.getString("member_role")),
+                        rs.getLong("returned"), rs.getLong("returned_late"))));
+    }
+
+    /**
+     * Reads the dashboard figures in one read-only transaction.
+     *
+     * @param today the current date
+     * @return the figures
+     * @throws DatabaseException if a query fails
+     */
+    public CirculationKpis kpis(LocalDate today) throws DatabaseException {
+        LocalDate monthStart = today.withDayOfMonth(1);
+        LocalDate last30 = today.minusDays(29);
+        return jdbc.report(() -> jdbc.txExecuteReadOnly(conn -> {
+            long loansToday = 0;
+            long loansThisMonth = 0;
+            for (PeriodCount day : loansPerDay(monthStart.isBefore(last30) ? monthStart : last30, today)) {
+                if (day.period().equals(today)) {
+                    loansToday = day.count();
+                }
+                if (!day.period().isBefore(monthStart)) {
+                    loansThisMonth += day.count();
+                }
+            }
+            long activeMembers = activeMembersPerMonth(today, today).stream()
+                    .mapToLong(PeriodCount::count).sum();
+            long returned = 0;
+            long late = 0;
+            for (RoleOverdueRate role : overdueRateByRole(last30, today)) {
+                returned += role.returned();
+                late += role.returnedLate();
+            }
+            List<BookLoanCount> top = topBooks(last30, today, 1);
+            return new CirculationKpis(loansToday, loansThisMonth, activeMembers,
+                    new RoleOverdueRate(null, returned, late).rate(), top.isEmpty() ? null : top.get(0));
+        }));
+    }
+
+    private static Consumer<PreparedStatement> range(LocalDate from, LocalDate to, int limit) {
+        return ps -> {
+            try {
+                ps.setDate(1, Date.valueOf(from));
+                ps.setDate(2, Date.valueOf(to));
+                if (limit > 0) {
+                    ps.setInt(3, limit);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Error binding date range", e);
+            }
+        };
+    }
+}
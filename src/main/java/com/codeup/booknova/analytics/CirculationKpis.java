@@ -0,0 +1,15 @@
+package com.codeup.booknova.analytics;
+
+/**
+ * Figures shown on the administrator dashboard.
+ *
+ * @param loansToday loans made today
+ * @param loansThisMonth loans made this month
+ * @param activeMembersThisMonth members with at least one loan this month
+ * @param overdueRate share of late returns in the last 30 days, between 0 and 1
+ * @param topBook the most borrowed book of the last 30 days, or {@code null}
+ * @version 1.0
+ * @since 1.0
+ */
+public record CirculationKpis(long loansToday, long loansThisMonth, long activeMembersThisMonth,
+                              double overdueRate, BookLoanCount topBook) {}
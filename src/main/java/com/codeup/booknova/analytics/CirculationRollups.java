@@ -0,0 +1,54 @@
+package com.codeup.booknova.analytics;
+
+import java.time.LocalDate;
+
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.domain.MemberRole;
+import com.codeup.booknova.exception.DatabaseException;
+
+/**
+ * Keeps the circulation rollup tables current as loans are made and returned.
+ * <p>
+ * {@link com.codeup.booknova.service.impl.LoanService} calls it inside the
+ * checkout and return transactions, so a rollup changes exactly when the loan
+ * it counts commits. {@link CirculationAnalytics} reads the rollups and
+ * {@link RollupBackfillJob} rebuilds them from the {@code loan} table.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ * @see JdbcCirculationRollups
+ */
+public interface CirculationRollups {
+
+    /** Rollups that record nothing, e.g. in unit tests with mocked repositories. */
+    CirculationRollups NONE = new CirculationRollups() {
+        @Override
+        public void recordCheckout(Loan loan, MemberRole role) {
+        }
+
+        @Override
+        public void recordReturn(Loan loan, MemberRole role, LocalDate returnedOn) {
+        }
+    };
+
+    /**
+     * Counts a new loan on its loan date, for its book and its member's role,
+     * and marks the member active in that month.
+     *
+     * @param loan the created loan
+     * @param role the borrowing member's role
+     * @throws DatabaseException if the rollups cannot be updated
+     */
+    void recordCheckout(Loan loan, MemberRole role) throws DatabaseException;
+
+    /**
+     * Counts a return on the day it happened, as late if that is after the due date.
+     *
+     * @param loan the returned loan
+     * @param role the borrowing member's role
+     * @param returnedOn the return date
+     * @throws DatabaseException if the rollups cannot be updated
+     */
+    void recordReturn(Loan loan, MemberRole role, LocalDate returnedOn) throws DatabaseException;
+}
@@ -0,0 +1,113 @@
+package com.codeup.booknova.analytics;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.domain.MemberRole;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.jdbc.dialect.SqlDialect;
+
+/**
+ * {@link CirculationRollups} backed by the rollup tables.
+ * <ul>
+ * <li>{@code loan_daily_book} - loans and returns per day and book</li>
+ * <li>{@code loan_daily_role} - loans, returns and late returns per day and member role</li>
+ * <li>{@code member_month_activity} - one row per member and month with a loan</li>
+ * </ul>
+ * <p>
+ * Each event is a few single-row upserts ({@code INSERT ... ON DUPLICATE KEY
+ * UPDATE} on MySQL, {@code ON CONFLICT ... DO UPDATE} on PostgreSQL, see
+ * {@link SqlDialect#upsertAdding}). They use the caller's transaction through
+ * {@link JdbcTemplateLight}, so they commit or roll back with the loan.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class JdbcCirculationRollups implements CirculationRollups {
+    private final JdbcTemplateLight jdbc;
+    private final String addToBookDay;
+    private final String addToRoleDay;
+    private final String markActive;
+
+    public JdbcCirculationRollups(JdbcTemplateLight jdbc) {
+        this.jdbc = jdbc;
+        SqlDialect dialect = jdbc.getDialect();
+        this.addToBookDay = dialect.upsertAdding("loan_daily_book", List.of("stat_date", "book_id"),
+                List.of("loans", "returned"));
+        this.addToRoleDay = dialect.upsertAdding("loan_daily_role", List.of("stat_date", "member_role"),
+                List.of("loans", "returned", "returned_late"));
+        this.markActive = dialect.insertIgnore("member_month_activity", List.of("stat_month", "member_id"),
+                List.of("stat_month", "member_id"));
+    }
+
+    @Override
+    public void recordCheckout(Loan loan, MemberRole role) throws DatabaseException {
+        Date day = Date.valueOf(loan.getDateLoaned());
+        String roleName = roleName(role);
+        jdbc.update(addToBookDay, ps -> {
+            try {
+                ps.setDate(1, day);
+                ps.setInt(2, loan.getBookId());
+                ps.setInt(3, 1);
+                ps.setInt(4, 0);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error counting loan per book", e);
+            }
+        });
+        jdbc.update(addToRoleDay, ps -> {
+            try {
+                ps.setDate(1, day);
+                ps.setString(2, roleName);
+                ps.setInt(3, 1);
+                ps.setInt(4, 0);
+                ps.setInt(5, 0);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error counting loan per role", e);
+            }
+        });
+        jdbc.update(markActive, ps -> {
+            try {
+                ps.setDate(1, Date.valueOf(loan.getDateLoaned().withDayOfMonth(1)));
+                ps.setInt(2, loan.getMemberId());
+            } catch (SQLException e) {
+                throw new RuntimeException("Error recording active member", e);
+            }
+        });
+    }
+
+    @Override
+    public void recordReturn(Loan loan, MemberRole role, LocalDate returnedOn) throws DatabaseException {
+        Date day = Date.valueOf(returnedOn);
+        int late = loan.getDateDue() != null && returnedOn.isAfter(loan.getDateDue()) ? 1 : 0;
+        jdbc.update(addToBookDay, ps -> {
+            try {
+                ps.setDate(1, day);
+                ps.setInt(2, loan.getBookId());
+                ps.setInt(3, 0);
+                ps.setInt(4, 1);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error counting return per book", e);
+            }
+        });
+        jdbc.update(addToRoleDay, ps -> {
+            try {
+                ps.setDate(1, day);
+                ps.setString(2, roleName(role));
+                ps.setInt(3, 0);
+                ps.setInt(4, 1);
+                ps.setInt(5, late);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error counting return per role", e);
+            }
+        });
+    }
+
+    static String roleName(MemberRole role) {
+        return (role != null ? role : MemberRole.REGULAR).name();
+    }
+}
@@ -0,0 +1,537 @@
+package com.codeup.booknova.analytics;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+
+/**
+ * Read-only, column-oriented copy of the loan history for ad-hoc reports.
+ * <p>
+ * Each attribute is a primitive array indexed by row: ids as {@code int},
+ * dates as {@code int} epoch days ({@link #NO_DATE} when missing) and the
+ * returned flag as a {@link BitSet}. A row costs about 24 bytes instead of
+ * the ~150 of a {@link Loan} with its boxed fields, and a scan touches only
+ * the columns it reads.
+ * </p>
+ * <p>
+ * {@link #filter}, {@link #count}, {@link #countBy} and {@link #topK} split
+ * the rows into chunks and process them in parallel on the common fork/join
+ * pool. Filters are built from the snapshot and combined with
+ * {@link Filter#and(Filter)}:
+ * </p>
+ * <pre>{@code
+ * LoanColumns loans = LoanColumns.load(jdbc);
+ * List<LoanColumns.KeyCount> top = loans.topK(LoanColumns.Column.BOOK,
+ *         loans.loanedBetween(from, to).and(loans.returnedLate()), 10);
+ * }</pre>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class LoanColumns {
+
+    /** Epoch day stored for a missing date. */
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    /** Rows per fork/join leaf; a multiple of 64 so leaves own whole words of a bit set. */
+    static final int CHUNK = 1 << 16;
+
+    /** Dense group-by arrays are used up to this many distinct key values. */
+    static final int MAX_DENSE_KEYS = 1 << 24;
+
+    /** The columns that can be grouped by. */
+    public enum Column {
+        MEMBER, BOOK, LOANED, DUE, RETURNED_ON
+    }
+
+    /**
+     * Row filter over this snapshot's columns.
+     */
+    @FunctionalInterface
+    public interface Filter {
+        boolean test(int row);
+
+        default Filter and(Filter other) {
+            return row -> test(row) && other.test(row);
+        }
+
+        default Filter negate() {
+            return row -> !test(row);
+        }
+    }
+
+    /**
+     * A group-by key and its number of rows.
+     *
+     * @param key the column value (an id or an epoch day)
+     * @param count the number of rows
+     */
+    public record KeyCount(int key, long count) {}
+
+    private final int size;
+    private final int[] ids;
+    private final int[] memberIds;
+    private final int[] bookIds;
+    private final int[] loanedDays;
+    private final int[] dueDays;
+    private final int[] returnedDays;
+    private final BitSet returned;
+
+    private LoanColumns(Builder b) {
+        this.size = b.size;
+        this.ids = Arrays.copyOf(b.ids, b.size);
+        this.memberIds = Arrays.copyOf(b.memberIds, b.size);
+        this.bookIds = Arrays.copyOf(b.bookIds, b.size);
+        this.loanedDays = Arrays.copyOf(b.loanedDays, b.size);
+        this.dueDays = Arrays.copyOf(b.dueDays, b.size);
+        this.returnedDays = Arrays.copyOf(b.returnedDays, b.size);
+        this.returned = (BitSet) b.returned.clone();
+    }
+
+    /**
+     * Loads every loan through a forward-only cursor, without creating
+     * {@link Loan} objects. As in {@link RollupBackfillJob}, a returned loan's
+     * return day is the day of its {@code updated_at}.
+     *
+     * @param jdbc the JDBC template
+     * @return the snapshot
+     * @throws DatabaseException if the query fails
+     */
+    public static LoanColumns load(JdbcTemplateLight jdbc) throws DatabaseException {
+        Builder b = new Builder(1024);
+        jdbc.forEachRow("SELECT id, member_id, book_id, date_loaned, date_due, returned, updated_at FROM loan ORDER BY id",
+                rs -> {
+                    boolean isReturned = rs.getBoolean("returned");
+                    java.sql.Timestamp updatedAt = rs.getTimestamp("updated_at");
+                    b.add(rs.getInt("id"), rs.getInt("member_id"), rs.getInt("book_id"),
+                            epochDay(rs.getDate("date_loaned")), epochDay(rs.getDate("date_due")),
+                            isReturned,
+                            isReturned && updatedAt != null
+                                    ? (int) updatedAt.toLocalDateTime().toLocalDate().toEpochDay() : NO_DATE);
+                    return null;
+                }, row -> { });
+        return b.build();
+    }
+
+    /**
+     * Copies loans already in memory.
+     *
+     * @param loans the loans
+     * @return the snapshot
+     */
+    public static LoanColumns of(Collection<Loan> loans) {
+        Builder b = new Builder(loans.size());
+        for (Loan loan : loans) {
+            b.add(orZero(loan.getId()), orZero(loan.getMemberId()), orZero(loan.getBookId()),
+                    epochDay(loan.getDateLoaned()), epochDay(loan.getDateDue()),
+                    Boolean.TRUE.equals(loan.getReturned()), epochDay(loan.getReturnDate()));
+        }
+        return b.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public int getMemberId(int row) {
+        return memberIds[row];
+    }
+
+    public int getBookId(int row) {
+        return bookIds[row];
+    }
+
+    public int getLoanedDay(int row) {
+        return loanedDays[row];
+    }
+
+    public int getDueDay(int row) {
+        return dueDays[row];
+    }
+
+    public int getReturnedDay(int row) {
+        return returnedDays[row];
+    }
+
+    public boolean isReturned(int row) {
+        return returned.get(row);
+    }
+
+    // ---- filters
+
+    public Filter all() {
+        return row -> true;
+    }
+
+    public Filter ofMember(int memberId) {
+        return row -> memberIds[row] == memberId;
+    }
+
+    public Filter ofBook(int bookId) {
+        return row -> bookIds[row] == bookId;
+    }
+
+    /** Loans made between two dates, inclusive. */
+    public Filter loanedBetween(LocalDate from, LocalDate to) {
+        int lo = (int) from.toEpochDay();
+        int hi = (int) to.toEpochDay();
+        return row -> loanedDays[row] >= lo && loanedDays[row] <= hi;
+    }
+
+    /** Loans not yet returned. */
+    public Filter active() {
+        return row -> !returned.get(row);
+    }
+
+    /** Loans returned after their due date. */
+    public Filter returnedLate() {
+        return row -> returned.get(row) && returnedDays[row] != NO_DATE && returnedDays[row] > dueDays[row];
+    }
+
+    /** Loans not returned and past their due date on a given day. */
+    public Filter overdueOn(LocalDate day) {
+        int d = (int) day.toEpochDay();
+        return row -> !returned.get(row) && dueDays[row] != NO_DATE && dueDays[row] < d;
+    }
+
+    // ---- queries
+
+    /**
+     * Returns the rows matching a filter.
+     *
+     * @param filter the filter
+     * @return the matching row indexes
+     */
+    public BitSet filter(Filter filter) {
+        long[] words = new long[(size + 63) >>> 6];
+        ForkJoinPool.commonPool().invoke(new Scan<Void>(0, size, chunkSize()) {
+            @Override
+            Void leaf(int from, int to) {
+                for (int row = from; row < to; row++) {
+                    if (filter.test(row)) {
+                        // leaves start at multiples of 64, so no two leaves write the same word
+                        words[row >>> 6] |= 1L << row;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            Void combine(Void left, Void right) {
+                return null;
+            }
+        });
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Counts the rows matching a filter.
+     *
+     * @param filter the filter
+     * @return the number of matching rows
+     */
+    public long count(Filter filter) {
+        return ForkJoinPool.commonPool().invoke(new Scan<Long>(0, size, chunkSize()) {
+            @Override
+            Long leaf(int from, int to) {
+                long n = 0;
+                for (int row = from; row < to; row++) {
+                    if (filter.test(row)) {
+                        n++;
+                    }
+                }
+                return n;
+            }
+
+            @Override
+            Long combine(Long left, Long right) {
+                return left + right;
+            }
+        });
+    }
+
+    /**
+     * Counts the matching rows per value of a column.
+     *
+     * @param column the column to group by
+     * @param filter the rows to count
+     * @return one entry per value with at least one row, in ascending key order
+     */
+    public List<KeyCount> countBy(Column column, Filter filter) {
+        int[] values = column(column);
+        long[] counts = denseCounts(values, filter);
+        int min = minKey(values);
+        List<KeyCount> result = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                result.add(new KeyCount(min + i, counts[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the column values with the most matching rows.
+     *
+     * @param column the column to group by
+     * @param filter the rows to count
+     * @param k the maximum number of values
+     * @return up to {@code k} values, most rows first, ties by ascending key
+     */
+    public List<KeyCount> topK(Column column, Filter filter, int k) {
+        int[] values = column(column);
+        long[] counts = denseCounts(values, filter);
+        int min = minKey(values);
+        // bounded min-heap of indexes, weakest at the root
+        int[] heap = new int[Math.max(0, k)];
+        int n = 0;
+        for (int i = 0; i < counts.length && k > 0; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            if (n < k) {
+                heap[n] = i;
+                siftUp(heap, n++, counts);
+            } else if (stronger(i, heap[0], counts)) {
+                heap[0] = i;
+                siftDown(heap, n, counts);
+            }
+        }
+        List<KeyCount> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(new KeyCount(min + heap[i], counts[heap[i]]));
+        }
+        result.sort((a, b) -> a.count() != b.count() ? Long.compare(b.count(), a.count()) : Integer.compare(a.key(), b.key()));
+        return result;
+    }
+
+    private long[] denseCounts(int[] values, Filter filter) {
+        int min = minKey(values);
+        long range = size == 0 ? 0 : (long) maxKey(values) - min + 1;
+        if (range > MAX_DENSE_KEYS) {
+            throw new IllegalStateException("Too many distinct values to group by: " + range);
+        }
+        int width = (int) range;
+        return ForkJoinPool.commonPool().invoke(new Scan<long[]>(0, size, chunkSize()) {
+            @Override
+            long[] leaf(int from, int to) {
+                long[] counts = new long[width];
+                for (int row = from; row < to; row++) {
+                    int value = values[row];
+                    if (value != NO_DATE && filter.test(row)) {
+                        counts[value - min]++;
+                    }
+                }
+                return counts;
+            }
+
+            @Override
+            long[] combine(long[] left, long[] right) {
+                for (int i = 0; i < width; i++) {
+                    left[i] += right[i];
+                }
+                return left;
+            }
+        });
+    }
+
+    // heap order: fewer rows is weaker; on a tie the larger key is weaker
+    private static boolean stronger(int a, int b, long[] counts) {
+        return counts[a] != counts[b] ? counts[a] > counts[b] : a < b;
+    }
+
+    private static void siftUp(int[] heap, int i, long[] counts) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!stronger(heap[parent], heap[i], counts)) {
+                break;
+            }
+            swap(heap, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int n, long[] counts) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= n) {
+                return;
+            }
+            int weakest = left + 1 < n && stronger(heap[left], heap[left + 1], counts) ? left + 1 : left;
+            if (!stronger(heap[i], heap[weakest], counts)) {
+                return;
+            }
+            swap(heap, i, weakest);
+            i = weakest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int t = heap[a];
+        heap[a] = heap[b];
+        heap[b] = t;
+    }
+
+    private int[] column(Column column) {
+        return switch (column) {
+            case MEMBER -> memberIds;
+            case BOOK -> bookIds;
+            case LOANED -> loanedDays;
+            case DUE -> dueDays;
+            case RETURNED_ON -> returnedDays;
+        };
+    }
+
+    // group-by keys ignore missing dates
+    private int minKey(int[] values) {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            if (values[i] != NO_DATE && values[i] < min) {
+                min = values[i];
+            }
+        }
+        return min == Integer.MAX_VALUE ? 0 : min;
+    }
+
+    private int maxKey(int[] values) {
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            if (values[i] != NO_DATE && values[i] > max) {
+                max = values[i];
+            }
+        }
+        return max == Integer.MIN_VALUE ? minKey(values) - 1 : max;
+    }
+
+    // a few leaves per worker keeps the per-leaf group-by arrays few while balancing load
+    private int chunkSize() {
+        int perWorker = size / (4 * ForkJoinPool.getCommonPoolParallelism()) + 1;
+        return Math.max(CHUNK, (perWorker + 63) & ~63);
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static int epochDay(Date date) {
+        return date == null ? NO_DATE : (int) date.toLocalDate().toEpochDay();
+    }
+
+    private static int orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    // splits [from, to) in halves down to the chunk size
+    private abstract static class Scan<R> extends RecursiveTask<R> {
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        Scan(int from, int to, int chunk) {
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        abstract R leaf(int from, int to);
+
+        abstract R combine(R left, R right);
+
+        @Override
+        protected R compute() {
+            if (to - from <= chunk) {
+                return leaf(from, to);
+            }
+            // split on a chunk boundary, which is a multiple of 64
+            int mid = from + ((to - from) / chunk / 2) * chunk;
+            if (mid == from) {
+                mid = from + chunk;
+            }
+            Scan<R> right = fork(mid, to);
+            right.fork();
+            R left = fork(from, mid).compute();
+            return combine(left, right.join());
+        }
+
+        private Scan<R> fork(int lo, int hi) {
+            Scan<R> parent = this;
+            return new Scan<>(lo, hi, chunk) {
+                @Override
+                R leaf(int a, int b) {
+                    return parent.leaf(a, b);
+                }
+
+                @Override
+                R combine(R left, R right) {
+                    return parent.combine(left, right);
+                }
+            };
+        }
+    }
+
+    /**
+     * Appends rows to growing column arrays.
+     */
+    static final class Builder {
+        private int size;
+        private int[] ids;
+        private int[] memberIds;
+        private int[] bookIds;
+        private int[] loanedDays;
+        private int[] dueDays;
+        private int[] returnedDays;
+        private final BitSet returned = new BitSet();
+
+        Builder(int capacity) {
+            int c = Math.max(16, capacity);
+            ids = new int[c];
+            memberIds = new int[c];
+            bookIds = new int[c];
+            loanedDays = new int[c];
+            dueDays = new int[c];
+            returnedDays = new int[c];
+        }
+
+        void add(int id, int memberId, int bookId, int loanedDay, int dueDay, boolean isReturned, int returnedDay) {
+            if (size == ids.length) {
+                int c = size + (size >> 1);
+                ids = Arrays.copyOf(ids, c);
+                memberIds = Arrays.copyOf(memberIds, c);
+                bookIds = Arrays.copyOf(bookIds, c);
+                loanedDays = Arrays.copyOf(loanedDays, c);
+                dueDays = Arrays.copyOf(dueDays, c);
+                returnedDays = Arrays.copyOf(returnedDays, c);
+            }
+            ids[size] = id;
+            memberIds[size] = memberId;
+            bookIds[size] = bookId;
+            loanedDays[size] = loanedDay;
+            dueDays[size] = dueDay;
+            returnedDays[size] = returnedDay;
+            if (isReturned) {
+                returned.set(size);
+            }
+            size++;
+        }
+
+        LoanColumns build() {
+            return new LoanColumns(this);
+        }
+    }
+}
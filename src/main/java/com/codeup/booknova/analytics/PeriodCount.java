@@ -0,0 +1,13 @@
+package com.codeup.booknova.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * A count for one day or one month.
+ *
+ * @param period the day, or the first day of the month
+ * @param count the count
+ * @version 1.0
+ * @since 1.0
+ */
+public record PeriodCount(LocalDate period, long count) {}
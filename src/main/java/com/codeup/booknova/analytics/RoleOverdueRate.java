@@ -0,0 +1,22 @@
+package com.codeup.booknova.analytics;
+
+import com.codeup.booknova.domain.MemberRole;
+
+/**
+ * Returns and late returns of the members of one role in a period.
+ *
+ * @param role the member role
+ * @param returned the number of returns
+ * @param returnedLate how many of them were after the due date
+ * @version 1.0
+ * @since 1.0
+ */
+public record RoleOverdueRate(MemberRole role, long returned, long returnedLate) {
+
+    /**
+     * @return the share of late returns between 0 and 1, or 0 without returns
+     */
+    public double rate() {
+        return returned == 0 ? 0.0 : (double) returnedLate / returned;
+    }
+}
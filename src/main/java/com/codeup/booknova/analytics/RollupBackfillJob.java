@@ -0,0 +1,220 @@
+package com.codeup.booknova.analytics;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.jdbc.QueryTimeouts;
+
+/**
+ * Rebuilds the circulation rollup tables from {@code loan}.
+ * <p>
+ * The id range of {@code loan} is split into partitions that are scanned in
+ * parallel, each on its own connection. Every partition is aggregated by the
+ * database ({@code GROUP BY} day, book and role), the partial results are
+ * merged in memory, and the rollup tables are replaced in one transaction
+ * with the database's bulk load ({@link JdbcTemplateLight#bulkInsert}).
+ * </p>
+ * <p>
+ * {@code loan} has no return date, so a returned loan counts as returned on
+ * the day of its {@code updated_at}, which {@code markAsReturned} sets. Run
+ * the job when no loans are being made or returned, e.g. after creating the
+ * rollup tables or to repair them: events committed during the scan are
+ * overwritten by the rebuild.
+ * </p>
+ * <p>
+ * Its statements run with the report timeout but outside the report
+ * bulkhead, since the job sets its own parallelism.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class RollupBackfillJob {
+    private static final Logger logger = Logger.getLogger(RollupBackfillJob.class.getName());
+
+    /**
+     * Outcome of a run.
+     *
+     * @param partitions the number of partitions scanned
+     * @param dailyBookRows rows written to {@code loan_daily_book}
+     * @param dailyRoleRows rows written to {@code loan_daily_role}
+     * @param memberMonthRows rows written to {@code member_month_activity}
+     * @param elapsedMillis the run time
+     */
+    public record Result(int partitions, int dailyBookRows, int dailyRoleRows, int memberMonthRows,
+                         long elapsedMillis) {}
+
+    private record DayBook(LocalDate day, int bookId) {}
+
+    private record DayRole(LocalDate day, String role) {}
+
+    private record MonthMember(LocalDate month, int memberId) {}
+
+    // counts of one partition, later merged
+    private static final class Partial {
+        final Map<DayBook, long[]> byBook = new HashMap<>();
+        final Map<DayRole, long[]> byRole = new HashMap<>();
+        final Set<MonthMember> activity = new HashSet<>();
+
+        void merge(Partial other) {
+            other.byBook.forEach((k, v) -> add(byBook, k, v, 2));
+            other.byRole.forEach((k, v) -> add(byRole, k, v, 3));
+            activity.addAll(other.activity);
+        }
+
+        static <K> void add(Map<K, long[]> map, K key, long[] values, int width) {
+            long[] sums = map.computeIfAbsent(key, k -> new long[width]);
+            for (int i = 0; i < values.length; i++) {
+                sums[i] += values[i];
+            }
+        }
+    }
+
+    private record Row(LocalDate day, int bookId, String role, long count, long late) {}
+
+    private final JdbcTemplateLight jdbc;
+    private final Executor executor;
+    private final int partitions;
+
+    /**
+     * Creates a job.
+     *
+     * @param jdbc the JDBC template
+     * @param executor runs the partition scans, one task per partition
+     * @param partitions the number of id ranges to scan in parallel
+     */
+    public RollupBackfillJob(JdbcTemplateLight jdbc, Executor executor, int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partitions must be positive");
+        }
+        this.jdbc = jdbc;
+        this.executor = executor;
+        this.partitions = partitions;
+    }
+
+    /**
+     * Scans {@code loan} and replaces the rollup tables.
+     *
+     * @return what was written
+     * @throws DatabaseException if a scan or the write fails; the tables are then unchanged
+     */
+    public Result run() throws DatabaseException {
+        long start = System.nanoTime();
+        long[] bounds = jdbc.withTimeouts(QueryTimeouts.Kind.REPORT, () -> jdbc.query("SELECT MIN(id) AS lo, MAX(id) AS hi FROM loan", null,
+                rs -> new long[]{rs.getLong("lo"), rs.getLong("hi"), rs.wasNull() ? 1 : 0})).get(0);
+
+        Partial total = new Partial();
+        int ranges = 0;
+        if (bounds[2] == 0) {
+            long lo = bounds[0];
+            long span = bounds[1] - lo + 1;
+            ranges = (int) Math.min(partitions, span);
+            long step = (span + ranges - 1) / ranges;
+            List<CompletableFuture<Partial>> scans = new ArrayList<>(ranges);
+            for (int i = 0; i < ranges; i++) {
+                long from = lo + i * step;
+                long to = Math.min(bounds[1], from + step - 1);
+                scans.add(CompletableFuture.supplyAsync(() -> jdbc.withTimeouts(QueryTimeouts.Kind.REPORT, () -> scan(from, to)), executor));
+            }
+            try {
+                for (CompletableFuture<Partial> scan : scans) {
+                    total.merge(scan.join());
+                }
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof DatabaseException de) {
+                    throw de;
+                }
+                throw new DatabaseException("Rollup backfill failed", e.getCause());
+            }
+        }
+
+        jdbc.withTimeouts(QueryTimeouts.Kind.REPORT, () -> write(total));
+        Result result = new Result(ranges, total.byBook.size(), total.byRole.size(), total.activity.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        logger.log(Level.INFO, "Rollup backfill: {0}", result);
+        return result;
+    }
+
+    private Partial scan(long fromId, long toId) {
+        Partial partial = new Partial();
+        List<Row> loans = jdbc.query("SELECT l.date_loaned AS stat_day, l.book_id, COALESCE(m.role, 'REGULAR') AS role, "
+                + "COUNT(*) AS n, 0 AS late FROM loan l LEFT JOIN member m ON m.id = l.member_id "
+                + "WHERE l.id BETWEEN ? AND ? AND l.date_loaned IS NOT NULL AND l.book_id IS NOT NULL "
+                + "GROUP BY l.date_loaned, l.book_id, COALESCE(m.role, 'REGULAR')",
+                idRange(fromId, toId), RollupBackfillJob::row);
+        List<Row> returns = jdbc.query("SELECT CAST(l.updated_at AS DATE) AS stat_day, l.book_id, "
+                + "COALESCE(m.role, 'REGULAR') AS role, COUNT(*) AS n, "
+                + "SUM(CASE WHEN CAST(l.updated_at AS DATE) > l.date_due THEN 1 ELSE 0 END) AS late "
+                + "FROM loan l LEFT JOIN member m ON m.id = l.member_id "
+                + "WHERE l.id BETWEEN ? AND ? AND l.returned = TRUE AND l.updated_at IS NOT NULL AND l.book_id IS NOT NULL "
+                + "GROUP BY CAST(l.updated_at AS DATE), l.book_id, COALESCE(m.role, 'REGULAR')",
+                idRange(fromId, toId), RollupBackfillJob::row);
+        List<MonthMember> activity = jdbc.query("SELECT DISTINCT EXTRACT(YEAR FROM date_loaned) AS y, EXTRACT(MONTH FROM date_loaned) AS m, "
+                + "member_id FROM loan WHERE id BETWEEN ? AND ? AND date_loaned IS NOT NULL AND member_id IS NOT NULL",
+                idRange(fromId, toId),
+                rs -> new MonthMember(LocalDate.of(rs.getInt("y"), rs.getInt("m"), 1), rs.getInt("member_id")));
+
+        for (Row r : loans) {
+            Partial.add(partial.byBook, new DayBook(r.day(), r.bookId()), new long[]{r.count(), 0}, 2);
+            Partial.add(partial.byRole, new DayRole(r.day(), r.role()), new long[]{r.count(), 0, 0}, 3);
+        }
+        for (Row r : returns) {
+            Partial.add(partial.byBook, new DayBook(r.day(), r.bookId()), new long[]{0, r.count()}, 2);
+            Partial.add(partial.byRole, new DayRole(r.day(), r.role()), new long[]{0, r.count(), r.late()}, 3);
+        }
+        partial.activity.addAll(activity);
+        return partial;
+    }
+
+    private Void write(Partial total) {
+        List<Object[]> byBook = new ArrayList<>(total.byBook.size());
+        total.byBook.forEach((k, v) -> byBook.add(new Object[]{k.day(), k.bookId(), v[0], v[1]}));
+        List<Object[]> byRole = new ArrayList<>(total.byRole.size());
+        total.byRole.forEach((k, v) -> byRole.add(new Object[]{k.day(), k.role(), v[0], v[1], v[2]}));
+        List<Object[]> activity = new ArrayList<>(total.activity.size());
+        total.activity.forEach(m -> activity.add(new Object[]{m.month(), m.memberId()}));
+
+        return jdbc.txExecute(conn -> {
+            jdbc.update("DELETE FROM loan_daily_book", null);
+            jdbc.update("DELETE FROM loan_daily_role", null);
+            jdbc.update("DELETE FROM member_month_activity", null);
+            jdbc.bulkInsert("loan_daily_book", List.of("stat_date", "book_id", "loans", "returned"), byBook);
+            jdbc.bulkInsert("loan_daily_role",
+                    List.of("stat_date", "member_role", "loans", "returned", "returned_late"), byRole);
+            jdbc.bulkInsert("member_month_activity", List.of("stat_month", "member_id"), activity);
+            return null;
+        });
+    }
+
+    private static Row row(ResultSet rs) throws SQLException {
+        return new Row(rs.getDate("stat_day").toLocalDate(), rs.getInt("book_id"), rs.getString("role"),
+                rs.getLong("n"), rs.getLong("late"));
+    }
+
+    private static Consumer<PreparedStatement> idRange(long fromId, long toId) {
+        return ps -> {
+            try {
+                ps.setLong(1, fromId);
+                ps.setLong(2, toId);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error binding id range", e);
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.codeup.booknova.api;
+
+/**
+ * Error raised by an API handler to answer with a specific HTTP status.
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class ApiException extends RuntimeException {
+    private final int status;
+
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public static ApiException notFound(String message) {
+        return new ApiException(404, message);
+    }
+
+    public static ApiException badRequest(String message) {
+        return new ApiException(400, message);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,419 @@
+package com.codeup.booknova.api;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import com.codeup.booknova.api.json.DomainJsonWriters;
+import com.codeup.booknova.api.json.JsonMapper;
+import com.codeup.booknova.api.json.JsonOutput;
+import com.codeup.booknova.api.json.JsonParser;
+import com.codeup.booknova.api.json.JsonWriter;
+import com.codeup.booknova.api.json.ObjectJsonWriter;
+import com.codeup.booknova.infra.exec.ServiceExecutor;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * One API request and its response.
+ * <p>
+ * Wraps the JDK {@link HttpExchange} with the helpers route handlers need:
+ * typed path and query parameters, a parsed JSON body, JSON responses with
+ * optional gzip, streamed list responses and conditional GETs.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ApiExchange {
+    /** Single-object responses smaller than this are not worth compressing. */
+    static final int GZIP_MIN_BYTES = 1024;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final HttpExchange exchange;
+    private final JsonMapper mapper;
+    private final ServiceExecutor executor;
+    private final Map<String, String> pathParams;
+    private Map<String, String> queryParams;
+    private int status;
+
+    ApiExchange(HttpExchange exchange, JsonMapper mapper, ServiceExecutor executor, Map<String, String> pathParams) {
+        this.exchange = exchange;
+        this.mapper = mapper;
+        this.executor = executor;
+        this.pathParams = pathParams;
+    }
+
+    /**
+     * Runs a service call, waiting for a database slot first when the server
+     * has a {@link ServiceExecutor}. Keeps concurrent requests from opening
+     * more connections than the database allows; response writing happens
+     * outside the slot.
+     *
+     * @param <T> the result type
+     * @param call the service call
+     * @return the call's result
+     */
+    public <T> T call(Supplier<T> call) {
+        return executor == null ? call.get() : executor.call(call);
+    }
+
+    /**
+     * Runs a service call without a result; see {@link #call(Supplier)}.
+     *
+     * @param call the service call
+     */
+    public void run(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public String header(String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    public String pathParam(String name) {
+        return pathParams.get(name);
+    }
+
+    /**
+     * Returns a path parameter as an integer.
+     *
+     * @param name the parameter name
+     * @return the value
+     * @throws ApiException with status 400 if it is not an integer
+     */
+    public Integer intPathParam(String name) {
+        return parseInt(name, pathParams.get(name));
+    }
+
+    /**
+     * Returns a query parameter.
+     *
+     * @param name the parameter name
+     * @return the decoded value, or {@code null} if absent
+     */
+    public String queryParam(String name) {
+        if (queryParams == null) {
+            queryParams = parseQuery(exchange.getRequestURI().getRawQuery());
+        }
+        return queryParams.get(name);
+    }
+
+    public Integer intQueryParam(String name) {
+        String value = queryParam(name);
+        return value == null ? null : parseInt(name, value);
+    }
+
+    public boolean flag(String name) {
+        return Boolean.parseBoolean(queryParam(name));
+    }
+
+    /**
+     * Reads and parses the request body as a JSON object.
+     *
+     * @return the body, empty if the request has none
+     * @throws IOException if reading fails
+     * @throws ApiException with status 400 if the body is not a JSON object or too large
+     */
+    public RequestBody body() throws IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new ApiException(413, "Request body too large");
+        }
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        if (text.isBlank()) {
+            return new RequestBody(Map.of());
+        }
+        try {
+            return new RequestBody(JsonParser.parseObject(text));
+        } catch (IllegalArgumentException e) {
+            throw ApiException.badRequest(e.getMessage());
+        }
+    }
+
+    /**
+     * Handles a conditional GET. Sets the {@code ETag} header and, if the
+     * client's {@code If-None-Match} already matches, answers 304.
+     *
+     * @param etag the entity tag of the current representation, including quotes
+     * @return {@code true} if a 304 was sent and the handler should stop
+     * @throws IOException if sending fails
+     */
+    public boolean notModified(String etag) throws IOException {
+        exchange.getResponseHeaders().set("ETag", etag);
+        String ifNoneMatch = header("If-None-Match");
+        if (ifNoneMatch == null || !matches(ifNoneMatch, etag)) {
+            return false;
+        }
+        status = 304;
+        exchange.sendResponseHeaders(304, -1);
+        return true;
+    }
+
+    /**
+     * Sends a single value as JSON. Domain objects go through their
+     * hand-written {@link ObjectJsonWriter}; anything else through the
+     * {@link JsonMapper}. Bodies of at least {@value #GZIP_MIN_BYTES} bytes are
+     * gzipped when the client accepts it.
+     *
+     * @param status the HTTP status
+     * @param value the value to serialize
+     * @throws IOException if sending fails
+     */
+    public void send(int status, Object value) throws IOException {
+        try (JsonOutput json = JsonOutput.buffered()) {
+            ObjectJsonWriter<Object> writer = writerFor(value);
+            if (writer != null) {
+                writer.write(json, value);
+            } else {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+                try (Writer w = new OutputStreamWriter(buffer, StandardCharsets.UTF_8)) {
+                    mapper.write(new JsonWriter(w), value);
+                }
+                json.raw(buffer.toByteArray());
+            }
+            Headers headers = jsonHeaders();
+            this.status = status;
+            if (json.size() >= GZIP_MIN_BYTES && acceptsGzip()) {
+                ByteArrayOutputStream gz = new ByteArrayOutputStream(json.size() / 4);
+                try (GZIPOutputStream out = new GZIPOutputStream(gz)) {
+                    json.writeTo(out);
+                }
+                headers.set("Content-Encoding", "gzip");
+                exchange.sendResponseHeaders(status, gz.size());
+                try (OutputStream out = exchange.getResponseBody()) {
+                    gz.writeTo(out);
+                }
+            } else {
+                exchange.sendResponseHeaders(status, json.size());
+                try (OutputStream out = exchange.getResponseBody()) {
+                    json.writeTo(out);
+                }
+            }
+        }
+    }
+
+    public void send(Object value) throws IOException {
+        send(200, value);
+    }
+
+    /**
+     * Streams a collection as a JSON array with chunked transfer encoding.
+     * Elements are serialized one at a time into a small buffer, so the
+     * response is never held in memory as a whole. Collections of a single
+     * domain class use its hand-written writer. Gzipped when the client
+     * accepts it.
+     *
+     * @param items the elements to send
+     * @throws IOException if sending fails
+     */
+    public void sendList(Collection<?> items) throws IOException {
+        Headers headers = jsonHeaders();
+        boolean gzip = acceptsGzip();
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+        }
+        status = 200;
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        if (gzip) {
+            out = new GZIPOutputStream(out, JsonOutput.BUFFER_SIZE);
+        }
+        ObjectJsonWriter<Object> writer = uniformWriter(items);
+        if (writer != null) {
+            try (JsonOutput json = JsonOutput.to(out)) {
+                writer.writeArray(json, items);
+            }
+            return;
+        }
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), JsonOutput.BUFFER_SIZE)) {
+            JsonWriter json = new JsonWriter(w);
+            json.beginArray();
+            for (Object item : items) {
+                mapper.write(json, item);
+            }
+            json.endArray();
+        }
+    }
+
+    public void sendNoContent() throws IOException {
+        status = 204;
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    /**
+     * Sends an error body of the form {@code {"error": message}}.
+     *
+     * @param status the HTTP status
+     * @param message the error message
+     * @throws IOException if sending fails
+     */
+    public void sendError(int status, String message) throws IOException {
+        send(status, Map.of("error", message == null ? "" : message));
+    }
+
+    /**
+     * Returns the status sent so far.
+     *
+     * @return the response status, or 0 if nothing has been sent
+     */
+    int status() {
+        return status;
+    }
+
+    boolean responseStarted() {
+        return status != 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectJsonWriter<Object> writerFor(Object value) {
+        return value == null ? null : (ObjectJsonWriter<Object>) DomainJsonWriters.forClass(value.getClass());
+    }
+
+    private static ObjectJsonWriter<Object> uniformWriter(Collection<?> items) {
+        Class<?> type = null;
+        for (Object item : items) {
+            if (item == null || (type != null && item.getClass() != type)) {
+                return null;
+            }
+            type = item.getClass();
+        }
+        return type == null ? null : writerFor(items.iterator().next());
+    }
+
+    private Headers jsonHeaders() {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", JSON);
+        headers.set("Vary", "Accept-Encoding");
+        return headers;
+    }
+
+    private boolean acceptsGzip() {
+        String accept = header("Accept-Encoding");
+        if (accept == null) {
+            return false;
+        }
+        for (String token : accept.split(",")) {
+            String[] parts = token.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        String bare = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || stripWeak(c).equals(bare)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static Integer parseInt(String name, String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw ApiException.badRequest("Parameter '" + name + "' must be an integer");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> out = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return out;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            out.putIfAbsent(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    /**
+     * A parsed JSON request body with typed accessors.
+     */
+    public static final class RequestBody {
+        private final Map<String, Object> values;
+
+        RequestBody(Map<String, Object> values) {
+            this.values = values;
+        }
+
+        /**
+         * Returns a required string member.
+         *
+         * @param name the member name
+         * @return the value
+         * @throws ApiException with status 400 if it is missing or not a string
+         */
+        public String string(String name) {
+            String value = optionalString(name);
+            if (value == null) {
+                throw ApiException.badRequest("Field '" + name + "' is required");
+            }
+            return value;
+        }
+
+        public String optionalString(String name) {
+            Object value = values.get(name);
+            if (value == null || value instanceof String) {
+                return (String) value;
+            }
+            throw ApiException.badRequest("Field '" + name + "' must be a string");
+        }
+
+        /**
+         * Returns a required integer member.
+         *
+         * @param name the member name
+         * @return the value
+         * @throws ApiException with status 400 if it is missing or not an integer
+         */
+        public Integer integer(String name) {
+            Integer value = optionalInteger(name);
+            if (value == null) {
+                throw ApiException.badRequest("Field '" + name + "' is required");
+            }
+            return value;
+        }
+
+        public Integer optionalInteger(String name) {
+            Object value = values.get(name);
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof Long l && l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE) {
+                return l.intValue();
+            }
+            throw ApiException.badRequest("Field '" + name + "' must be an integer");
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.codeup.booknova.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Request latency metrics per route.
+ * <p>
+ * Each route keeps a request count, error counts, total and maximum latency and
+ * a histogram with power-of-two microsecond buckets, so percentiles are exact
+ * to within a factor of two at constant memory and without locking. Routes are
+ * keyed by method and path pattern (e.g. {@code GET /api/books/{id}}), which
+ * keeps the number of series bounded.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class ApiMetrics {
+    // bucket i holds latencies in [2^(i-1), 2^i) microseconds; the last one is open-ended
+    private static final int BUCKETS = 32;
+
+    /**
+     * Latency statistics of one route.
+     */
+    public static final class RouteStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        void record(long micros, int status) {
+            count.increment();
+            totalMicros.add(micros);
+            maxMicros.accumulate(micros);
+            histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+            if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            }
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long clientErrors() {
+            return clientErrors.sum();
+        }
+
+        public long serverErrors() {
+            return serverErrors.sum();
+        }
+
+        public long meanMicros() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalMicros.sum() / n;
+        }
+
+        public long maxMicros() {
+            return maxMicros.get();
+        }
+
+        /**
+         * Returns the upper bound of the bucket containing the given percentile.
+         *
+         * @param percentile a value between 0 and 100
+         * @return the latency in microseconds, capped at the observed maximum
+         */
+        public long percentileMicros(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100.0 * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(i == 0 ? 0 : (1L << i) - 1, maxMicros());
+                }
+            }
+            return maxMicros();
+        }
+
+        /**
+         * Returns the statistics as an ordered map for JSON output.
+         *
+         * @return the statistic names and values
+         */
+        public Map<String, Long> toMap() {
+            Map<String, Long> out = new LinkedHashMap<>();
+            out.put("count", count());
+            out.put("clientErrors", clientErrors());
+            out.put("serverErrors", serverErrors());
+            out.put("meanMicros", meanMicros());
+            out.put("p50Micros", percentileMicros(50));
+            out.put("p95Micros", percentileMicros(95));
+            out.put("p99Micros", percentileMicros(99));
+            out.put("maxMicros", maxMicros());
+            return out;
+        }
+    }
+
+    private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<Map<String, Long>>> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * Records a finished request.
+     *
+     * @param route the route key
+     * @param elapsedNanos the time from receiving the request to finishing the response
+     * @param status the response status
+     */
+    public void record(String route, long elapsedNanos, int status) {
+        routes.computeIfAbsent(route, k -> new RouteStats())
+                .record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), status);
+    }
+
+    /**
+     * Adds counters kept elsewhere to the snapshot, read each time it is taken.
+     *
+     * @param name the key in the snapshot, e.g. {@code singleFlight.catalog}
+     * @param counters reads the counters
+     */
+    public void register(String name, Supplier<Map<String, Long>> counters) {
+        gauges.put(name, counters);
+    }
+
+    /**
+     * Returns the statistics of a route.
+     *
+     * @param route the route key
+     * @return the statistics, or {@code null} if the route has not been called
+     */
+    public RouteStats get(String route) {
+        return routes.get(route);
+    }
+
+    /**
+     * Returns the statistics of every route that has been called and the
+     * registered counters, sorted by key.
+     *
+     * @return route keys and counter names mapped to their values
+     */
+    public Map<String, Map<String, Long>> snapshot() {
+        Map<String, Map<String, Long>> out = new TreeMap<>();
+        routes.forEach((route, stats) -> out.put(route, stats.toMap()));
+        gauges.forEach((name, counters) -> out.put(name, counters.get()));
+        return out;
+    }
+}
@@ -0,0 +1,170 @@
+package com.codeup.booknova.api;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.api.json.JsonMapper;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.infra.exec.ServiceExecutor;
+import com.codeup.booknova.infra.logging.LoggingConfigurer;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.repository.ExistenceFilter;
+import com.codeup.booknova.service.IBookService;
+import com.codeup.booknova.service.ILoanService;
+import com.codeup.booknova.service.IMemberService;
+import com.codeup.booknova.service.IMembershipRequestService;
+import com.codeup.booknova.service.IUserService;
+import com.codeup.booknova.ui.service.ServiceManager;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Headless JSON API over the service layer.
+ * <p>
+ * Runs on the JDK's built-in {@link HttpServer}, without a servlet container,
+ * so several kiosks or a load balancer can share one backend. Every request is
+ * handled on its own virtual thread (platform threads before Java 21); service
+ * calls wait for one of the {@link ServiceExecutor}'s database slots, so a
+ * burst of requests cannot open more connections than the database allows.
+ * </p>
+ * <p>Endpoints:</p>
+ * <ul>
+ * <li>{@code /api/books} - catalogue, with ETag/If-None-Match on reads</li>
+ * <li>{@code /api/loans}, {@code /api/members}, {@code /api/users},
+ *     {@code /api/membership-requests}</li>
+ * <li>{@code GET /api/metrics} - request count and latency percentiles per route,
+ *     the collapsed catalogue queries, the existence filters' false-positive rates,
+ *     and the database circuit breaker and report bulkhead</li>
+ * </ul>
+ * <p>
+ * List endpoints stream their JSON arrays with chunked encoding, and responses
+ * are gzipped when the client sends {@code Accept-Encoding: gzip}.
+ * </p>
+ * <p>Configuration ({@link #fromConfig(AppConfig, ServiceManager)}):</p>
+ * <ul>
+ * <li>{@code api.host} - bind address (default 127.0.0.1)</li>
+ * <li>{@code api.port} - port (default 8080, 0 picks a free port)</li>
+ * <li>{@code api.key} - if set, every request must send it as {@code X-Api-Key}</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class ApiServer implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ApiServer.class.getName());
+
+    private final HttpServer server;
+    private final ExecutorService requestThreads;
+    private final ApiMetrics metrics = new ApiMetrics();
+
+    /**
+     * Creates a server; call {@link #start()} to accept requests.
+     *
+     * @param address the address to bind
+     * @param apiKey required {@code X-Api-Key} value, or {@code null} for none
+     * @param executor limits concurrent service calls, or {@code null} for no limit
+     * @param books the book service
+     * @param loans the loan service
+     * @param members the member service
+     * @param users the user service
+     * @param requests the membership request service
+     * @throws IOException if the address cannot be bound
+     */
+    public ApiServer(InetSocketAddress address, String apiKey, ServiceExecutor executor,
+                     IBookService books, ILoanService loans, IMemberService members,
+                     IUserService users, IMembershipRequestService requests) throws IOException {
+        Router router = new Router(new JsonMapper(), metrics, executor, apiKey);
+        BookRoutes.register(router, books);
+        LoanRoutes.register(router, loans);
+        MemberRoutes.register(router, members);
+        UserRoutes.register(router, users);
+        MembershipRequestRoutes.register(router, requests);
+        router.get("/api/metrics", ex -> ex.send(metrics.snapshot()));
+
+        this.server = HttpServer.create(address, 0);
+        this.requestThreads = ServiceExecutor.newVirtualThreadExecutor();
+        server.createContext("/", router);
+        server.setExecutor(requestThreads);
+    }
+
+    /**
+     * Creates a server for the services of the given manager.
+     *
+     * @param cfg the application configuration
+     * @param services the service manager
+     * @return a new, not yet started server
+     * @throws IOException if the address cannot be bound
+     */
+    public static ApiServer fromConfig(AppConfig cfg, ServiceManager services) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(cfg.get("api.host", "127.0.0.1"), cfg.getInt("api.port", 8080));
+        ApiServer server = new ApiServer(address, cfg.get("api.key", null), services.getServiceExecutor(),
+                services.getBookService(), services.getLoanService(), services.getMemberService(),
+                services.getUserService(), services.getMembershipRequestService());
+        server.metrics.register("singleFlight.catalog", services.getCatalogQueries()::toMap);
+        JdbcTemplateLight jdbc = services.getJdbcTemplate();
+        if (jdbc.getCircuitBreaker() != null) {
+            server.metrics.register("db.circuitBreaker", jdbc.getCircuitBreaker()::toMap);
+        }
+        if (jdbc.getReportBulkhead() != null) {
+            server.metrics.register("db.reports", jdbc.getReportBulkhead()::toMap);
+        }
+        for (ExistenceFilter filter : services.getExistenceFilters()) {
+            server.metrics.register("existenceFilter." + filter.getName(), filter::toMap);
+        }
+        server.metrics.register("events", services.getEventBus()::toMap);
+        if (services.getOutboxRelay() != null) {
+            server.metrics.register("outbox", services.getOutboxRelay()::toMap);
+        }
+        return server;
+    }
+
+    public void start() {
+        server.start();
+        logger.log(Level.INFO, "API server listening on {0}", server.getAddress());
+    }
+
+    /**
+     * Returns the bound port, useful when configured with port 0.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public ApiMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Stops accepting requests, gives running ones a second to finish, and
+     * shuts down the request threads.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        requestThreads.shutdownNow();
+    }
+
+    /**
+     * Runs the API without the desktop UI until the process is stopped.
+     *
+     * @param args ignored
+     * @throws Exception if the server cannot start
+     */
+    public static void main(String[] args) throws Exception {
+        AppConfig cfg = new AppConfig();
+        LoggingConfigurer.install(cfg);
+        ApiServer api = fromConfig(cfg, ServiceManager.getInstance());
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.close();
+            stopped.countDown();
+        }, "api-shutdown"));
+        api.start();
+        stopped.await();
+    }
+}
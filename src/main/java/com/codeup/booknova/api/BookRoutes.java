@@ -0,0 +1,108 @@
+package com.codeup.booknova.api;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.service.IBookService;
+
+/**
+ * Catalogue endpoints backed by {@link IBookService}.
+ * <ul>
+ * <li>{@code GET /api/books[?title=|author=|available=true]}</li>
+ * <li>{@code GET /api/books/{id}}, {@code GET /api/books/isbn/{isbn}}</li>
+ * </ul>
+ * <p>
+ * The catalogue is read-only here: adding, editing and removing books and
+ * adding copies stay with the admin dashboard, since the API cannot tell an
+ * administrator from any other client.
+ * </p>
+ * <p>
+ * Catalogue reads carry a weak ETag computed from the books' fields, so
+ * clients polling an unchanged catalogue get a 304 without a body.
+ * </p>
+ */
+final class BookRoutes {
+    private final IBookService books;
+
+    private BookRoutes(IBookService books) {
+        this.books = books;
+    }
+
+    static void register(Router router, IBookService books) {
+        BookRoutes r = new BookRoutes(books);
+        router.get("/api/books", r::list)
+                .get("/api/books/isbn/{isbn}", r::getByIsbn)
+                .get("/api/books/{id}", r::get);
+    }
+
+    private void list(ApiExchange ex) throws IOException {
+        String title = ex.queryParam("title");
+        String author = ex.queryParam("author");
+        List<Book> result;
+        if (title != null) {
+            result = ex.call(() -> books.searchBooksByTitle(title));
+        } else if (author != null) {
+            result = ex.call(() -> books.searchBooksByAuthor(author));
+        } else if (ex.flag("available")) {
+            result = ex.call(books::getAvailableBooks);
+        } else {
+            result = ex.call(books::getAllBooks);
+        }
+        if (!ex.notModified(etag(result))) {
+            ex.sendList(result);
+        }
+    }
+
+    private void get(ApiExchange ex) throws IOException {
+        Integer id = ex.intPathParam("id");
+        Book book = ex.call(() -> books.findBookById(id))
+                .orElseThrow(() -> ApiException.notFound("Book not found with ID: " + id));
+        if (!ex.notModified(etag(List.of(book)))) {
+            ex.send(book);
+        }
+    }
+
+    private void getByIsbn(ApiExchange ex) throws IOException {
+        String isbn = ex.pathParam("isbn");
+        Book book = ex.call(() -> books.findBookByIsbn(isbn))
+                .orElseThrow(() -> ApiException.notFound("Book not found with ISBN: " + isbn));
+        if (!ex.notModified(etag(List.of(book)))) {
+            ex.send(book);
+        }
+    }
+
+    /**
+     * Computes a weak entity tag from every field of the given books (64-bit
+     * FNV-1a). Cheaper than hashing the serialized body and independent of
+     * the content encoding.
+     */
+    static String etag(Collection<Book> result) {
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, result.size());
+        for (Book b : result) {
+            h = mix(h, String.valueOf(b.getId()));
+            h = mix(h, b.getIsbn());
+            h = mix(h, b.getTitle());
+            h = mix(h, b.getAuthor());
+            h = mix(h, String.valueOf(b.getStock()));
+            h = mix(h, String.valueOf(b.getUpdatedAt()));
+        }
+        return "W/\"" + Long.toHexString(h) + "\"";
+    }
+
+    private static long mix(long h, String s) {
+        if (s != null) {
+            for (int i = 0; i < s.length(); i++) {
+                h = (h ^ s.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        // field separator, so ("ab","c") and ("a","bc") differ
+        return (h ^ 0x1f) * 0x100000001b3L;
+    }
+
+    private static long mix(long h, int v) {
+        return (h ^ v) * 0x100000001b3L;
+    }
+}
@@ -0,0 +1,85 @@
+package com.codeup.booknova.api;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.codeup.booknova.api.ApiExchange.RequestBody;
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.service.ILoanService;
+
+/**
+ * Loan endpoints backed by {@link ILoanService}.
+ * <ul>
+ * <li>{@code GET /api/loans[?memberId=[&active=true]|bookId=|overdue=true|dueToday=true|active=true]}</li>
+ * <li>{@code GET /api/loans/{id}}</li>
+ * <li>{@code POST /api/loans} - check out ({@code memberId}, {@code bookId}, optional {@code days})</li>
+ * <li>{@code POST /api/loans/{id}/return}, {@code POST /api/loans/{id}/extend}</li>
+ * </ul>
+ */
+final class LoanRoutes {
+    private final ILoanService loans;
+
+    private LoanRoutes(ILoanService loans) {
+        this.loans = loans;
+    }
+
+    static void register(Router router, ILoanService loans) {
+        LoanRoutes r = new LoanRoutes(loans);
+        router.get("/api/loans", r::list)
+                .get("/api/loans/{id}", r::get)
+                .post("/api/loans", r::create)
+                .post("/api/loans/{id}/return", r::returnBook)
+                .post("/api/loans/{id}/extend", r::extend);
+    }
+
+    private void list(ApiExchange ex) throws IOException {
+        Integer memberId = ex.intQueryParam("memberId");
+        Integer bookId = ex.intQueryParam("bookId");
+        boolean active = ex.flag("active");
+        List<Loan> result;
+        if (memberId != null) {
+            result = ex.call(() -> active ? loans.getActiveLoansByMember(memberId) : loans.getLoansByMember(memberId));
+        } else if (bookId != null) {
+            result = ex.call(() -> loans.getLoansByBook(bookId));
+        } else if (ex.flag("overdue")) {
+            result = ex.call(loans::getOverdueLoans);
+        } else if (ex.flag("dueToday")) {
+            result = ex.call(loans::getLoansDueToday);
+        } else if (active) {
+            result = ex.call(loans::getAllActiveLoans);
+        } else {
+            result = ex.call(loans::getAllLoans);
+        }
+        ex.sendList(result);
+    }
+
+    private void get(ApiExchange ex) throws IOException {
+        Integer id = ex.intPathParam("id");
+        ex.send(ex.call(() -> loans.findLoanById(id))
+                .orElseThrow(() -> ApiException.notFound("Loan not found with ID: " + id)));
+    }
+
+    private void create(ApiExchange ex) throws IOException {
+        RequestBody body = ex.body();
+        Integer memberId = body.integer("memberId");
+        Integer bookId = body.integer("bookId");
+        Integer days = body.optionalInteger("days");
+        Loan loan = ex.call(() -> days == null
+                ? loans.createLoan(memberId, bookId)
+                : loans.createLoan(memberId, bookId, days));
+        ex.send(201, loan);
+    }
+
+    private void returnBook(ApiExchange ex) throws IOException {
+        Integer id = ex.intPathParam("id");
+        ex.run(() -> loans.returnBook(id));
+        ex.sendNoContent();
+    }
+
+    private void extend(ApiExchange ex) throws IOException {
+        Integer id = ex.intPathParam("id");
+        Integer days = ex.body().integer("days");
+        ex.run(() -> loans.extendLoan(id, days));
+        ex.sendNoContent();
+    }
+}
@@ -0,0 +1,72 @@
+package com.codeup.booknova.api;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.codeup.booknova.api.ApiExchange.RequestBody;
+import com.codeup.booknova.domain.Member;
+import com.codeup.booknova.service.IMemberService;
+
+/**
+ * Member endpoints backed by {@link IMemberService}.
+ * <ul>
+ * <li>{@code GET /api/members[?name=|active=true]}, {@code GET /api/members/{id}}</li>
+ * <li>{@code GET /api/members/{id}/can-borrow}</li>
+ * <li>{@code POST /api/members} - register a regular member ({@code name})</li>
+ * </ul>
+ * <p>
+ * Like account administration (see {@link UserRoutes}), changing a member's
+ * role or status and removing members stay with the admin dashboard. A
+ * registration naming a {@code role} or {@code accessLevel} is refused.
+ * </p>
+ */
+final class MemberRoutes {
+    private final IMemberService members;
+
+    private MemberRoutes(IMemberService members) {
+        this.members = members;
+    }
+
+    static void register(Router router, IMemberService members) {
+        MemberRoutes r = new MemberRoutes(members);
+        router.get("/api/members", r::list)
+                .get("/api/members/{id}", r::get)
+                .get("/api/members/{id}/can-borrow", r::canBorrow)
+                .post("/api/members", r::create);
+    }
+
+    private void list(ApiExchange ex) throws IOException {
+        String name = ex.queryParam("name");
+        List<Member> result;
+        if (name != null) {
+            result = ex.call(() -> members.searchMembersByName(name));
+        } else if (ex.flag("active")) {
+            result = ex.call(members::getAllActiveMembers);
+        } else {
+            result = ex.call(members::getAllMembers);
+        }
+        ex.sendList(result);
+    }
+
+    private void get(ApiExchange ex) throws IOException {
+        Integer id = ex.intPathParam("id");
+        ex.send(ex.call(() -> members.findMemberById(id))
+                .orElseThrow(() -> ApiException.notFound("Member not found with ID: " + id)));
+    }
+
+    private void canBorrow(ApiExchange ex) throws IOException {
+        Integer id = ex.intPathParam("id");
+        ex.send(Map.of("canBorrow", ex.call(() -> members.canMemberBorrow(id))));
+    }
+
+    private void create(ApiExchange ex) throws IOException {
+        RequestBody body = ex.body();
+        String name = body.string("name");
+        if (body.optionalString("role") != null || body.optionalString("accessLevel") != null) {
+            throw ApiException.badRequest("role and accessLevel cannot be set through the API");
+        }
+        Member member = ex.call(() -> members.registerMember(name));
+        ex.send(201, member);
+    }
+}
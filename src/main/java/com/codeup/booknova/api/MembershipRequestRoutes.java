@@ -0,0 +1,58 @@
+package com.codeup.booknova.api;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.codeup.booknova.api.ApiExchange.RequestBody;
+import com.codeup.booknova.domain.MembershipRequest;
+import com.codeup.booknova.service.IMembershipRequestService;
+
+/**
+ * Membership request endpoints backed by {@link IMembershipRequestService}.
+ * <ul>
+ * <li>{@code GET /api/membership-requests[?pending=true]}, {@code GET /api/membership-requests/{id}}</li>
+ * <li>{@code POST /api/membership-requests} ({@code userId}, {@code userName}, {@code userEmail}, {@code reason})</li>
+ * </ul>
+ * <p>
+ * Approving and rejecting requests stay with the admin dashboard, which
+ * knows the signed-in administrator; the API has no way to tell who is
+ * calling it.
+ * </p>
+ */
+final class MembershipRequestRoutes {
+    private final IMembershipRequestService requests;
+
+    private MembershipRequestRoutes(IMembershipRequestService requests) {
+        this.requests = requests;
+    }
+
+    static void register(Router router, IMembershipRequestService requests) {
+        MembershipRequestRoutes r = new MembershipRequestRoutes(requests);
+        router.get("/api/membership-requests", r::list)
+                .get("/api/membership-requests/{id}", r::get)
+                .post("/api/membership-requests", r::create);
+    }
+
+    private void list(ApiExchange ex) throws IOException {
+        List<MembershipRequest> result = ex.flag("pending")
+                ? ex.call(requests::getAllPendingRequests)
+                : ex.call(requests::getAllRequests);
+        ex.sendList(result);
+    }
+
+    private void get(ApiExchange ex) throws IOException {
+        Integer id = ex.intPathParam("id");
+        ex.send(ex.call(() -> requests.findRequestById(id))
+                .orElseThrow(() -> ApiException.notFound("Membership request not found with ID: " + id)));
+    }
+
+    private void create(ApiExchange ex) throws IOException {
+        RequestBody body = ex.body();
+        Integer userId = body.integer("userId");
+        String userName = body.string("userName");
+        String userEmail = body.string("userEmail");
+        String reason = body.optionalString("reason");
+        MembershipRequest request = ex.call(() -> requests.createRequest(userId, userName, userEmail, reason));
+        ex.send(201, request);
+    }
+}
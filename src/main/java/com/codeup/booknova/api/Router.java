@@ -0,0 +1,189 @@
+package com.codeup.booknova.api;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.api.json.JsonMapper;
+import com.codeup.booknova.connection.ReadSession;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.exec.ServiceExecutor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Dispatches requests to route handlers by method and path pattern.
+ * <p>
+ * Patterns are literal path segments with {@code {name}} placeholders, e.g.
+ * {@code /api/books/{id}}. Besides dispatching, the router:
+ * </p>
+ * <ul>
+ * <li>checks the {@code X-Api-Key} header when an API key is configured</li>
+ * <li>binds the {@code X-Session-Id} header to {@link ReadSession} so each client
+ *     reads its own writes when read replicas are used</li>
+ * <li>maps exceptions to status codes: {@link ApiException} to its status,
+ *     {@link IllegalArgumentException} to 400, business-rule
+ *     {@link DatabaseException}s to 409, slot timeouts to 503, anything else to 500</li>
+ * <li>records the latency of every request in {@link ApiMetrics}</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class Router implements HttpHandler {
+    private static final Logger logger = Logger.getLogger(Router.class.getName());
+
+    /**
+     * Handles a matched request.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(ApiExchange exchange) throws IOException;
+    }
+
+    private record Route(String method, String pattern, String[] segments, Handler handler) {}
+
+    private final List<Route> routes = new ArrayList<>();
+    private final JsonMapper mapper;
+    private final ApiMetrics metrics;
+    private final ServiceExecutor executor;
+    private final byte[] apiKey;
+
+    /**
+     * Creates a router.
+     *
+     * @param mapper serializes response bodies
+     * @param metrics receives request latencies
+     * @param executor limits concurrent service calls, or {@code null} for no limit
+     * @param apiKey required value of {@code X-Api-Key}, or {@code null} to allow all requests
+     */
+    public Router(JsonMapper mapper, ApiMetrics metrics, ServiceExecutor executor, String apiKey) {
+        this.mapper = mapper;
+        this.metrics = metrics;
+        this.executor = executor;
+        this.apiKey = apiKey == null || apiKey.isBlank() ? null : apiKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public Router get(String pattern, Handler handler) {
+        return add("GET", pattern, handler);
+    }
+
+    public Router post(String pattern, Handler handler) {
+        return add("POST", pattern, handler);
+    }
+
+    public Router put(String pattern, Handler handler) {
+        return add("PUT", pattern, handler);
+    }
+
+    public Router delete(String pattern, Handler handler) {
+        return add("DELETE", pattern, handler);
+    }
+
+    private Router add(String method, String pattern, Handler handler) {
+        routes.add(new Route(method, pattern, split(pattern), handler));
+        return this;
+    }
+
+    @Override
+    public void handle(HttpExchange http) throws IOException {
+        long start = System.nanoTime();
+        String method = http.getRequestMethod();
+        String[] path = split(http.getRequestURI().getRawPath());
+        Map<String, String> params = new HashMap<>();
+        Route route = null;
+        boolean pathMatched = false;
+        for (Route candidate : routes) {
+            params.clear();
+            if (match(candidate.segments(), path, params)) {
+                pathMatched = true;
+                if (candidate.method().equals(method)) {
+                    route = candidate;
+                    break;
+                }
+            }
+        }
+        String key = route != null ? method + " " + route.pattern() : method + " (unmatched)";
+        ApiExchange exchange = new ApiExchange(http, mapper, executor, route != null ? Map.copyOf(params) : Map.of());
+        ReadSession.set(http.getRequestHeaders().getFirst("X-Session-Id"));
+        try {
+            if (!authorized(http)) {
+                exchange.sendError(401, "Missing or invalid API key");
+            } else if (route == null) {
+                exchange.sendError(pathMatched ? 405 : 404, pathMatched ? "Method not allowed" : "Not found");
+            } else {
+                dispatch(route, exchange);
+            }
+        } finally {
+            ReadSession.clear();
+            http.close();
+            metrics.record(key, System.nanoTime() - start, exchange.status());
+        }
+    }
+
+    private void dispatch(Route route, ApiExchange exchange) throws IOException {
+        try {
+            route.handler().handle(exchange);
+        } catch (ApiException e) {
+            fail(exchange, e.getStatus(), e.getMessage(), null);
+        } catch (IllegalArgumentException e) {
+            fail(exchange, 400, e.getMessage(), null);
+        } catch (DatabaseException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                fail(exchange, 503, e.getMessage(), null);
+            } else if (e.getCause() == null) {
+                fail(exchange, 409, e.getMessage(), null);
+            } else {
+                fail(exchange, 500, "Internal server error", e);
+            }
+        } catch (RuntimeException | IOException e) {
+            fail(exchange, 500, "Internal server error", e);
+        }
+    }
+
+    private void fail(ApiExchange exchange, int status, String message, Exception cause) throws IOException {
+        if (cause != null) {
+            logger.log(Level.SEVERE, "Request failed", cause);
+        }
+        // A streamed response that fails midway can only be cut off
+        if (!exchange.responseStarted()) {
+            exchange.sendError(status, message);
+        }
+    }
+
+    private boolean authorized(HttpExchange http) {
+        if (apiKey == null) {
+            return true;
+        }
+        String given = http.getRequestHeaders().getFirst("X-Api-Key");
+        return given != null && MessageDigest.isEqual(apiKey, given.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean match(String[] pattern, String[] path, Map<String, String> params) {
+        if (pattern.length != path.length) {
+            return false;
+        }
+        for (int i = 0; i < pattern.length; i++) {
+            String p = pattern[i];
+            if (p.startsWith("{") && p.endsWith("}")) {
+                params.put(p.substring(1, p.length() - 1), URLDecoder.decode(path[i], StandardCharsets.UTF_8));
+            } else if (!p.equals(path[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String[] split(String path) {
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+    }
+}
@@ -0,0 +1,86 @@
+package com.codeup.booknova.api;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.codeup.booknova.api.ApiExchange.RequestBody;
+import com.codeup.booknova.domain.User;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.service.IUserService;
+
+/**
+ * User account endpoints backed by {@link IUserService}. Password hashes are
+ * never part of a response.
+ * <ul>
+ * <li>{@code GET /api/users[?active=true]}, {@code GET /api/users/{id}}</li>
+ * <li>{@code POST /api/users} - register a regular user ({@code name}, {@code email},
+ *     {@code password}, {@code phone})</li>
+ * <li>{@code POST /api/users/authenticate} ({@code email}, {@code password})</li>
+ * </ul>
+ * <p>
+ * The API key identifies a client, not a user, and may not be set at all, so
+ * creating administrators and activating, deactivating or deleting accounts
+ * stay with the admin dashboard. A registration naming a {@code role} or
+ * {@code accessLevel} is refused rather than silently downgraded.
+ * </p>
+ */
+final class UserRoutes {
+    private final IUserService users;
+
+    private UserRoutes(IUserService users) {
+        this.users = users;
+    }
+
+    static void register(Router router, IUserService users) {
+        UserRoutes r = new UserRoutes(users);
+        router.get("/api/users", r::list)
+                .get("/api/users/{id}", r::get)
+                .post("/api/users", r::create)
+                .post("/api/users/authenticate", r::authenticate);
+    }
+
+    private void list(ApiExchange ex) throws IOException {
+        List<User> result = ex.flag("active")
+                ? ex.call(users::getAllActiveUsers)
+                : ex.call(users::getAllUsers);
+        ex.sendList(result);
+    }
+
+    private void get(ApiExchange ex) throws IOException {
+        Integer id = ex.intPathParam("id");
+        ex.send(ex.call(() -> users.findUserById(id))
+                .orElseThrow(() -> ApiException.notFound("User not found with ID: " + id)));
+    }
+
+    private void create(ApiExchange ex) throws IOException {
+        RequestBody body = ex.body();
+        String name = body.string("name");
+        String email = body.string("email");
+        String password = body.string("password");
+        String phone = body.optionalString("phone");
+        if (body.optionalString("role") != null || body.optionalString("accessLevel") != null) {
+            throw ApiException.badRequest("role and accessLevel cannot be set through the API");
+        }
+        User user = ex.call(() -> {
+            users.register(name, email, password, phone);
+            return users.findUserByEmail(email).orElseThrow();
+        });
+        ex.send(201, user);
+    }
+
+    private void authenticate(ApiExchange ex) throws IOException {
+        RequestBody body = ex.body();
+        String email = body.string("email");
+        String password = body.string("password");
+        try {
+            ex.send(ex.call(() -> users.authenticate(email, password))
+                    .orElseThrow(() -> new ApiException(401, "Invalid credentials")));
+        } catch (DatabaseException e) {
+            if (e.getCause() != null) {
+                throw e;
+            }
+            throw new ApiException(401, "Invalid credentials");
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.codeup.booknova.api.json;
+
+import java.io.IOException;
+
+import com.codeup.booknova.domain.Book;
+
+/**
+ * Writes {@link Book} as JSON without reflection.
+ * <p>
+ * Members appear in field order, matching {@link JsonMapper}.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class BookJsonWriter implements ObjectJsonWriter<Book> {
+    private static final byte[] ID = JsonOutput.name("id");
+    private static final byte[] ISBN = JsonOutput.name("isbn");
+    private static final byte[] TITLE = JsonOutput.name("title");
+    private static final byte[] AUTHOR = JsonOutput.name("author");
+    private static final byte[] STOCK = JsonOutput.name("stock");
+    private static final byte[] CREATED_AT = JsonOutput.name("createdAt");
+    private static final byte[] UPDATED_AT = JsonOutput.name("updatedAt");
+
+    @Override
+    public void write(JsonOutput out, Book value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.raw('{');
+        out.raw(ID).value(value.getId());
+        out.raw(',').raw(ISBN).value(value.getIsbn());
+        out.raw(',').raw(TITLE).value(value.getTitle());
+        out.raw(',').raw(AUTHOR).value(value.getAuthor());
+        out.raw(',').raw(STOCK).value(value.getStock());
+        out.raw(',').raw(CREATED_AT).value(value.getCreatedAt());
+        out.raw(',').raw(UPDATED_AT).value(value.getUpdatedAt());
+        out.raw('}');
+    }
+}
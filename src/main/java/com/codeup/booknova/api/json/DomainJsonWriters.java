@@ -0,0 +1,38 @@
+package com.codeup.booknova.api.json;
+
+import java.util.Map;
+
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.domain.Member;
+import com.codeup.booknova.domain.MembershipRequest;
+import com.codeup.booknova.domain.User;
+
+/**
+ * Looks up the hand-written writer of a domain class.
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class DomainJsonWriters {
+    private static final Map<Class<?>, ObjectJsonWriter<?>> WRITERS = Map.of(
+            Book.class, new BookJsonWriter(),
+            Loan.class, new LoanJsonWriter(),
+            Member.class, new MemberJsonWriter(),
+            User.class, new UserJsonWriter(),
+            MembershipRequest.class, new MembershipRequestJsonWriter());
+
+    private DomainJsonWriters() {}
+
+    /**
+     * Returns the writer for exactly the given class.
+     *
+     * @param <T> the domain type
+     * @param type the class
+     * @return the writer, or {@code null} if the class has none
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ObjectJsonWriter<T> forClass(Class<T> type) {
+        return (ObjectJsonWriter<T>) WRITERS.get(type);
+    }
+}
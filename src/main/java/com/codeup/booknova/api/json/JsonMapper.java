@@ -0,0 +1,122 @@
+package com.codeup.booknova.api.json;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes domain objects as JSON by reading their getters.
+ * <p>
+ * Each class is inspected once: for every declared field that has a public
+ * {@code getX}/{@code isX} getter, a property is recorded in field order.
+ * Properties named in {@link #EXCLUDED} are never written, so password hashes
+ * stay out of API responses. Enums are written by name and dates/instants in
+ * ISO-8601.
+ * </p>
+ * <p>
+ * The API uses the hand-written {@link ObjectJsonWriter}s for domain classes
+ * and keeps this mapper for everything else (error bodies, metrics).
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class JsonMapper {
+
+    /** Property names that are never serialized. */
+    public static final Set<String> EXCLUDED = Set.of("password");
+
+    private record Property(String name, Method getter) {}
+
+    private final Map<Class<?>, List<Property>> properties = new ConcurrentHashMap<>();
+
+    /**
+     * Writes a value: {@code null}, a string, number, boolean, enum, map,
+     * collection or bean.
+     *
+     * @param json the destination
+     * @param value the value to write
+     * @throws IOException if writing fails
+     */
+    public void write(JsonWriter json, Object value) throws IOException {
+        if (value == null) {
+            json.nullValue();
+        } else if (value instanceof String s) {
+            json.value(s);
+        } else if (value instanceof Number n) {
+            json.value(n);
+        } else if (value instanceof Boolean b) {
+            json.value(b);
+        } else if (value instanceof Enum<?> e) {
+            json.value(e.name());
+        } else if (value instanceof Map<?, ?> map) {
+            json.beginObject();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                json.name(String.valueOf(entry.getKey()));
+                write(json, entry.getValue());
+            }
+            json.endObject();
+        } else if (value instanceof Collection<?> items) {
+            json.beginArray();
+            for (Object item : items) {
+                write(json, item);
+            }
+            json.endArray();
+        } else if (value.getClass().getName().startsWith("java.")) {
+            json.value(value.toString());
+        } else {
+            writeBean(json, value);
+        }
+    }
+
+    private void writeBean(JsonWriter json, Object bean) throws IOException {
+        json.beginObject();
+        for (Property p : properties.computeIfAbsent(bean.getClass(), JsonMapper::inspect)) {
+            json.name(p.name());
+            try {
+                write(json, p.getter().invoke(bean));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot read property " + p.name() + " of " + bean.getClass().getSimpleName(), e);
+            }
+        }
+        json.endObject();
+    }
+
+    private static List<Property> inspect(Class<?> type) {
+        List<Property> out = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            String name = field.getName();
+            if (Modifier.isStatic(field.getModifiers()) || EXCLUDED.contains(name)) {
+                continue;
+            }
+            Method getter = getter(type, name);
+            if (getter != null) {
+                out.add(new Property(name, getter));
+            }
+        }
+        return List.copyOf(out);
+    }
+
+    private static Method getter(Class<?> type, String field) {
+        String suffix = Character.toUpperCase(field.charAt(0)) + field.substring(1);
+        for (String prefix : new String[]{"get", "is"}) {
+            try {
+                Method m = type.getMethod(prefix + suffix);
+                if (m.getReturnType() != void.class) {
+                    return m;
+                }
+            } catch (NoSuchMethodException ignored) {
+                // try the next prefix
+            }
+        }
+        return null;
+    }
+}
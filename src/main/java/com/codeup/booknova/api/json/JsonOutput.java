@@ -0,0 +1,387 @@
+package com.codeup.booknova.api.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * UTF-8 JSON output straight into a byte buffer.
+ * <p>
+ * The counterpart of {@link JsonWriter} for the hand-written domain writers:
+ * strings are encoded to UTF-8 character by character, numbers and dates are
+ * formatted digit by digit, and member names are written from pre-encoded
+ * constants, so serializing an object allocates nothing but what the caller
+ * passes in. Output is byte-for-byte identical to {@link JsonWriter} with
+ * {@link JsonMapper}.
+ * </p>
+ * <p>
+ * An output either streams to an {@link OutputStream}, flushing whenever the
+ * buffer fills, or, without a stream, grows its buffer so the caller can take
+ * the size before sending (e.g. for a {@code Content-Length}). Buffers come
+ * from a small shared pool and go back on {@link #close()}.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class JsonOutput implements AutoCloseable {
+    /** Size of pooled buffers; also a good chunk size for streams written through them. */
+    public static final int BUFFER_SIZE = 8192;
+    private static final ArrayBlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(64);
+    private static final byte[] EMPTY = {};
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private final OutputStream out;
+    private byte[] buf;
+    private int pos;
+
+    private JsonOutput(OutputStream out) {
+        this.out = out;
+        byte[] pooled = POOL.poll();
+        this.buf = pooled != null ? pooled : new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Creates an output that flushes to the given stream.
+     *
+     * @param out the destination; closed when this output is closed
+     * @return a new output
+     */
+    public static JsonOutput to(OutputStream out) {
+        return new JsonOutput(out);
+    }
+
+    /**
+     * Creates an output that keeps everything in its buffer until
+     * {@link #writeTo(OutputStream)}.
+     *
+     * @return a new output
+     */
+    public static JsonOutput buffered() {
+        return new JsonOutput(null);
+    }
+
+    /**
+     * Pre-encodes an object member name with its quotes and colon.
+     *
+     * @param name the member name; must not need escaping
+     * @return the bytes of {@code "name":}
+     */
+    public static byte[] name(String name) {
+        return ("\"" + name + "\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes raw bytes, e.g. a pre-encoded member name or punctuation.
+     *
+     * @param bytes the bytes to write
+     * @return this output
+     * @throws IOException if flushing fails
+     */
+    public JsonOutput raw(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+        return this;
+    }
+
+    public JsonOutput raw(char c) throws IOException {
+        ensure(1);
+        buf[pos++] = (byte) c;
+        return this;
+    }
+
+    public JsonOutput nullValue() throws IOException {
+        return raw(NULL);
+    }
+
+    public JsonOutput value(boolean b) throws IOException {
+        return raw(b ? TRUE : FALSE);
+    }
+
+    public JsonOutput value(Boolean b) throws IOException {
+        return b == null ? nullValue() : value(b.booleanValue());
+    }
+
+    public JsonOutput value(Integer i) throws IOException {
+        return i == null ? nullValue() : value(i.intValue());
+    }
+
+    public JsonOutput value(int i) throws IOException {
+        return value((long) i);
+    }
+
+    /**
+     * Writes a decimal integer without creating a string.
+     *
+     * @param v the value
+     * @return this output
+     * @throws IOException if flushing fails
+     */
+    public JsonOutput value(long v) throws IOException {
+        ensure(20);
+        if (v == Long.MIN_VALUE) {
+            return raw(Long.toString(v).getBytes(StandardCharsets.US_ASCII));
+        }
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        for (long t = v; t >= 10; t /= 10) {
+            digits++;
+        }
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            buf[i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        pos = end;
+        return this;
+    }
+
+    public JsonOutput value(Enum<?> e) throws IOException {
+        return e == null ? nullValue() : value(e.name());
+    }
+
+    /**
+     * Writes a string as a JSON string, encoding UTF-8 and escaping on the fly.
+     *
+     * @param s the string, or {@code null}
+     * @return this output
+     * @throws IOException if flushing fails
+     */
+    public JsonOutput value(String s) throws IOException {
+        if (s == null) {
+            return nullValue();
+        }
+        int len = s.length();
+        ensure(1);
+        buf[pos++] = '"';
+        for (int i = 0; i < len; i++) {
+            // worst case per char is a 6-byte \\uXXXX escape
+            if (buf.length - pos < 8) {
+                ensure(8);
+            }
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    buf[pos++] = (byte) c;
+                } else {
+                    escape(c);
+                }
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xc0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (c == 0x2028 || c == 0x2029) {
+                escape(c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf[pos++] = (byte) (0xf0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, same replacement as the JDK's UTF-8 encoder
+                buf[pos++] = '?';
+            } else {
+                buf[pos++] = (byte) (0xe0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buf[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        ensure(1);
+        buf[pos++] = '"';
+        return this;
+    }
+
+    /**
+     * Writes a date as {@code "yyyy-MM-dd"}.
+     *
+     * @param date the date, or {@code null}
+     * @return this output
+     * @throws IOException if flushing fails
+     */
+    public JsonOutput value(LocalDate date) throws IOException {
+        if (date == null) {
+            return nullValue();
+        }
+        if (date.getYear() < 0 || date.getYear() > 9999) {
+            return value(date.toString());
+        }
+        ensure(12);
+        buf[pos++] = '"';
+        date(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+        buf[pos++] = '"';
+        return this;
+    }
+
+    /**
+     * Writes an instant in the format of {@link Instant#toString()}, e.g.
+     * {@code "2024-01-01T10:15:30Z"} or {@code "2024-01-01T10:15:30.120Z"}.
+     *
+     * @param instant the instant, or {@code null}
+     * @return this output
+     * @throws IOException if flushing fails
+     */
+    public JsonOutput value(Instant instant) throws IOException {
+        if (instant == null) {
+            return nullValue();
+        }
+        long seconds = instant.getEpochSecond();
+        long days = Math.floorDiv(seconds, 86_400);
+        int secOfDay = (int) Math.floorMod(seconds, 86_400);
+        // civil-from-days (H. Hinnant), valid for the proleptic Gregorian calendar
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long doe = z - era * 146_097;
+        long yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999) {
+            return value(instant.toString());
+        }
+        ensure(32);
+        buf[pos++] = '"';
+        date((int) year, month, day);
+        buf[pos++] = 'T';
+        two(secOfDay / 3600);
+        buf[pos++] = ':';
+        two(secOfDay / 60 % 60);
+        buf[pos++] = ':';
+        two(secOfDay % 60);
+        int nanos = instant.getNano();
+        if (nanos > 0) {
+            buf[pos++] = '.';
+            if (nanos % 1_000_000 == 0) {
+                digits(nanos / 1_000_000, 3);
+            } else if (nanos % 1000 == 0) {
+                digits(nanos / 1000, 6);
+            } else {
+                digits(nanos, 9);
+            }
+        }
+        buf[pos++] = 'Z';
+        buf[pos++] = '"';
+        return this;
+    }
+
+    /**
+     * Returns the number of buffered bytes not yet written to a stream.
+     *
+     * @return the buffered byte count
+     */
+    public int size() {
+        return pos;
+    }
+
+    /**
+     * Writes the buffered bytes to the given stream and clears the buffer.
+     *
+     * @param target the destination
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream target) throws IOException {
+        target.write(buf, 0, pos);
+        pos = 0;
+    }
+
+    /**
+     * Returns a copy of the buffered bytes.
+     *
+     * @return the bytes written so far
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    public void flush() throws IOException {
+        if (out != null) {
+            writeTo(out);
+            out.flush();
+        }
+    }
+
+    /**
+     * Flushes to the stream, if any, closes it and returns the buffer to the pool.
+     *
+     * @throws IOException if flushing or closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (out != null) {
+                writeTo(out);
+                out.close();
+            }
+        } finally {
+            if (buf.length == BUFFER_SIZE) {
+                POOL.offer(buf);
+            }
+            buf = EMPTY;
+            pos = 0;
+        }
+    }
+
+    private void escape(char c) throws IOException {
+        buf[pos++] = '\\';
+        switch (c) {
+            case '"' -> buf[pos++] = '"';
+            case '\\' -> buf[pos++] = '\\';
+            case '\n' -> buf[pos++] = 'n';
+            case '\r' -> buf[pos++] = 'r';
+            case '\t' -> buf[pos++] = 't';
+            default -> {
+                buf[pos++] = 'u';
+                buf[pos++] = HEX[(c >> 12) & 0xf];
+                buf[pos++] = HEX[(c >> 8) & 0xf];
+                buf[pos++] = HEX[(c >> 4) & 0xf];
+                buf[pos++] = HEX[c & 0xf];
+            }
+        }
+    }
+
+    private void date(int year, int month, int day) {
+        digits(year, 4);
+        buf[pos++] = '-';
+        two(month);
+        buf[pos++] = '-';
+        two(day);
+    }
+
+    private void two(int v) {
+        buf[pos++] = (byte) ('0' + v / 10);
+        buf[pos++] = (byte) ('0' + v % 10);
+    }
+
+    private void digits(int v, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buf[i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        pos += width;
+    }
+
+    private void ensure(int n) throws IOException {
+        if (buf.length - pos >= n) {
+            return;
+        }
+        if (out != null) {
+            writeTo(out);
+            if (buf.length >= n) {
+                return;
+            }
+        }
+        buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+    }
+}
@@ -0,0 +1,188 @@
+package com.codeup.booknova.api.json;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streaming JSON writer.
+ * <p>
+ * Writes tokens straight to the underlying {@link Writer} without building an
+ * intermediate tree, so large arrays can be sent element by element. Commas
+ * between members and elements are inserted automatically.
+ * </p>
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * JsonWriter json = new JsonWriter(writer);
+ * json.beginObject().name("id").value(1).name("title").value("Dune").endObject();
+ * }</pre>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class JsonWriter {
+    private static final int MAX_DEPTH = 64;
+
+    private final Writer out;
+    // first[d] is true until the first member/element at depth d has been written
+    private final boolean[] first = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean afterName;
+
+    /**
+     * Creates a writer on top of the given character stream.
+     *
+     * @param out the destination; not closed by this writer
+     */
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Writes an object member name; must be followed by a value.
+     *
+     * @param name the member name
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter name(String name) throws IOException {
+        separator();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        separator();
+        string(value);
+        return this;
+    }
+
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        separator();
+        out.write(value.toString());
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        separator();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(Boolean value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        separator();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        separator();
+        out.write("null");
+        return this;
+    }
+
+    /**
+     * Writes a value that is already JSON, e.g. a stored document, as is.
+     *
+     * @param json a complete JSON value; not validated
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter rawValue(String json) throws IOException {
+        if (json == null) {
+            return nullValue();
+        }
+        separator();
+        out.write(json);
+        return this;
+    }
+
+    /**
+     * Flushes the underlying writer.
+     *
+     * @throws IOException if flushing fails
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private JsonWriter open(char c) throws IOException {
+        separator();
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON nesting too deep");
+        }
+        out.write(c);
+        first[depth++] = true;
+        return this;
+    }
+
+    private JsonWriter close(char c) throws IOException {
+        depth--;
+        out.write(c);
+        return this;
+    }
+
+    private void separator() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (first[depth - 1]) {
+                first[depth - 1] = false;
+            } else {
+                out.write(',');
+            }
+        }
+    }
+
+    private void string(String s) throws IOException {
+        out.write('"');
+        int start = 0;
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != 0x2028 && c != 0x2029) {
+                continue;
+            }
+            out.write(s, start, i - start);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> out.write(String.format("\\u%04x", (int) c));
+            }
+            start = i + 1;
+        }
+        out.write(s, start, len - start);
+        out.write('"');
+    }
+}
@@ -0,0 +1,45 @@
+package com.codeup.booknova.api.json;
+
+import java.io.IOException;
+
+import com.codeup.booknova.domain.Loan;
+
+/**
+ * Writes {@link Loan} as JSON without reflection.
+ * <p>
+ * Members appear in field order, matching {@link JsonMapper}.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class LoanJsonWriter implements ObjectJsonWriter<Loan> {
+    private static final byte[] ID = JsonOutput.name("id");
+    private static final byte[] MEMBER_ID = JsonOutput.name("memberId");
+    private static final byte[] BOOK_ID = JsonOutput.name("bookId");
+    private static final byte[] DATE_LOANED = JsonOutput.name("dateLoaned");
+    private static final byte[] DATE_DUE = JsonOutput.name("dateDue");
+    private static final byte[] RETURNED = JsonOutput.name("returned");
+    private static final byte[] CREATED_AT = JsonOutput.name("createdAt");
+    private static final byte[] UPDATED_AT = JsonOutput.name("updatedAt");
+    private static final byte[] RETURN_DATE = JsonOutput.name("returnDate");
+
+    @Override
+    public void write(JsonOutput out, Loan value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.raw('{');
+        out.raw(ID).value(value.getId());
+        out.raw(',').raw(MEMBER_ID).value(value.getMemberId());
+        out.raw(',').raw(BOOK_ID).value(value.getBookId());
+        out.raw(',').raw(DATE_LOANED).value(value.getDateLoaned());
+        out.raw(',').raw(DATE_DUE).value(value.getDateDue());
+        out.raw(',').raw(RETURNED).value(value.getReturned());
+        out.raw(',').raw(CREATED_AT).value(value.getCreatedAt());
+        out.raw(',').raw(UPDATED_AT).value(value.getUpdatedAt());
+        out.raw(',').raw(RETURN_DATE).value(value.getReturnDate());
+        out.raw('}');
+    }
+}
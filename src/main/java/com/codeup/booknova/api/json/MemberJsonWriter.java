@@ -0,0 +1,45 @@
+package com.codeup.booknova.api.json;
+
+import java.io.IOException;
+
+import com.codeup.booknova.domain.Member;
+
+/**
+ * Writes {@link Member} as JSON without reflection.
+ * <p>
+ * Members appear in field order, matching {@link JsonMapper}.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MemberJsonWriter implements ObjectJsonWriter<Member> {
+    private static final byte[] ID = JsonOutput.name("id");
+    private static final byte[] USER_ID = JsonOutput.name("userId");
+    private static final byte[] NAME = JsonOutput.name("name");
+    private static final byte[] ACTIVE = JsonOutput.name("active");
+    private static final byte[] DELETED = JsonOutput.name("deleted");
+    private static final byte[] ROLE = JsonOutput.name("role");
+    private static final byte[] ACCESS_LEVEL = JsonOutput.name("accessLevel");
+    private static final byte[] CREATED_AT = JsonOutput.name("createdAt");
+    private static final byte[] UPDATED_AT = JsonOutput.name("updatedAt");
+
+    @Override
+    public void write(JsonOutput out, Member value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.raw('{');
+        out.raw(ID).value(value.getId());
+        out.raw(',').raw(USER_ID).value(value.getUserId());
+        out.raw(',').raw(NAME).value(value.getName());
+        out.raw(',').raw(ACTIVE).value(value.getActive());
+        out.raw(',').raw(DELETED).value(value.getDeleted());
+        out.raw(',').raw(ROLE).value(value.getRole());
+        out.raw(',').raw(ACCESS_LEVEL).value(value.getAccessLevel());
+        out.raw(',').raw(CREATED_AT).value(value.getCreatedAt());
+        out.raw(',').raw(UPDATED_AT).value(value.getUpdatedAt());
+        out.raw('}');
+    }
+}
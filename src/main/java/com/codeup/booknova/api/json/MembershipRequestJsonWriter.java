@@ -0,0 +1,49 @@
+package com.codeup.booknova.api.json;
+
+import java.io.IOException;
+
+import com.codeup.booknova.domain.MembershipRequest;
+
+/**
+ * Writes {@link MembershipRequest} as JSON without reflection.
+ * <p>
+ * Members appear in field order, matching {@link JsonMapper}.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MembershipRequestJsonWriter implements ObjectJsonWriter<MembershipRequest> {
+    private static final byte[] ID = JsonOutput.name("id");
+    private static final byte[] USER_ID = JsonOutput.name("userId");
+    private static final byte[] USER_NAME = JsonOutput.name("userName");
+    private static final byte[] USER_EMAIL = JsonOutput.name("userEmail");
+    private static final byte[] STATUS = JsonOutput.name("status");
+    private static final byte[] REQUEST_REASON = JsonOutput.name("requestReason");
+    private static final byte[] APPROVED_BY_USER_ID = JsonOutput.name("approvedByUserId");
+    private static final byte[] REQUESTED_AT = JsonOutput.name("requestedAt");
+    private static final byte[] PROCESSED_AT = JsonOutput.name("processedAt");
+    private static final byte[] CREATED_AT = JsonOutput.name("createdAt");
+    private static final byte[] UPDATED_AT = JsonOutput.name("updatedAt");
+
+    @Override
+    public void write(JsonOutput out, MembershipRequest value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.raw('{');
+        out.raw(ID).value(value.getId());
+        out.raw(',').raw(USER_ID).value(value.getUserId());
+        out.raw(',').raw(USER_NAME).value(value.getUserName());
+        out.raw(',').raw(USER_EMAIL).value(value.getUserEmail());
+        out.raw(',').raw(STATUS).value(value.getStatus());
+        out.raw(',').raw(REQUEST_REASON).value(value.getRequestReason());
+        out.raw(',').raw(APPROVED_BY_USER_ID).value(value.getApprovedByUserId());
+        out.raw(',').raw(REQUESTED_AT).value(value.getRequestedAt());
+        out.raw(',').raw(PROCESSED_AT).value(value.getProcessedAt());
+        out.raw(',').raw(CREATED_AT).value(value.getCreatedAt());
+        out.raw(',').raw(UPDATED_AT).value(value.getUpdatedAt());
+        out.raw('}');
+    }
+}
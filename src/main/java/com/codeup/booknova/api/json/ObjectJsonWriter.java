@@ -0,0 +1,44 @@
+package com.codeup.booknova.api.json;
+
+import java.io.IOException;
+
+/**
+ * Hand-written JSON serialization of one domain class into a {@link JsonOutput}.
+ *
+ * @param <T> the serialized type
+ * @version 1.0
+ * @since 1.0
+ * @see DomainJsonWriters
+ */
+public interface ObjectJsonWriter<T> {
+
+    /**
+     * Writes one object.
+     *
+     * @param out the destination
+     * @param value the object, or {@code null}
+     * @throws IOException if flushing the output fails
+     */
+    void write(JsonOutput out, T value) throws IOException;
+
+    /**
+     * Writes the values as a JSON array, one element at a time, so a streaming
+     * output never holds more than a buffer's worth of the array.
+     *
+     * @param out the destination
+     * @param values the elements
+     * @throws IOException if flushing the output fails
+     */
+    default void writeArray(JsonOutput out, Iterable<? extends T> values) throws IOException {
+        out.raw('[');
+        boolean first = true;
+        for (T value : values) {
+            if (!first) {
+                out.raw(',');
+            }
+            first = false;
+            write(out, value);
+        }
+        out.raw(']');
+    }
+}
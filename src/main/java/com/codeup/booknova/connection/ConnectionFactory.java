@@ -7,37 +7,247 @@ package com.codeup.booknova.connection;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import com.codeup.booknova.exception.DatabaseException;
 import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.dialect.SqlDialect;
 
 
-public class ConnectionFactory {
+/**
+ * Opens JDBC connections from the {@code db.*} settings of {@link AppConfig}.
+ * <p>
+ * The JDBC URL is taken from {@code db.url} when it is set; otherwise it is
+ * built from {@code db.vendor}, {@code db.host}, {@code db.port} and
+ * {@code db.name}.
+ * </p>
+ * <p>
+ * Read replicas are listed in {@code db.replicas}, comma separated, each either
+ * a full JDBC URL or a {@code host:port} pair that uses the primary's vendor,
+ * database name and credentials. Plain reads ({@link #openForRead()}) and
+ * read-only transactions are spread over the healthy replicas round-robin;
+ * writes and read-write transactions always use the primary. Other settings:
+ * </p>
+ * <ul>
+ * <li>{@code db.replica.stickyMillis} - after a session writes, its reads stay
+ *     on the primary for this long (default 2000)</li>
+ * <li>{@code db.replica.healthCheckMillis} - how often replicas are probed
+ *     (default 5000)</li>
+ * <li>{@code db.connectTimeoutMillis} - how long opening a connection may take
+ *     (default 5000)</li>
+ * <li>{@code db.socketTimeoutMillis} - how long the driver waits for the server
+ *     to answer before dropping the connection, so a stalled server cannot
+ *     block a caller forever; keep it above the longest statement timeout
+ *     (default 150000, 0 for none)</li>
+ * </ul>
+ * <p>
+ * The two timeouts are passed to the MySQL and PostgreSQL drivers as
+ * connection properties, so they also apply to URLs given in {@code db.url}
+ * and {@code db.replicas}; settings in such a URL take precedence.
+ * </p>
+ * <p>
+ * The {@link SqlDialect} follows the primary's URL. With
+ * {@code db.mysql.loadLocalInfile=true} MySQL connections allow
+ * {@code LOAD DATA LOCAL INFILE} for bulk loads (default false; the server
+ * needs {@code local_infile=ON} too).
+ * </p>
+ * <p>
+ * With replicas configured the factory runs a health-check thread;
+ * {@link #close()} stops it. Connections already opened are not affected,
+ * and the factory can still open new ones.
+ * </p>
+ *
+ * @see ReplicaRouter
+ * @see ReadSession
+ */
+public class ConnectionFactory implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ConnectionFactory.class.getName());
+
     private final AppConfig cfg;
+    private final ReplicaRouter replicas;
+    private final boolean loadLocalInfile;
+    private final SqlDialect dialect;
     
  
-    public ConnectionFactory(AppConfig cfg) { this.cfg = cfg; }
+    public ConnectionFactory(AppConfig cfg) {
+        this.cfg = cfg;
+        this.loadLocalInfile = cfg.getBoolean("db.mysql.loadLocalInfile", false);
+        this.dialect = SqlDialect.forUrl(url(), loadLocalInfile);
+        this.replicas = new ReplicaRouter(replicaUrls(), cfg.getLong("db.replica.stickyMillis", 2000));
+        if (replicas.hasReplicas()) {
+            replicas.startHealthChecks(cfg.getLong("db.replica.healthCheckMillis", 5000), this::probe);
+        }
+    }
 
 
     public Connection open() throws DatabaseException {
+        try {
+            return connect(url());
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to connect to database", e);
+        }
+    }
+
+    /**
+     * Opens a connection for a single read outside a transaction.
+     * <p>
+     * Served by a healthy replica when replicas are configured and the current
+     * {@link ReadSession} has not written recently; by the primary otherwise.
+     * </p>
+     *
+     * @return a connection suitable for reads
+     * @throws DatabaseException if no connection can be opened
+     */
+    public Connection openForRead() throws DatabaseException {
+        for (ReplicaRouter.Endpoint endpoint : replicas.candidates()) {
+            try {
+                return connect(endpoint.url);
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Replica unavailable, trying next: {0}", e.getMessage());
+                replicas.markDown(endpoint);
+            }
+        }
+        return open();
+    }
+
+    /**
+     * Opens a connection for read-only work.
+     * <p>
+     * The connection comes from {@link #openForRead()} and is flagged with
+     * {@link Connection#setReadOnly(boolean)}.
+     * </p>
+     *
+     * @return a read-only connection
+     * @throws DatabaseException if the connection cannot be opened
+     */
+    public Connection openReadOnly() throws DatabaseException {
+        Connection c = openForRead();
+        try {
+            c.setReadOnly(true);
+            return c;
+        } catch (SQLException e) {
+            try { c.close(); } catch (SQLException ignored) { }
+            throw new DatabaseException("Failed to open read-only connection", e);
+        }
+    }
+
+    /**
+     * Records that the current {@link ReadSession} wrote to the primary, so its
+     * reads stay on the primary for the stickiness window.
+     */
+    public void recordWrite() {
+        replicas.recordWrite();
+    }
+
+    /**
+     * Tells whether reads of the current {@link ReadSession} go to the primary
+     * because it wrote within the stickiness window.
+     *
+     * @return {@code true} if the session is kept on the primary
+     */
+    public boolean isPinnedToPrimary() {
+        return replicas.hasReplicas() && replicas.isSticky();
+    }
+
+    /**
+     * Returns the SQL dialect of the primary.
+     *
+     * @return the dialect
+     */
+    public SqlDialect getDialect() {
+        return dialect;
+    }
+
+    /**
+     * Stops the replica health check, if one is running.
+     */
+    @Override
+    public void close() {
+        replicas.close();
+    }
+
+    boolean isCheckingReplicaHealth() {
+        return replicas.isCheckingHealth();
+    }
+
+    private Connection connect(String url) throws SQLException {
+        Properties props = new Properties();
+        if (cfg.get("db.user") != null) {
+            props.setProperty("user", cfg.get("db.user"));
+        }
+        if (cfg.get("db.password") != null) {
+            props.setProperty("password", cfg.get("db.password"));
+        }
+        long connectMillis = cfg.getLong("db.connectTimeoutMillis", 5000);
+        long socketMillis = cfg.getLong("db.socketTimeoutMillis", 150_000);
+        if (url.startsWith("jdbc:mysql:")) {
+            setUnlessInUrl(props, url, "connectTimeout", Long.toString(connectMillis));
+            setUnlessInUrl(props, url, "socketTimeout", Long.toString(socketMillis));
+            if (loadLocalInfile) {
+                setUnlessInUrl(props, url, "allowLoadLocalInfile", "true");
+            }
+        } else if (url.startsWith("jdbc:postgresql:")) {
+            // the PostgreSQL driver takes whole seconds
+            setUnlessInUrl(props, url, "connectTimeout", Long.toString((connectMillis + 999) / 1000));
+            setUnlessInUrl(props, url, "socketTimeout", Long.toString((socketMillis + 999) / 1000));
+        }
+        return DriverManager.getConnection(url, props);
+    }
+
+    private static void setUnlessInUrl(Properties props, String url, String key, String value) {
+        if (!url.contains(key + "=")) {
+            props.setProperty(key, value);
+        }
+    }
+
+    private boolean probe(ReplicaRouter.Endpoint endpoint) {
+        try (Connection c = connect(endpoint.url)) {
+            return c.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private String url() {
+        String url = cfg.get("db.url");
+        if (url != null && !url.isBlank()) {
+            return url;
+        }
+        return url(cfg.get("db.host"), cfg.get("db.port"));
+    }
+
+    private String url(String host, String port) {
         String vendor = cfg.get("db.vendor");
-        String host = cfg.get("db.host");
-        String port = cfg.get("db.port");
         String name = cfg.get("db.name");
-        String user = cfg.get("db.user");
-        String pass = cfg.get("db.password");
 
-        String url;
         if ("postgres".equalsIgnoreCase(vendor)) {
-            url = String.format("jdbc:postgresql://%s:%s/%s", host, port, name);
-        } else {
-            String useSSL = cfg.get("db.useSSL");
-            url = String.format("jdbc:mysql://%s:%s/%s?useSSL=%s&serverTimezone=UTC", host, port, name, useSSL);
+            return String.format("jdbc:postgresql://%s:%s/%s", host, port, name);
         }
-        try {
-            return DriverManager.getConnection(url, user, pass);
-        } catch (SQLException e) {
-            throw new DatabaseException("Failed to connect to database", e);
+        String useSSL = cfg.get("db.useSSL");
+        return String.format("jdbc:mysql://%s:%s/%s?useSSL=%s&serverTimezone=UTC", host, port, name, useSSL);
+    }
+
+    private List<String> replicaUrls() {
+        List<String> urls = new ArrayList<>();
+        String list = cfg.get("db.replicas", "");
+        for (String entry : list.split(",")) {
+            String replica = entry.trim();
+            if (replica.isEmpty()) {
+                continue;
+            }
+            if (replica.startsWith("jdbc:")) {
+                urls.add(replica);
+            } else {
+                int colon = replica.lastIndexOf(':');
+                String host = colon > 0 ? replica.substring(0, colon) : replica;
+                String port = colon > 0 ? replica.substring(colon + 1) : cfg.get("db.port");
+                urls.add(url(host, port));
+            }
         }
+        return urls;
     }
 }
@@ -0,0 +1,55 @@
+package com.codeup.booknova.connection;
+
+/**
+ * Identifies the client session issuing database calls on the current thread.
+ * <p>
+ * Used for read-your-writes stickiness: after a session writes, its reads are
+ * sent to the primary for a short window so that it never reads a replica that
+ * has not caught up yet. The desktop client is a single session and never needs
+ * to set this; a multi-client front end sets the caller's session id around
+ * each request.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ * @see ConnectionFactory
+ */
+public final class ReadSession {
+
+    /** Session id used when none is set on the current thread. */
+    public static final String DEFAULT = "default";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ReadSession() {}
+
+    /**
+     * Returns the session id of the current thread.
+     *
+     * @return the session id, {@link #DEFAULT} if none is set
+     */
+    public static String current() {
+        String id = CURRENT.get();
+        return id != null ? id : DEFAULT;
+    }
+
+    /**
+     * Sets the session id for the current thread.
+     *
+     * @param sessionId the session id, {@code null} to reset to {@link #DEFAULT}
+     */
+    public static void set(String sessionId) {
+        if (sessionId == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(sessionId);
+        }
+    }
+
+    /**
+     * Clears the session id of the current thread.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
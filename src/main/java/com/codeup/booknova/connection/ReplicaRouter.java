@@ -0,0 +1,148 @@
+package com.codeup.booknova.connection;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Chooses the replica that serves a read.
+ * <p>
+ * Replicas are picked round-robin, skipping those marked down. A replica is
+ * marked down when opening a connection to it fails, or when the periodic
+ * health check finds it unreachable, and it is retried once the check succeeds
+ * again. Sessions that wrote within the stickiness window are kept on the
+ * primary.
+ * </p>
+ * <p>
+ * {@link #close()} stops the health check; the router keeps routing with the
+ * health state it last saw.
+ * </p>
+ */
+final class ReplicaRouter implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ReplicaRouter.class.getName());
+    private static final int MAX_TRACKED_SESSIONS = 10_000;
+
+    /**
+     * A replica endpoint and its health state.
+     */
+    static final class Endpoint {
+        final String url;
+        volatile boolean down;
+
+        Endpoint(String url) {
+            this.url = url;
+        }
+    }
+
+    private final List<Endpoint> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final long stickyNanos;
+    private final Map<String, Long> lastWriteBySession = new ConcurrentHashMap<>();
+    private ScheduledExecutorService checker;
+
+    ReplicaRouter(List<String> urls, long stickyMillis) {
+        this.replicas = urls.stream().map(Endpoint::new).toList();
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMillis);
+    }
+
+    /**
+     * Starts a daemon thread that probes every replica at a fixed interval,
+     * until {@link #close()} is called.
+     *
+     * @param intervalMillis the probe interval
+     * @param probe returns {@code true} if the endpoint is reachable
+     */
+    synchronized void startHealthChecks(long intervalMillis, Predicate<Endpoint> probe) {
+        if (checker != null) {
+            throw new IllegalStateException("Health checks already started");
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-health-check");
+            t.setDaemon(true);
+            return t;
+        });
+        checker.scheduleWithFixedDelay(() -> {
+            for (Endpoint endpoint : replicas) {
+                boolean healthy = probe.test(endpoint);
+                if (healthy == endpoint.down) {
+                    logger.log(Level.INFO, "Replica {0} is {1}", new Object[]{endpoint.url, healthy ? "up" : "down"});
+                }
+                endpoint.down = !healthy;
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the replicas to try for the next read, in order, starting from the
+     * round-robin position. Empty when the current session must read from the
+     * primary or every replica is down.
+     */
+    List<Endpoint> candidates() {
+        if (replicas.isEmpty() || isSticky()) {
+            return List.of();
+        }
+        int n = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), n);
+        Endpoint[] out = new Endpoint[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            Endpoint endpoint = replicas.get((start + i) % n);
+            if (!endpoint.down) {
+                out[count++] = endpoint;
+            }
+        }
+        return Arrays.asList(out).subList(0, count);
+    }
+
+    void markDown(Endpoint endpoint) {
+        if (!endpoint.down) {
+            endpoint.down = true;
+            logger.log(Level.WARNING, "Replica {0} marked down", endpoint.url);
+        }
+    }
+
+    /**
+     * Records a write by the current session, starting its stickiness window.
+     */
+    void recordWrite() {
+        if (replicas.isEmpty() || stickyNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (lastWriteBySession.size() >= MAX_TRACKED_SESSIONS) {
+            lastWriteBySession.values().removeIf(t -> now - t > stickyNanos);
+        }
+        lastWriteBySession.put(ReadSession.current(), now);
+    }
+
+    boolean isSticky() {
+        Long last = lastWriteBySession.get(ReadSession.current());
+        return last != null && System.nanoTime() - last < stickyNanos;
+    }
+
+    boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    synchronized boolean isCheckingHealth() {
+        return checker != null && !checker.isShutdown();
+    }
+
+    /**
+     * Stops the health check; a probe in progress is interrupted.
+     */
+    @Override
+    public synchronized void close() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+    }
+}
@@ -6,6 +6,10 @@ CREATE USER 'booknova_user'@'localhost' IDENTIFIED BY 'booknova!123';
 GRANT ALL PRIVILEGES ON novabook_db.* TO 'novabook_user'@'localhost';
 FLUSH PRIVILEGES;
 
+-- The idx_<table>_updated_at indexes let delta reads (WHERE updated_at >= ?)
+-- scan only the changed rows. They are declared with their tables so the
+-- script can be run again. A database created without them gets them once with
+-- CREATE INDEX idx_<table>_updated_at ON <table> (updated_at)
 CREATE TABLE IF NOT EXISTS users (
     id INT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(100) NOT NULL,
@@ -17,7 +21,8 @@ CREATE TABLE IF NOT EXISTS users (
     active BOOLEAN NOT NULL DEFAULT TRUE,
     deleted BOOLEAN NOT NULL DEFAULT FALSE,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_users_updated_at (updated_at)
 );
 
 CREATE TABLE IF NOT EXISTS book (
@@ -27,7 +32,8 @@ CREATE TABLE IF NOT EXISTS book (
     author VARCHAR(100) NOT NULL,
     stock INT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_book_updated_at (updated_at)
 );
 
 CREATE TABLE IF NOT EXISTS member (
@@ -40,6 +46,7 @@ CREATE TABLE IF NOT EXISTS member (
     access_level ENUM('READ_ONLY','READ_WRITE', 'MANAGE') NOT NULL DEFAULT 'READ_WRITE',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_member_updated_at (updated_at),
     FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
@@ -52,6 +59,7 @@ CREATE TABLE IF NOT EXISTS loan (
     returned BOOLEAN,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_loan_updated_at (updated_at),
     FOREIGN KEY (member_id) REFERENCES member(id),
     FOREIGN KEY (book_id) REFERENCES book(id)
 );
@@ -68,10 +76,68 @@ CREATE TABLE IF NOT EXISTS membership_request (
     processed_at TIMESTAMP NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_membership_request_updated_at (updated_at),
     FOREIGN KEY (user_id) REFERENCES users(id),
     FOREIGN KEY (approved_by_user_id) REFERENCES users(id)
 );
 
+-- Tombstones for hard deletes, read by the repositories' findChangedSince
+-- together with updated_at. Rows older than the oldest client watermark can
+-- be purged, e.g. DELETE FROM deleted_row WHERE deleted_at < NOW() - INTERVAL 30 DAY;
+CREATE TABLE IF NOT EXISTS deleted_row (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    table_name VARCHAR(40) NOT NULL,
+    row_id INT NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_deleted_row_table_time (table_name, deleted_at)
+);
+
+-- Circulation rollups, updated in the checkout and return transactions
+-- (analytics.JdbcCirculationRollups) and rebuilt from loan by
+-- analytics.RollupBackfillJob (java -jar novabook-app.jar --rebuild-analytics)
+CREATE TABLE IF NOT EXISTS loan_daily_book (
+    stat_date DATE NOT NULL,
+    book_id INT NOT NULL,
+    loans INT NOT NULL DEFAULT 0,
+    returned INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (stat_date, book_id)
+);
+
+CREATE TABLE IF NOT EXISTS loan_daily_role (
+    stat_date DATE NOT NULL,
+    member_role ENUM('REGULAR','PREMIUM') NOT NULL,
+    loans INT NOT NULL DEFAULT 0,
+    returned INT NOT NULL DEFAULT 0,
+    returned_late INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (stat_date, member_role)
+);
+
+CREATE TABLE IF NOT EXISTS member_month_activity (
+    stat_month DATE NOT NULL,
+    member_id INT NOT NULL,
+    PRIMARY KEY (stat_month, member_id)
+);
+
+-- Transactional outbox: loan and membership events written in the same
+-- transaction as the change (infra.outbox.JdbcOutbox) and delivered to each
+-- sink from its position in outbox_cursor (infra.outbox.OutboxRelay), where owner and
+-- lease_until name the one relay, among all clients, that feeds the sink
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    aggregate_type VARCHAR(40) NOT NULL,
+    aggregate_id INT NOT NULL,
+    event_type VARCHAR(60) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS outbox_cursor (
+    sink VARCHAR(60) PRIMARY KEY,
+    last_id BIGINT NOT NULL DEFAULT 0,
+    owner VARCHAR(60) NULL,
+    lease_until TIMESTAMP NULL
+);
+
 
 -- Add user_id column to member table
 -- Execute this script in MySQL Workbench or command line
@@ -0,0 +1,138 @@
+-- PostgreSQL version of DatabaseSchema.sql, for db.vendor=postgres.
+-- ENUM columns become VARCHAR with CHECK constraints and
+-- ON UPDATE CURRENT_TIMESTAMP becomes a trigger, so the repositories bind
+-- and read the same values as on MySQL.
+--
+--   CREATE DATABASE novabook;
+--   psql -d novabook -f DatabaseSchemaPostgres.sql
+
+CREATE OR REPLACE FUNCTION set_updated_at() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TABLE IF NOT EXISTS users (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(120) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    phone VARCHAR(30) NOT NULL,
+    role VARCHAR(10) NOT NULL DEFAULT 'USER' CHECK (role IN ('USER', 'ADMIN')),
+    access_level VARCHAR(10) NOT NULL DEFAULT 'READ_WRITE' CHECK (access_level IN ('READ_ONLY', 'READ_WRITE', 'MANAGE')),
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS book (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    isbn VARCHAR(20) NOT NULL UNIQUE,
+    title VARCHAR(100) NOT NULL,
+    author VARCHAR(100) NOT NULL,
+    stock INT NOT NULL,
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS member (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id INT UNIQUE REFERENCES users(id),
+    name VARCHAR(100) NOT NULL,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    role VARCHAR(10) NOT NULL DEFAULT 'REGULAR' CHECK (role IN ('REGULAR', 'PREMIUM')),
+    access_level VARCHAR(10) NOT NULL DEFAULT 'READ_WRITE' CHECK (access_level IN ('READ_ONLY', 'READ_WRITE', 'MANAGE')),
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS loan (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    member_id INT REFERENCES member(id),
+    book_id INT REFERENCES book(id),
+    date_loaned DATE,
+    date_due DATE,
+    returned BOOLEAN,
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS membership_request (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id INT NOT NULL REFERENCES users(id),
+    user_name VARCHAR(100) NOT NULL,
+    user_email VARCHAR(120) NOT NULL,
+    status VARCHAR(10) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'APPROVED', 'REJECTED')),
+    request_reason TEXT,
+    approved_by_user_id INT REFERENCES users(id),
+    requested_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMPTZ NULL,
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE OR REPLACE TRIGGER users_updated_at BEFORE UPDATE ON users FOR EACH ROW EXECUTE FUNCTION set_updated_at();
+CREATE OR REPLACE TRIGGER book_updated_at BEFORE UPDATE ON book FOR EACH ROW EXECUTE FUNCTION set_updated_at();
+CREATE OR REPLACE TRIGGER member_updated_at BEFORE UPDATE ON member FOR EACH ROW EXECUTE FUNCTION set_updated_at();
+CREATE OR REPLACE TRIGGER loan_updated_at BEFORE UPDATE ON loan FOR EACH ROW EXECUTE FUNCTION set_updated_at();
+CREATE OR REPLACE TRIGGER membership_request_updated_at BEFORE UPDATE ON membership_request FOR EACH ROW EXECUTE FUNCTION set_updated_at();
+
+-- Tombstones for hard deletes, see DatabaseSchema.sql
+CREATE TABLE IF NOT EXISTS deleted_row (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    table_name VARCHAR(40) NOT NULL,
+    row_id INT NOT NULL,
+    deleted_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_deleted_row_table_time ON deleted_row (table_name, deleted_at);
+
+-- Delta reads (WHERE updated_at >= ?) scan only the changed rows
+CREATE INDEX IF NOT EXISTS idx_users_updated_at ON users (updated_at);
+CREATE INDEX IF NOT EXISTS idx_book_updated_at ON book (updated_at);
+CREATE INDEX IF NOT EXISTS idx_member_updated_at ON member (updated_at);
+CREATE INDEX IF NOT EXISTS idx_loan_updated_at ON loan (updated_at);
+CREATE INDEX IF NOT EXISTS idx_membership_request_updated_at ON membership_request (updated_at);
+
+-- Circulation rollups, see DatabaseSchema.sql
+CREATE TABLE IF NOT EXISTS loan_daily_book (
+    stat_date DATE NOT NULL,
+    book_id INT NOT NULL,
+    loans INT NOT NULL DEFAULT 0,
+    returned INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (stat_date, book_id)
+);
+
+CREATE TABLE IF NOT EXISTS loan_daily_role (
+    stat_date DATE NOT NULL,
+    member_role VARCHAR(10) NOT NULL CHECK (member_role IN ('REGULAR', 'PREMIUM')),
+    loans INT NOT NULL DEFAULT 0,
+    returned INT NOT NULL DEFAULT 0,
+    returned_late INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (stat_date, member_role)
+);
+
+CREATE TABLE IF NOT EXISTS member_month_activity (
+    stat_month DATE NOT NULL,
+    member_id INT NOT NULL,
+    PRIMARY KEY (stat_month, member_id)
+);
+
+-- Transactional outbox, see DatabaseSchema.sql
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(40) NOT NULL,
+    aggregate_id INT NOT NULL,
+    event_type VARCHAR(60) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS outbox_cursor (
+    sink VARCHAR(60) PRIMARY KEY,
+    last_id BIGINT NOT NULL DEFAULT 0,
+    owner VARCHAR(60) NULL,
+    lease_until TIMESTAMP NULL
+);
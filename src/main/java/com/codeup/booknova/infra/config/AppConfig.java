@@ -6,7 +6,9 @@ package com.codeup.booknova.infra.config;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 
 public class AppConfig {
@@ -23,5 +25,109 @@ public class AppConfig {
         }
     }
 
+    /**
+     * Creates a configuration from the given properties instead of
+     * {@code application.properties}, e.g. for embedded databases in tests.
+     *
+     * @param props the configuration properties
+     */
+    public AppConfig(Properties props) {
+        this.props.putAll(props);
+    }
+
     public String get(String key) { return props.getProperty(key); }
+
+    /**
+     * Returns the value for the key, or the default if it is missing or blank.
+     *
+     * @param key the property key
+     * @param defaultValue the value to use when the key is not set
+     * @return the configured value or {@code defaultValue}
+     */
+    public String get(String key, String defaultValue) {
+        String value = props.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    /**
+     * Returns the value for the key as a long, or the default if it is missing or blank.
+     *
+     * @param key the property key
+     * @param defaultValue the value to use when the key is not set
+     * @return the configured value or {@code defaultValue}
+     * @throws IllegalStateException if the value is not a number
+     */
+    public long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid number for " + key + ": " + value, e);
+        }
+    }
+
+    /**
+     * Returns the value for the key as an int, or the default if it is missing or blank.
+     *
+     * @param key the property key
+     * @param defaultValue the value to use when the key is not set
+     * @return the configured value or {@code defaultValue}
+     * @throws IllegalStateException if the value is not a number
+     */
+    public int getInt(String key, int defaultValue) {
+        return Math.toIntExact(getLong(key, defaultValue));
+    }
+
+    /**
+     * Returns the value for the key as a double, or the default if it is missing or blank.
+     *
+     * @param key the property key
+     * @param defaultValue the value to use when the key is not set
+     * @return the configured value or {@code defaultValue}
+     * @throws IllegalStateException if the value is not a number
+     */
+    public double getDouble(String key, double defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid number for " + key + ": " + value, e);
+        }
+    }
+
+    /**
+     * Returns the value for the key as a boolean, or the default if it is missing or blank.
+     *
+     * @param key the property key
+     * @param defaultValue the value to use when the key is not set
+     * @return the configured value or {@code defaultValue}
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Returns the non-blank entries whose keys start with the prefix, with the
+     * prefix removed, e.g. {@code log.level.} for {@code log.level.com.codeup=FINE}.
+     *
+     * @param prefix the key prefix
+     * @return the matching entries, sorted by key
+     */
+    public Map<String, String> withPrefix(String prefix) {
+        Map<String, String> out = new TreeMap<>();
+        for (String key : props.stringPropertyNames()) {
+            String value = props.getProperty(key);
+            if (key.startsWith(prefix) && key.length() > prefix.length() && !value.isBlank()) {
+                out.put(key.substring(prefix.length()), value.trim());
+            }
+        }
+        return out;
+    }
 }
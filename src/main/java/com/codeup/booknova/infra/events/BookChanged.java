@@ -0,0 +1,23 @@
+package com.codeup.booknova.infra.events;
+
+import com.codeup.booknova.domain.Book;
+
+/**
+ * A book was added, edited, deleted or its stock changed, e.g. by a loan.
+ *
+ * @param kind what happened
+ * @param bookId the book
+ * @param book the book as written for {@link Kind#ADDED} and {@link Kind#UPDATED};
+ *             {@code null} otherwise
+ * @version 1.0
+ * @since 1.0
+ */
+public record BookChanged(Kind kind, int bookId, Book book) {
+
+    public enum Kind {
+        ADDED,
+        UPDATED,
+        STOCK_CHANGED,
+        DELETED
+    }
+}
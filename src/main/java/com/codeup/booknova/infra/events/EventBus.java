@@ -0,0 +1,308 @@
+package com.codeup.booknova.infra.events;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.infra.config.AppConfig;
+
+/**
+ * In-process event bus on a ring buffer, for telling caches and indexes
+ * that something they hold changed.
+ * <p>
+ * Publishing claims the next sequence with one atomic increment, stores the
+ * event in the slot it maps to and marks the slot published; no lock is
+ * taken and nothing is allocated. Each subscriber has a thread of its own
+ * that reads every published event in sequence order, so a slow subscriber
+ * never holds up another. A subscriber that has fallen behind a whole ring
+ * makes publishers wait for it instead of losing events, so the buffer
+ * should hold a good burst of changes.
+ * </p>
+ * <p>
+ * A subscriber takes everything published since it last caught up as one
+ * batch and ends it with {@link EventHandler#onEndOfBatch()}, so work per
+ * batch, e.g. a cache invalidation, is done once however many events came.
+ * How an idle subscriber waits is its {@link WaitStrategy}.
+ * </p>
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * EventBus bus = new EventBus(1024, WaitStrategy.BLOCKING);
+ * bus.subscribe("catalog", BookChanged.class, event -> cache.remove(event.bookId()));
+ * bus.publishAfterCommit(new BookChanged(BookChanged.Kind.DELETED, 42, null));
+ * }</pre>
+ * <p>
+ * A handler must not publish to its own bus: with the ring full it would
+ * wait for itself.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class EventBus implements EventPublisher, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(EventBus.class.getName());
+
+    private static final int GATING_SPINS = 100;
+    private static final long GATING_PARK_NANOS = 1_000;
+
+    private final Object[] entries;
+    // published.get(slot) is the round (sequence / size) last published in the slot
+    private final AtomicIntegerArray published;
+    private final int mask;
+    private final int shift;
+    private final WaitStrategy waitStrategy;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    // replaced on subscribe and close, so publishers read it without a lock
+    private volatile Subscription[] subscriptions = new Subscription[0];
+    private volatile boolean closed;
+
+    /**
+     * Creates a bus.
+     *
+     * @param bufferSize the number of events the ring holds, a power of two
+     * @param waitStrategy how idle subscribers wait
+     */
+    public EventBus(int bufferSize, WaitStrategy waitStrategy) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Buffer size must be a power of two: " + bufferSize);
+        }
+        this.entries = new Object[bufferSize];
+        this.published = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            published.set(i, -1);
+        }
+        this.mask = bufferSize - 1;
+        this.shift = Integer.numberOfTrailingZeros(bufferSize);
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Creates a bus from the {@code events.*} properties: {@code bufferSize}
+     * (default 1024) and {@code waitStrategy} (default {@code BLOCKING}).
+     *
+     * @param config the configuration
+     * @return a new bus
+     */
+    public static EventBus fromConfig(AppConfig config) {
+        String strategy = config.get("events.waitStrategy", WaitStrategy.BLOCKING.name());
+        return new EventBus(config.getInt("events.bufferSize", 1024), WaitStrategy.valueOf(strategy.trim().toUpperCase()));
+    }
+
+    /**
+     * Publishes an event to every subscriber. Waits while the slowest
+     * subscriber is a whole ring behind; a closed bus drops the event.
+     *
+     * @param event the event, not {@code null}
+     */
+    @Override
+    public void publish(Object event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event cannot be null");
+        }
+        if (closed) {
+            return;
+        }
+        long sequence = claimed.incrementAndGet();
+        awaitSlot(sequence - entries.length);
+        int slot = (int) sequence & mask;
+        entries[slot] = event;
+        published.set(slot, (int) (sequence >>> shift));
+        if (waitStrategy == WaitStrategy.BLOCKING) {
+            for (Subscription s : subscriptions) {
+                if (s.parked) {
+                    LockSupport.unpark(s.thread);
+                }
+            }
+        }
+    }
+
+    // waits until every subscriber has read the sequence about to be overwritten
+    private void awaitSlot(long wrapped) {
+        int attempt = 0;
+        while (wrapped >= 0 && !closed && minimumSequence() < wrapped) {
+            if (attempt++ < GATING_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(GATING_PARK_NANOS);
+            }
+        }
+    }
+
+    private long minimumSequence() {
+        long min = Long.MAX_VALUE;
+        for (Subscription s : subscriptions) {
+            min = Math.min(min, s.sequence);
+        }
+        return min;
+    }
+
+    private boolean isPublished(long sequence) {
+        return published.get((int) sequence & mask) == (int) (sequence >>> shift);
+    }
+
+    /**
+     * Subscribes a handler to the events of one type, starting with the next
+     * event published. The handler runs on a daemon thread of its own; what
+     * it throws is logged and counted, and the next event is delivered.
+     *
+     * @param <E> the event type
+     * @param name names the subscription in thread names and counters
+     * @param type the events to deliver, including subtypes
+     * @param handler the handler
+     * @return the subscription, closed to stop it
+     */
+    public <E> Subscription subscribe(String name, Class<E> type, EventHandler<? super E> handler) {
+        if (closed) {
+            throw new IllegalStateException("Event bus is closed");
+        }
+        Subscription subscription = new Subscription(name, type, handler);
+        synchronized (this) {
+            subscription.sequence = claimed.get();
+            Subscription[] current = subscriptions;
+            Subscription[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = subscription;
+            subscriptions = grown;
+        }
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * Returns the counters of the bus for the metrics endpoint: the events
+     * published and, per subscription, how many it has handled, how many
+     * of its handler calls failed and how far behind it is.
+     *
+     * @return the counters by name
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        long head = claimed.get();
+        out.put("published", head + 1);
+        out.put("bufferSize", (long) entries.length);
+        for (Subscription s : subscriptions) {
+            String prefix = s.name + ".";
+            out.put(prefix + "handled", s.handled);
+            out.put(prefix + "failures", s.failures);
+            out.put(prefix + "lag", Math.max(0, head - s.sequence));
+        }
+        return out;
+    }
+
+    /**
+     * Stops every subscription and drops later events. Events not yet
+     * handled are not delivered.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Subscription s : subscriptions) {
+            s.close();
+        }
+    }
+
+    /**
+     * A handler subscribed to a bus, with the thread that feeds it.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final String name;
+        private final Class<?> type;
+        private final EventHandler<Object> handler;
+        private final Thread thread;
+        // the last sequence handled; publishers read it to know the slot is free
+        private volatile long sequence;
+        private volatile boolean parked;
+        private volatile boolean running = true;
+        private volatile long handled;
+        private volatile long failures;
+
+        @SuppressWarnings("unchecked")
+        private Subscription(String name, Class<?> type, EventHandler<?> handler) {
+            this.name = name;
+            this.type = type;
+            this.handler = (EventHandler<Object>) handler;
+            this.thread = new Thread(this::run, "event-bus-" + name);
+            thread.setDaemon(true);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        private void run() {
+            int attempt = 0;
+            while (running) {
+                long next = sequence + 1;
+                long last = next - 1;
+                while (last - next < mask && isPublished(last + 1)) {
+                    last++;
+                }
+                if (last < next) {
+                    idle(next, attempt++);
+                    continue;
+                }
+                attempt = 0;
+                boolean delivered = false;
+                for (long s = next; s <= last; s++) {
+                    Object event = entries[(int) s & mask];
+                    if (type.isInstance(event)) {
+                        delivered = true;
+                        deliver(event);
+                    }
+                }
+                if (delivered) {
+                    endBatch();
+                }
+                sequence = last;
+            }
+        }
+
+        private void idle(long next, int attempt) {
+            if (waitStrategy != WaitStrategy.BLOCKING) {
+                waitStrategy.idle(attempt);
+                return;
+            }
+            // publishers look at parked after marking a slot, so one of us sees the other
+            parked = true;
+            if (running && !isPublished(next)) {
+                LockSupport.park(this);
+            }
+            parked = false;
+        }
+
+        private void deliver(Object event) {
+            try {
+                handler.onEvent(event);
+                handled++;
+            } catch (RuntimeException e) {
+                failures++;
+                logger.log(Level.WARNING, "Event handler " + name + " failed on " + event, e);
+            }
+        }
+
+        private void endBatch() {
+            try {
+                handler.onEndOfBatch();
+            } catch (RuntimeException e) {
+                failures++;
+                logger.log(Level.WARNING, "Event handler " + name + " failed at the end of a batch", e);
+            }
+        }
+
+        /**
+         * Stops delivering events to the handler and lets publishers overwrite
+         * what it has not read. A batch in progress is finished.
+         */
+        @Override
+        public void close() {
+            running = false;
+            synchronized (EventBus.this) {
+                subscriptions = Arrays.stream(subscriptions).filter(s -> s != this).toArray(Subscription[]::new);
+            }
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.codeup.booknova.infra.events;
+
+/**
+ * Receives the events of one type from an {@link EventBus}, on the
+ * subscription's own thread.
+ * <p>
+ * Events arrive in batches: everything published since the handler last
+ * caught up, in publication order, followed by {@link #onEndOfBatch()}. A
+ * handler can collect in {@link #onEvent} and act once per batch, e.g.
+ * invalidate a cache once for a burst of changes.
+ * </p>
+ *
+ * @param <E> the event type
+ * @version 1.0
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface EventHandler<E> {
+
+    /**
+     * Handles one event.
+     *
+     * @param event the event
+     */
+    void onEvent(E event);
+
+    /**
+     * Called after the last event of a batch that had at least one event for this handler.
+     */
+    default void onEndOfBatch() {
+    }
+}
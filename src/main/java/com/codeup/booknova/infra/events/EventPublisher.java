@@ -0,0 +1,44 @@
+package com.codeup.booknova.infra.events;
+
+import com.codeup.booknova.jdbc.TransactionContext;
+
+/**
+ * Publishes in-process events, e.g. that a book changed, to whoever subscribed.
+ * <p>
+ * Services publish with {@link #publishAfterCommit}, so subscribers only
+ * hear of changes that are in the database and never of rolled back ones.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ * @see EventBus
+ */
+public interface EventPublisher {
+
+    /** Publisher that drops every event, e.g. in unit tests with mocked repositories. */
+    EventPublisher NONE = new EventPublisher() {
+        @Override
+        public void publish(Object event) {
+        }
+
+        @Override
+        public void publishAfterCommit(Object event) {
+        }
+    };
+
+    /**
+     * Publishes an event now.
+     *
+     * @param event the event, not {@code null}
+     */
+    void publish(Object event);
+
+    /**
+     * Publishes an event once the current transaction commits, or now if none is active.
+     *
+     * @param event the event, not {@code null}
+     */
+    default void publishAfterCommit(Object event) {
+        TransactionContext.afterCommit(() -> publish(event));
+    }
+}
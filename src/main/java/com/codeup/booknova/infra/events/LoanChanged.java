@@ -0,0 +1,20 @@
+package com.codeup.booknova.infra.events;
+
+/**
+ * A loan was made, returned or extended.
+ *
+ * @param kind what happened
+ * @param loanId the loan
+ * @param memberId the borrowing member
+ * @param bookId the borrowed book
+ * @version 1.0
+ * @since 1.0
+ */
+public record LoanChanged(Kind kind, int loanId, int memberId, int bookId) {
+
+    public enum Kind {
+        CREATED,
+        RETURNED,
+        EXTENDED
+    }
+}
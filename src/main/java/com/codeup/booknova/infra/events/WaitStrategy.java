@@ -0,0 +1,41 @@
+package com.codeup.booknova.infra.events;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How an {@link EventBus} subscriber waits for the next event, trading
+ * latency against CPU use.
+ * <ul>
+ * <li>{@link #BUSY_SPIN} - spins on a core; lowest latency, one busy core per subscriber</li>
+ * <li>{@link #YIELDING} - spins briefly, then yields to other threads</li>
+ * <li>{@link #SLEEPING} - spins, yields, then sleeps 100 microseconds at a time</li>
+ * <li>{@link #BLOCKING} - parks until a publisher wakes it; no CPU while idle, a few
+ *     microseconds more per wake-up</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public enum WaitStrategy {
+    BUSY_SPIN,
+    YIELDING,
+    SLEEPING,
+    BLOCKING;
+
+    private static final int SPINS = 100;
+    private static final long SLEEP_NANOS = 100_000;
+
+    /**
+     * Waits a little after the {@code attempt}-th look at the ring found
+     * nothing new. {@link #BLOCKING} is handled by the bus, which parks.
+     */
+    void idle(int attempt) {
+        if (this == BUSY_SPIN || attempt < SPINS) {
+            Thread.onSpinWait();
+        } else if (this == YIELDING || attempt < 2 * SPINS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(SLEEP_NANOS);
+        }
+    }
+}
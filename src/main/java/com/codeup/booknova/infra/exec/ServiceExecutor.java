@@ -0,0 +1,286 @@
+package com.codeup.booknova.infra.exec;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+
+/**
+ * Runs service invocations off the caller's thread.
+ * <p>
+ * Intended for headless processes that drive the services with many
+ * concurrent requests. Each invocation runs on its own virtual thread
+ * ({@link Mode#VIRTUAL}) or on a fixed pool of platform threads
+ * ({@link Mode#PLATFORM}). Because every invocation talks to the database, a
+ * semaphore sized to the connection limit caps how many run at once; the
+ * rest wait for a permit without holding a connection.
+ * </p>
+ * <p>
+ * The project compiles for Java 17, so virtual threads are looked up
+ * reflectively. On a Java 21+ runtime {@link Mode#VIRTUAL} uses them; on older
+ * runtimes it falls back to platform threads with a warning.
+ * </p>
+ * <p>Configuration ({@link #fromConfig(AppConfig)}):</p>
+ * <ul>
+ * <li>{@code exec.mode} - {@code virtual} or {@code platform} (default platform)</li>
+ * <li>{@code exec.platformThreads} - pool size in platform mode (default 64)</li>
+ * <li>{@code pool.maxPoolSize} - concurrent database invocations (default 10)</li>
+ * <li>{@code exec.permitTimeoutMillis} - how long to wait for a permit (default 30000)</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class ServiceExecutor implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ServiceExecutor.class.getName());
+    private static final Method NEW_VIRTUAL_EXECUTOR = findVirtualExecutorFactory();
+
+    /**
+     * Kind of threads that run service invocations.
+     */
+    public enum Mode {
+        /** One virtual thread per invocation (Java 21+). */
+        VIRTUAL,
+        /** A fixed pool of platform threads. */
+        PLATFORM
+    }
+
+    private final Mode mode;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long permitTimeoutMillis;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder permitTimeouts = new LongAdder();
+
+    /**
+     * Creates an executor.
+     *
+     * @param mode the requested thread mode; VIRTUAL falls back to PLATFORM when unavailable
+     * @param maxConcurrent maximum invocations running against the database at once
+     * @param platformThreads pool size used in platform mode
+     * @param permitTimeoutMillis how long an invocation waits for a permit before failing
+     */
+    public ServiceExecutor(Mode mode, int maxConcurrent, int platformThreads, long permitTimeoutMillis) {
+        if (maxConcurrent <= 0 || platformThreads <= 0) {
+            throw new IllegalArgumentException("Concurrency limits must be positive");
+        }
+        if (mode == Mode.VIRTUAL && !virtualThreadsAvailable()) {
+            logger.warning("Virtual threads require Java 21+, using platform threads instead");
+            mode = Mode.PLATFORM;
+        }
+        this.mode = mode;
+        this.executor = mode == Mode.VIRTUAL ? newVirtualThreadExecutor() : newPlatformExecutor(platformThreads);
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.permitTimeoutMillis = permitTimeoutMillis;
+    }
+
+    /**
+     * Creates an executor from the {@code exec.*} and {@code pool.*} settings.
+     *
+     * @param cfg the application configuration
+     * @return a new executor
+     */
+    public static ServiceExecutor fromConfig(AppConfig cfg) {
+        Mode mode = Mode.valueOf(cfg.get("exec.mode", "platform").toUpperCase(Locale.ROOT));
+        return new ServiceExecutor(mode,
+                cfg.getInt("pool.maxPoolSize", 10),
+                cfg.getInt("exec.platformThreads", 64),
+                cfg.getLong("exec.permitTimeoutMillis", 30_000));
+    }
+
+    /**
+     * Returns {@code true} if the running JVM supports virtual threads.
+     *
+     * @return whether {@link Mode#VIRTUAL} can be used
+     */
+    public static boolean virtualThreadsAvailable() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread per task, or a cached
+     * platform thread pool on runtimes without virtual threads.
+     *
+     * @return a new executor service
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        if (NEW_VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.log(Level.WARNING, "Could not create virtual thread executor", e);
+            }
+        }
+        return Executors.newCachedThreadPool(daemonThreads("service-exec"));
+    }
+
+    /**
+     * Submits a service invocation.
+     *
+     * @param <T> the type of the result
+     * @param call the service call
+     * @return a future completed with the call's result or exception
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> runWithPermit(call), executor);
+    }
+
+    /**
+     * Submits a service invocation without a result.
+     *
+     * @param call the service call
+     * @return a future completed when the call finishes
+     */
+    public CompletableFuture<Void> execute(Runnable call) {
+        return submit(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a service invocation on the executor and waits for its result.
+     *
+     * @param <T> the type of the result
+     * @param call the service call
+     * @return the call's result
+     * @throws DatabaseException if the call fails or the wait is interrupted
+     */
+    public <T> T invoke(Supplier<T> call) throws DatabaseException {
+        try {
+            return submit(call).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while waiting for service call", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new DatabaseException("Service call failed", cause);
+        }
+    }
+
+    /**
+     * Runs a service invocation on the calling thread once a permit is
+     * available. For callers that already run on their own (virtual) thread,
+     * such as HTTP request handlers, and only need the concurrency limit.
+     *
+     * @param <T> the type of the result
+     * @param call the service call
+     * @return the call's result
+     * @throws DatabaseException if no permit became available in time; its
+     *         cause is a {@link TimeoutException}
+     */
+    public <T> T call(Supplier<T> call) throws DatabaseException {
+        return runWithPermit(call);
+    }
+
+    private <T> T runWithPermit(Supplier<T> call) {
+        try {
+            if (!permits.tryAcquire(permitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                permitTimeouts.increment();
+                throw new DatabaseException("Timed out waiting for a database connection slot",
+                        new TimeoutException("No permit within " + permitTimeoutMillis + " ms"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while waiting for a database connection slot", e);
+        }
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+            completed.increment();
+        }
+    }
+
+    /**
+     * Returns the mode in use, after any fallback.
+     *
+     * @return the effective thread mode
+     */
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Returns the number of invocations currently running against the database.
+     *
+     * @return the number of permits in use
+     */
+    public int activeCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * Returns the number of finished invocations.
+     *
+     * @return the completed invocation count
+     */
+    public long completedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Returns how many invocations failed because no permit became available in time.
+     *
+     * @return the permit timeout count
+     */
+    public long permitTimeoutCount() {
+        return permitTimeouts.sum();
+    }
+
+    /**
+     * Stops accepting invocations and waits briefly for running ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ExecutorService newPlatformExecutor(int threads) {
+        return Executors.newFixedThreadPool(threads, daemonThreads("service-exec"));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
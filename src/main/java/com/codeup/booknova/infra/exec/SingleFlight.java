@@ -0,0 +1,190 @@
+package com.codeup.booknova.infra.exec;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Collapses identical concurrent queries into one execution.
+ * <p>
+ * Callers name a query by a key, e.g. {@code "books.available"} or
+ * {@code "books.title:" + title}. The first caller of a key runs the query;
+ * callers arriving while it runs wait for it and get the same result (or
+ * exception) instead of running their own. With a reuse window, callers
+ * arriving shortly after it finished get the finished result too.
+ * </p>
+ * <p>
+ * {@link #invalidate()} makes later callers run a fresh query, even if one
+ * started before the invalidation is still running; call it after writes so
+ * the writer reads its own change. Results are shared, so they must not be
+ * modified by callers.
+ * </p>
+ * <p>
+ * A shared result is only right for callers that would have read the same
+ * data. Callers that would not, e.g. a session kept on the primary right
+ * after its write while others read a replica, or a caller inside a
+ * transaction, are recognised by the {@code bypass} condition and run their
+ * own query, neither joining a flight nor starting one.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class SingleFlight {
+    private static final int MAX_IDLE_KEYS = 256;
+
+    private final long reuseNanos;
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final BooleanSupplier bypass;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    private static final class Flight {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final long generation;
+        volatile long finishedAt;
+
+        Flight(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Creates a single-flight group.
+     *
+     * @param reuseMillis how long a finished result is handed to new callers; {@code 0} only shares running queries
+     */
+    public SingleFlight(long reuseMillis) {
+        this(reuseMillis, () -> false);
+    }
+
+    /**
+     * Creates a single-flight group whose callers run their own query while
+     * {@code bypass} returns {@code true} on their thread.
+     *
+     * @param reuseMillis how long a finished result is handed to new callers; {@code 0} only shares running queries
+     * @param bypass tells whether the calling thread must not share a query
+     */
+    public SingleFlight(long reuseMillis, BooleanSupplier bypass) {
+        if (reuseMillis < 0) {
+            throw new IllegalArgumentException("Reuse window must not be negative");
+        }
+        this.reuseNanos = TimeUnit.MILLISECONDS.toNanos(reuseMillis);
+        this.bypass = bypass;
+    }
+
+    /**
+     * Runs a query, or joins the running or recently finished execution of
+     * the same key.
+     *
+     * @param <T> the result type
+     * @param key identifies the query and its parameters
+     * @param query runs the query
+     * @return the result, shared with the other callers of the execution
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> query) {
+        calls.increment();
+        if (bypass.getAsBoolean()) {
+            bypassed.increment();
+            return query.get();
+        }
+        Flight mine = new Flight(generation.get());
+        Flight flight = flights.compute(key, (k, current) -> usable(current) ? current : mine);
+        if (flight != mine) {
+            (flight.result.isDone() ? reused : collapsed).increment();
+            try {
+                return (T) flight.result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw e;
+            }
+        }
+
+        executions.increment();
+        try {
+            T value = query.get();
+            mine.finishedAt = System.nanoTime();
+            mine.result.complete(value);
+            if (reuseNanos == 0) {
+                flights.remove(key, mine);
+            } else if (flights.size() > MAX_IDLE_KEYS) {
+                flights.values().removeIf(f -> f.result.isDone() && !usable(f));
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.result.completeExceptionally(e);
+            flights.remove(key, mine);
+            throw e;
+        }
+    }
+
+    /**
+     * Makes later callers run fresh queries.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private boolean usable(Flight flight) {
+        if (flight == null || flight.generation != generation.get()) {
+            return false;
+        }
+        return !flight.result.isDone()
+                || (!flight.result.isCompletedExceptionally() && System.nanoTime() - flight.finishedAt <= reuseNanos);
+    }
+
+    /** Returns the number of {@link #execute} calls. */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /** Returns the number of queries actually run. */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /** Returns the number of calls that joined a running query. */
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    /** Returns the number of calls served a result finished within the reuse window. */
+    public long getReused() {
+        return reused.sum();
+    }
+
+    /** Returns the number of calls that ran their own query because of the bypass condition. */
+    public long getBypassed() {
+        return bypassed.sum();
+    }
+
+    /**
+     * Returns the counters, e.g. for a metrics endpoint.
+     *
+     * @return calls, executions, collapsed, reused and bypassed counts
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        out.put("calls", getCalls());
+        out.put("executions", getExecutions());
+        out.put("collapsed", getCollapsed());
+        out.put("reused", getReused());
+        out.put("bypassed", getBypassed());
+        return out;
+    }
+}
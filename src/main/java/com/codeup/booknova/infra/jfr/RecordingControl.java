@@ -0,0 +1,147 @@
+package com.codeup.booknova.infra.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.infra.config.AppConfig;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Starts and stops a bounded Flight Recorder recording on demand, e.g. from
+ * the admin dashboard while a slow checkout is being reproduced.
+ * <p>
+ * The recording keeps at most {@code jfr.maxSizeMb} of events and stops by
+ * itself after {@code jfr.maxDurationMinutes}, so a forgotten recording
+ * cannot fill the disk. Stopping writes a {@code .jfr} file to open in JDK
+ * Mission Control or with {@code jfr print}; it holds the JVM's events from
+ * the chosen settings and the {@link ServiceOperationEvent}s and
+ * {@link StatementEvent}s of the application.
+ * </p>
+ * <p>Configuration ({@link #fromConfig(AppConfig)}):</p>
+ * <ul>
+ * <li>{@code jfr.dir} - default {@code ~/.novabook/recordings}</li>
+ * <li>{@code jfr.settings} - {@code default} (about 1% overhead) or {@code profile} (default, about 2%)</li>
+ * <li>{@code jfr.maxSizeMb} - default 100</li>
+ * <li>{@code jfr.maxDurationMinutes} - default 30</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class RecordingControl {
+    private static final Logger logger = Logger.getLogger(RecordingControl.class.getName());
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path dir;
+    private final String settings;
+    private final long maxSizeBytes;
+    private final Duration maxDuration;
+    private Recording recording;
+    private Path destination;
+
+    /**
+     * Creates a control; nothing is recorded until {@link #start()}.
+     *
+     * @param dir the directory of the recording files
+     * @param settings the name of a JDK settings file, {@code default} or {@code profile}
+     * @param maxSizeBytes the most event data kept
+     * @param maxDuration the time after which the recording stops by itself
+     */
+    public RecordingControl(Path dir, String settings, long maxSizeBytes, Duration maxDuration) {
+        this.dir = dir;
+        this.settings = settings;
+        this.maxSizeBytes = maxSizeBytes;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Creates a control from {@code jfr.*} settings.
+     *
+     * @param cfg the application configuration
+     * @return the control
+     */
+    public static RecordingControl fromConfig(AppConfig cfg) {
+        String defaultDir = Path.of(System.getProperty("user.home"), ".novabook", "recordings").toString();
+        return new RecordingControl(Path.of(cfg.get("jfr.dir", defaultDir)), cfg.get("jfr.settings", "profile"),
+                cfg.getLong("jfr.maxSizeMb", 100) * 1024 * 1024,
+                Duration.ofMinutes(cfg.getLong("jfr.maxDurationMinutes", 30)));
+    }
+
+    /**
+     * Starts a recording, or keeps the running one.
+     *
+     * @return the file the recording is written to when it stops
+     * @throws IOException if the directory cannot be created or the settings are unknown
+     */
+    public synchronized Path start() throws IOException {
+        if (isRecording()) {
+            return destination;
+        }
+        close();
+        Files.createDirectories(dir);
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (ParseException e) {
+            throw new IOException("Invalid Flight Recorder settings: " + settings, e);
+        }
+        Path file = dir.resolve("novabook-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+        Recording started = new Recording(configuration);
+        started.setName("NovaBook");
+        started.setToDisk(true);
+        started.setMaxSize(maxSizeBytes);
+        started.setDuration(maxDuration);
+        started.setDestination(file);
+        started.start();
+        recording = started;
+        destination = file;
+        logger.log(Level.INFO, "Flight recording started, writing to {0} when stopped", file);
+        return file;
+    }
+
+    /**
+     * Stops the recording and writes its file. A recording that already
+     * stopped at its maximum duration has written its file then.
+     *
+     * @return the written file, or {@code null} if nothing was recording
+     */
+    public synchronized Path stop() {
+        if (recording == null) {
+            return null;
+        }
+        Path file = destination;
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        close();
+        logger.log(Level.INFO, "Flight recording written to {0}", file);
+        return file;
+    }
+
+    /**
+     * Tells whether a recording is running.
+     *
+     * @return {@code true} between {@link #start()} and {@link #stop()} or the maximum duration
+     */
+    public synchronized boolean isRecording() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            destination = null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.codeup.booknova.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one statement run by
+ * {@link com.codeup.booknova.jdbc.JdbcTemplateLight}, from preparing it to
+ * reading its last row. The stack trace shows which service issued it.
+ * <p>
+ * Costs next to nothing without a running recording, see
+ * {@link ServiceOperationEvent}.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+@Name("com.codeup.booknova.JdbcStatement")
+@Label("JDBC Statement")
+@Category({"NovaBook", "JDBC"})
+@Description("A statement run through JdbcTemplateLight")
+@StackTrace(true)
+public class StatementEvent extends Event {
+    public static final String QUERY = "query";
+    public static final String UPDATE = "update";
+    public static final String INSERT = "insert";
+    public static final String BULK_INSERT = "bulk insert";
+    public static final String STREAM = "stream";
+
+    @Label("Kind")
+    @Description("query, update, insert, bulk insert or stream")
+    private String kind;
+
+    @Label("Statement")
+    @Description("The SQL, or the table of a bulk insert")
+    private String sql;
+
+    @Label("Rows")
+    @Description("Rows read, changed or inserted")
+    private long rows;
+
+    @Label("Failed")
+    private boolean failed;
+
+    /**
+     * Starts timing a statement.
+     *
+     * @param kind one of the kind constants
+     * @param sql the SQL, or the table of a bulk insert
+     * @return the started event
+     */
+    public static StatementEvent start(String kind, String sql) {
+        StatementEvent event = new StatementEvent();
+        event.kind = kind;
+        event.sql = sql;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the statement and commits the event if a recording wants it.
+     *
+     * @param succeeded {@code false} if the statement threw
+     * @param rows the rows read, changed or inserted
+     */
+    public void finish(boolean succeeded, long rows) {
+        if (shouldCommit()) {
+            this.failed = !succeeded;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.codeup.booknova.infra.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * Logging handler that writes to a file on a background thread.
+ * <p>
+ * {@link #publish(LogRecord)} only checks the level, applies the sampling
+ * policy and puts the record into a bounded lock-free ring buffer. A single
+ * writer thread formats records, collects them in a buffer and writes each
+ * batch to the file with one NIO channel write. The logging thread never
+ * formats, takes a lock or touches the file.
+ * </p>
+ * <p>When the ring buffer is full the {@link OverflowPolicy} applies:</p>
+ * <ul>
+ * <li>{@link OverflowPolicy#DROP} - the record is discarded and counted</li>
+ * <li>{@link OverflowPolicy#BLOCK} - the caller waits for space (counted once per record)</li>
+ * </ul>
+ * <p>
+ * The file is rotated when it would grow beyond {@code maxBytes} or when the
+ * rotation interval has passed: {@code app.log} becomes {@code app.log.1}, the
+ * previous {@code app.log.1} becomes {@code app.log.2}, and so on, keeping
+ * {@code maxFiles} old files.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ * @see LoggingConfigurer
+ */
+public class AsyncLogHandler extends Handler {
+
+    /**
+     * What {@link #publish(LogRecord)} does when the ring buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** Discard the record. */
+        DROP,
+        /** Wait until the writer has made room. */
+        BLOCK
+    }
+
+    private static final int BATCH_BYTES = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final Path file;
+    private final LogRingBuffer<LogRecord> ring;
+    private final OverflowPolicy overflow;
+    private final LogSamplingPolicy sampling;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final long rotateIntervalMillis;
+    private final Thread writer;
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_BYTES);
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private volatile long written;
+    private volatile long rotations;
+    private volatile boolean closed;
+
+    // accessed only by the writer thread
+    private FileChannel channel;
+    private long fileSize;
+    private long nextRotationMillis;
+
+    /**
+     * Opens the file and starts the writer thread.
+     *
+     * @param file the log file
+     * @param capacity ring buffer capacity in records
+     * @param overflow what to do when the buffer is full
+     * @param sampling which routine records to keep
+     * @param maxBytes rotate before the file exceeds this size, 0 for no size limit
+     * @param maxFiles number of rotated files to keep
+     * @param rotateInterval rotate at this interval, {@code null} or zero for no time-based rotation
+     * @throws IOException if the file cannot be opened
+     */
+    public AsyncLogHandler(Path file, int capacity, OverflowPolicy overflow, LogSamplingPolicy sampling,
+                           long maxBytes, int maxFiles, Duration rotateInterval) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.ring = new LogRingBuffer<>(capacity);
+        this.overflow = overflow;
+        this.sampling = sampling != null ? sampling : LogSamplingPolicy.NONE;
+        this.maxBytes = maxBytes;
+        this.maxFiles = Math.max(0, maxFiles);
+        this.rotateIntervalMillis = rotateInterval == null ? 0 : rotateInterval.toMillis();
+        setFormatter(new LogLineFormatter());
+        openChannel();
+        this.writer = new Thread(this::writeLoop, "async-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        if (!sampling.keep(record)) {
+            sampledOut.increment();
+            return;
+        }
+        if (ring.offer(record)) {
+            return;
+        }
+        if (overflow == OverflowPolicy.DROP) {
+            dropped.increment();
+            return;
+        }
+        blocked.increment();
+        int spins = 0;
+        while (!ring.offer(record)) {
+            if (closed) {
+                dropped.increment();
+                return;
+            }
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(50_000);
+            }
+        }
+    }
+
+    /**
+     * Waits (up to a second) until every record published before this call
+     * has been written to the file.
+     */
+    @Override
+    public void flush() {
+        long target = ring.produced();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (written < target && System.nanoTime() < deadline && writer.isAlive()) {
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    /**
+     * Writes everything still queued, stops the writer thread and closes the file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getWrittenCount() {
+        return written;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns how many records had to wait for space under {@link OverflowPolicy#BLOCK}.
+     *
+     * @return the blocked record count
+     */
+    public long getBlockedCount() {
+        return blocked.sum();
+    }
+
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+
+    public long getRotationCount() {
+        return rotations;
+    }
+
+    /**
+     * Returns the number of records waiting in the ring buffer.
+     *
+     * @return the queue depth
+     */
+    public long getQueueDepth() {
+        return ring.produced() - ring.consumed();
+    }
+
+    private void writeLoop() {
+        while (true) {
+            boolean stopping = closed;
+            Formatter formatter = getFormatter();
+            int n = 0;
+            LogRecord record;
+            while (n < 1024 && (record = ring.poll()) != null) {
+                append(formatter, record);
+                n++;
+            }
+            writeBatch();
+            // every record taken so far is now in the file
+            written += n;
+            if (n == 0) {
+                if (stopping && ring.isEmpty()) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            reportError("Could not close log file", e, ErrorManager.CLOSE_FAILURE);
+        }
+    }
+
+    private void append(Formatter formatter, LogRecord record) {
+        byte[] line;
+        try {
+            line = formatter.format(record).getBytes(StandardCharsets.UTF_8);
+        } catch (RuntimeException e) {
+            reportError("Could not format log record", e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+        if (line.length > batch.remaining()) {
+            writeBatch();
+        }
+        if (line.length > batch.capacity()) {
+            write(ByteBuffer.wrap(line));
+        } else {
+            batch.put(line);
+        }
+    }
+
+    private void writeBatch() {
+        if (batch.position() == 0) {
+            return;
+        }
+        batch.flip();
+        write(batch);
+        batch.clear();
+    }
+
+    private void write(ByteBuffer bytes) {
+        try {
+            rotateIfNeeded(bytes.remaining());
+            while (bytes.hasRemaining()) {
+                fileSize += channel.write(bytes);
+            }
+        } catch (IOException e) {
+            reportError("Could not write log file", e, ErrorManager.WRITE_FAILURE);
+            bytes.position(bytes.limit());
+        }
+    }
+
+    private void rotateIfNeeded(int incoming) throws IOException {
+        boolean bySize = maxBytes > 0 && fileSize > 0 && fileSize + incoming > maxBytes;
+        boolean byTime = rotateIntervalMillis > 0 && System.currentTimeMillis() >= nextRotationMillis;
+        if (!bySize && !byTime) {
+            return;
+        }
+        channel.close();
+        if (maxFiles == 0) {
+            Files.deleteIfExists(file);
+        } else {
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path from = rotated(i);
+                if (Files.exists(from)) {
+                    Files.move(from, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (Files.exists(file)) {
+                Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        rotations++;
+        openChannel();
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void openChannel() throws IOException {
+        Path parent = file.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = channel.size();
+        nextRotationMillis = rotateIntervalMillis > 0 ? System.currentTimeMillis() + rotateIntervalMillis : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,41 @@
+package com.codeup.booknova.infra.logging;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.logging.Formatter;
+import java.util.logging.LogRecord;
+
+/**
+ * One-line log format: {@code 2024-05-01 10:15:30.123 INFO [logger] message}.
+ * <p>
+ * Uses the logger name rather than the source class and method. Unlike
+ * {@link java.util.logging.SimpleFormatter}, this never asks the record for its
+ * source, which would make the record walk the stack of whatever thread formats
+ * it - the asynchronous writer thread, where the result would be wrong.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class LogLineFormatter extends Formatter {
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    @Override
+    public String format(LogRecord record) {
+        StringBuilder sb = new StringBuilder(128);
+        TIMESTAMP.formatTo(record.getInstant(), sb);
+        sb.append(' ').append(record.getLevel().getName())
+                .append(" [").append(record.getLoggerName()).append("] ")
+                .append(formatMessage(record))
+                .append(System.lineSeparator());
+        if (record.getThrown() != null) {
+            StringWriter trace = new StringWriter();
+            record.getThrown().printStackTrace(new PrintWriter(trace));
+            sb.append(trace);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.codeup.booknova.infra.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * <p>
+ * Each slot carries a sequence number (after D. Vyukov's bounded queue).
+ * A producer claims a position with one CAS on the tail, stores its element and
+ * publishes it by advancing the slot's sequence; the consumer reads slots in
+ * order without any atomic read-modify-write. Producers never wait for each
+ * other beyond a failed CAS, and a full buffer is reported instead of blocking.
+ * </p>
+ *
+ * @param <E> the element type
+ */
+final class LogRingBuffer<E> {
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // written only by the consumer thread
+    private volatile long head;
+
+    /**
+     * Creates a buffer.
+     *
+     * @param capacity the capacity, rounded up to a power of two
+     */
+    LogRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is room. Safe to call from any thread.
+     *
+     * @param e the element
+     * @return {@code false} if the buffer is full
+     */
+    boolean offer(E e) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.getAcquire(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[index] = e;
+                    sequences.setRelease(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element. Must only be called by the consumer thread.
+     *
+     * @return the element, or {@code null} if none is ready
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long h = head;
+        int index = (int) (h & mask);
+        if (sequences.getAcquire(index) != h + 1) {
+            return null;
+        }
+        E e = (E) slots[index];
+        slots[index] = null;
+        sequences.setRelease(index, h + slots.length);
+        head = h + 1;
+        return e;
+    }
+
+    /**
+     * Returns the number of elements claimed by producers so far.
+     */
+    long produced() {
+        return tail.get();
+    }
+
+    /**
+     * Returns the number of elements taken by the consumer so far.
+     */
+    long consumed() {
+        return head;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    boolean isEmpty() {
+        return head == tail.get();
+    }
+}
@@ -0,0 +1,76 @@
+package com.codeup.booknova.infra.logging;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Samples routine log records per logger prefix.
+ * <p>
+ * Repositories log every query at INFO. A rule such as
+ * {@code com.codeup.booknova.repository -> 100} keeps one of every 100 INFO
+ * (and finer) records from loggers under that prefix; WARNING and SEVERE are
+ * always kept. The most specific matching prefix wins.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class LogSamplingPolicy {
+
+    /** Keeps every record. */
+    public static final LogSamplingPolicy NONE = new LogSamplingPolicy(Map.of());
+
+    private record Rule(String prefix, int keepOneIn, AtomicLong seen) {}
+
+    private static final Rule KEEP_ALL = new Rule("", 1, new AtomicLong());
+
+    private final List<Rule> rules;
+    private final Map<String, Rule> byLogger = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a policy.
+     *
+     * @param keepOneIn logger name prefix mapped to N, keeping one in N routine records
+     */
+    public LogSamplingPolicy(Map<String, Integer> keepOneIn) {
+        List<Rule> list = new ArrayList<>();
+        keepOneIn.forEach((prefix, n) -> {
+            if (n == null || n < 1) {
+                throw new IllegalArgumentException("Sample rate for " + prefix + " must be at least 1");
+            }
+            list.add(new Rule(prefix, n, new AtomicLong()));
+        });
+        list.sort(Comparator.comparingInt((Rule r) -> r.prefix().length()).reversed());
+        this.rules = List.copyOf(list);
+    }
+
+    /**
+     * Decides whether a record is kept.
+     *
+     * @param record the record
+     * @return {@code true} to write it, {@code false} if it is sampled out
+     */
+    public boolean keep(LogRecord record) {
+        if (rules.isEmpty() || record.getLevel().intValue() > Level.INFO.intValue()) {
+            return true;
+        }
+        String name = record.getLoggerName() == null ? "" : record.getLoggerName();
+        Rule rule = byLogger.computeIfAbsent(name, this::match);
+        return rule.keepOneIn() == 1 || rule.seen().getAndIncrement() % rule.keepOneIn() == 0;
+    }
+
+    private Rule match(String loggerName) {
+        for (Rule rule : rules) {
+            if (loggerName.equals(rule.prefix()) || loggerName.startsWith(rule.prefix() + ".")) {
+                return rule;
+            }
+        }
+        return KEEP_ALL;
+    }
+}
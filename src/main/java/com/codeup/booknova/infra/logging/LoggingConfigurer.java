@@ -0,0 +1,79 @@
+package com.codeup.booknova.infra.logging;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.infra.config.AppConfig;
+
+/**
+ * Installs the asynchronous file log from {@code log.*} settings.
+ * <p>Configuration:</p>
+ * <ul>
+ * <li>{@code log.file} - log file (default {@code app.log})</li>
+ * <li>{@code log.async.capacity} - ring buffer size in records (default 8192)</li>
+ * <li>{@code log.async.overflow} - {@code drop} or {@code block} (default drop)</li>
+ * <li>{@code log.rotate.maxBytes} - rotate at this size (default 10 MiB, 0 disables)</li>
+ * <li>{@code log.rotate.maxFiles} - rotated files to keep (default 5)</li>
+ * <li>{@code log.rotate.intervalMinutes} - rotate at least this often (default 1440, 0 disables)</li>
+ * <li>{@code log.level.<logger>} - level of a logger and its children, e.g.
+ *     {@code log.level.com.codeup.booknova.repository=WARNING}</li>
+ * <li>{@code log.sample.<logger>} - keep one in N INFO records of a logger and its
+ *     children, e.g. {@code log.sample.com.codeup.booknova.repository=100}</li>
+ * </ul>
+ * <p>
+ * Levels are set on the loggers themselves, so records below them are rejected
+ * before a {@code LogRecord} is even created; sampling happens in the handler.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class LoggingConfigurer {
+    // JUL keeps loggers weakly; holding them keeps their configured levels alive
+    private static final List<Logger> CONFIGURED = new ArrayList<>();
+    private static AsyncLogHandler installed;
+
+    private LoggingConfigurer() {}
+
+    /**
+     * Creates the handler, applies logger levels and attaches the handler to
+     * the root logger. Calling it again returns the already installed handler.
+     *
+     * @param cfg the application configuration
+     * @return the installed handler
+     * @throws IOException if the log file cannot be opened
+     */
+    public static synchronized AsyncLogHandler install(AppConfig cfg) throws IOException {
+        if (installed != null) {
+            return installed;
+        }
+        cfg.withPrefix("log.level.").forEach((name, level) -> {
+            Logger logger = Logger.getLogger(name);
+            logger.setLevel(Level.parse(level.toUpperCase(Locale.ROOT)));
+            CONFIGURED.add(logger);
+        });
+        Map<String, Integer> sampling = new HashMap<>();
+        cfg.withPrefix("log.sample.").forEach((name, n) -> sampling.put(name, Integer.valueOf(n)));
+
+        AsyncLogHandler handler = new AsyncLogHandler(
+                Path.of(cfg.get("log.file", "app.log")),
+                cfg.getInt("log.async.capacity", 8192),
+                AsyncLogHandler.OverflowPolicy.valueOf(cfg.get("log.async.overflow", "drop").toUpperCase(Locale.ROOT)),
+                new LogSamplingPolicy(sampling),
+                cfg.getLong("log.rotate.maxBytes", 10L * 1024 * 1024),
+                cfg.getInt("log.rotate.maxFiles", 5),
+                Duration.ofMinutes(cfg.getLong("log.rotate.intervalMinutes", 1440)));
+        Logger.getLogger("").addHandler(handler);
+        Runtime.getRuntime().addShutdownHook(new Thread(handler::close, "async-log-shutdown"));
+        installed = handler;
+        return handler;
+    }
+}
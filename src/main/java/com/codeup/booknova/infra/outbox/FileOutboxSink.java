@@ -0,0 +1,58 @@
+package com.codeup.booknova.infra.outbox;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.codeup.booknova.api.json.JsonWriter;
+
+/**
+ * Appends outbox events to a local file, one JSON object per line.
+ * <p>
+ * Each batch is synced to disk before it counts as delivered, so an event
+ * the relay has moved past is in the file even after a crash. A batch that
+ * failed half way is written again, so readers should skip ids they have
+ * seen.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class FileOutboxSink implements OutboxSink {
+    private final Path file;
+
+    public FileOutboxSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileOutputStream stream = new FileOutputStream(file.toFile(), true);
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8))) {
+            for (OutboxEvent event : events) {
+                event.writeJson(new JsonWriter(out));
+                out.write('\n');
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
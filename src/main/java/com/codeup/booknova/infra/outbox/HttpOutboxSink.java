@@ -0,0 +1,68 @@
+package com.codeup.booknova.infra.outbox;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import com.codeup.booknova.api.json.JsonWriter;
+
+/**
+ * Posts outbox events to an HTTP endpoint, e.g. a webhook of the reminder service.
+ * <p>
+ * Each batch is one {@code POST} of a JSON array. Any status other than 2xx,
+ * a timeout or a connection error fails the batch, which is posted again
+ * later. The {@code X-Outbox-Batch} header ({@code firstId-lastId}) lets the
+ * receiver recognize a batch it has already processed.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class HttpOutboxSink implements OutboxSink {
+    private final URI endpoint;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    public HttpOutboxSink(URI endpoint, Duration timeout) {
+        this.endpoint = endpoint;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) throws IOException {
+        StringWriter body = new StringWriter(events.size() * 256);
+        JsonWriter json = new JsonWriter(body);
+        json.beginArray();
+        for (OutboxEvent event : events) {
+            event.writeJson(json);
+        }
+        json.endArray();
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("X-Outbox-Batch", events.get(0).id() + "-" + events.get(events.size() - 1).id())
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        HttpResponse<Void> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while posting outbox events", e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Outbox endpoint " + endpoint + " answered " + response.statusCode());
+        }
+    }
+}
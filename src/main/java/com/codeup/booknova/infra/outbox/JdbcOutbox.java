@@ -0,0 +1,233 @@
+package com.codeup.booknova.infra.outbox;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import com.codeup.booknova.api.json.JsonMapper;
+import com.codeup.booknova.api.json.JsonWriter;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+
+/**
+ * {@link Outbox} backed by the {@code outbox_event} table, with the
+ * per-sink positions of {@link OutboxRelay} in {@code outbox_cursor}.
+ * <p>
+ * A cursor row also carries a lease: the relay named in {@code owner} may
+ * feed the sink until {@code lease_until}. Every desk client may run a
+ * relay, and the lease makes one of them deliver to a shared sink at a time.
+ * </p>
+ * <p>
+ * {@link #append} is one insert through {@link JdbcTemplateLight}, so it
+ * joins the caller's transaction. The relay's reads run in a read-write
+ * transaction so that they are served by the primary and never by a replica
+ * that has not caught up.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class JdbcOutbox implements Outbox {
+    private static final String COLUMNS = "id, aggregate_type, aggregate_id, event_type, payload, created_at";
+
+    private final JdbcTemplateLight jdbc;
+    private final JsonMapper json = new JsonMapper();
+    private final String addCursor;
+
+    public JdbcOutbox(JdbcTemplateLight jdbc) {
+        this.jdbc = jdbc;
+        this.addCursor = jdbc.getDialect().insertIgnore("outbox_cursor", List.of("sink", "last_id"), List.of("sink"));
+    }
+
+    @Override
+    public void append(String aggregateType, int aggregateId, String eventType, Map<String, Object> payload)
+            throws DatabaseException {
+        String body = toJson(payload);
+        jdbc.update("INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, payload) VALUES (?, ?, ?, ?)",
+                ps -> {
+                    try {
+                        ps.setString(1, aggregateType);
+                        ps.setInt(2, aggregateId);
+                        ps.setString(3, eventType);
+                        ps.setString(4, body);
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Error binding outbox event", e);
+                    }
+                });
+    }
+
+    /**
+     * Returns the events after a position, in order.
+     *
+     * @param afterId the last event already seen; 0 for the first event
+     * @param limit the most events to return
+     * @return the events, by increasing id
+     * @throws DatabaseException if the query fails
+     */
+    public List<OutboxEvent> readAfter(long afterId, int limit) throws DatabaseException {
+        return jdbc.inTransaction(() -> jdbc.query("SELECT " + COLUMNS + " FROM outbox_event WHERE id > ? ORDER BY id LIMIT ?",
+                ps -> {
+                    try {
+                        ps.setLong(1, afterId);
+                        ps.setInt(2, limit);
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Error binding outbox position", e);
+                    }
+                },
+                rs -> new OutboxEvent(rs.getLong("id"), rs.getString("aggregate_type"), rs.getInt("aggregate_id"),
+                        rs.getString("event_type"), rs.getString("payload"), rs.getTimestamp("created_at").toInstant())));
+    }
+
+    /**
+     * Returns the id of the newest event.
+     *
+     * @return the highest id, 0 if the outbox is empty
+     * @throws DatabaseException if the query fails
+     */
+    public long lastId() throws DatabaseException {
+        return jdbc.inTransaction(() -> jdbc.query("SELECT COALESCE(MAX(id), 0) FROM outbox_event", null,
+                rs -> rs.getLong(1)).get(0));
+    }
+
+    /**
+     * Returns a sink's position, registering the sink at the start of the outbox if it is new.
+     *
+     * @param sink the sink name
+     * @return the id of the last event the sink received
+     * @throws DatabaseException if the query fails
+     */
+    public long cursor(String sink) throws DatabaseException {
+        return jdbc.inTransaction(() -> {
+            jdbc.update(addCursor, ps -> {
+                try {
+                    ps.setString(1, sink);
+                    ps.setLong(2, 0);
+                } catch (SQLException e) {
+                    throw new RuntimeException("Error binding outbox sink", e);
+                }
+            });
+            return jdbc.query("SELECT last_id FROM outbox_cursor WHERE sink = ?", ps -> {
+                try {
+                    ps.setString(1, sink);
+                } catch (SQLException e) {
+                    throw new RuntimeException("Error binding outbox sink", e);
+                }
+            }, rs -> rs.getLong(1)).get(0);
+        });
+    }
+
+    /**
+     * Takes or renews the lease on a sink, registering the sink at the start
+     * of the outbox if it is new. The lease is granted if no relay holds it,
+     * the caller already does or the holder's lease has run out.
+     *
+     * @param sink the sink name
+     * @param owner identifies the calling relay
+     * @param until when the lease runs out unless renewed
+     * @return {@code true} if the caller holds the lease
+     * @throws DatabaseException if the update fails
+     */
+    public boolean lease(String sink, String owner, Instant until) throws DatabaseException {
+        cursor(sink);
+        Timestamp now = Timestamp.from(Instant.now());
+        return jdbc.update("UPDATE outbox_cursor SET owner = ?, lease_until = ? "
+                + "WHERE sink = ? AND (owner IS NULL OR owner = ? OR lease_until < ?)", ps -> {
+            try {
+                ps.setString(1, owner);
+                ps.setTimestamp(2, Timestamp.from(until));
+                ps.setString(3, sink);
+                ps.setString(4, owner);
+                ps.setTimestamp(5, now);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error binding outbox lease", e);
+            }
+        }) == 1;
+    }
+
+    /**
+     * Gives up a lease, so that another relay can take the sink over at once.
+     *
+     * @param sink the sink name
+     * @param owner the relay holding the lease
+     * @throws DatabaseException if the update fails
+     */
+    public void release(String sink, String owner) throws DatabaseException {
+        jdbc.update("UPDATE outbox_cursor SET owner = NULL, lease_until = NULL WHERE sink = ? AND owner = ?", ps -> {
+            try {
+                ps.setString(1, sink);
+                ps.setString(2, owner);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error binding outbox lease", e);
+            }
+        });
+    }
+
+    /**
+     * Stores a sink's position after a delivered batch, if the caller still
+     * holds the sink's lease.
+     *
+     * @param sink the sink name
+     * @param owner the relay that delivered the batch
+     * @param lastId the id of the last event delivered
+     * @return {@code false} if another relay has taken the lease over
+     * @throws DatabaseException if the update fails
+     */
+    public boolean saveCursor(String sink, String owner, long lastId) throws DatabaseException {
+        return jdbc.update("UPDATE outbox_cursor SET last_id = ? WHERE sink = ? AND owner = ?", ps -> {
+            try {
+                ps.setLong(1, lastId);
+                ps.setString(2, sink);
+                ps.setString(3, owner);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error binding outbox position", e);
+            }
+        }) == 1;
+    }
+
+    /**
+     * Returns the lowest stored position, i.e. the events every shared sink has received.
+     *
+     * @return the lowest {@code last_id}; {@link Long#MAX_VALUE} if no sink is registered
+     * @throws DatabaseException if the query fails
+     */
+    public long minCursor() throws DatabaseException {
+        return jdbc.inTransaction(() -> jdbc.query("SELECT MIN(last_id) FROM outbox_cursor", null, rs -> {
+            long min = rs.getLong(1);
+            return rs.wasNull() ? Long.MAX_VALUE : min;
+        }).get(0));
+    }
+
+    /**
+     * Deletes delivered events.
+     *
+     * @param upToId the highest id every sink has received
+     * @param before only events written before this time are deleted
+     * @return the number of events deleted
+     * @throws DatabaseException if the delete fails
+     */
+    public int purge(long upToId, Instant before) throws DatabaseException {
+        return jdbc.update("DELETE FROM outbox_event WHERE id <= ? AND created_at < ?", ps -> {
+            try {
+                ps.setLong(1, upToId);
+                ps.setTimestamp(2, Timestamp.from(before));
+            } catch (SQLException e) {
+                throw new RuntimeException("Error binding outbox purge", e);
+            }
+        });
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        StringWriter out = new StringWriter(128);
+        try {
+            json.write(new JsonWriter(out), payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+}
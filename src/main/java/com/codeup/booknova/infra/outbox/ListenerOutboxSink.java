@@ -0,0 +1,66 @@
+package com.codeup.booknova.infra.outbox;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Hands outbox events to listeners in this process, e.g. a cache that must
+ * forget a loan once it is returned.
+ * <p>
+ * Listeners run on the relay thread, one event at a time in outbox order, and
+ * should return quickly. If one throws, the batch fails and is delivered
+ * again to every listener from its first event.
+ * </p>
+ * <p>
+ * Each client has its own listeners, so this sink is {@link #inProcess()}:
+ * listeners hear the events written, by any client, after the relay of their
+ * own process started.
+ * </p>
+ * <p>Example:</p>
+ * <pre>{@code
+ * serviceManager.getOutboxListeners().addListener(event -> {
+ *     if (OutboxEvent.LOAN_RETURNED.equals(event.eventType())) {
+ *         loanCache.remove(event.aggregateId());
+ *     }
+ * });
+ * }</pre>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class ListenerOutboxSink implements OutboxSink {
+    private final List<Consumer<OutboxEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String name() {
+        return "listeners";
+    }
+
+    @Override
+    public boolean inProcess() {
+        return true;
+    }
+
+    public void addListener(Consumer<OutboxEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<OutboxEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) throws IOException {
+        for (OutboxEvent event : events) {
+            for (Consumer<OutboxEvent> listener : listeners) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    throw new IOException("Listener failed on outbox event " + event.id(), e);
+                }
+            }
+        }
+    }
+}
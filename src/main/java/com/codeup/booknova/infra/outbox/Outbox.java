@@ -0,0 +1,38 @@
+package com.codeup.booknova.infra.outbox;
+
+import java.util.Map;
+
+import com.codeup.booknova.exception.DatabaseException;
+
+/**
+ * Records domain events in the same transaction as the change they describe.
+ * <p>
+ * {@link com.codeup.booknova.service.impl.LoanService} and
+ * {@link com.codeup.booknova.service.impl.MembershipRequestService} append
+ * inside their transactions, so an event exists exactly when its change
+ * commits. {@link OutboxRelay} later reads the events and hands them to the
+ * configured {@link OutboxSink}s.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ * @see JdbcOutbox
+ */
+public interface Outbox {
+
+    /** Outbox that records nothing, e.g. when it is disabled or in unit tests with mocked repositories. */
+    Outbox NONE = (aggregateType, aggregateId, eventType, payload) -> {
+    };
+
+    /**
+     * Appends an event in the caller's transaction.
+     *
+     * @param aggregateType what changed, e.g. {@link OutboxEvent#LOAN}
+     * @param aggregateId the id of what changed
+     * @param eventType what happened, e.g. {@link OutboxEvent#LOAN_CREATED}
+     * @param payload the event's fields; strings, numbers, booleans, enums and dates
+     * @throws DatabaseException if the event cannot be written, which rolls back the change
+     */
+    void append(String aggregateType, int aggregateId, String eventType, Map<String, Object> payload)
+            throws DatabaseException;
+}
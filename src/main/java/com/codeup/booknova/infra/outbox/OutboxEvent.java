@@ -0,0 +1,53 @@
+package com.codeup.booknova.infra.outbox;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import com.codeup.booknova.api.json.JsonWriter;
+
+/**
+ * A domain event read from the outbox.
+ * <p>
+ * Events of one aggregate, e.g. one loan, are delivered in the order they
+ * were written. Delivery is at least once, so a consumer may see an event
+ * again after a failure; {@link #id()} identifies it.
+ * </p>
+ *
+ * @param id the outbox sequence number, increasing in write order
+ * @param aggregateType what changed, e.g. {@link #LOAN}
+ * @param aggregateId the id of what changed
+ * @param eventType what happened, e.g. {@link #LOAN_CREATED}
+ * @param payload the event's fields as a JSON object
+ * @param createdAt when the event was written, by the database clock
+ * @version 1.0
+ * @since 1.0
+ */
+public record OutboxEvent(long id, String aggregateType, int aggregateId, String eventType, String payload,
+                          Instant createdAt) {
+
+    public static final String LOAN = "loan";
+    public static final String MEMBERSHIP_REQUEST = "membership_request";
+
+    public static final String LOAN_CREATED = "loan.created";
+    public static final String LOAN_RETURNED = "loan.returned";
+    public static final String LOAN_EXTENDED = "loan.extended";
+    public static final String MEMBERSHIP_APPROVED = "membership.approved";
+    public static final String MEMBERSHIP_REJECTED = "membership.rejected";
+
+    /**
+     * Writes the event as a JSON object with the payload embedded.
+     *
+     * @param json the destination
+     * @throws IOException if writing fails
+     */
+    public void writeJson(JsonWriter json) throws IOException {
+        json.beginObject()
+                .name("id").value(id)
+                .name("aggregateType").value(aggregateType)
+                .name("aggregateId").value(aggregateId)
+                .name("eventType").value(eventType)
+                .name("createdAt").value(createdAt != null ? createdAt.toString() : null)
+                .name("payload").rawValue(payload)
+                .endObject();
+    }
+}
@@ -0,0 +1,400 @@
+package com.codeup.booknova.infra.outbox;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+
+/**
+ * Reads new outbox events in batches and delivers them to each sink.
+ * <p>
+ * Every sink has its own position: the id of the last event it received. A
+ * batch is the next events after that id, in id order; the position moves
+ * past the batch only once the sink accepted it. A failed batch is retried
+ * from its first event with a growing pause, so delivery is at least once
+ * and each sink sees the events of an aggregate in the order they were
+ * written.
+ * </p>
+ * <p>
+ * Every desk client with {@code outbox.enabled} runs a relay of its own,
+ * and the sinks behave differently across them:
+ * </p>
+ * <ul>
+ * <li>An {@link OutboxSink#inProcess() in-process} sink, i.e. the listeners,
+ *     exists once per client. Its position is kept in memory from the
+ *     newest event at start-up, so the listeners of every client hear every
+ *     event written, by any client, while that client runs.</li>
+ * <li>A shared sink, i.e. the file or HTTP endpoint, must see each event
+ *     once. Its position is stored in {@code outbox_cursor}, and only the
+ *     relay holding the row's lease delivers to it; the others stand by
+ *     and take over once the lease has not been renewed for
+ *     {@code outbox.relay.leaseSeconds}, e.g. after the holder exited. A
+ *     holder that lost its lease mid-batch does not store its position, so
+ *     the batch may be delivered once more by the new holder. Lease times
+ *     come from the clients' clocks, which must agree to well within the
+ *     lease.</li>
+ * </ul>
+ * <p>
+ * Old events are only purged once every shared sink stored in
+ * {@code outbox_cursor} has received them, whichever client delivered them.
+ * </p>
+ * <p>
+ * Ids are handed out when a transaction inserts its event but become
+ * visible when it commits, so a later id can be read before an earlier one.
+ * Moving past the missing id would lose that event, so a batch stops at a
+ * gap in the ids until the gap fills or is older than
+ * {@code outbox.relay.gapWaitMillis}, after which it is taken to be a rolled
+ * back transaction.
+ * </p>
+ * <p>Configuration ({@link #fromConfig}):</p>
+ * <ul>
+ * <li>{@code outbox.sinks} - comma separated: {@code listeners}, {@code file}, {@code http}; default listeners</li>
+ * <li>{@code outbox.file} - default {@code ~/.novabook/outbox.jsonl}</li>
+ * <li>{@code outbox.http.url}, {@code outbox.http.timeoutMillis} - default timeout 5000</li>
+ * <li>{@code outbox.relay.pollMillis} - default 500</li>
+ * <li>{@code outbox.relay.batchSize} - default 200</li>
+ * <li>{@code outbox.relay.gapWaitMillis} - default 5000; 0 never waits</li>
+ * <li>{@code outbox.relay.leaseSeconds} - how long a shared sink's lease lasts unless renewed; default 30</li>
+ * <li>{@code outbox.retentionHours} - delivered events older than this are deleted; default 168, 0 keeps them</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class OutboxRelay implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(OutboxRelay.class.getName());
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+    private static final long PURGE_EVERY_MILLIS = 3_600_000;
+
+    /** Position and counters of one sink; written by the relay thread only. */
+    private static final class SinkState {
+        final OutboxSink sink;
+        volatile long cursor = -1; // -1 until read from outbox_cursor, or from the head if in-process
+        volatile long delivered;
+        volatile long failures;
+        volatile long oldestPendingMillis; // created_at of the first undelivered event, 0 if none
+        int failuresInRow;
+        long retryAtMillis;
+        long gapAt = -1; // the missing id a batch stopped at
+        long gapSinceNanos;
+        volatile boolean leased; // shared sinks only
+        long renewLeaseAtMillis;
+        long leaseUntilMillis;
+
+        SinkState(OutboxSink sink) {
+            this.sink = sink;
+        }
+    }
+
+    private final JdbcOutbox outbox;
+    private final List<SinkState> sinks = new ArrayList<>();
+    private final int batchSize;
+    private final long pollMillis;
+    private final long gapWaitNanos;
+    private final Duration retention;
+    private final long leaseMillis;
+    // identifies this relay in the leases of outbox_cursor
+    private final String owner = UUID.randomUUID().toString();
+    private volatile long headId;
+    private long lastPurgeMillis;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a relay; {@link #start()} runs it.
+     *
+     * @param outbox the outbox table
+     * @param sinks the sinks, with distinct names
+     * @param batchSize the most events per delivery
+     * @param pollMillis the pause between polls once every sink has caught up
+     * @param gapWaitMillis how long a gap in the ids holds back later events
+     * @param retention how long delivered events are kept; zero keeps them
+     */
+    public OutboxRelay(JdbcOutbox outbox, List<OutboxSink> sinks, int batchSize, long pollMillis,
+                       long gapWaitMillis, Duration retention) {
+        this(outbox, sinks, batchSize, pollMillis, gapWaitMillis, retention, Duration.ofSeconds(30));
+    }
+
+    /**
+     * Creates a relay whose leases on shared sinks last the given time; {@link #start()} runs it.
+     *
+     * @param outbox the outbox table
+     * @param sinks the sinks, with distinct names
+     * @param batchSize the most events per delivery
+     * @param pollMillis the pause between polls once every sink has caught up
+     * @param gapWaitMillis how long a gap in the ids holds back later events
+     * @param retention how long delivered events are kept; zero keeps them
+     * @param lease how long a lease on a shared sink lasts unless renewed; longer than a delivery may take
+     */
+    public OutboxRelay(JdbcOutbox outbox, List<OutboxSink> sinks, int batchSize, long pollMillis,
+                       long gapWaitMillis, Duration retention, Duration lease) {
+        this.outbox = outbox;
+        for (OutboxSink sink : sinks) {
+            this.sinks.add(new SinkState(sink));
+        }
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+        this.gapWaitNanos = TimeUnit.MILLISECONDS.toNanos(gapWaitMillis);
+        this.retention = retention;
+        this.leaseMillis = lease.toMillis();
+        this.lastPurgeMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Creates a relay from the {@code outbox.*} settings.
+     *
+     * @param cfg the application configuration
+     * @param outbox the outbox table
+     * @param listeners the sink of in-process listeners, used if {@code outbox.sinks} names it
+     * @return a relay, not yet started
+     */
+    public static OutboxRelay fromConfig(AppConfig cfg, JdbcOutbox outbox, ListenerOutboxSink listeners) {
+        List<OutboxSink> sinks = new ArrayList<>();
+        for (String name : cfg.get("outbox.sinks", "listeners").split(",")) {
+            switch (name.trim()) {
+                case "listeners" -> sinks.add(listeners);
+                case "file" -> sinks.add(new FileOutboxSink(Path.of(cfg.get("outbox.file",
+                        Path.of(System.getProperty("user.home"), ".novabook", "outbox.jsonl").toString()))));
+                case "http" -> {
+                    String url = cfg.get("outbox.http.url", "");
+                    if (url.isBlank()) {
+                        logger.warning("outbox.sinks names http but outbox.http.url is not set");
+                    } else {
+                        sinks.add(new HttpOutboxSink(URI.create(url),
+                                Duration.ofMillis(cfg.getLong("outbox.http.timeoutMillis", 5000))));
+                    }
+                }
+                case "" -> {
+                }
+                default -> logger.log(Level.WARNING, "Unknown outbox sink {0}", name.trim());
+            }
+        }
+        return new OutboxRelay(outbox, sinks, cfg.getInt("outbox.relay.batchSize", 200),
+                cfg.getLong("outbox.relay.pollMillis", 500), cfg.getLong("outbox.relay.gapWaitMillis", 5000),
+                Duration.ofHours(cfg.getLong("outbox.retentionHours", 168)),
+                Duration.ofSeconds(cfg.getLong("outbox.relay.leaseSeconds", 30)));
+    }
+
+    /**
+     * Polls on a daemon thread every {@code pollMillis}, draining the outbox
+     * on each poll. Failures are logged and retried.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "outbox-relay");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                while (runOnce() > 0 && !Thread.currentThread().isInterrupted()) {
+                    // a sink took events, there may be more
+                }
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Outbox relay poll failed", e);
+            }
+        }, 0, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Delivers at most one batch to each sink that is not waiting to retry,
+     * and deletes old delivered events when due.
+     *
+     * @return the number of events delivered, over all sinks
+     */
+    public int runOnce() {
+        try {
+            headId = outbox.lastId();
+        } catch (DatabaseException e) {
+            logger.log(Level.WARNING, "Outbox relay cannot read the outbox", e);
+            return 0;
+        }
+        int delivered = 0;
+        for (SinkState state : sinks) {
+            delivered += poll(state);
+        }
+        purgeIfDue();
+        return delivered;
+    }
+
+    private int poll(SinkState state) {
+        long now = System.currentTimeMillis();
+        if (now < state.retryAtMillis) {
+            return 0;
+        }
+        String name = state.sink.name();
+        try {
+            if (state.sink.inProcess()) {
+                if (state.cursor < 0) {
+                    state.cursor = headId;
+                }
+            } else if (!holdLease(state, now)) {
+                state.oldestPendingMillis = 0;
+                return 0;
+            }
+            if (state.cursor >= headId) {
+                state.oldestPendingMillis = 0;
+                return 0;
+            }
+            List<OutboxEvent> events = outbox.readAfter(state.cursor, batchSize);
+            state.oldestPendingMillis = events.isEmpty() ? 0 : events.get(0).createdAt().toEpochMilli();
+            List<OutboxEvent> batch = untilGap(state, events);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            state.sink.deliver(batch);
+            long last = batch.get(batch.size() - 1).id();
+            state.delivered += batch.size();
+            if (!state.sink.inProcess() && !outbox.saveCursor(name, owner, last)) {
+                // the new holder resumes from the stored position and may deliver the batch again
+                state.leased = false;
+                logger.log(Level.INFO, "Outbox sink {0} was taken over by another client", name);
+                return batch.size();
+            }
+            state.cursor = last;
+            state.failuresInRow = 0;
+            return batch.size();
+        } catch (IOException | RuntimeException e) {
+            state.failures++;
+            state.failuresInRow++;
+            long backoff = Math.min(MAX_BACKOFF_MILLIS, pollMillis << Math.min(state.failuresInRow, 16));
+            state.retryAtMillis = now + backoff;
+            logger.log(Level.WARNING, "Outbox sink " + name + " failed, retrying in " + backoff + " ms", e);
+            return 0;
+        }
+    }
+
+    // takes or renews the sink's lease when due; resumes from the stored position unless it was held throughout
+    private boolean holdLease(SinkState state, long now) {
+        if (state.leased && now < state.renewLeaseAtMillis) {
+            return true;
+        }
+        String name = state.sink.name();
+        boolean held = outbox.lease(name, owner, Instant.ofEpochMilli(now + leaseMillis));
+        if (held && (!state.leased || now >= state.leaseUntilMillis)) {
+            state.cursor = outbox.cursor(name);
+            logger.log(Level.FINE, "Relaying outbox sink {0} from event {1}", new Object[]{name, state.cursor});
+        }
+        state.leased = held;
+        state.renewLeaseAtMillis = now + leaseMillis / 3;
+        state.leaseUntilMillis = now + leaseMillis;
+        return held;
+    }
+
+    // the events before the first id that is missing and may still commit
+    private List<OutboxEvent> untilGap(SinkState state, List<OutboxEvent> events) {
+        long expected = state.cursor + 1;
+        for (int i = 0; i < events.size(); i++) {
+            long id = events.get(i).id();
+            if (id != expected && !gapExpired(state, expected)) {
+                return events.subList(0, i);
+            }
+            expected = id + 1;
+        }
+        return events;
+    }
+
+    private boolean gapExpired(SinkState state, long missingId) {
+        if (state.gapAt != missingId) {
+            state.gapAt = missingId;
+            state.gapSinceNanos = System.nanoTime();
+        }
+        return System.nanoTime() - state.gapSinceNanos >= gapWaitNanos;
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (retention.isZero() || now - lastPurgeMillis < PURGE_EVERY_MILLIS) {
+            return;
+        }
+        lastPurgeMillis = now;
+        try {
+            // the shared sinks' stored positions, whoever delivers them, and this client's in-process ones
+            long delivered = outbox.minCursor();
+            for (SinkState state : sinks) {
+                if (state.sink.inProcess()) {
+                    delivered = Math.min(delivered, state.cursor);
+                }
+            }
+            if (delivered <= 0 || delivered == Long.MAX_VALUE) {
+                return;
+            }
+            int purged = outbox.purge(delivered, Instant.ofEpochMilli(now).minus(retention));
+            logger.log(Level.FINE, "Purged {0} delivered outbox events", purged);
+        } catch (DatabaseException e) {
+            logger.log(Level.WARNING, "Outbox purge failed", e);
+        }
+    }
+
+    /**
+     * Returns per sink its position, the events delivered, the failed
+     * deliveries, how many events it is behind and, in milliseconds, how
+     * old its oldest undelivered event is. A shared sink also reports
+     * whether this relay holds its lease; only the holder reports a lag.
+     *
+     * @return the counters, keyed {@code <sink>.<counter>}
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        out.put("headId", headId);
+        long now = System.currentTimeMillis();
+        for (SinkState state : sinks) {
+            String prefix = state.sink.name() + ".";
+            long cursor = Math.max(state.cursor, 0);
+            long oldest = state.oldestPendingMillis;
+            boolean feeding = state.sink.inProcess() || state.leased;
+            out.put(prefix + "cursor", cursor);
+            out.put(prefix + "delivered", state.delivered);
+            out.put(prefix + "failures", state.failures);
+            if (!state.sink.inProcess()) {
+                out.put(prefix + "leased", state.leased ? 1L : 0L);
+            }
+            out.put(prefix + "lagEvents", feeding ? Math.max(0, headId - cursor) : 0);
+            out.put(prefix + "lagMillis", oldest > 0 ? Math.max(0, now - oldest) : 0);
+        }
+        return out;
+    }
+
+    /**
+     * Stops polling, letting a delivery in progress finish, and gives up the
+     * leases held so that another client takes the shared sinks over at once.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+        for (SinkState state : sinks) {
+            if (state.leased) {
+                state.leased = false;
+                try {
+                    outbox.release(state.sink.name(), owner);
+                } catch (DatabaseException e) {
+                    logger.log(Level.WARNING, "Cannot release the lease on outbox sink " + state.sink.name(), e);
+                }
+            }
+        }
+    }
+}
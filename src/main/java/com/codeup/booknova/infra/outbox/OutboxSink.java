@@ -0,0 +1,48 @@
+package com.codeup.booknova.infra.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A destination of outbox events, fed by {@link OutboxRelay}.
+ * <p>
+ * A batch is delivered again from its first event until {@link #deliver}
+ * returns normally, so a sink must tolerate events it has already seen.
+ * Each sink keeps its own position: one that fails holds back only itself.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ * @see FileOutboxSink
+ * @see ListenerOutboxSink
+ * @see HttpOutboxSink
+ */
+public interface OutboxSink {
+
+    /**
+     * Returns the name the sink's position and lease are stored under; must stay the same across restarts.
+     *
+     * @return the name, at most 60 characters
+     */
+    String name();
+
+    /**
+     * Delivers events, in outbox order.
+     *
+     * @param events one or more events
+     * @throws IOException if the batch was not delivered and should be retried
+     */
+    void deliver(List<OutboxEvent> events) throws IOException;
+
+    /**
+     * Tells whether the sink lives in this process, so that every client
+     * running a relay has its own. Its position is then kept in memory and
+     * starts at the newest event when the relay starts; otherwise it is
+     * stored in {@code outbox_cursor} and shared by every relay.
+     *
+     * @return {@code true} for an in-process sink; {@code false} by default
+     */
+    default boolean inProcess() {
+        return false;
+    }
+}
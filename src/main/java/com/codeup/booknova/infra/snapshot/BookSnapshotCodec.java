@@ -0,0 +1,43 @@
+package com.codeup.booknova.infra.snapshot;
+
+import java.io.IOException;
+
+import com.codeup.booknova.domain.Book;
+
+/**
+ * Snapshot encoding of {@link Book}.
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class BookSnapshotCodec implements SnapshotCodec<Book> {
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(SnapshotOutput out, Book book) throws IOException {
+        out.writeInteger(book.getId());
+        out.writeString(book.getIsbn());
+        out.writeString(book.getTitle());
+        out.writeString(book.getAuthor());
+        out.writeInteger(book.getStock());
+        out.writeInstant(book.getCreatedAt());
+        out.writeInstant(book.getUpdatedAt());
+    }
+
+    @Override
+    public Book read(SnapshotInput in) {
+        Book book = new Book();
+        book.setId(in.readInteger());
+        book.setIsbn(in.readString());
+        book.setTitle(in.readString());
+        book.setAuthor(in.readString());
+        book.setStock(in.readInteger());
+        book.setCreatedAt(in.readInstant());
+        book.setUpdatedAt(in.readInstant());
+        return book;
+    }
+}
@@ -0,0 +1,135 @@
+package com.codeup.booknova.infra.snapshot;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.domain.User;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.infra.snapshot.SnapshotFile.Snapshot;
+
+/**
+ * Directory of snapshot files that lets the desktop client show its tables
+ * before the database has answered.
+ * <p>
+ * A dashboard renders the stored rows at once, then reconciles with the
+ * database in the background, starting from the stored watermark, and saves
+ * the result for the next start. The store is only a cache: a missing,
+ * stale or damaged file is ignored, and a failed save is logged, not thrown.
+ * </p>
+ * <p>Configuration ({@link #fromConfig(AppConfig)}):</p>
+ * <ul>
+ * <li>{@code snapshot.enabled} - default true</li>
+ * <li>{@code snapshot.dir} - default {@code ~/.novabook/snapshots}</li>
+ * </ul>
+ * <p>
+ * Each file records which database it was built from (a hash of the
+ * {@code db.*} connection settings), so pointing the client at another
+ * database does not show the old rows.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class LocalSnapshotStore {
+    private static final Logger logger = Logger.getLogger(LocalSnapshotStore.class.getName());
+
+    /** Snapshot name of the book catalogue. */
+    public static final String BOOKS_FILE = "books";
+    /** Snapshot name of the admin's user list. */
+    public static final String USERS_FILE = "users";
+
+    /** Codec for the book catalogue. */
+    public static final SnapshotCodec<Book> BOOKS = new BookSnapshotCodec();
+    /** Codec for the admin's user list. */
+    public static final SnapshotCodec<User> USERS = new UserSnapshotCodec();
+
+    private final Path dir;
+    private final long sourceId;
+    private final boolean enabled;
+
+    /**
+     * Creates a store.
+     *
+     * @param dir the directory holding the files
+     * @param sourceId identifies the database the rows come from
+     * @param enabled {@code false} to turn loading and saving into no-ops
+     */
+    public LocalSnapshotStore(Path dir, long sourceId, boolean enabled) {
+        this.dir = dir;
+        this.sourceId = sourceId;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Creates a store from {@code snapshot.*} settings.
+     *
+     * @param cfg the application configuration
+     * @return the store
+     */
+    public static LocalSnapshotStore fromConfig(AppConfig cfg) {
+        String defaultDir = Path.of(System.getProperty("user.home"), ".novabook", "snapshots").toString();
+        String source = String.join("|", cfg.get("db.url", ""), cfg.get("db.host", ""),
+                cfg.get("db.port", ""), cfg.get("db.name", ""));
+        return new LocalSnapshotStore(Path.of(cfg.get("snapshot.dir", defaultDir)),
+                fnv1a64(source), cfg.getBoolean("snapshot.enabled", true));
+    }
+
+    /**
+     * Loads a snapshot.
+     *
+     * @param <T> the record type
+     * @param name the snapshot name, e.g. {@code books}
+     * @param codec decodes the records
+     * @return the stored rows and watermark, or empty if there is no usable file
+     */
+    public <T> Optional<Snapshot<T>> load(String name, SnapshotCodec<T> codec) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        Optional<Snapshot<T>> snapshot = SnapshotFile.read(file(name), codec, sourceId);
+        snapshot.ifPresent(s -> logger.log(Level.INFO, "Loaded snapshot {0}: {1} rows in {2} ms",
+                new Object[]{name, s.rows().size(), (System.nanoTime() - start) / 1_000_000}));
+        return snapshot;
+    }
+
+    /**
+     * Saves a snapshot, replacing the previous one atomically. Failures are logged.
+     *
+     * @param <T> the record type
+     * @param name the snapshot name
+     * @param codec encodes the records
+     * @param rows the rows
+     * @param watermark the watermark the rows are current to
+     */
+    public <T> void save(String name, SnapshotCodec<T> codec, Collection<? extends T> rows, Instant watermark) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            SnapshotFile.write(file(name), codec, sourceId, rows, watermark);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Could not save snapshot " + name, e);
+        }
+    }
+
+    private Path file(String name) {
+        return dir.resolve(name + ".snap");
+    }
+
+    private static long fnv1a64(String s) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
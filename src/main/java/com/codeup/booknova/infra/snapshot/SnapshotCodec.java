@@ -0,0 +1,42 @@
+package com.codeup.booknova.infra.snapshot;
+
+import java.io.IOException;
+
+/**
+ * Binary encoding of one record type in a snapshot file.
+ * <p>
+ * {@link #version()} is stored in the file header. Change it whenever the
+ * encoding changes; files written with another version are ignored and
+ * rebuilt from the database.
+ * </p>
+ *
+ * @param <T> the record type
+ * @version 1.0
+ * @since 1.0
+ */
+public interface SnapshotCodec<T> {
+
+    /**
+     * Returns the version of this encoding.
+     *
+     * @return the codec version
+     */
+    int version();
+
+    /**
+     * Encodes one record.
+     *
+     * @param out the output
+     * @param value the record
+     * @throws IOException if writing fails
+     */
+    void write(SnapshotOutput out, T value) throws IOException;
+
+    /**
+     * Decodes one record written by {@link #write(SnapshotOutput, Object)}.
+     *
+     * @param in the input
+     * @return the record
+     */
+    T read(SnapshotInput in);
+}
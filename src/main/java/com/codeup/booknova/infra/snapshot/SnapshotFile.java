@@ -0,0 +1,209 @@
+package com.codeup.booknova.infra.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Versioned, checksummed binary file holding a list of records.
+ * <p>File layout (big-endian):</p>
+ * <pre>
+ *  0  int    magic "NBSN"
+ *  4  short  format version
+ *  6  short  codec version ({@link SnapshotCodec#version()})
+ *  8  long   source id - identifies the database the rows came from
+ * 16  long   watermark seconds ({@link Long#MIN_VALUE} when there is none)
+ * 24  int    watermark nanos
+ * 28  int    record count
+ * 32  long   payload length
+ * 40  int    CRC32C of the payload
+ * 44  int    CRC32C of bytes 0..43
+ * 48         payload: the records, one after another
+ * </pre>
+ * <p>
+ * {@link #write} writes a temporary file next to the target, forces it to
+ * disk and moves it over the target atomically, so readers see either the
+ * old or the new snapshot, never a partial one. {@link #read} reads the
+ * whole file in one call and returns nothing if anything is off - missing
+ * file, other version, other database, wrong length or checksum - in which
+ * case the caller simply loads from the database.
+ * </p>
+ * <p>
+ * The file is read into the heap rather than memory-mapped: a mapping stays
+ * open until the buffer is garbage collected, and on Windows the next
+ * {@link #write} cannot replace a file that is still mapped. Snapshots are
+ * a few megabytes at most, so the copy costs little.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class SnapshotFile {
+    private static final Logger logger = Logger.getLogger(SnapshotFile.class.getName());
+
+    static final int MAGIC = 0x4E42534E; // "NBSN"
+    static final short FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 48;
+    private static final long NO_WATERMARK = Long.MIN_VALUE;
+
+    /**
+     * Records read from a snapshot file.
+     *
+     * @param <T> the record type
+     * @param rows the records, in the order they were written
+     * @param watermark the watermark stored with them, or {@code null}
+     */
+    public record Snapshot<T>(List<T> rows, Instant watermark) {}
+
+    private SnapshotFile() {}
+
+    /**
+     * Writes records to a file, replacing it atomically.
+     *
+     * @param <T> the record type
+     * @param file the target file
+     * @param codec encodes a record
+     * @param sourceId identifies the database the rows came from
+     * @param rows the records
+     * @param watermark the watermark of the rows, may be {@code null}
+     * @throws IOException if the file cannot be written
+     */
+    public static <T> void write(Path file, SnapshotCodec<T> codec, long sourceId,
+                                 Collection<? extends T> rows, Instant watermark) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(Math.max(1024, rows.size() * 96));
+        SnapshotOutput out = new SnapshotOutput(payload);
+        for (T row : rows) {
+            codec.write(out, row);
+        }
+        out.flush();
+        byte[] bytes = payload.toByteArray();
+
+        CRC32C payloadCrc = new CRC32C();
+        payloadCrc.update(bytes);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC)
+              .putShort(FORMAT_VERSION)
+              .putShort((short) codec.version())
+              .putLong(sourceId)
+              .putLong(watermark == null ? NO_WATERMARK : watermark.getEpochSecond())
+              .putInt(watermark == null ? 0 : watermark.getNano())
+              .putInt(rows.size())
+              .putLong(bytes.length)
+              .putInt((int) payloadCrc.getValue());
+        CRC32C headerCrc = new CRC32C();
+        headerCrc.update(header.array(), 0, HEADER_BYTES - 4);
+        header.putInt((int) headerCrc.getValue());
+        header.flip();
+
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer body = ByteBuffer.wrap(bytes);
+                while (header.hasRemaining() || body.hasRemaining()) {
+                    ch.write(new ByteBuffer[]{header, body});
+                }
+                ch.force(true);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Reads a snapshot file.
+     *
+     * @param <T> the record type
+     * @param file the file
+     * @param codec decodes a record
+     * @param sourceId the database the caller expects the rows to come from
+     * @return the records, or empty if the file is missing, stale or damaged
+     */
+    public static <T> Optional<Snapshot<T>> read(Path file, SnapshotCodec<T> codec, long sourceId) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES) {
+                return rejected(file, "file too short");
+            }
+            if (size > Integer.MAX_VALUE) {
+                return rejected(file, "file too large");
+            }
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining()) {
+                if (ch.read(buf) < 0) {
+                    return rejected(file, "file shrank while reading");
+                }
+            }
+            buf.flip();
+
+            CRC32C headerCrc = new CRC32C();
+            headerCrc.update(buf.slice(0, HEADER_BYTES - 4));
+            if (buf.getInt(0) != MAGIC) {
+                return rejected(file, "not a snapshot file");
+            }
+            if (buf.getInt(HEADER_BYTES - 4) != (int) headerCrc.getValue()) {
+                return rejected(file, "header checksum mismatch");
+            }
+            if (buf.getShort(4) != FORMAT_VERSION || buf.getShort(6) != (short) codec.version()) {
+                return rejected(file, "written by another version");
+            }
+            if (buf.getLong(8) != sourceId) {
+                return rejected(file, "written for another database");
+            }
+            long seconds = buf.getLong(16);
+            Instant watermark = seconds == NO_WATERMARK ? null : Instant.ofEpochSecond(seconds, buf.getInt(24));
+            int count = buf.getInt(28);
+            long length = buf.getLong(32);
+            if (count < 0 || length < 0 || HEADER_BYTES + length != size) {
+                return rejected(file, "length mismatch");
+            }
+            ByteBuffer payload = buf.slice(HEADER_BYTES, (int) length);
+            CRC32C payloadCrc = new CRC32C();
+            payloadCrc.update(payload.duplicate());
+            if (buf.getInt(40) != (int) payloadCrc.getValue()) {
+                return rejected(file, "payload checksum mismatch");
+            }
+
+            SnapshotInput in = new SnapshotInput(payload);
+            List<T> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                rows.add(codec.read(in));
+            }
+            if (payload.hasRemaining()) {
+                return rejected(file, "unexpected trailing bytes");
+            }
+            return Optional.of(new Snapshot<>(rows, watermark));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable snapshot " + file, e);
+            return Optional.empty();
+        }
+    }
+
+    private static <T> Optional<Snapshot<T>> rejected(Path file, String reason) {
+        logger.log(Level.WARNING, "Ignoring snapshot {0}: {1}", new Object[]{file, reason});
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,99 @@
+package com.codeup.booknova.infra.snapshot;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Reads the fields written by {@link SnapshotOutput} from a buffer holding a snapshot file.
+ * <p>
+ * Reading past the end, or a negative or oversized length, throws
+ * {@link IllegalStateException}. A file that passed its checksum should never
+ * do that, but a codec bug must not turn into an endless loop or a huge
+ * allocation.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class SnapshotInput {
+    private final ByteBuffer buf;
+
+    SnapshotInput(ByteBuffer buf) {
+        this.buf = buf;
+    }
+
+    public int readInt() {
+        try {
+            return buf.getInt();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalStateException("Snapshot record is truncated", e);
+        }
+    }
+
+    public Integer readInteger() {
+        return present() ? readInt() : null;
+    }
+
+    public Boolean readBoolean() {
+        byte b = readByte();
+        return b < 0 ? null : b != 0;
+    }
+
+    public String readString() {
+        int length = readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > buf.remaining()) {
+            throw new IllegalStateException("Invalid string length in snapshot: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public Instant readInstant() {
+        if (!present()) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochSecond(buf.getLong(), readInt());
+        } catch (BufferUnderflowException e) {
+            throw new IllegalStateException("Snapshot record is truncated", e);
+        }
+    }
+
+    /**
+     * Reads an enum constant written by {@link SnapshotOutput#writeEnum(Enum)}.
+     *
+     * @param <E> the enum type
+     * @param type the enum class
+     * @return the constant, or {@code null}
+     * @throws IllegalStateException if the name is not a constant of {@code type}
+     */
+    public <E extends Enum<E>> E readEnum(Class<E> type) {
+        String name = readString();
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Unknown " + type.getSimpleName() + " in snapshot: " + name, e);
+        }
+    }
+
+    private boolean present() {
+        return readByte() != 0;
+    }
+
+    private byte readByte() {
+        try {
+            return buf.get();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalStateException("Snapshot record is truncated", e);
+        }
+    }
+}
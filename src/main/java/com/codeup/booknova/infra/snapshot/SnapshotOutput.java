@@ -0,0 +1,73 @@
+package com.codeup.booknova.infra.snapshot;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Writes the primitive fields of snapshot records.
+ * <p>
+ * Values are big-endian. Nullable fields start with a presence byte; strings
+ * are a length followed by UTF-8 bytes, with length -1 for {@code null}.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ * @see SnapshotInput
+ */
+public final class SnapshotOutput {
+    private final DataOutputStream out;
+
+    SnapshotOutput(OutputStream out) {
+        this.out = new DataOutputStream(out);
+    }
+
+    public void writeInt(int value) throws IOException {
+        out.writeInt(value);
+    }
+
+    public void writeInteger(Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    public void writeBoolean(Boolean value) throws IOException {
+        out.writeByte(value == null ? -1 : value ? 1 : 0);
+    }
+
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public void writeInstant(Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    /**
+     * Writes an enum constant by name, so reordering the constants keeps old files readable.
+     *
+     * @param value the constant, may be {@code null}
+     * @throws IOException if writing fails
+     */
+    public void writeEnum(Enum<?> value) throws IOException {
+        writeString(value == null ? null : value.name());
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,51 @@
+package com.codeup.booknova.infra.snapshot;
+
+import java.io.IOException;
+
+import com.codeup.booknova.domain.AccessLevel;
+import com.codeup.booknova.domain.User;
+import com.codeup.booknova.domain.UserRole;
+
+/**
+ * Snapshot encoding of {@link User}. The password hash is never written to disk.
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class UserSnapshotCodec implements SnapshotCodec<User> {
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(SnapshotOutput out, User user) throws IOException {
+        out.writeInteger(user.getId());
+        out.writeString(user.getName());
+        out.writeString(user.getEmail());
+        out.writeString(user.getPhone());
+        out.writeEnum(user.getRole());
+        out.writeEnum(user.getAccessLevel());
+        out.writeBoolean(user.getActive());
+        out.writeBoolean(user.getDeleted());
+        out.writeInstant(user.getCreatedAt());
+        out.writeInstant(user.getUpdatedAt());
+    }
+
+    @Override
+    public User read(SnapshotInput in) {
+        User user = new User();
+        user.setId(in.readInteger());
+        user.setName(in.readString());
+        user.setEmail(in.readString());
+        user.setPhone(in.readString());
+        user.setRole(in.readEnum(UserRole.class));
+        user.setAccessLevel(in.readEnum(AccessLevel.class));
+        user.setActive(in.readBoolean());
+        user.setDeleted(in.readBoolean());
+        user.setCreatedAt(in.readInstant());
+        user.setUpdatedAt(in.readInstant());
+        return user;
+    }
+}
@@ -0,0 +1,58 @@
+package com.codeup.booknova.infra.trace;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The spans of work run through {@link Tracer#capture(Runnable)}, e.g. to
+ * check in a test how many statements a service call issues.
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class CapturedTrace {
+    private final List<Span> spans;
+
+    CapturedTrace(List<Span> spans) {
+        this.spans = List.copyOf(spans);
+    }
+
+    /**
+     * Returns every span in the order they ended, the capture's own root span last.
+     *
+     * @return the spans
+     */
+    public List<Span> getSpans() {
+        return spans;
+    }
+
+    /**
+     * Returns the statement spans, in the order the statements finished.
+     *
+     * @return the spans of kind {@link Span.Kind#CLIENT}
+     */
+    public List<Span> getStatements() {
+        return spans.stream().filter(s -> s.getKind() == Span.Kind.CLIENT).toList();
+    }
+
+    /**
+     * Returns the number of statements.
+     *
+     * @return the statement count
+     */
+    public int getStatementCount() {
+        return getStatements().size();
+    }
+
+    /**
+     * Lists the statements one per line with their SQL and rows, e.g. for
+     * the message of a failed assertion.
+     *
+     * @return the listing
+     */
+    public String describeStatements() {
+        return getStatements().stream()
+                .map(s -> "  " + s.getAttributes().get(Tracer.DB_STATEMENT) + " -> " + s.getAttributes().get(Tracer.DB_ROWS) + " rows")
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.codeup.booknova.infra.trace;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.api.json.JsonWriter;
+
+/**
+ * Appends each trace to a file as one line of OpenTelemetry's OTLP/JSON
+ * encoding, an {@code ExportTraceServiceRequest}, so the file can be sent to
+ * a collector (e.g. with its {@code otlpjsonfile} receiver) or read with any
+ * JSON tool.
+ * <p>
+ * Traces are written on a single daemon thread. When it falls more than
+ * {@value #QUEUE_CAPACITY} traces behind, new traces are dropped rather than
+ * slowing down the service calls; the count is logged on {@link #close()}.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class OtlpJsonFileExporter implements SpanExporter {
+    private static final Logger logger = Logger.getLogger(OtlpJsonFileExporter.class.getName());
+    private static final int QUEUE_CAPACITY = 1_000;
+    private static final String SCOPE = "com.codeup.booknova";
+
+    private final Path file;
+    private final String serviceName;
+    private final ThreadPoolExecutor writer;
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Creates an exporter; the file and its directory are created on the first trace.
+     *
+     * @param file the JSON lines file, appended to
+     * @param serviceName the {@code service.name} of the resource
+     */
+    public OtlpJsonFileExporter(Path file, String serviceName) {
+        this.file = file;
+        this.serviceName = serviceName;
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "trace-exporter");
+                    t.setDaemon(true);
+                    return t;
+                }, (task, executor) -> dropped.increment());
+    }
+
+    @Override
+    public void export(List<Span> spans) {
+        List<Span> trace = List.copyOf(spans);
+        writer.execute(() -> {
+            try {
+                Path dir = file.toAbsolutePath().getParent();
+                if (dir != null) {
+                    Files.createDirectories(dir);
+                }
+                Files.writeString(file, toJson(trace, serviceName) + "\n", StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Cannot write trace to " + file, e);
+            }
+        });
+    }
+
+    /**
+     * Writes the queued traces and stops the writer thread.
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Trace exporter did not finish writing in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dropped.sum() > 0) {
+            logger.log(Level.WARNING, "Dropped {0} traces while the exporter was behind", dropped.sum());
+        }
+    }
+
+    /**
+     * Encodes one trace as an OTLP/JSON {@code ExportTraceServiceRequest}:
+     * ids in hex, times and integers as strings, span kind and status as numbers.
+     *
+     * @param spans the spans of one trace
+     * @param serviceName the {@code service.name} of the resource
+     * @return the JSON, on one line
+     */
+    static String toJson(List<Span> spans, String serviceName) {
+        StringWriter out = new StringWriter(256 * spans.size());
+        try {
+            JsonWriter json = new JsonWriter(out);
+            json.beginObject().name("resourceSpans").beginArray().beginObject();
+            json.name("resource").beginObject().name("attributes").beginArray();
+            attribute(json, "service.name", serviceName);
+            json.endArray().endObject();
+            json.name("scopeSpans").beginArray().beginObject();
+            json.name("scope").beginObject().name("name").value(SCOPE).endObject();
+            json.name("spans").beginArray();
+            for (Span span : spans) {
+                json.beginObject()
+                    .name("traceId").value(span.getTraceId())
+                    .name("spanId").value(span.getSpanId());
+                if (span.getParentSpanId() != null) {
+                    json.name("parentSpanId").value(span.getParentSpanId());
+                }
+                json.name("name").value(span.getName())
+                    // SPAN_KIND_INTERNAL = 1, SPAN_KIND_CLIENT = 3
+                    .name("kind").value(span.getKind() == Span.Kind.CLIENT ? 3 : 1)
+                    .name("startTimeUnixNano").value(Long.toString(span.getStartEpochNanos()))
+                    .name("endTimeUnixNano").value(Long.toString(span.getEndEpochNanos()));
+                json.name("attributes").beginArray();
+                for (Map.Entry<String, Object> attr : span.getAttributes().entrySet()) {
+                    attribute(json, attr.getKey(), attr.getValue());
+                }
+                json.endArray();
+                // STATUS_CODE_ERROR = 2; unset otherwise
+                if (span.isFailed()) {
+                    json.name("status").beginObject().name("code").value(2).endObject();
+                }
+                json.endObject();
+            }
+            json.endArray().endObject().endArray();
+            json.endObject().endArray().endObject();
+            json.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static void attribute(JsonWriter json, String key, Object value) throws IOException {
+        json.beginObject().name("key").value(key).name("value").beginObject();
+        if (value instanceof Boolean b) {
+            json.name("boolValue").value(b);
+        } else if (value instanceof Double || value instanceof Float) {
+            json.name("doubleValue").value((Number) value);
+        } else if (value instanceof Number n) {
+            json.name("intValue").value(Long.toString(n.longValue()));
+        } else {
+            json.name("stringValue").value(String.valueOf(value));
+        }
+        json.endObject().endObject();
+    }
+}
@@ -0,0 +1,179 @@
+package com.codeup.booknova.infra.trace;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One timed step of a trace: a service call, or a statement it issued.
+ * <p>
+ * Spans come from {@link Tracer#startSpan} and {@link Tracer#startStatement}
+ * and must be ended on the thread that started them, in reverse order, e.g.
+ * in a {@code finally} block. When the thread is not tracing those methods
+ * return {@link #NOOP}, whose methods do nothing.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class Span {
+
+    /** What a span stands for, as OpenTelemetry's span kinds. */
+    public enum Kind {
+        /** Work inside the application, e.g. a service call. */
+        INTERNAL,
+        /** A call to another system, e.g. a statement sent to the database. */
+        CLIENT
+    }
+
+    /** The span of a thread that is not tracing. */
+    public static final Span NOOP = new Span();
+
+    private final Tracer.Trace trace;
+    private final Span parent;
+    private final String name;
+    private final Kind kind;
+    private final String spanId;
+    private final long startNanos;
+    private final Map<String, Object> attributes;
+    private long endNanos;
+    private String error;
+
+    private Span() {
+        this.trace = null;
+        this.parent = null;
+        this.name = "";
+        this.kind = Kind.INTERNAL;
+        this.spanId = "";
+        this.startNanos = 0;
+        this.attributes = Map.of();
+    }
+
+    Span(Tracer.Trace trace, Span parent, String name, Kind kind, String spanId, long startNanos) {
+        this.trace = trace;
+        this.parent = parent;
+        this.name = name;
+        this.kind = kind;
+        this.spanId = spanId;
+        this.startNanos = startNanos;
+        this.attributes = new LinkedHashMap<>();
+    }
+
+    /**
+     * Tells whether this span is recorded, i.e. is not {@link #NOOP}.
+     *
+     * @return {@code true} if attributes and the end are kept
+     */
+    public boolean isRecording() {
+        return trace != null;
+    }
+
+    /**
+     * Adds an attribute, e.g. {@code member.id}; {@code null} values are skipped.
+     *
+     * @param key the attribute name, in OpenTelemetry's dotted style
+     * @param value a string, number or boolean
+     * @return this span
+     */
+    public Span setAttribute(String key, Object value) {
+        if (trace != null && value != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Ends the span and makes its parent the thread's current span again;
+     * ending the root span exports the trace.
+     *
+     * @param succeeded {@code false} if the work threw
+     */
+    public void end(boolean succeeded) {
+        if (trace == null || endNanos != 0) {
+            return;
+        }
+        endNanos = System.nanoTime();
+        if (!succeeded) {
+            error = "failed";
+        }
+        Tracer.ended(this);
+    }
+
+    Tracer.Trace getTrace() {
+        return trace;
+    }
+
+    Span getParent() {
+        return parent;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getTraceId() {
+        return trace != null ? trace.traceId : "";
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * Returns the id of the enclosing span.
+     *
+     * @return the parent's id, or {@code null} for the root span
+     */
+    public String getParentSpanId() {
+        return parent != null ? parent.spanId : null;
+    }
+
+    /**
+     * Returns the start as nanoseconds since the epoch.
+     *
+     * @return the start time
+     */
+    public long getStartEpochNanos() {
+        return Tracer.toEpochNanos(startNanos);
+    }
+
+    /**
+     * Returns the end as nanoseconds since the epoch.
+     *
+     * @return the end time, or 0 while the span runs
+     */
+    public long getEndEpochNanos() {
+        return endNanos == 0 ? 0 : Tracer.toEpochNanos(endNanos);
+    }
+
+    /**
+     * Returns how long the span took.
+     *
+     * @return the duration in nanoseconds, 0 while it runs
+     */
+    public long getDurationNanos() {
+        return endNanos == 0 ? 0 : endNanos - startNanos;
+    }
+
+    public Map<String, Object> getAttributes() {
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    /**
+     * Tells whether the work of the span failed.
+     *
+     * @return {@code true} if ended with {@code succeeded == false}
+     */
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + getDurationNanos() / 1_000 + " us " + attributes;
+    }
+}
@@ -0,0 +1,24 @@
+package com.codeup.booknova.infra.trace;
+
+import java.util.List;
+
+/**
+ * Receives the spans of each finished, sampled trace.
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface SpanExporter {
+
+    /** Drops every trace. */
+    SpanExporter NONE = spans -> { };
+
+    /**
+     * Exports one trace. Called on the thread that ended the root span, so
+     * implementations should hand slow work to another thread.
+     *
+     * @param spans the trace's spans in the order they ended, root last
+     */
+    void export(List<Span> spans);
+}
@@ -0,0 +1,202 @@
+package com.codeup.booknova.infra.trace;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.infra.config.AppConfig;
+
+/**
+ * Lightweight in-process tracing: a span per service call with a child span
+ * per statement, to show which statements a call issues and where its time
+ * goes, e.g. the half-dozen queries behind one checkout or an N+1 loop.
+ * <p>
+ * A service call that starts while no trace is running becomes the root of
+ * a new trace with probability {@code trace.sampleRate}; statements and
+ * nested calls join the trace of their thread, and statements outside any
+ * trace are not traced. Finished traces go to the {@link SpanExporter},
+ * by default {@link OtlpJsonFileExporter}. With the default rate of 0
+ * tracing costs one thread-local read per call.
+ * </p>
+ * <p>
+ * The trace follows the thread: work handed to another thread, such as a
+ * coalesced by-id lookup or a shared catalogue query run by another caller,
+ * is not part of it.
+ * </p>
+ * <p>Configuration ({@link #install(AppConfig)}):</p>
+ * <ul>
+ * <li>{@code trace.sampleRate} - share of service calls traced, 0 to 1 (default 0)</li>
+ * <li>{@code trace.file} - OTLP JSON lines file (default {@code ~/.novabook/traces.jsonl})</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Tracer {
+    private static final Logger logger = Logger.getLogger(Tracer.class.getName());
+
+    /** Attribute holding a statement's SQL. */
+    public static final String DB_STATEMENT = "db.statement";
+    /** Attribute holding the kind of statement, e.g. {@code query}. */
+    public static final String DB_OPERATION = "db.operation";
+    /** Attribute holding the rows a statement read or changed. */
+    public static final String DB_ROWS = "db.rows";
+    /** Attribute holding the microseconds spent opening the statement's connection. */
+    public static final String DB_CONNECTION_ACQUIRE_MICROS = "db.connection.acquire_us";
+
+    // nanoTime() + offset = nanoseconds since the epoch
+    private static final long EPOCH_OFFSET = System.currentTimeMillis() * 1_000_000 - System.nanoTime();
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private static volatile double sampleRate;
+    private static volatile SpanExporter exporter = SpanExporter.NONE;
+
+    /** The spans of one running trace. */
+    static final class Trace {
+        final String traceId;
+        final boolean captured;
+        final List<Span> finished = new ArrayList<>();
+
+        Trace(String traceId, boolean captured) {
+            this.traceId = traceId;
+            this.captured = captured;
+        }
+    }
+
+    private Tracer() {}
+
+    /**
+     * Sets the sampling rate and exporter from {@code trace.*} settings.
+     *
+     * @param cfg the application configuration
+     */
+    public static void install(AppConfig cfg) {
+        double rate = cfg.getDouble("trace.sampleRate", 0);
+        if (rate <= 0) {
+            configure(0, SpanExporter.NONE);
+            return;
+        }
+        String defaultFile = Path.of(System.getProperty("user.home"), ".novabook", "traces.jsonl").toString();
+        Path file = Path.of(cfg.get("trace.file", defaultFile));
+        configure(rate, new OtlpJsonFileExporter(file, "novabook"));
+        logger.log(Level.INFO, "Tracing {0}% of service calls to {1}", new Object[]{rate * 100, file});
+    }
+
+    /**
+     * Sets the share of service calls that start a trace and where finished
+     * traces go. A previous {@link OtlpJsonFileExporter} is closed.
+     *
+     * @param rate 0 for none, 1 for every call
+     * @param spanExporter receives the finished traces
+     */
+    public static synchronized void configure(double rate, SpanExporter spanExporter) {
+        SpanExporter previous = exporter;
+        exporter = spanExporter != null ? spanExporter : SpanExporter.NONE;
+        sampleRate = Math.max(0, Math.min(1, rate));
+        if (previous instanceof OtlpJsonFileExporter file && previous != exporter) {
+            file.close();
+        }
+    }
+
+    /**
+     * Starts the span of a service call: a child of the thread's current span,
+     * or the root of a new trace if sampled.
+     *
+     * @param name service and method, e.g. {@code LoanService.createLoan}
+     * @return the span, or {@link Span#NOOP} if not traced
+     */
+    public static Span startSpan(String name) {
+        Span parent = CURRENT.get();
+        if (parent != null) {
+            return push(parent.getTrace(), parent, name, Span.Kind.INTERNAL);
+        }
+        double rate = sampleRate;
+        if (rate <= 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return Span.NOOP;
+        }
+        return push(new Trace(randomHex(2), false), null, name, Span.Kind.INTERNAL);
+    }
+
+    /**
+     * Starts the span of a statement within the thread's current trace.
+     *
+     * @param operation the kind of statement, e.g. {@code query}
+     * @param sql the SQL
+     * @return the span, or {@link Span#NOOP} if the thread is not tracing
+     */
+    public static Span startStatement(String operation, String sql) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return Span.NOOP;
+        }
+        return push(parent.getTrace(), parent, operation, Span.Kind.CLIENT)
+                .setAttribute(DB_OPERATION, operation)
+                .setAttribute(DB_STATEMENT, sql);
+    }
+
+    /**
+     * Runs work on this thread as a trace of its own, whatever the sampling
+     * rate, and returns its spans instead of exporting them. Meant for tests,
+     * e.g. to assert that a service call issues at most N statements.
+     *
+     * @param work the work
+     * @return the spans the work produced
+     */
+    public static CapturedTrace capture(Runnable work) {
+        Span outer = CURRENT.get();
+        CURRENT.remove();
+        Trace trace = new Trace(randomHex(2), true);
+        Span root = push(trace, null, "capture", Span.Kind.INTERNAL);
+        boolean succeeded = false;
+        try {
+            work.run();
+            succeeded = true;
+        } finally {
+            root.end(succeeded);
+            if (outer != null) {
+                CURRENT.set(outer);
+            }
+        }
+        return new CapturedTrace(trace.finished);
+    }
+
+    private static Span push(Trace trace, Span parent, String name, Span.Kind kind) {
+        Span span = new Span(trace, parent, name, kind, randomHex(1), System.nanoTime());
+        CURRENT.set(span);
+        return span;
+    }
+
+    static void ended(Span span) {
+        Trace trace = span.getTrace();
+        trace.finished.add(span);
+        if (span.getParent() != null) {
+            CURRENT.set(span.getParent());
+            return;
+        }
+        CURRENT.remove();
+        if (!trace.captured) {
+            try {
+                exporter.export(trace.finished);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Trace export failed", e);
+            }
+        }
+    }
+
+    static long toEpochNanos(long nanoTime) {
+        return nanoTime + EPOCH_OFFSET;
+    }
+
+    // 16 hex digits per long: trace ids have two, span ids one
+    private static String randomHex(int longs) {
+        StringBuilder out = new StringBuilder(longs * 16);
+        for (int i = 0; i < longs; i++) {
+            String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+            out.append("0".repeat(16 - hex.length())).append(hex);
+        }
+        return out.toString();
+    }
+}
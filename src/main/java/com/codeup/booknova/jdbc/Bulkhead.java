@@ -0,0 +1,100 @@
+package com.codeup.booknova.jdbc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.codeup.booknova.exception.DatabaseException;
+
+/**
+ * Limits how many calls of one kind run at once, e.g. report queries, so
+ * they cannot take every connection and database thread from the rest.
+ * <p>
+ * A call waits up to {@code waitMillis} for a free slot and is rejected with
+ * a {@link DatabaseException} after that. Calls nested in a call that holds
+ * a slot on the same thread run without taking another one.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class Bulkhead {
+    private final String name;
+    private final int maxConcurrent;
+    private final long waitMillis;
+    private final Semaphore slots;
+    private final ThreadLocal<Boolean> holding = new ThreadLocal<>();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a bulkhead.
+     *
+     * @param name names the calls in error messages, e.g. {@code reports}
+     * @param maxConcurrent the number of calls that may run at once
+     * @param waitMillis how long a call waits for a slot
+     */
+    public Bulkhead(String name, int maxConcurrent, long waitMillis) {
+        if (maxConcurrent <= 0 || waitMillis < 0) {
+            throw new IllegalArgumentException("Limit must be positive and wait not negative");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.waitMillis = waitMillis;
+        this.slots = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Runs a call in a slot.
+     *
+     * @param <T> the result type
+     * @param work the call
+     * @return its result
+     * @throws DatabaseException if no slot frees up in time
+     */
+    public <T> T run(Supplier<T> work) throws DatabaseException {
+        if (holding.get() != null) {
+            return work.get();
+        }
+        try {
+            if (!slots.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new DatabaseException("Too many concurrent " + name + " (limit " + maxConcurrent + "), try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while waiting to run " + name, e);
+        }
+        admitted.increment();
+        holding.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            holding.remove();
+            slots.release();
+        }
+    }
+
+    /** Returns the number of calls rejected for lack of a slot. */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the counters, e.g. for a metrics endpoint.
+     *
+     * @return the limit, the calls running now, and the admitted and rejected counts
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        out.put("maxConcurrent", (long) maxConcurrent);
+        out.put("running", (long) (maxConcurrent - slots.availablePermits()));
+        out.put("admitted", admitted.sum());
+        out.put("rejected", getRejected());
+        return out;
+    }
+}
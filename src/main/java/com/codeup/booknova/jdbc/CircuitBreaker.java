@@ -0,0 +1,195 @@
+package com.codeup.booknova.jdbc;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+
+/**
+ * Fails database calls fast while the database looks unreachable.
+ * <p>
+ * The breaker is <em>closed</em> while calls succeed. After
+ * {@code failureThreshold} consecutive outage failures - connection errors
+ * and statement timeouts, not errors such as constraint violations - it
+ * <em>opens</em>: for {@code openMillis} every call is rejected with a
+ * {@link DatabaseException} at once, instead of each caller waiting for its
+ * own connect or query timeout. Then it is <em>half-open</em>: one call goes
+ * through as a probe while the others are still rejected; if the probe
+ * reaches the database the breaker closes, otherwise it opens again.
+ * </p>
+ * <p>
+ * Closed-state calls take no lock. {@link JdbcTemplateLight} calls
+ * {@link #acquire()} before and {@link #record(Throwable)} after every
+ * operation outside a transaction, and once per outermost transaction.
+ * </p>
+ * <p>Configuration ({@link #fromConfig(AppConfig)}):</p>
+ * <ul>
+ * <li>{@code db.breaker.failureThreshold} - consecutive failures that open it (default 5, 0 disables it)</li>
+ * <li>{@code db.breaker.openMillis} - how long it stays open before a probe (default 10000)</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class CircuitBreaker {
+    private static final Logger logger = Logger.getLogger(CircuitBreaker.class.getName());
+
+    /**
+     * The breaker states.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    private volatile State state = State.CLOSED;
+    private volatile int failures;
+    private long openedAt;
+    private boolean probing;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    /**
+     * Creates a closed breaker.
+     *
+     * @param failureThreshold the consecutive outage failures that open it
+     * @param openMillis how long it rejects calls before letting a probe through
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        if (failureThreshold <= 0 || openMillis < 0) {
+            throw new IllegalArgumentException("Threshold must be positive and open time not negative");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * Reads the {@code db.breaker.*} settings.
+     *
+     * @param cfg the application configuration
+     * @return the breaker, or {@code null} if it is disabled
+     */
+    public static CircuitBreaker fromConfig(AppConfig cfg) {
+        int threshold = cfg.getInt("db.breaker.failureThreshold", 5);
+        return threshold <= 0 ? null : new CircuitBreaker(threshold, cfg.getLong("db.breaker.openMillis", 10_000));
+    }
+
+    /**
+     * Admits a call, or rejects it while the breaker is open or a probe is running.
+     *
+     * @throws DatabaseException if the call is rejected
+     */
+    public void acquire() throws DatabaseException {
+        if (state == State.CLOSED) {
+            return;
+        }
+        synchronized (this) {
+            if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                probing = false;
+            }
+            if (state == State.OPEN || (state == State.HALF_OPEN && probing)) {
+                rejected.increment();
+                throw new DatabaseException("Database unavailable: failing fast after "
+                        + failureThreshold + " consecutive connection failures or timeouts");
+            }
+            if (state == State.HALF_OPEN) {
+                probing = true;
+            }
+        }
+    }
+
+    /**
+     * Records the outcome of an admitted call.
+     *
+     * @param failure the exception the call ended with, or {@code null} if it succeeded
+     */
+    public void record(Throwable failure) {
+        boolean outage = failure != null && isOutage(failure);
+        if (!outage && state == State.CLOSED && failures == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (!outage) {
+                failures = 0;
+                if (state == State.HALF_OPEN) {
+                    state = State.CLOSED;
+                    logger.info("Database reachable again, circuit closed");
+                }
+                return;
+            }
+            failures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+                state = State.OPEN;
+                openedAt = clock.getAsLong();
+                opened.increment();
+                logger.log(Level.WARNING, "Database circuit opened after {0} consecutive failures: {1}",
+                        new Object[] { failures, failure.getMessage() });
+            }
+        }
+    }
+
+    /**
+     * Tells whether an exception means the database could not be reached or
+     * did not answer in time, looking through its causes.
+     *
+     * @param failure the exception
+     * @return whether it counts towards opening the breaker
+     */
+    public static boolean isOutage(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof SQLTimeoutException || t instanceof SQLTransientConnectionException
+                    || t instanceof SQLNonTransientConnectionException || t instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (t instanceof SQLException e && e.getSQLState() != null && e.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /** Returns the number of calls rejected without reaching the database. */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the counters, e.g. for a metrics endpoint.
+     *
+     * @return the state as 0 (closed), 1 (open) or 2 (half-open), the consecutive
+     *         failures, and the open and rejected counts
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        out.put("state", (long) state.ordinal());
+        out.put("consecutiveFailures", (long) failures);
+        out.put("opened", opened.sum());
+        out.put("rejected", getRejected());
+        return out;
+    }
+}
@@ -9,11 +9,22 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import com.codeup.booknova.connection.ConnectionFactory;
 import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.jfr.StatementEvent;
+import com.codeup.booknova.infra.trace.Span;
+import com.codeup.booknova.infra.trace.Tracer;
+import com.codeup.booknova.jdbc.dialect.SqlDialect;
 
 /**
  * Lightweight JDBC template for simplified database operations.
@@ -27,8 +38,19 @@ import com.codeup.booknova.exception.DatabaseException;
  * <li>Automatic resource management (Connection, PreparedStatement, ResultSet)</li>
  * <li>Type-safe result mapping using {@link RowMapper}</li>
  * <li>Transaction support with rollback on exceptions</li>
+ * <li>Repository calls inside {@link #txExecute(SqlTxCallback)} reuse the
+ *     transaction's connection (see {@link TransactionContext})</li>
+ * <li>Nested transactions through savepoints, and read-only transactions</li>
  * <li>Parameterized queries to prevent SQL injection</li>
  * <li>Functional interfaces for flexible parameter binding</li>
+ * <li>Statement timeouts per class of operation ({@link QueryTimeouts}), a
+ *     {@link CircuitBreaker} that fails fast while the database is unreachable,
+ *     and a {@link Bulkhead} that caps concurrent {@link #report reports}</li>
+ * <li>Inserts returning their generated key and bulk loads through the
+ *     vendor's fast path (see {@link SqlDialect})</li>
+ * <li>A Flight Recorder {@link StatementEvent} per statement while a
+ *     recording is running, and a {@link Tracer} span per statement of a
+ *     traced service call</li>
  * </ul>
  * 
  * <p>Example usage:</p>
@@ -56,21 +78,49 @@ import com.codeup.booknova.exception.DatabaseException;
  * @since 1.0
  * @see ConnectionFactory
  * @see RowMapper
+ * @see TransactionContext
  */
-public class JdbcTemplateLight {
+public class JdbcTemplateLight implements TransactionRunner {
+
+    /** Maximum number of ids bound in one {@link #queryIn} statement. */
+    public static final int IN_CHUNK_SIZE = 512;
+
     private final ConnectionFactory factory;
+    private final QueryTimeouts timeouts;
+    private final CircuitBreaker breaker;
+    private final Bulkhead reports;
+    // the class every statement of the thread runs as, if not the default of its type
+    private final ThreadLocal<QueryTimeouts.Kind> scope = new ThreadLocal<>();
     
     /**
-     * Constructs a JdbcTemplateLight with the specified connection factory.
+     * Constructs a JdbcTemplateLight with the specified connection factory,
+     * without timeouts, breaker or report limit.
      * 
      * @param factory the connection factory for obtaining database connections
      * @throws IllegalArgumentException if factory is null
      */
     public JdbcTemplateLight(ConnectionFactory factory) { 
+        this(factory, QueryTimeouts.NONE, null, null);
+    }
+
+    /**
+     * Constructs a JdbcTemplateLight that protects its callers from a slow or
+     * unreachable database.
+     * 
+     * @param factory the connection factory for obtaining database connections
+     * @param timeouts the statement timeouts per class of operation
+     * @param breaker fails calls fast during outages; {@code null} for none
+     * @param reports limits concurrent {@link #report} calls; {@code null} for no limit
+     * @throws IllegalArgumentException if factory is null
+     */
+    public JdbcTemplateLight(ConnectionFactory factory, QueryTimeouts timeouts, CircuitBreaker breaker, Bulkhead reports) {
         if (factory == null) {
             throw new IllegalArgumentException("ConnectionFactory cannot be null"); // ConnectionFactory no puede ser nula
         }
-        this.factory = factory; 
+        this.factory = factory;
+        this.timeouts = timeouts != null ? timeouts : QueryTimeouts.NONE;
+        this.breaker = breaker;
+        this.reports = reports;
     }
 
     /**
@@ -78,7 +128,9 @@ public class JdbcTemplateLight {
      * <p>
      * This method handles the complete lifecycle of a database query including
      * connection management, parameter binding, result set processing, and
-     * resource cleanup.
+     * resource cleanup. When called inside a transaction the transaction's
+     * connection is reused and left open; otherwise the query may be served by
+     * a read replica (see {@link ConnectionFactory#openForRead()}).
      * </p>
      * 
      * @param <T> the type of objects to return
@@ -89,39 +141,231 @@ public class JdbcTemplateLight {
      * @throws DatabaseException if a database error occurs
      */
     public <T> List<T> query(String sql, Consumer<PreparedStatement> binder, RowMapper<T> mapper) throws DatabaseException {
-        try (Connection c = factory.open();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            if (binder != null) binder.accept(ps); // Permite parametrizar la consulta
-            try (ResultSet rs = ps.executeQuery()) {
-                List<T> out = new ArrayList<>();
-                while (rs.next()) out.add(mapper.map(rs)); // Mapea cada fila
-                return out;
+        TransactionContext.Frame tx = TransactionContext.current();
+        if (tx != null) {
+            try {
+                return doQuery(tx.connection, -1, sql, binder, mapper);
+            } catch (SQLException e) {
+                throw new DatabaseException("Error executing query: " + sql, e);
             }
-        } catch (SQLException e) {
-            throw new DatabaseException("Error executing query: " + sql, e);
         }
+        return guarded(() -> {
+            long acquireStart = System.nanoTime();
+            try (Connection c = factory.openForRead()) {
+                return doQuery(c, System.nanoTime() - acquireStart, sql, binder, mapper);
+            } catch (SQLException e) {
+                throw new DatabaseException("Error executing query: " + sql, e);
+            }
+        });
+    }
+
+    /**
+     * Executes a query once per chunk of an id list, e.g. for multi-gets.
+     * <p>
+     * {@code sql} holds one {@code %s} where the {@code IN} list goes, e.g.
+     * {@code "SELECT * FROM book WHERE id IN (%s)"}. Null and duplicate ids are
+     * dropped and the rest split into chunks of at most {@link #IN_CHUNK_SIZE}
+     * placeholders. A short chunk is padded to the next power of two by
+     * repeating its last id, so only a handful of statement shapes reach the
+     * server's statement cache. Several chunks run on one read-only
+     * connection.
+     * </p>
+     *
+     * @param <T> the type of objects to return
+     * @param sql the query with one {@code %s} for the placeholders
+     * @param ids the ids to bind
+     * @param mapper the RowMapper to convert ResultSet rows to objects
+     * @return the rows of all chunks, in no particular order
+     * @throws DatabaseException if a database error occurs
+     */
+    public <T> List<T> queryIn(String sql, Collection<Integer> ids, RowMapper<T> mapper) throws DatabaseException {
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.removeIf(Objects::isNull);
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (distinct.size() <= IN_CHUNK_SIZE) {
+            return queryChunk(sql, distinct, mapper);
+        }
+        return txExecuteReadOnly(conn -> {
+            List<T> out = new ArrayList<>();
+            for (int from = 0; from < distinct.size(); from += IN_CHUNK_SIZE) {
+                out.addAll(queryChunk(sql, distinct.subList(from, Math.min(distinct.size(), from + IN_CHUNK_SIZE)), mapper));
+            }
+            return out;
+        });
+    }
+
+    private <T> List<T> queryChunk(String sql, List<Integer> chunk, RowMapper<T> mapper) {
+        // next power of two, at most IN_CHUNK_SIZE since that is one
+        int size = chunk.size() == 1 ? 1 : Integer.highestOneBit(chunk.size() - 1) << 1;
+        String placeholders = String.join(", ", Collections.nCopies(size, "?"));
+        return query(String.format(sql, placeholders), ps -> {
+            try {
+                for (int i = 0; i < size; i++) {
+                    ps.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Error binding id list", e);
+            }
+        }, mapper);
+    }
+
+    /**
+     * Streams the rows of a query to a callback without collecting them, for
+     * scans of whole tables.
+     * <p>
+     * The query runs as a {@link #report} in a read-only transaction on a
+     * forward-only cursor; on MySQL the rows are streamed one by one,
+     * elsewhere fetched in batches.
+     * </p>
+     *
+     * @param <T> the type of mapped rows
+     * @param sql the SQL query to execute, without parameters
+     * @param mapper the RowMapper to convert each row
+     * @param action receives each mapped row
+     * @return the number of rows
+     * @throws DatabaseException if a database error occurs or too many reports are running
+     */
+    public <T> long forEachRow(String sql, RowMapper<T> mapper, Consumer<T> action) throws DatabaseException {
+        return report(() -> txExecuteReadOnly(conn -> {
+            StatementEvent event = StatementEvent.start(StatementEvent.STREAM, sql);
+            Span span = startStatementSpan(StatementEvent.STREAM, sql, -1);
+            long rows = 0;
+            boolean done = false;
+            try (PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                applyTimeout(ps);
+                // MySQL Connector/J only streams rows with this special fetch size
+                boolean mysql = conn.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+                ps.setFetchSize(mysql ? Integer.MIN_VALUE : 1000);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        action.accept(mapper.map(rs));
+                        rows++;
+                    }
+                }
+                done = true;
+                return rows;
+            } finally {
+                event.finish(done, rows);
+                span.setAttribute(Tracer.DB_ROWS, rows).end(done);
+            }
+        }));
     }
 
     /**
      * Executes an update statement (INSERT, UPDATE, DELETE).
      * <p>
      * This method handles parameter binding and resource cleanup for
-     * data modification operations.
+     * data modification operations. When called inside a transaction the
+     * transaction's connection is reused and the change is committed with it.
      * </p>
      * 
      * @param sql the SQL statement to execute
      * @param binder a consumer to bind parameters to the PreparedStatement, can be null
      * @return the number of rows affected by the statement
-     * @throws DatabaseException if a database error occurs
+     * @throws DatabaseException if a database error occurs, or if called inside a read-only transaction
      */
     public int update(String sql, Consumer<PreparedStatement> binder) throws DatabaseException {
-        try (Connection c = factory.open();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            if (binder != null) binder.accept(ps);
-            return ps.executeUpdate();
-        } catch (SQLException e) {
-            throw new DatabaseException("Error executing update: " + sql, e);
+        TransactionContext.Frame tx = TransactionContext.current();
+        if (tx != null) {
+            if (tx.readOnly) {
+                throw new DatabaseException("Cannot execute an update inside a read-only transaction: " + sql);
+            }
+            try {
+                return doUpdate(tx.connection, -1, sql, binder);
+            } catch (SQLException e) {
+                throw new DatabaseException("Error executing update: " + sql, e);
+            }
+        }
+        return guarded(() -> {
+            long acquireStart = System.nanoTime();
+            try (Connection c = factory.open()) {
+                int rows = doUpdate(c, System.nanoTime() - acquireStart, sql, binder);
+                factory.recordWrite();
+                return rows;
+            } catch (SQLException e) {
+                throw new DatabaseException("Error executing update: " + sql, e);
+            }
+        });
+    }
+
+    /**
+     * Inserts one row and returns its generated key.
+     * <p>
+     * Runs like {@link #update}; the key comes back with the insert itself
+     * ({@code RETURNING} on PostgreSQL, generated keys on MySQL), so there is
+     * no second query to find the new row.
+     * </p>
+     *
+     * @param sql an {@code INSERT ... VALUES} statement
+     * @param binder a consumer to bind parameters to the PreparedStatement, can be null
+     * @param keyColumn the generated key column, e.g. {@code id}
+     * @return the key of the inserted row
+     * @throws DatabaseException if a database error occurs, or if called inside a read-only transaction
+     */
+    public long insert(String sql, Consumer<PreparedStatement> binder, String keyColumn) throws DatabaseException {
+        TransactionContext.Frame tx = TransactionContext.current();
+        if (tx != null) {
+            if (tx.readOnly) {
+                throw new DatabaseException("Cannot execute an insert inside a read-only transaction: " + sql);
+            }
+            try {
+                return doInsert(tx.connection, -1, sql, binder, keyColumn);
+            } catch (SQLException e) {
+                throw new DatabaseException("Error executing insert: " + sql, e);
+            }
         }
+        return guarded(() -> {
+            long acquireStart = System.nanoTime();
+            try (Connection c = factory.open()) {
+                long key = doInsert(c, System.nanoTime() - acquireStart, sql, binder, keyColumn);
+                factory.recordWrite();
+                return key;
+            } catch (SQLException e) {
+                throw new DatabaseException("Error executing insert: " + sql, e);
+            }
+        });
+    }
+
+    /**
+     * Loads many rows into a table with the vendor's bulk path: {@code COPY}
+     * on PostgreSQL, multi-row {@code VALUES} (or {@code LOAD DATA LOCAL
+     * INFILE} when enabled) on MySQL.
+     * <p>
+     * Joins the current transaction, or runs in a transaction of its own, so
+     * a failed load leaves no rows behind.
+     * </p>
+     *
+     * @param table the table
+     * @param columns the columns, in the order of each row's values
+     * @param rows the rows; numbers, strings, booleans, {@link java.time.LocalDate}s or {@code null}
+     * @return the number of rows inserted
+     * @throws DatabaseException if the load fails
+     */
+    public long bulkInsert(String table, List<String> columns, List<Object[]> rows) throws DatabaseException {
+        return txExecute(conn -> {
+            StatementEvent event = StatementEvent.start(StatementEvent.BULK_INSERT, table);
+            Span span = startStatementSpan(StatementEvent.BULK_INSERT, table, -1);
+            long inserted = -1;
+            try {
+                inserted = getDialect().bulkInsert(conn, table, columns, rows, timeoutSeconds(QueryTimeouts.Kind.WRITE));
+                return inserted;
+            } finally {
+                event.finish(inserted >= 0, Math.max(inserted, 0));
+                span.setAttribute(Tracer.DB_ROWS, Math.max(inserted, 0)).end(inserted >= 0);
+            }
+        });
+    }
+
+    /**
+     * Returns the SQL dialect of the database, for statements whose syntax
+     * differs between vendors.
+     *
+     * @return the dialect
+     */
+    public SqlDialect getDialect() {
+        return factory.getDialect();
     }
 
     /**
@@ -130,6 +374,14 @@ public class JdbcTemplateLight {
      * This method provides transactional support by disabling auto-commit,
      * executing the callback, and then either committing on success or
      * rolling back on exception. The original auto-commit state is restored.
+     * Read-write transactions always run on the primary.
+     * </p>
+     * <p>
+     * The connection is bound to the current thread while the callback runs, so
+     * repository methods called from the callback take part in the transaction.
+     * If a transaction is already active, the callback runs in a nested
+     * transaction backed by a savepoint: a failure rolls back to the savepoint
+     * and propagates, leaving the decision to commit with the outer caller.
      * </p>
      * 
      * @param <T> the type of result returned by the callback
@@ -138,22 +390,268 @@ public class JdbcTemplateLight {
      * @throws DatabaseException if any database error occurs, triggering rollback
      */
     public <T> T txExecute(SqlTxCallback<T> cb) throws DatabaseException {
-        try (Connection c = factory.open()) {
+        return txExecute(false, cb);
+    }
+
+    /**
+     * Executes operations within a read-only transaction.
+     * <p>
+     * The connection is obtained through {@link ConnectionFactory#openReadOnly()}
+     * and may therefore be served by a read replica. Updates issued inside the
+     * callback are rejected. When called inside an existing transaction the
+     * callback simply joins it.
+     * </p>
+     *
+     * @param <T> the type of result returned by the callback
+     * @param cb the callback containing the read operations
+     * @return the result returned by the callback
+     * @throws DatabaseException if any database error occurs
+     */
+    public <T> T txExecuteReadOnly(SqlTxCallback<T> cb) throws DatabaseException {
+        return txExecute(true, cb);
+    }
+
+    /**
+     * Runs report work: its statements get the report timeout, and it waits
+     * for one of the limited report slots so that reports cannot crowd out
+     * checkout traffic. Nested calls share the caller's slot.
+     *
+     * @param <T> the result type
+     * @param work the report's queries
+     * @return the work's result
+     * @throws DatabaseException if a query fails or no report slot frees up in time
+     */
+    public <T> T report(Supplier<T> work) throws DatabaseException {
+        Supplier<T> scoped = () -> withTimeouts(QueryTimeouts.Kind.REPORT, work);
+        return reports == null ? scoped.get() : reports.run(scoped);
+    }
+
+    /**
+     * Runs work whose statements all get the timeout of one class, e.g. the
+     * report timeout for a batch job that sizes its own parallelism and so
+     * does not go through the report slots.
+     *
+     * @param <T> the result type
+     * @param kind the class of operation
+     * @param work the work
+     * @return the work's result
+     */
+    public <T> T withTimeouts(QueryTimeouts.Kind kind, Supplier<T> work) {
+        QueryTimeouts.Kind previous = scope.get();
+        scope.set(kind);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                scope.remove();
+            } else {
+                scope.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Sets the timeout of the current class of operation on a statement a
+     * callback prepared itself; the read timeout outside {@link #report} and
+     * {@link #withTimeouts}.
+     *
+     * @param statement the statement
+     * @throws SQLException if the driver rejects the timeout
+     */
+    public void applyTimeout(Statement statement) throws SQLException {
+        statement.setQueryTimeout(timeoutSeconds(QueryTimeouts.Kind.READ));
+    }
+
+    /**
+     * Returns the circuit breaker, e.g. for its counters.
+     *
+     * @return the breaker, or {@code null} if there is none
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Returns the bulkhead limiting concurrent reports, e.g. for its counters.
+     *
+     * @return the bulkhead, or {@code null} if reports are not limited
+     */
+    public Bulkhead getReportBulkhead() {
+        return reports;
+    }
+
+    private int timeoutSeconds(QueryTimeouts.Kind fallback) {
+        QueryTimeouts.Kind kind = scope.get();
+        return timeouts.seconds(kind != null ? kind : fallback);
+    }
+
+    // one call outside a transaction, or one outermost transaction, seen by the breaker
+    private <T> T guarded(Supplier<T> call) throws DatabaseException {
+        if (breaker == null) {
+            return call.get();
+        }
+        breaker.acquire();
+        Throwable failure = null;
+        try {
+            return call.get();
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            breaker.record(failure);
+        }
+    }
+
+    @Override
+    public <T> T inTransaction(Supplier<T> work) throws DatabaseException {
+        return txExecute(false, conn -> work.get());
+    }
+
+    @Override
+    public <T> T inReadOnlyTransaction(Supplier<T> work) throws DatabaseException {
+        return txExecute(true, conn -> work.get());
+    }
+
+    private <T> T txExecute(boolean readOnly, SqlTxCallback<T> cb) throws DatabaseException {
+        TransactionContext.Frame outer = TransactionContext.current();
+        if (outer != null) {
+            return joinTx(outer, readOnly, cb);
+        }
+        return guarded(() -> runTx(readOnly, cb));
+    }
+
+    private <T> T runTx(boolean readOnly, SqlTxCallback<T> cb) throws DatabaseException {
+        TransactionContext.Frame frame = null;
+        boolean committed = false;
+        try (Connection c = readOnly ? factory.openReadOnly() : factory.open()) {
             boolean prev = c.getAutoCommit();
             c.setAutoCommit(false);
+            frame = TransactionContext.bind(c, readOnly);
             try {
                 T result = cb.doInTx(c);
                 c.commit();
+                committed = true;
+                if (!readOnly) {
+                    factory.recordWrite();
+                }
                 return result;
             } catch (SQLException ex) {
                 c.rollback();
                 throw new DatabaseException("Transaction failed and was rolled back", ex);
+            } catch (RuntimeException | Error ex) {
+                c.rollback();
+                throw ex;
             } finally {
+                TransactionContext.unbind();
                 c.setAutoCommit(prev);
             }
         } catch (SQLException e) {
             throw new DatabaseException("Error managing transaction", e);
+        } finally {
+            // once the connection is released, so that the actions may start transactions of their own
+            if (frame != null) {
+                if (committed) {
+                    TransactionContext.runAfterCommit(frame);
+                } else {
+                    TransactionContext.runAfterRollback(frame);
+                }
+            }
+        }
+    }
+
+    private <T> T joinTx(TransactionContext.Frame outer, boolean readOnly, SqlTxCallback<T> cb) throws DatabaseException {
+        if (outer.readOnly && !readOnly) {
+            throw new DatabaseException("Cannot start a read-write transaction inside a read-only transaction");
+        }
+        Connection c = outer.connection;
+        int completionMark = TransactionContext.completionMark(outer);
+        outer.depth++;
+        try {
+            if (outer.readOnly) {
+                // Nothing to undo in a read-only transaction, so no savepoint is needed
+                return cb.doInTx(c);
+            }
+            Savepoint savepoint = c.setSavepoint();
+            try {
+                T result = cb.doInTx(c);
+                c.releaseSavepoint(savepoint);
+                return result;
+            } catch (SQLException ex) {
+                c.rollback(savepoint);
+                TransactionContext.rolledBackTo(outer, completionMark);
+                throw new DatabaseException("Nested transaction failed and was rolled back to savepoint", ex);
+            } catch (RuntimeException | Error ex) {
+                c.rollback(savepoint);
+                TransactionContext.rolledBackTo(outer, completionMark);
+                throw ex;
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error managing nested transaction", e);
+        } finally {
+            outer.depth--;
+        }
+    }
+
+    private <T> List<T> doQuery(Connection c, long acquireNanos, String sql, Consumer<PreparedStatement> binder,
+                                RowMapper<T> mapper) throws SQLException {
+        StatementEvent event = StatementEvent.start(StatementEvent.QUERY, sql);
+        Span span = startStatementSpan(StatementEvent.QUERY, sql, acquireNanos);
+        List<T> out = new ArrayList<>();
+        boolean done = false;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setQueryTimeout(timeoutSeconds(QueryTimeouts.Kind.READ));
+            if (binder != null) binder.accept(ps); // Permite parametrizar la consulta
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(mapper.map(rs)); // Mapea cada fila
+                done = true;
+                return out;
+            }
+        } finally {
+            event.finish(done, out.size());
+            span.setAttribute(Tracer.DB_ROWS, out.size()).end(done);
+        }
+    }
+
+    private long doInsert(Connection c, long acquireNanos, String sql, Consumer<PreparedStatement> binder,
+                          String keyColumn) throws SQLException {
+        SqlDialect dialect = getDialect();
+        StatementEvent event = StatementEvent.start(StatementEvent.INSERT, sql);
+        Span span = startStatementSpan(StatementEvent.INSERT, sql, acquireNanos);
+        boolean done = false;
+        try (PreparedStatement ps = dialect.prepareInsert(c, sql, keyColumn)) {
+            ps.setQueryTimeout(timeoutSeconds(QueryTimeouts.Kind.WRITE));
+            if (binder != null) binder.accept(ps);
+            long key = dialect.executeInsert(ps);
+            done = true;
+            return key;
+        } finally {
+            event.finish(done, done ? 1 : 0);
+            span.setAttribute(Tracer.DB_ROWS, done ? 1 : 0).end(done);
+        }
+    }
+
+    private int doUpdate(Connection c, long acquireNanos, String sql, Consumer<PreparedStatement> binder) throws SQLException {
+        StatementEvent event = StatementEvent.start(StatementEvent.UPDATE, sql);
+        Span span = startStatementSpan(StatementEvent.UPDATE, sql, acquireNanos);
+        int rows = -1;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setQueryTimeout(timeoutSeconds(QueryTimeouts.Kind.WRITE));
+            if (binder != null) binder.accept(ps);
+            rows = ps.executeUpdate();
+            return rows;
+        } finally {
+            event.finish(rows >= 0, Math.max(rows, 0));
+            span.setAttribute(Tracer.DB_ROWS, Math.max(rows, 0)).end(rows >= 0);
+        }
+    }
+
+    // acquireNanos is -1 for a statement on a transaction's connection, which was opened for the transaction
+    private static Span startStatementSpan(String kind, String sql, long acquireNanos) {
+        Span span = Tracer.startStatement(kind, sql);
+        if (acquireNanos >= 0) {
+            span.setAttribute(Tracer.DB_CONNECTION_ACQUIRE_MICROS, acquireNanos / 1_000);
         }
+        return span;
     }
 
     /**
@@ -0,0 +1,84 @@
+package com.codeup.booknova.jdbc;
+
+import com.codeup.booknova.infra.config.AppConfig;
+
+/**
+ * Statement timeouts per class of operation, applied by
+ * {@link JdbcTemplateLight} with {@link java.sql.Statement#setQueryTimeout}.
+ * <p>
+ * Queries run with the read timeout and updates with the write timeout,
+ * unless they run inside {@link JdbcTemplateLight#report} or
+ * {@link JdbcTemplateLight#withTimeouts}, which switch every statement of the
+ * calling thread to another class. The database cancels a statement that
+ * runs longer than its timeout, and the caller gets a
+ * {@link com.codeup.booknova.exception.DatabaseException} caused by a
+ * {@link java.sql.SQLTimeoutException}.
+ * </p>
+ * <p>Configuration ({@link #fromConfig(AppConfig)}), in seconds, {@code 0} for no limit:</p>
+ * <ul>
+ * <li>{@code db.timeout.readSeconds} - lookups and lists (default 10)</li>
+ * <li>{@code db.timeout.writeSeconds} - inserts, updates and deletes (default 15)</li>
+ * <li>{@code db.timeout.reportSeconds} - reports and table scans (default 120)</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class QueryTimeouts {
+
+    /**
+     * The class of an operation.
+     */
+    public enum Kind {
+        READ, WRITE, REPORT
+    }
+
+    /** No timeouts, as before they were introduced. */
+    public static final QueryTimeouts NONE = new QueryTimeouts(0, 0, 0);
+
+    private final int readSeconds;
+    private final int writeSeconds;
+    private final int reportSeconds;
+
+    /**
+     * Creates timeouts; {@code 0} means no limit.
+     *
+     * @param readSeconds the timeout of queries
+     * @param writeSeconds the timeout of updates
+     * @param reportSeconds the timeout of report statements
+     */
+    public QueryTimeouts(int readSeconds, int writeSeconds, int reportSeconds) {
+        if (readSeconds < 0 || writeSeconds < 0 || reportSeconds < 0) {
+            throw new IllegalArgumentException("Timeouts must not be negative");
+        }
+        this.readSeconds = readSeconds;
+        this.writeSeconds = writeSeconds;
+        this.reportSeconds = reportSeconds;
+    }
+
+    /**
+     * Reads the {@code db.timeout.*} settings.
+     *
+     * @param cfg the application configuration
+     * @return the timeouts
+     */
+    public static QueryTimeouts fromConfig(AppConfig cfg) {
+        return new QueryTimeouts(cfg.getInt("db.timeout.readSeconds", 10),
+                cfg.getInt("db.timeout.writeSeconds", 15),
+                cfg.getInt("db.timeout.reportSeconds", 120));
+    }
+
+    /**
+     * Returns the timeout of a class of operation.
+     *
+     * @param kind the class
+     * @return the timeout in seconds, {@code 0} for no limit
+     */
+    public int seconds(Kind kind) {
+        return switch (kind) {
+            case READ -> readSeconds;
+            case WRITE -> writeSeconds;
+            case REPORT -> reportSeconds;
+        };
+    }
+}
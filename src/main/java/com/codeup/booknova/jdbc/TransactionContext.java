@@ -0,0 +1,190 @@
+package com.codeup.booknova.jdbc;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holds the connection bound to the current transaction.
+ * <p>
+ * {@link JdbcTemplateLight#txExecute(SqlTxCallback)} binds its connection here
+ * for the duration of the callback, so that every {@code query}/{@code update}
+ * issued by repositories on the same thread joins the caller's transaction
+ * instead of opening a new connection.
+ * </p>
+ * <p>
+ * The binding is a plain {@link ThreadLocal} holding one small frame per
+ * thread. It is safe to use from virtual threads: each virtual thread gets its
+ * own frame, and the binding never holds a monitor while JDBC blocks.
+ * </p>
+ * <p>
+ * Work that must only happen once the data is committed, e.g. publishing an
+ * event that other threads act on, is registered with {@link #afterCommit}.
+ * It runs after the outermost transaction commits and is dropped if the
+ * transaction, or the nested transaction that registered it, rolls back.
+ * Work that undoes an in-memory change made along with the transaction is
+ * registered with {@link #afterRollback} and runs in exactly those cases.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ * @see JdbcTemplateLight
+ */
+public final class TransactionContext {
+
+    private static final Logger logger = Logger.getLogger(TransactionContext.class.getName());
+    private static final ThreadLocal<Frame> CURRENT = new ThreadLocal<>();
+
+    private TransactionContext() {}
+
+    /**
+     * A transaction bound to the current thread.
+     */
+    static final class Frame {
+        final Connection connection;
+        final boolean readOnly;
+        int depth;
+        List<Completion> completions; // created on first use
+
+        Frame(Connection connection, boolean readOnly) {
+            this.connection = connection;
+            this.readOnly = readOnly;
+        }
+    }
+
+    // an action to run once the transaction commits, or once it or the enclosing savepoint rolls back
+    private record Completion(Runnable action, boolean onCommit) {}
+
+    /**
+     * Returns {@code true} if the current thread is inside a transaction.
+     *
+     * @return whether a connection is bound to the current thread
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Returns {@code true} if the current transaction is read-only.
+     *
+     * @return whether the bound transaction is read-only, {@code false} if none is active
+     */
+    public static boolean isReadOnly() {
+        Frame frame = CURRENT.get();
+        return frame != null && frame.readOnly;
+    }
+
+    /**
+     * Returns the nesting depth of the current transaction.
+     *
+     * @return 0 when no transaction is active, 1 for the outermost transaction
+     */
+    public static int depth() {
+        Frame frame = CURRENT.get();
+        return frame == null ? 0 : frame.depth;
+    }
+
+    /**
+     * Runs an action once the current transaction has committed, on this
+     * thread and after its connection is released; right away if no
+     * transaction is active. A failing action is logged and does not affect
+     * the others or the caller.
+     *
+     * @param action the action
+     */
+    public static void afterCommit(Runnable action) {
+        Frame frame = CURRENT.get();
+        if (frame == null) {
+            run(action);
+            return;
+        }
+        register(frame, new Completion(action, true));
+    }
+
+    /**
+     * Runs an action if the current transaction rolls back, or the nested
+     * transaction that is current rolls back to its savepoint; never if no
+     * transaction is active. Actions run on this thread, latest registered
+     * first, once the connection is released or the savepoint restored. A
+     * failing action is logged and does not affect the others or the caller.
+     *
+     * @param action the action
+     */
+    public static void afterRollback(Runnable action) {
+        Frame frame = CURRENT.get();
+        if (frame != null) {
+            register(frame, new Completion(action, false));
+        }
+    }
+
+    private static void register(Frame frame, Completion completion) {
+        if (frame.completions == null) {
+            frame.completions = new ArrayList<>();
+        }
+        frame.completions.add(completion);
+    }
+
+    // the number of actions registered so far, to settle the later ones on a rollback to a savepoint
+    static int completionMark(Frame frame) {
+        return frame.completions == null ? 0 : frame.completions.size();
+    }
+
+    // after a rollback to a savepoint: drops the commit actions registered since the mark and runs the rollback ones
+    static void rolledBackTo(Frame frame, int mark) {
+        if (frame.completions != null) {
+            List<Completion> since = frame.completions.subList(mark, frame.completions.size());
+            List<Completion> undone = new ArrayList<>(since);
+            since.clear();
+            runRollbackActions(undone);
+        }
+    }
+
+    static void runAfterCommit(Frame frame) {
+        if (frame.completions != null) {
+            for (Completion completion : frame.completions) {
+                if (completion.onCommit()) {
+                    run(completion.action());
+                }
+            }
+        }
+    }
+
+    static void runAfterRollback(Frame frame) {
+        if (frame.completions != null) {
+            runRollbackActions(frame.completions);
+        }
+    }
+
+    private static void runRollbackActions(List<Completion> completions) {
+        for (int i = completions.size() - 1; i >= 0; i--) {
+            if (!completions.get(i).onCommit()) {
+                run(completions.get(i).action());
+            }
+        }
+    }
+
+    private static void run(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Transaction completion action failed", e);
+        }
+    }
+
+    static Frame current() {
+        return CURRENT.get();
+    }
+
+    static Frame bind(Connection connection, boolean readOnly) {
+        Frame frame = new Frame(connection, readOnly);
+        frame.depth = 1;
+        CURRENT.set(frame);
+        return frame;
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+}
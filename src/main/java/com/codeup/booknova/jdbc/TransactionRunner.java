@@ -0,0 +1,70 @@
+package com.codeup.booknova.jdbc;
+
+import java.util.function.Supplier;
+
+import com.codeup.booknova.exception.DatabaseException;
+
+/**
+ * Runs a unit of work inside a database transaction.
+ * <p>
+ * Services depend on this interface rather than on {@link JdbcTemplateLight}
+ * directly, so they can group several repository calls into one transaction
+ * while staying testable with mocked repositories.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ * @see JdbcTemplateLight
+ */
+public interface TransactionRunner {
+
+    /**
+     * Runner that executes the work directly, without a transaction.
+     * Used when no database is involved, e.g. in unit tests with mocked repositories.
+     */
+    TransactionRunner DIRECT = new TransactionRunner() {
+        @Override
+        public <T> T inTransaction(Supplier<T> work) {
+            return work.get();
+        }
+
+        @Override
+        public <T> T inReadOnlyTransaction(Supplier<T> work) {
+            return work.get();
+        }
+    };
+
+    /**
+     * Executes the work in a read-write transaction. If a transaction is already
+     * active on the current thread the work joins it through a savepoint.
+     *
+     * @param <T> the type of the result
+     * @param work the work to execute
+     * @return the result of the work
+     * @throws DatabaseException if the transaction fails and is rolled back
+     */
+    <T> T inTransaction(Supplier<T> work) throws DatabaseException;
+
+    /**
+     * Executes the work in a read-only transaction, which may be served by a replica.
+     *
+     * @param <T> the type of the result
+     * @param work the work to execute
+     * @return the result of the work
+     * @throws DatabaseException if the transaction fails
+     */
+    <T> T inReadOnlyTransaction(Supplier<T> work) throws DatabaseException;
+
+    /**
+     * Executes the work in a read-write transaction without a result.
+     *
+     * @param work the work to execute
+     * @throws DatabaseException if the transaction fails and is rolled back
+     */
+    default void runInTransaction(Runnable work) throws DatabaseException {
+        inTransaction(() -> {
+            work.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package com.codeup.booknova.jdbc.dialect;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+
+/**
+ * MySQL dialect, also used for the H2 databases of the tests in MySQL mode.
+ * <ul>
+ * <li>upserts with {@code INSERT ... ON DUPLICATE KEY UPDATE}</li>
+ * <li>{@code INSERT IGNORE}</li>
+ * <li>generated keys from {@link Statement#getGeneratedKeys()}, which MySQL
+ *     returns with the insert's OK packet at no extra round trip</li>
+ * <li>bulk loads with multi-row {@code VALUES}, or with
+ *     {@code LOAD DATA LOCAL INFILE} streamed from memory when enabled</li>
+ * </ul>
+ * <p>
+ * {@code LOAD DATA LOCAL INFILE} is the fastest way into MySQL but needs
+ * {@code local_infile=ON} on the server, so it is off unless
+ * {@code db.mysql.loadLocalInfile=true}. The load skips rows whose key already
+ * exists, like every {@code LOCAL} load. Connections that are not MySQL
+ * Connector/J connections always get multi-row {@code VALUES}.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class MySqlDialect extends SqlDialect {
+    private final boolean loadLocalInfile;
+
+    /**
+     * Creates the dialect.
+     *
+     * @param loadLocalInfile whether {@link #bulkInsert} may use {@code LOAD DATA LOCAL INFILE}
+     */
+    public MySqlDialect(boolean loadLocalInfile) {
+        this.loadLocalInfile = loadLocalInfile;
+    }
+
+    @Override
+    public String getName() {
+        return "MySQL";
+    }
+
+    @Override
+    public String upsertAdding(String table, List<String> keys, List<String> counters) {
+        return insert(table, concat(keys, counters)) + " ON DUPLICATE KEY UPDATE "
+                + each(counters, c -> c + " = " + c + " + VALUES(" + c + ")");
+    }
+
+    @Override
+    public String insertIgnore(String table, List<String> columns, List<String> keys) {
+        return insert(table, columns).replaceFirst("^INSERT INTO", "INSERT IGNORE INTO");
+    }
+
+    @Override
+    public PreparedStatement prepareInsert(Connection c, String insert, String keyColumn) throws SQLException {
+        return c.prepareStatement(insert, Statement.RETURN_GENERATED_KEYS);
+    }
+
+    @Override
+    public long executeInsert(PreparedStatement ps) throws SQLException {
+        ps.executeUpdate();
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            if (!keys.next()) {
+                throw new SQLException("Insert returned no generated key");
+            }
+            return keys.getLong(1);
+        }
+    }
+
+    @Override
+    public long bulkInsert(Connection c, String table, List<String> columns, List<Object[]> rows,
+                           int timeoutSeconds) throws SQLException {
+        if (loadLocalInfile && !rows.isEmpty()) {
+            try (Statement st = c.createStatement()) {
+                if (st.isWrapperFor(JdbcStatement.class)) {
+                    st.setQueryTimeout(timeoutSeconds);
+                    st.unwrap(JdbcStatement.class).setLocalInfileInputStream(
+                            new ByteArrayInputStream(infile(rows).getBytes(StandardCharsets.UTF_8)));
+                    return st.executeUpdate("LOAD DATA LOCAL INFILE 'rows' INTO TABLE " + table
+                            + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'"
+                            + " ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' (" + String.join(", ", columns) + ")");
+                }
+            }
+        }
+        return insertValues(c, table, columns, rows, timeoutSeconds);
+    }
+
+    /**
+     * Formats rows for {@code LOAD DATA}: comma separated, strings in double
+     * quotes with backslash escapes, {@code \N} for {@code null}.
+     *
+     * @param rows the rows
+     * @return the file contents
+     */
+    static String infile(List<Object[]> rows) {
+        StringBuilder out = new StringBuilder(rows.size() * 32);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                Object value = row[i];
+                if (value == null) {
+                    out.append("\\N");
+                } else if (value instanceof String s) {
+                    out.append('"').append(s.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+                } else {
+                    out.append(text(value));
+                }
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,236 @@
+package com.codeup.booknova.jdbc.dialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Renders the statements whose syntax differs between database vendors, and
+ * runs the vendor's fast paths for inserts.
+ * <p>
+ * Statements that every supported server understands (e.g.
+ * {@code CURRENT_DATE}, {@code EXTRACT}, {@code LIMIT ?}) stay plain SQL in the
+ * repositories; only these go through the dialect:
+ * </p>
+ * <ul>
+ * <li>{@link #upsertAdding} - insert a row of counters or add them to the existing row</li>
+ * <li>{@link #insertIgnore} - insert a row unless its key exists</li>
+ * <li>{@link #prepareInsert} and {@link #executeInsert} - insert a row and return its generated key</li>
+ * <li>{@link #bulkInsert} - load many rows at once</li>
+ * </ul>
+ * <p>
+ * The dialect is chosen from the primary's JDBC URL by
+ * {@link com.codeup.booknova.connection.ConnectionFactory}: {@link PostgresDialect}
+ * for {@code jdbc:postgresql:}, {@link MySqlDialect} otherwise, including the
+ * H2 databases of the tests, which run in MySQL mode.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public abstract class SqlDialect {
+
+    /** Rows per statement when {@link #bulkInsert} falls back to multi-row {@code VALUES}. */
+    public static final int VALUES_ROWS = 1000;
+
+    // the PostgreSQL protocol carries at most this many bind parameters, MySQL twice as many
+    private static final int MAX_PARAMETERS = 32_767;
+
+    /**
+     * Chooses the dialect of a JDBC URL.
+     *
+     * @param url the JDBC URL of the primary
+     * @param loadLocalInfile whether MySQL bulk loads may use {@code LOAD DATA LOCAL INFILE}
+     * @return the dialect
+     */
+    public static SqlDialect forUrl(String url, boolean loadLocalInfile) {
+        if (url != null && url.startsWith("jdbc:postgresql:")) {
+            return new PostgresDialect();
+        }
+        return new MySqlDialect(loadLocalInfile);
+    }
+
+    /**
+     * Returns the vendor name, e.g. for logs.
+     *
+     * @return the name
+     */
+    public abstract String getName();
+
+    /**
+     * Renders an insert of one row of counters that, when a row with the same
+     * key exists, adds the inserted counters to it instead.
+     * <p>
+     * The statement has one placeholder per key column followed by one per
+     * counter, in the given order.
+     * </p>
+     *
+     * @param table the table
+     * @param keys the columns of its primary key
+     * @param counters the columns to add up
+     * @return the SQL
+     */
+    public abstract String upsertAdding(String table, List<String> keys, List<String> counters);
+
+    /**
+     * Renders an insert of one row that does nothing when a row with the same
+     * key exists.
+     *
+     * @param table the table
+     * @param columns the columns, one placeholder each
+     * @param keys the columns of the unique key to check
+     * @return the SQL
+     */
+    public abstract String insertIgnore(String table, List<String> columns, List<String> keys);
+
+    /**
+     * Prepares an insert whose generated key {@link #executeInsert} returns.
+     *
+     * @param c the connection
+     * @param insert an {@code INSERT ... VALUES} statement
+     * @param keyColumn the generated key column
+     * @return the statement, for the caller to bind and close
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public abstract PreparedStatement prepareInsert(Connection c, String insert, String keyColumn) throws SQLException;
+
+    /**
+     * Runs a statement from {@link #prepareInsert}.
+     *
+     * @param ps the bound statement
+     * @return the generated key of the inserted row
+     * @throws SQLException if the insert fails or returns no key
+     */
+    public abstract long executeInsert(PreparedStatement ps) throws SQLException;
+
+    /**
+     * Loads rows into a table, by default with multi-row {@code INSERT ... VALUES}
+     * statements of up to {@link #VALUES_ROWS} rows.
+     * <p>
+     * Values are bound with {@link PreparedStatement#setObject(int, Object)}, so
+     * they may be numbers, strings, booleans, {@link java.time.LocalDate}s or
+     * {@code null}. Run it in a transaction so a failure leaves no partial load.
+     * </p>
+     *
+     * @param c the connection
+     * @param table the table
+     * @param columns the columns, in the order of each row's values
+     * @param rows the rows
+     * @param timeoutSeconds the timeout of each statement, {@code 0} for none
+     * @return the number of rows inserted
+     * @throws SQLException if the load fails
+     */
+    public long bulkInsert(Connection c, String table, List<String> columns, List<Object[]> rows,
+                           int timeoutSeconds) throws SQLException {
+        return insertValues(c, table, columns, rows, timeoutSeconds);
+    }
+
+    /**
+     * Loads rows with multi-row {@code INSERT ... VALUES} statements.
+     *
+     * @param c the connection
+     * @param table the table
+     * @param columns the columns
+     * @param rows the rows
+     * @param timeoutSeconds the timeout of each statement
+     * @return the number of rows inserted
+     * @throws SQLException if a statement fails
+     */
+    protected final long insertValues(Connection c, String table, List<String> columns, List<Object[]> rows,
+                                      int timeoutSeconds) throws SQLException {
+        int perStatement = Math.max(1, Math.min(VALUES_ROWS, MAX_PARAMETERS / columns.size()));
+        long inserted = 0;
+        PreparedStatement full = null;
+        try {
+            for (int from = 0; from < rows.size(); from += perStatement) {
+                List<Object[]> chunk = rows.subList(from, Math.min(rows.size(), from + perStatement));
+                if (chunk.size() == perStatement) {
+                    // all full chunks share one statement
+                    if (full == null) {
+                        full = c.prepareStatement(insertRows(table, columns, perStatement));
+                        full.setQueryTimeout(timeoutSeconds);
+                    }
+                    inserted += bindRows(full, chunk).executeUpdate();
+                } else {
+                    try (PreparedStatement last = c.prepareStatement(insertRows(table, columns, chunk.size()))) {
+                        last.setQueryTimeout(timeoutSeconds);
+                        inserted += bindRows(last, chunk).executeUpdate();
+                    }
+                }
+            }
+        } finally {
+            if (full != null) {
+                full.close();
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Renders {@code INSERT INTO table (columns) VALUES (?, ...)} for one row.
+     *
+     * @param table the table
+     * @param columns the columns
+     * @return the SQL
+     */
+    protected static String insert(String table, List<String> columns) {
+        return insertRows(table, columns, 1);
+    }
+
+    private static String insertRows(String table, List<String> columns, int rows) {
+        String row = "(" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES "
+                + String.join(", ", Collections.nCopies(rows, row));
+    }
+
+    private static PreparedStatement bindRows(PreparedStatement ps, List<Object[]> rows) throws SQLException {
+        int index = 1;
+        for (Object[] row : rows) {
+            for (Object value : row) {
+                ps.setObject(index++, value);
+            }
+        }
+        return ps;
+    }
+
+    /**
+     * Returns the assignments of a column list, e.g. for an update clause.
+     *
+     * @param columns the columns
+     * @param assignment formats one column, e.g. {@code c -> c + " = " + c + " + 1"}
+     * @return the assignments separated by commas
+     */
+    protected static String each(List<String> columns, UnaryOperator<String> assignment) {
+        return columns.stream().map(assignment).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Returns two column lists as one.
+     *
+     * @param first the first columns
+     * @param second the columns after them
+     * @return both, in order
+     */
+    protected static List<String> concat(List<String> first, List<String> second) {
+        return Stream.concat(first.stream(), second.stream()).toList();
+    }
+
+    /**
+     * Formats a non-string value as text for a server-side load: booleans as
+     * {@code 1} or {@code 0}, which both servers accept, dates in ISO format.
+     *
+     * @param value the value, not {@code null}
+     * @return the text
+     */
+    protected static String text(Object value) {
+        if (value instanceof Boolean b) {
+            return b ? "1" : "0";
+        }
+        return value.toString();
+    }
+}
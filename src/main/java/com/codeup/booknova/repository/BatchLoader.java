@@ -0,0 +1,246 @@
+package com.codeup.booknova.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.codeup.booknova.connection.ReadSession;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.jdbc.TransactionContext;
+
+/**
+ * Coalesces single-key lookups into batched multi-gets, in the style of a
+ * DataLoader.
+ * <p>
+ * {@link #get} queues its key and waits up to {@code windowMillis} for
+ * other threads to queue theirs; the first caller whose wait ends fetches all
+ * queued keys with one call of the batch function (e.g. a repository's
+ * {@code findByIds}) on its own thread, and every caller gets its own result.
+ * A key requested several times in a batch is fetched once. A batch is also
+ * sent as soon as it holds {@code maxBatchSize} keys.
+ * </p>
+ * <p>
+ * {@link #load} only queues the key and returns a future, which lets one
+ * service call gather its lookups and send them together with
+ * {@link #dispatch()}; {@link #getAll} does this for a list of keys.
+ * </p>
+ * <p>
+ * The fetch runs with the dispatching thread's {@link ReadSession} and
+ * transaction, so only lookups that would have read the same data are
+ * batched together: keys are queued per read session, so a session kept on
+ * the primary after a write never shares a replica read with another
+ * session, and a lookup inside a transaction is fetched at once on the
+ * transaction's connection, without joining or dispatching a batch.
+ * </p>
+ * <pre>{@code
+ * BatchLoader<Integer, Book> books = new BatchLoader<>(bookRepo::findByIds, Book::getId, 2, 256);
+ * Optional<Book> book = books.get(42); // shares a query with concurrent get(...) calls
+ * }</pre>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @version 1.0
+ * @since 1.0
+ */
+public class BatchLoader<K, V> {
+    private final Function<Collection<K>, ? extends Collection<V>> fetch;
+    private final Function<V, K> keyOf;
+    private final long windowMillis;
+    private final int maxBatchSize;
+
+    // queued keys by read session
+    private final Map<String, Map<K, CompletableFuture<Optional<V>>>> pending = new HashMap<>();
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong fetchedKeys = new AtomicLong();
+
+    /**
+     * Creates a loader.
+     *
+     * @param fetch loads the values of several keys; missing keys are left out
+     * @param keyOf extracts a value's key
+     * @param windowMillis how long {@link #get} waits for concurrent lookups; {@code 0} fetches at once
+     * @param maxBatchSize the largest number of keys per fetch
+     */
+    public BatchLoader(Function<Collection<K>, ? extends Collection<V>> fetch, Function<V, K> keyOf,
+                       long windowMillis, int maxBatchSize) {
+        if (windowMillis < 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Window must not be negative and batch size must be positive");
+        }
+        this.fetch = fetch;
+        this.keyOf = keyOf;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Queues a key until the next {@link #dispatch()}, a {@link #get} whose
+     * wait ends, or the batch filling up. Inside a transaction the key is
+     * fetched at once.
+     *
+     * @param key the key
+     * @return completes with the value, or empty if there is none, or
+     *         exceptionally if the batch fetch fails
+     */
+    public CompletableFuture<Optional<V>> load(K key) {
+        requests.incrementAndGet();
+        if (TransactionContext.isActive()) {
+            return fetchNow(List.of(key)).get(key);
+        }
+        String session = ReadSession.current();
+        Map<K, CompletableFuture<Optional<V>>> full = null;
+        CompletableFuture<Optional<V>> result;
+        synchronized (this) {
+            Map<K, CompletableFuture<Optional<V>>> queued = pending.computeIfAbsent(session, s -> new LinkedHashMap<>());
+            result = queued.get(key);
+            if (result == null) {
+                result = new CompletableFuture<>();
+                queued.put(key, result);
+                if (queued.size() >= maxBatchSize) {
+                    full = pending.remove(session);
+                }
+            }
+        }
+        if (full != null) {
+            run(full);
+        }
+        return result;
+    }
+
+    /**
+     * Looks up one key and waits for its batch.
+     *
+     * @param key the key
+     * @return the value, or empty if there is none
+     * @throws DatabaseException if the batch fetch fails
+     */
+    public Optional<V> get(K key) throws DatabaseException {
+        CompletableFuture<Optional<V>> result = load(key);
+        if (!result.isDone()) {
+            if (windowMillis > 0) {
+                try {
+                    result.get(windowMillis, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException | ExecutionException e) {
+                    // not fetched yet, or failed and reported by join
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            // fetches our key unless another thread's batch already has it
+            dispatch();
+        }
+        return join(result);
+    }
+
+    /**
+     * Looks up several keys, batched with each other and with concurrent lookups.
+     *
+     * @param keys the keys
+     * @return the values found, by key
+     * @throws DatabaseException if a batch fetch fails
+     */
+    public Map<K, V> getAll(Collection<K> keys) throws DatabaseException {
+        Map<K, CompletableFuture<Optional<V>>> results = new LinkedHashMap<>();
+        if (TransactionContext.isActive()) {
+            requests.addAndGet(keys.size());
+            List<K> distinct = List.copyOf(new LinkedHashSet<>(keys));
+            for (int i = 0; i < distinct.size(); i += maxBatchSize) {
+                results.putAll(fetchNow(distinct.subList(i, Math.min(distinct.size(), i + maxBatchSize))));
+            }
+        } else {
+            for (K key : keys) {
+                results.computeIfAbsent(key, this::load);
+            }
+            dispatch();
+        }
+        Map<K, V> values = new LinkedHashMap<>();
+        for (Map.Entry<K, CompletableFuture<Optional<V>>> e : results.entrySet()) {
+            join(e.getValue()).ifPresent(v -> values.put(e.getKey(), v));
+        }
+        return values;
+    }
+
+    /**
+     * Fetches the keys queued by the current read session now, on the
+     * calling thread.
+     */
+    public void dispatch() {
+        Map<K, CompletableFuture<Optional<V>>> batch;
+        synchronized (this) {
+            batch = pending.remove(ReadSession.current());
+        }
+        if (batch != null) {
+            run(batch);
+        }
+    }
+
+    /**
+     * Returns the number of fetch calls made.
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * Returns the number of {@link #load} calls, including repeated keys.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the number of keys passed to fetch calls, i.e. the requests
+     * left after removing repeated keys of the same batch.
+     */
+    public long getFetchedKeyCount() {
+        return fetchedKeys.get();
+    }
+
+    // fetches keys on the calling thread without queueing them
+    private Map<K, CompletableFuture<Optional<V>>> fetchNow(Collection<K> keys) {
+        Map<K, CompletableFuture<Optional<V>>> batch = new LinkedHashMap<>();
+        for (K key : keys) {
+            batch.put(key, new CompletableFuture<>());
+        }
+        run(batch);
+        return batch;
+    }
+
+    private void run(Map<K, CompletableFuture<Optional<V>>> batch) {
+        batches.incrementAndGet();
+        fetchedKeys.addAndGet(batch.size());
+        try {
+            Map<K, V> found = new HashMap<>();
+            for (V value : fetch.apply(new ArrayList<>(batch.keySet()))) {
+                found.put(keyOf.apply(value), value);
+            }
+            batch.forEach((key, result) -> result.complete(Optional.ofNullable(found.get(key))));
+        } catch (RuntimeException e) {
+            batch.values().forEach(result -> result.completeExceptionally(e));
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new DatabaseException("Batched lookup failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.codeup.booknova.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Rows of one table that changed after a watermark.
+ * <p>
+ * Returned by the {@code findChangedSince} repository methods. A client keeps
+ * a local copy of the table keyed by id, upserts {@link #changed()}, removes
+ * {@link #deletedIds()} and passes {@link #watermark()} to the next call, so a
+ * refresh reads only what changed instead of the whole table.
+ * </p>
+ *
+ * @param <T> the entity type
+ * @param changed rows inserted or updated since the watermark (soft-deleted rows included)
+ * @param deletedIds ids of rows hard-deleted since the watermark
+ * @param watermark the value to pass to the next call; {@code null} if the table was empty
+ * @version 1.0
+ * @since 1.0
+ */
+public record ChangeSet<T>(List<T> changed, List<Integer> deletedIds, Instant watermark) {
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.isEmpty();
+    }
+}
@@ -0,0 +1,296 @@
+package com.codeup.booknova.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.util.BloomFilter;
+
+/**
+ * In-memory pre-check for "does this unique key exist" queries, such as the
+ * email and ISBN checks made before every insert.
+ * <p>
+ * A {@link BloomFilter} holds every key of a column. {@link #exists} answers
+ * {@code false} without a query when the filter rules the key out, and
+ * otherwise runs the database check, so a filter that has not been built yet
+ * or holds removed keys only costs queries. The unique constraint of the
+ * column stays the final arbiter: it rejects concurrent inserts of one key,
+ * and keys a rebuild missed because their transaction had not committed yet.
+ * </p>
+ * <p>
+ * Keys are trimmed and lower-cased before hashing, so keys that a
+ * case-insensitive collation treats as equal are never ruled out. Repositories
+ * call {@link #added} after inserting or changing a key and {@link #removed}
+ * after deleting one. Bloom filters cannot forget keys, so removed keys keep
+ * their bits until the next {@link #rebuild()} from the table, which
+ * {@link #startRebuilding} runs when a tenth of the keys are stale or the
+ * filter has outgrown its size; {@link #close()} stops those rebuilds.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class ExistenceFilter implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ExistenceFilter.class.getName());
+
+    /**
+     * Reads every key of the column, e.g. with
+     * {@link com.codeup.booknova.jdbc.JdbcTemplateLight#forEachRow}.
+     */
+    @FunctionalInterface
+    public interface KeySource {
+        /**
+         * Passes every key to {@code action}.
+         *
+         * @param action receives each key
+         * @return the number of keys
+         * @throws DatabaseException if the keys cannot be read
+         */
+        long forEachKey(Consumer<String> action) throws DatabaseException;
+    }
+
+    private final String name;
+    private final KeySource source;
+    private final long minKeys;
+    private final double fpp;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+    private volatile long capacity;
+    // not guarded by this, so close() need not wait for a rebuild to finish
+    private volatile ScheduledExecutorService scheduler;
+    private final AtomicLong keys = new AtomicLong();
+    private final AtomicLong staleKeys = new AtomicLong();
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    /**
+     * Creates a filter; it answers through the database until the first {@link #rebuild()}.
+     *
+     * @param name the column, for logs and metrics, e.g. {@code users.email}
+     * @param source reads every key of the column
+     * @param minKeys the smallest number of keys the filter is sized for
+     * @param fpp the false-positive probability at full size
+     */
+    public ExistenceFilter(String name, KeySource source, long minKeys, double fpp) {
+        if (minKeys <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("Key count must be positive and fpp between 0 and 1");
+        }
+        this.name = name;
+        this.source = source;
+        this.minKeys = minKeys;
+        this.fpp = fpp;
+    }
+
+    /**
+     * Tells whether a key exists, asking the database only if the filter
+     * cannot rule it out.
+     *
+     * @param key the key
+     * @param check the database check
+     * @return whether the key exists
+     */
+    public boolean exists(String key, Predicate<String> check) {
+        checks.increment();
+        BloomFilter filter = current;
+        if (filter != null && !filter.mightContain(normalize(key))) {
+            skipped.increment();
+            return false;
+        }
+        boolean found = check.test(key);
+        if (filter != null && !found) {
+            falsePositives.increment();
+        }
+        return found;
+    }
+
+    /**
+     * Records a key that was inserted, or that a row was changed to.
+     *
+     * @param key the key
+     */
+    public void added(String key) {
+        String normalized = normalize(key);
+        // read building first: if it is still unset, the rebuild's scan starts later and sees the key
+        BloomFilter next = building;
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(normalized);
+        }
+        if (next != null) {
+            next.put(normalized);
+        }
+        keys.incrementAndGet();
+    }
+
+    /**
+     * Records that a key was deleted or replaced; it stays in the filter until the next rebuild.
+     */
+    public void removed() {
+        staleKeys.incrementAndGet();
+    }
+
+    /**
+     * Replaces the filter with one built from the table. Keys added while
+     * the table is read go into both filters.
+     *
+     * @return the number of keys read
+     * @throws DatabaseException if the keys cannot be read; the old filter stays in use
+     */
+    public synchronized long rebuild() throws DatabaseException {
+        long size = Math.max(minKeys, 2 * keys.get());
+        while (true) {
+            BloomFilter next = new BloomFilter(size, fpp);
+            building = next;
+            long read;
+            try {
+                read = source.forEachKey(key -> next.put(normalize(key)));
+            } catch (RuntimeException e) {
+                building = null;
+                throw e;
+            }
+            if (read > size) {
+                // too full for its false-positive rate; read again into a bigger one
+                size = 2 * read;
+                continue;
+            }
+            capacity = size;
+            keys.set(read);
+            staleKeys.set(0);
+            current = next;
+            building = null;
+            rebuilds.increment();
+            logger.log(Level.INFO, "Existence filter {0} built: {1} keys, {2} bits",
+                    new Object[] { name, read, next.bitCount() });
+            return read;
+        }
+    }
+
+    /**
+     * Tells whether the filter is missing, too full or holds too many removed keys.
+     *
+     * @return whether {@link #rebuild()} is due
+     */
+    public boolean needsRebuild() {
+        long n = keys.get();
+        return current == null || n > capacity || staleKeys.get() * 10 > n;
+    }
+
+    /**
+     * Builds the filter now and then checks every {@code periodSeconds} on a
+     * daemon thread whether it needs to be rebuilt. Failures are logged and
+     * retried on the next run.
+     *
+     * @param periodSeconds the period; {@code 0} or less builds once
+     */
+    public synchronized void startRebuilding(long periodSeconds) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Existence filter " + name + " is already rebuilding");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "existence-filter-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+        Runnable task = () -> {
+            try {
+                if (needsRebuild()) {
+                    rebuild();
+                }
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Existence filter " + name + " rebuild failed", e);
+            }
+        };
+        if (periodSeconds > 0) {
+            scheduler.scheduleWithFixedDelay(task, 0, periodSeconds, TimeUnit.SECONDS);
+        } else {
+            scheduler.execute(task);
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Stops the background rebuilds; a rebuild in progress is interrupted.
+     * The filter keeps answering with what it holds.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService running = scheduler;
+        if (running != null) {
+            running.shutdownNow();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isLoaded() {
+        return current != null;
+    }
+
+    /** Returns the number of {@link #exists} calls. */
+    public long getChecks() {
+        return checks.sum();
+    }
+
+    /** Returns the number of checks answered without a query. */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /** Returns the number of checks the filter passed on that the database answered with no. */
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * Returns the measured false-positive rate: of the absent keys checked
+     * while the filter was loaded, the fraction it failed to rule out.
+     *
+     * @return the rate, or {@code 0} before any absent key was checked
+     */
+    public double observedFpp() {
+        long fp = falsePositives.sum();
+        long negatives = fp + skipped.sum();
+        return negatives == 0 ? 0 : (double) fp / negatives;
+    }
+
+    /**
+     * Returns the counters, e.g. for a metrics endpoint. Rates are in parts
+     * per million; the expected one is computed from the filter's fill.
+     *
+     * @return the counters and rates
+     */
+    public Map<String, Long> toMap() {
+        BloomFilter filter = current;
+        Map<String, Long> out = new LinkedHashMap<>();
+        out.put("keys", keys.get());
+        out.put("staleKeys", staleKeys.get());
+        out.put("bits", filter == null ? 0 : filter.bitCount());
+        out.put("rebuilds", rebuilds.sum());
+        out.put("checks", getChecks());
+        out.put("skipped", getSkipped());
+        out.put("falsePositives", getFalsePositives());
+        out.put("observedFppPpm", Math.round(observedFpp() * 1_000_000));
+        out.put("expectedFppPpm", filter == null ? 0 : Math.round(filter.expectedFpp() * 1_000_000));
+        return out;
+    }
+
+    private static String normalize(String key) {
+        return key.strip().toLowerCase(Locale.ROOT);
+    }
+}
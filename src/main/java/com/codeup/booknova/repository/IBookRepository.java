@@ -4,6 +4,8 @@
  */
 package com.codeup.booknova.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -56,6 +58,15 @@ public interface IBookRepository {
      */
     Optional<Book> findById(Integer id);
     
+    /**
+     * Finds several books by ID with as few queries as possible.
+     * 
+     * @param ids the IDs to look up; {@code null} and repeated IDs are ignored
+     * @return the books found, in no particular order; missing IDs are skipped
+     * @throws DatabaseException if the query fails
+     */
+    List<Book> findByIds(Collection<Integer> ids) throws DatabaseException;
+    
     /**
      * Finds a book by ISBN.
      * 
@@ -134,4 +145,16 @@ public interface IBookRepository {
      * @throws DatabaseException if deletion fails
      */
     void delete(Integer id) throws DatabaseException;
-}
\ No newline at end of file
+    
+    /**
+     * Finds books inserted, updated or deleted since a watermark.
+     * <p>
+     * Deleted books are reported through {@link ChangeSet#deletedIds()}.
+     * </p>
+     * 
+     * @param watermark the watermark of the previous call, or {@code null} for all books
+     * @return the changes and the watermark for the next call
+     * @throws DatabaseException if the query fails
+     */
+    ChangeSet<Book> findChangedSince(Instant watermark) throws DatabaseException;
+}
@@ -4,8 +4,11 @@
  */
 package com.codeup.booknova.repository;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import com.codeup.booknova.domain.Loan;
@@ -62,6 +65,15 @@ public interface ILoanRepository {
      */
     Optional<Loan> findById(Integer id);
     
+    /**
+     * Finds several loans by ID with as few queries as possible.
+     * 
+     * @param ids the IDs to look up; {@code null} and repeated IDs are ignored
+     * @return the loans found, in no particular order; missing IDs are skipped
+     * @throws DatabaseException if the query fails
+     */
+    List<Loan> findByIds(Collection<Integer> ids) throws DatabaseException;
+    
     /**
      * Finds all loans for a specific member.
      * 
@@ -160,6 +172,15 @@ public interface ILoanRepository {
      */
     int countActiveLoansByMember(Integer memberId);
     
+    /**
+     * Counts the active loans of every member with at least one, in a single
+     * aggregate query.
+     * 
+     * @return active loan counts keyed by member ID
+     * @throws DatabaseException if the query fails
+     */
+    Map<Integer, Integer> countActiveLoansPerMember() throws DatabaseException;
+    
     /**
      * Deletes a loan from the database.
      * 
@@ -167,4 +188,16 @@ public interface ILoanRepository {
      * @throws DatabaseException if deletion fails
      */
     void delete(Integer id) throws DatabaseException;
-}
\ No newline at end of file
+    
+    /**
+     * Finds loans inserted, updated or deleted since a watermark.
+     * <p>
+     * Deleted loans are reported through {@link ChangeSet#deletedIds()}.
+     * </p>
+     * 
+     * @param watermark the watermark of the previous call, or {@code null} for all loans
+     * @return the changes and the watermark for the next call
+     * @throws DatabaseException if the query fails
+     */
+    ChangeSet<Loan> findChangedSince(Instant watermark) throws DatabaseException;
+}
@@ -4,6 +4,8 @@
  */
 package com.codeup.booknova.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -56,6 +58,15 @@ public interface IMemberRepository {
      */
     Optional<Member> findById(Integer id);
     
+    /**
+     * Finds several members by ID with as few queries as possible.
+     * 
+     * @param ids the IDs to look up; {@code null} and repeated IDs are ignored
+     * @return the members found, in no particular order; missing IDs are skipped
+     * @throws DatabaseException if the query fails
+     */
+    List<Member> findByIds(Collection<Integer> ids) throws DatabaseException;
+    
     /**
      * Finds members by name (case-insensitive partial match).
      * 
@@ -125,4 +136,17 @@ public interface IMemberRepository {
      * @throws DatabaseException if deactivation fails
      */
     void deactivateMember(Integer id) throws DatabaseException;
-}
\ No newline at end of file
+    
+    /**
+     * Finds members inserted, updated or deleted since a watermark.
+     * <p>
+     * Soft-deleted members are included as changed rows; hard deletes are
+     * reported through {@link ChangeSet#deletedIds()}.
+     * </p>
+     * 
+     * @param watermark the watermark of the previous call, or {@code null} for all members
+     * @return the changes and the watermark for the next call
+     * @throws DatabaseException if the query fails
+     */
+    ChangeSet<Member> findChangedSince(Instant watermark) throws DatabaseException;
+}
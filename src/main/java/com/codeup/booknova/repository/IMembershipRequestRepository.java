@@ -1,6 +1,7 @@
 package com.codeup.booknova.repository;
 
 import com.codeup.booknova.domain.MembershipRequest;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,4 +70,13 @@ public interface IMembershipRequestRepository {
      * @return true if user has a pending request
      */
     boolean hasPendingRequest(Integer userId);
+    
+    /**
+     * Finds membership requests inserted, updated or deleted since a watermark.
+     * Deleted membership requests are reported through {@link ChangeSet#deletedIds()}.
+     * 
+     * @param watermark the watermark of the previous call, or {@code null} for all membership requests
+     * @return the changes and the watermark for the next call
+     */
+    ChangeSet<MembershipRequest> findChangedSince(Instant watermark);
 }
@@ -4,6 +4,8 @@
  */
 package com.codeup.booknova.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -67,6 +69,15 @@ public interface IUserRepository {
      */
     Optional<User> findById(Integer id);
     
+    /**
+     * Finds several users by ID with as few queries as possible.
+     * 
+     * @param ids the IDs to look up; {@code null} and repeated IDs are ignored
+     * @return the users found, in no particular order; missing IDs are skipped
+     * @throws DatabaseException if the query fails
+     */
+    List<User> findByIds(Collection<Integer> ids) throws DatabaseException;
+    
     /**
      * Finds a user by email address (including inactive users).
      * 
@@ -120,4 +131,17 @@ public interface IUserRepository {
      * @throws DatabaseException if deletion fails
      */
     void delete(Integer id) throws DatabaseException;
-}
\ No newline at end of file
+    
+    /**
+     * Finds users inserted, updated or deleted since a watermark.
+     * <p>
+     * Soft-deleted users are included as changed rows; hard deletes are
+     * reported through {@link ChangeSet#deletedIds()}.
+     * </p>
+     * 
+     * @param watermark the watermark of the previous call, or {@code null} for all users
+     * @return the changes and the watermark for the next call
+     * @throws DatabaseException if the query fails
+     */
+    ChangeSet<User> findChangedSince(Instant watermark) throws DatabaseException;
+}
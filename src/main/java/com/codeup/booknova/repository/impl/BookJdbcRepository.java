@@ -5,6 +5,8 @@
 package com.codeup.booknova.repository.impl;
 
 import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
@@ -14,6 +16,8 @@ import com.codeup.booknova.domain.Book;
 import com.codeup.booknova.exception.DatabaseException;
 import com.codeup.booknova.jdbc.JdbcTemplateLight;
 import com.codeup.booknova.jdbc.RowMapper;
+import com.codeup.booknova.repository.ChangeSet;
+import com.codeup.booknova.repository.ExistenceFilter;
 import com.codeup.booknova.repository.IBookRepository;
 import com.codeup.booknova.util.ValidationUtils;
 
@@ -41,6 +45,7 @@ import com.codeup.booknova.util.ValidationUtils;
 public class BookJdbcRepository implements IBookRepository {
     
     private final JdbcTemplateLight jdbc;
+    private final ExistenceFilter isbns;
     private static final Logger logger = Logger.getLogger(BookJdbcRepository.class.getName());
 
     /**
@@ -50,7 +55,29 @@ public class BookJdbcRepository implements IBookRepository {
      * @throws NullPointerException if jdbc is null
      */
     public BookJdbcRepository(JdbcTemplateLight jdbc) { 
-        this.jdbc = jdbc; 
+        this(jdbc, null);
+    }
+
+    /**
+     * Constructs a repository whose {@link #bookExists} checks consult an
+     * in-memory filter of every ISBN before querying.
+     * 
+     * @param jdbc the JDBC template for database operations
+     * @param isbns the filter over {@link #isbns(JdbcTemplateLight)}; {@code null} always queries
+     */
+    public BookJdbcRepository(JdbcTemplateLight jdbc, ExistenceFilter isbns) {
+        this.jdbc = jdbc;
+        this.isbns = isbns;
+    }
+
+    /**
+     * Reads every ISBN of the table, to build an {@link ExistenceFilter} from.
+     * 
+     * @param jdbc the JDBC template for database operations
+     * @return the key source
+     */
+    public static ExistenceFilter.KeySource isbns(JdbcTemplateLight jdbc) {
+        return action -> jdbc.forEachRow("SELECT isbn FROM book", rs -> rs.getString(1), action);
     }
 
     // Row MAPPER
@@ -79,7 +106,7 @@ public class BookJdbcRepository implements IBookRepository {
 
         String sql = "INSERT INTO book (isbn, title, author, stock) VALUES (?, ?, ?, ?)";
         try {
-            int rows = jdbc.update(sql, ps -> {
+            long id = jdbc.insert(sql, ps -> {
                 try {
                     ps.setString(1, book.getIsbn());
                     ps.setString(2, book.getTitle());
@@ -88,13 +115,14 @@ public class BookJdbcRepository implements IBookRepository {
                 } catch (SQLException e) {
                     throw new RuntimeException("Error creating book", e);
                 }
-            });
-            if (rows != 1) {
-                throw new DatabaseException("Failed to create book");
+            }, "id");
+
+            if (isbns != null) {
+                isbns.added(book.getIsbn());
             }
 
-            // Fetch the created book to get the ID
-            return findByIsbn(book.getIsbn()).orElseThrow(() -> new DatabaseException("Failed to retrieve created book"));
+            // Fetch the created book for the database-set columns
+            return findById((int) id).orElseThrow(() -> new DatabaseException("Failed to retrieve created book"));
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error creating book", e);
             throw e;
@@ -119,6 +147,9 @@ public class BookJdbcRepository implements IBookRepository {
             if (rows != 1) {
                 throw new DatabaseException("Failed to update book");
             }
+            if (isbns != null) {
+                isbns.added(book.getIsbn());
+            }
             return book;
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error updating book", e);
@@ -144,6 +175,16 @@ public class BookJdbcRepository implements IBookRepository {
         }
     }
 
+    @Override
+    public List<Book> findByIds(Collection<Integer> ids) throws DatabaseException {
+        try {
+            return jdbc.queryIn("SELECT * FROM book WHERE id IN (%s)", ids, BOOK_MAPPER);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error finding books by ids", e);
+            throw e;
+        }
+    }
+
     @Override
     public Optional<Book> findByIsbn(String isbn) {
         String sql = "SELECT * FROM book WHERE isbn=?";
@@ -215,6 +256,10 @@ public class BookJdbcRepository implements IBookRepository {
 
     @Override
     public boolean bookExists(String isbn) {
+        return isbns == null ? queryBookExists(isbn) : isbns.exists(isbn, this::queryBookExists);
+    }
+
+    private boolean queryBookExists(String isbn) {
         String sql = "SELECT COUNT(*) FROM book WHERE isbn=?";
         try {
             List<Integer> count = jdbc.query(sql, ps -> {
@@ -294,16 +339,39 @@ public class BookJdbcRepository implements IBookRepository {
     public void delete(Integer id) throws DatabaseException {
         String sql = "DELETE FROM book WHERE id = ?";
         try {
-            jdbc.update(sql, ps -> {
-                try {
-                    ps.setInt(1, id);
-                } catch (SQLException e) {
-                    throw new RuntimeException("Error deleting book", e);
+            // the tombstone commits or rolls back together with the delete
+            jdbc.txExecute(conn -> {
+                int rows = jdbc.update(sql, ps -> {
+                    try {
+                        ps.setInt(1, id);
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Error deleting book", e);
+                    }
+                });
+                if (rows > 0) {
+                    Tombstones.record(jdbc, "book", id);
+                    if (isbns != null) {
+                        isbns.removed();
+                    }
                 }
+                return null;
             });
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error deleting book", e);
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public ChangeSet<Book> findChangedSince(Instant watermark) throws DatabaseException {
+        try {
+            ChangeSet<Book> changes = Tombstones.changedSince(jdbc, "book", watermark, BOOK_MAPPER, Book::getUpdatedAt);
+            logger.log(Level.INFO, "Changed books query executed: {0} changed, {1} deleted",
+                    new Object[]{changes.changed().size(), changes.deletedIds().size()});
+            return changes;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing changed books query: {0}", e.getMessage());
+            throw e;
+        }
+    }
+}
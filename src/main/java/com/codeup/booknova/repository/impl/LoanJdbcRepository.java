@@ -6,8 +6,12 @@ package com.codeup.booknova.repository.impl;
 
 import java.sql.Date;
 import java.sql.SQLException;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -16,6 +20,7 @@ import com.codeup.booknova.domain.Loan;
 import com.codeup.booknova.exception.DatabaseException;
 import com.codeup.booknova.jdbc.JdbcTemplateLight;
 import com.codeup.booknova.jdbc.RowMapper;
+import com.codeup.booknova.repository.ChangeSet;
 import com.codeup.booknova.repository.ILoanRepository;
 import com.codeup.booknova.util.ValidationUtils;
 
@@ -86,7 +91,7 @@ public class LoanJdbcRepository implements ILoanRepository {
 
         String sql = "INSERT INTO loan (member_id, book_id, date_loaned, date_due, returned) VALUES (?, ?, ?, ?, ?)";
         try {
-            int rows = jdbc.update(sql, ps -> {
+            long id = jdbc.insert(sql, ps -> {
                 try {
                     ps.setInt(1, loan.getMemberId());
                     ps.setInt(2, loan.getBookId());
@@ -96,18 +101,10 @@ public class LoanJdbcRepository implements ILoanRepository {
                 } catch (SQLException e) {
                     throw new RuntimeException("Error creating loan", e);
                 }
-            });
-            if (rows != 1) {
-                throw new DatabaseException("Failed to create loan");
-            }
+            }, "id");
 
-            // Find the created loan by searching for the most recent loan for this member and book
-            List<Loan> loans = findByMemberId(loan.getMemberId());
-            return loans.stream()
-                    .filter(l -> l.getBookId().equals(loan.getBookId()) && 
-                               l.getDateLoaned().equals(loan.getDateLoaned()))
-                    .max((l1, l2) -> l1.getId().compareTo(l2.getId()))
-                    .orElseThrow(() -> new DatabaseException("Failed to retrieve created loan"));
+            // Fetch the created loan for the database-set columns
+            return findById((int) id).orElseThrow(() -> new DatabaseException("Failed to retrieve created loan"));
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error creating loan", e);
             throw e;
@@ -158,6 +155,16 @@ public class LoanJdbcRepository implements ILoanRepository {
         }
     }
 
+    @Override
+    public List<Loan> findByIds(Collection<Integer> ids) throws DatabaseException {
+        try {
+            return jdbc.queryIn("SELECT * FROM loan WHERE id IN (%s)", ids, LOAN_MAPPER);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error finding loans by ids", e);
+            throw e;
+        }
+    }
+
     @Override
     public List<Loan> findByMemberId(Integer memberId) {
         String sql = "SELECT * FROM loan WHERE member_id = ?";
@@ -220,7 +227,7 @@ public class LoanJdbcRepository implements ILoanRepository {
 
     @Override
     public List<Loan> findOverdueLoans() {
-        String sql = "SELECT * FROM loan WHERE date_due < CURDATE() AND returned = false";
+        String sql = "SELECT * FROM loan WHERE date_due < CURRENT_DATE AND returned = false";
         try {
             logger.log(Level.INFO, "Overdue loans search executed");
             return jdbc.query(sql, null, LOAN_MAPPER);
@@ -335,20 +342,50 @@ public class LoanJdbcRepository implements ILoanRepository {
         }
     }
 
+    @Override
+    public Map<Integer, Integer> countActiveLoansPerMember() throws DatabaseException {
+        String sql = "SELECT member_id, COUNT(*) AS active FROM loan WHERE returned = false GROUP BY member_id";
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int[] row : jdbc.query(sql, null, rs -> new int[]{rs.getInt("member_id"), rs.getInt("active")})) {
+            counts.put(row[0], row[1]);
+        }
+        return counts;
+    }
+
     @Override
     public void delete(Integer id) throws DatabaseException {
         String sql = "DELETE FROM loan WHERE id = ?";
         try {
-            jdbc.update(sql, ps -> {
-                try {
-                    ps.setInt(1, id);
-                } catch (SQLException e) {
-                    throw new RuntimeException("Error deleting loan", e);
+            // the tombstone commits or rolls back together with the delete
+            jdbc.txExecute(conn -> {
+                int rows = jdbc.update(sql, ps -> {
+                    try {
+                        ps.setInt(1, id);
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Error deleting loan", e);
+                    }
+                });
+                if (rows > 0) {
+                    Tombstones.record(jdbc, "loan", id);
                 }
+                return null;
             });
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error deleting loan", e);
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public ChangeSet<Loan> findChangedSince(Instant watermark) throws DatabaseException {
+        try {
+            ChangeSet<Loan> changes = Tombstones.changedSince(jdbc, "loan", watermark, LOAN_MAPPER, Loan::getUpdatedAt);
+            logger.log(Level.INFO, "Changed loans query executed: {0} changed, {1} deleted",
+                    new Object[]{changes.changed().size(), changes.deletedIds().size()});
+            return changes;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing changed loans query: {0}", e.getMessage());
+            throw e;
+        }
+    }
+}
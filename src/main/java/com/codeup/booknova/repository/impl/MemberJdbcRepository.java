@@ -5,6 +5,8 @@
 package com.codeup.booknova.repository.impl;
 
 import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
@@ -16,6 +18,7 @@ import com.codeup.booknova.domain.MemberRole;
 import com.codeup.booknova.exception.DatabaseException;
 import com.codeup.booknova.jdbc.JdbcTemplateLight;
 import com.codeup.booknova.jdbc.RowMapper;
+import com.codeup.booknova.repository.ChangeSet;
 import com.codeup.booknova.repository.IMemberRepository;
 import com.codeup.booknova.util.ValidationUtils;
 
@@ -83,7 +86,7 @@ public class MemberJdbcRepository implements IMemberRepository {
 
         String sql = "INSERT INTO member (user_id, name, active, deleted, role, access_level) VALUES (?, ?, ?, ?, ?, ?)";
         try {
-            int rows = jdbc.update(sql, ps -> {
+            long id = jdbc.insert(sql, ps -> {
                 try {
                     if (member.getUserId() != null) {
                         ps.setInt(1, member.getUserId());
@@ -98,25 +101,11 @@ public class MemberJdbcRepository implements IMemberRepository {
                 } catch (SQLException e) {
                     throw new RuntimeException("Error creating member", e);
                 }
-            });
-            if (rows != 1) {
-                throw new DatabaseException("Failed to create member");
-            }
+            }, "id");
 
-            // If user_id is provided, fetch by user_id, otherwise fetch by name
-            if (member.getUserId() != null) {
-                return findByUserId(member.getUserId())
-                    .orElseThrow(() -> new DatabaseException("Failed to retrieve created member"));
-            } else {
-                // Fetch the created member by searching for the last inserted ID
-                // Since we don't have name uniqueness, we'll search by name and take the most recent
-                List<Member> members = findByName(member.getName());
-                if (members.isEmpty()) {
-                    throw new DatabaseException("Failed to retrieve created member");
-                }
-                // Return the one with the highest ID (most recent)
-                return members.stream().max((m1, m2) -> m1.getId().compareTo(m2.getId())).get();
-            }
+            // Fetch the created member for the database-set columns
+            return findById((int) id)
+                .orElseThrow(() -> new DatabaseException("Failed to retrieve created member"));
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error creating member", e);
             throw e;
@@ -167,6 +156,16 @@ public class MemberJdbcRepository implements IMemberRepository {
         }
     }
 
+    @Override
+    public List<Member> findByIds(Collection<Integer> ids) throws DatabaseException {
+        try {
+            return jdbc.queryIn("SELECT * FROM member WHERE id IN (%s)", ids, MEMBER_MAPPER);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error finding members by ids", e);
+            throw e;
+        }
+    }
+
     /**
      * Finds a member by user ID.
      * 
@@ -286,12 +285,19 @@ public class MemberJdbcRepository implements IMemberRepository {
     public void delete(Integer id) throws DatabaseException {
         String sql = "DELETE FROM member WHERE id = ?";
         try {
-            jdbc.update(sql, ps -> {
-                try {
-                    ps.setInt(1, id);
-                } catch (SQLException e) {
-                    throw new RuntimeException("Error deleting member", e);
+            // the tombstone commits or rolls back together with the delete
+            jdbc.txExecute(conn -> {
+                int rows = jdbc.update(sql, ps -> {
+                    try {
+                        ps.setInt(1, id);
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Error deleting member", e);
+                    }
+                });
+                if (rows > 0) {
+                    Tombstones.record(jdbc, "member", id);
                 }
+                return null;
             });
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error deleting member", e);
@@ -338,4 +344,17 @@ public class MemberJdbcRepository implements IMemberRepository {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public ChangeSet<Member> findChangedSince(Instant watermark) throws DatabaseException {
+        try {
+            ChangeSet<Member> changes = Tombstones.changedSince(jdbc, "member", watermark, MEMBER_MAPPER, Member::getUpdatedAt);
+            logger.log(Level.INFO, "Changed members query executed: {0} changed, {1} deleted",
+                    new Object[]{changes.changed().size(), changes.deletedIds().size()});
+            return changes;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing changed members query: {0}", e.getMessage());
+            throw e;
+        }
+    }
+}
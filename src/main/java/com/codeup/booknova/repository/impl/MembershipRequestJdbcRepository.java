@@ -4,6 +4,7 @@ import com.codeup.booknova.domain.MembershipRequest;
 import com.codeup.booknova.exception.DatabaseException;
 import com.codeup.booknova.jdbc.JdbcTemplateLight;
 import com.codeup.booknova.jdbc.RowMapper;
+import com.codeup.booknova.repository.ChangeSet;
 import com.codeup.booknova.repository.IMembershipRequestRepository;
 
 import java.sql.SQLException;
@@ -62,8 +63,10 @@ public class MembershipRequestJdbcRepository implements IMembershipRequestReposi
     
     @Override
     public MembershipRequest create(MembershipRequest request) throws DatabaseException {
-        String sql = "INSERT INTO membership_request (user_id, user_name, user_email, status, request_reason, requested_at, created_at, updated_at) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        // created_at and updated_at come from the database clock, like every
+        // other table, so delta reads can compare them with a server watermark
+        String sql = "INSERT INTO membership_request (user_id, user_name, user_email, status, request_reason, requested_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
         
         Instant now = Instant.now();
         request.setCreatedAt(now);
@@ -72,7 +75,7 @@ public class MembershipRequestJdbcRepository implements IMembershipRequestReposi
             request.setRequestedAt(now);
         }
         
-        jdbc.update(sql, ps -> {
+        long id = jdbc.insert(sql, ps -> {
             try {
                 ps.setInt(1, request.getUserId());
                 ps.setString(2, request.getUserName());
@@ -80,15 +83,13 @@ public class MembershipRequestJdbcRepository implements IMembershipRequestReposi
                 ps.setString(4, request.getStatus());
                 ps.setString(5, request.getRequestReason());
                 ps.setTimestamp(6, Timestamp.from(request.getRequestedAt()));
-                ps.setTimestamp(7, Timestamp.from(request.getCreatedAt()));
-                ps.setTimestamp(8, Timestamp.from(request.getUpdatedAt()));
             } catch (SQLException e) {
                 throw new RuntimeException("Error creating membership request", e);
             }
-        });
+        }, "id");
         
         // Get the created request
-        return findPendingByUserId(request.getUserId())
+        return findById((int) id)
             .orElseThrow(() -> new DatabaseException("Failed to retrieve created request"));
     }
     
@@ -136,7 +137,7 @@ public class MembershipRequestJdbcRepository implements IMembershipRequestReposi
                     "status = ?, " +
                     "approved_by_user_id = ?, " +
                     "processed_at = ?, " +
-                    "updated_at = ? " +
+                    "updated_at = CURRENT_TIMESTAMP " +
                     "WHERE id = ?";
         
         request.setUpdatedAt(Instant.now());
@@ -154,8 +155,7 @@ public class MembershipRequestJdbcRepository implements IMembershipRequestReposi
                 } else {
                     ps.setNull(3, java.sql.Types.TIMESTAMP);
                 }
-                ps.setTimestamp(4, Timestamp.from(request.getUpdatedAt()));
-                ps.setInt(5, request.getId());
+                ps.setInt(4, request.getId());
             } catch (SQLException e) {
                 throw new RuntimeException("Error updating membership request", e);
             }
@@ -167,12 +167,18 @@ public class MembershipRequestJdbcRepository implements IMembershipRequestReposi
     @Override
     public void delete(Integer id) throws DatabaseException {
         String sql = "DELETE FROM membership_request WHERE id = ?";
-        jdbc.update(sql, ps -> {
-            try {
-                ps.setInt(1, id);
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
+        jdbc.txExecute(conn -> {
+            int rows = jdbc.update(sql, ps -> {
+                try {
+                    ps.setInt(1, id);
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            if (rows > 0) {
+                Tombstones.record(jdbc, "membership_request", id);
             }
+            return null;
         });
     }
     
@@ -189,4 +195,10 @@ public class MembershipRequestJdbcRepository implements IMembershipRequestReposi
         
         return !results.isEmpty() && results.get(0) > 0;
     }
+    
+    @Override
+    public ChangeSet<MembershipRequest> findChangedSince(Instant watermark) {
+        return Tombstones.changedSince(jdbc, "membership_request", watermark, REQUEST_MAPPER,
+                MembershipRequest::getUpdatedAt);
+    }
 }
@@ -0,0 +1,124 @@
+package com.codeup.booknova.repository.impl;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.jdbc.RowMapper;
+import com.codeup.booknova.repository.ChangeSet;
+
+/**
+ * Delta reads over {@code updated_at} and the {@code deleted_row} tombstone table.
+ * <p>
+ * Hard deletes leave no row behind to carry an {@code updated_at}, so the
+ * repositories record each one in {@code deleted_row}, in the same transaction
+ * as the delete. {@link #changedSince} reads changed rows and tombstones in
+ * one read-only transaction.
+ * </p>
+ * <p>
+ * The query starts {@link #OVERLAP} before the watermark. {@code TIMESTAMP}
+ * columns only have second precision, and a transaction that commits late can
+ * carry an {@code updated_at} slightly older than rows that are already
+ * visible. Rows in the overlap are delivered again, which is harmless because
+ * applying a change set is idempotent.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+final class Tombstones {
+
+    /** How far before the watermark each delta read starts. */
+    static final Duration OVERLAP = Duration.ofSeconds(2);
+
+    private record Tombstone(int rowId, Instant deletedAt) {}
+
+    private Tombstones() {}
+
+    /**
+     * Records the hard delete of a row. Call it in the deleting transaction.
+     *
+     * @param jdbc the JDBC template
+     * @param table the table the row was deleted from
+     * @param id the deleted row's id
+     * @throws DatabaseException if the tombstone cannot be written
+     */
+    static void record(JdbcTemplateLight jdbc, String table, Integer id) throws DatabaseException {
+        jdbc.update("INSERT INTO deleted_row (table_name, row_id) VALUES (?, ?)", ps -> {
+            try {
+                ps.setString(1, table);
+                ps.setInt(2, id);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error recording deleted row", e);
+            }
+        });
+    }
+
+    /**
+     * Reads the rows of a table changed since a watermark.
+     *
+     * @param <T> the entity type
+     * @param jdbc the JDBC template
+     * @param table the table name (a constant, never user input)
+     * @param watermark the previous watermark, or {@code null} to read the whole table
+     * @param mapper maps a row
+     * @param updatedAt returns an entity's {@code updated_at}
+     * @return the changes and the next watermark
+     * @throws DatabaseException if a query fails
+     */
+    static <T> ChangeSet<T> changedSince(JdbcTemplateLight jdbc, String table, Instant watermark,
+                                         RowMapper<T> mapper, Function<T, Instant> updatedAt) throws DatabaseException {
+        return jdbc.txExecuteReadOnly(conn -> {
+            if (watermark == null) {
+                List<T> all = jdbc.query("SELECT * FROM " + table + " ORDER BY id", null, mapper);
+                return new ChangeSet<>(all, List.of(), latest(null, all, updatedAt));
+            }
+            Timestamp from = Timestamp.from(watermark.minus(OVERLAP));
+            List<T> changed = jdbc.query("SELECT * FROM " + table + " WHERE updated_at >= ? ORDER BY updated_at, id",
+                    ps -> {
+                        try {
+                            ps.setTimestamp(1, from);
+                        } catch (SQLException e) {
+                            throw new RuntimeException("Error reading changed rows", e);
+                        }
+                    }, mapper);
+            List<Tombstone> tombstones = jdbc.query(
+                    "SELECT row_id, deleted_at FROM deleted_row WHERE table_name = ? AND deleted_at >= ?",
+                    ps -> {
+                        try {
+                            ps.setString(1, table);
+                            ps.setTimestamp(2, from);
+                        } catch (SQLException e) {
+                            throw new RuntimeException("Error reading deleted rows", e);
+                        }
+                    }, rs -> new Tombstone(rs.getInt("row_id"), rs.getTimestamp("deleted_at").toInstant()));
+
+            Instant next = latest(watermark, changed, updatedAt);
+            List<Integer> deletedIds = new ArrayList<>(tombstones.size());
+            for (Tombstone t : tombstones) {
+                deletedIds.add(t.rowId());
+                if (t.deletedAt().isAfter(next)) {
+                    next = t.deletedAt();
+                }
+            }
+            return new ChangeSet<>(changed, deletedIds, next);
+        });
+    }
+
+    private static <T> Instant latest(Instant start, List<T> rows, Function<T, Instant> updatedAt) {
+        Instant latest = start;
+        for (T row : rows) {
+            Instant at = updatedAt.apply(row);
+            if (at != null && (latest == null || at.isAfter(latest))) {
+                latest = at;
+            }
+        }
+        return latest;
+    }
+}
@@ -5,6 +5,8 @@
 package com.codeup.booknova.repository.impl;
 
 import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
@@ -16,6 +18,8 @@ import com.codeup.booknova.domain.UserRole;
 import com.codeup.booknova.exception.DatabaseException;
 import com.codeup.booknova.jdbc.JdbcTemplateLight;
 import com.codeup.booknova.jdbc.RowMapper;
+import com.codeup.booknova.repository.ChangeSet;
+import com.codeup.booknova.repository.ExistenceFilter;
 import com.codeup.booknova.repository.IUserRepository;
 import com.codeup.booknova.util.PasswordUtils;
 import com.codeup.booknova.util.ValidationUtils;
@@ -52,6 +56,7 @@ import com.codeup.booknova.util.ValidationUtils;
 public class UserJdbcRepository implements IUserRepository {
     
     private final JdbcTemplateLight jdbc;
+    private final ExistenceFilter emails;
     private static final Logger logger = Logger.getLogger(UserJdbcRepository.class.getName());
 
     /**
@@ -61,12 +66,38 @@ public class UserJdbcRepository implements IUserRepository {
      * @throws NullPointerException if jdbc is null
      */
     public UserJdbcRepository(JdbcTemplateLight jdbc) { 
-        this.jdbc = jdbc; 
+        this(jdbc, null);
+    }
+
+    /**
+     * Constructs a repository whose {@link #userExists} checks consult an
+     * in-memory filter of every email before querying.
+     * 
+     * @param jdbc the JDBC template for database operations
+     * @param emails the filter over {@link #emails(JdbcTemplateLight)}; {@code null} always queries
+     */
+    public UserJdbcRepository(JdbcTemplateLight jdbc, ExistenceFilter emails) {
+        this.jdbc = jdbc;
+        this.emails = emails;
+    }
+
+    /**
+     * Reads every email of the table, to build an {@link ExistenceFilter} from.
+     * 
+     * @param jdbc the JDBC template for database operations
+     * @return the key source
+     */
+    public static ExistenceFilter.KeySource emails(JdbcTemplateLight jdbc) {
+        return action -> jdbc.forEachRow("SELECT email FROM users", rs -> rs.getString(1), action);
     }
 
     // Row MAPPERS
     private static final RowMapper<User> PUBLIC_MAPPER = rs -> {
-        User user = new User(rs.getString("name"), rs.getString("email"), null, rs.getString("phone")); // password = null
+        // The no-arg constructor, because the full one rejects a null password
+        User user = new User();
+        user.setName(rs.getString("name"));
+        user.setEmail(rs.getString("email"));
+        user.setPhone(rs.getString("phone"));
         user.setId(rs.getInt("id"));
         user.setRole(UserRole.valueOf(rs.getString("role")));
         user.setAccessLevel(AccessLevel.valueOf(rs.getString("access_level")));
@@ -108,7 +139,7 @@ public class UserJdbcRepository implements IUserRepository {
 
         String sql = "INSERT INTO users (name, email, password, phone, role, access_level, active, deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         try {
-            int rows = jdbc.update(sql, ps -> {
+            long id = jdbc.insert(sql, ps -> {
                 try {
                     ps.setString(1, user.getName());
                     ps.setString(2, user.getEmail());
@@ -121,13 +152,14 @@ public class UserJdbcRepository implements IUserRepository {
                 } catch (SQLException e) {
                     throw new RuntimeException("Error creating user", e);
                 }
-            });
-            if (rows != 1) {
-                throw new DatabaseException("Failed to create user");
+            }, "id");
+
+            if (emails != null) {
+                emails.added(user.getEmail());
             }
 
-            // Fetch the created user to get the ID
-            return findByEmail(user.getEmail()).orElseThrow(() -> new DatabaseException("Failed to retrieve created user"));
+            // Fetch the created user for the database-set columns
+            return findById((int) id).orElseThrow(() -> new DatabaseException("Failed to retrieve created user"));
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error creating user", e);
             throw e;
@@ -156,6 +188,9 @@ public class UserJdbcRepository implements IUserRepository {
             if (rows != 1) {
                 throw new DatabaseException("Failed to update user");
             }
+            if (emails != null) {
+                emails.added(user.getEmail());
+            }
             return user;
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error updating user", e);
@@ -207,6 +242,16 @@ public class UserJdbcRepository implements IUserRepository {
         }
     }
 
+    @Override
+    public List<User> findByIds(Collection<Integer> ids) throws DatabaseException {
+        try {
+            return jdbc.queryIn("SELECT * FROM users WHERE id IN (%s)", ids, FULL_MAPPER);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error finding users by ids", e);
+            throw e;
+        }
+    }
+
     @Override
     public Optional<User> findByEmail(String email) {
         String sql = "SELECT * FROM users WHERE email=?";
@@ -263,6 +308,10 @@ public class UserJdbcRepository implements IUserRepository {
 
     @Override
     public boolean userExists(String email) {
+        return emails == null ? queryUserExists(email) : emails.exists(email, this::queryUserExists);
+    }
+
+    private boolean queryUserExists(String email) {
         String sql = "SELECT COUNT(*) FROM users WHERE email=?";
         try {
             List<Integer> count = jdbc.query(sql, ps -> {
@@ -297,16 +346,39 @@ public class UserJdbcRepository implements IUserRepository {
     public void delete(Integer id) throws DatabaseException {
         String sql = "DELETE FROM users WHERE id = ?";
         try {
-            jdbc.update(sql, ps -> {
-                try {
-                    ps.setInt(1, id);
-                } catch (SQLException e) {
-                    throw new RuntimeException("Error deleting user", e);
+            // the tombstone commits or rolls back together with the delete
+            jdbc.txExecute(conn -> {
+                int rows = jdbc.update(sql, ps -> {
+                    try {
+                        ps.setInt(1, id);
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Error deleting user", e);
+                    }
+                });
+                if (rows > 0) {
+                    Tombstones.record(jdbc, "users", id);
+                    if (emails != null) {
+                        emails.removed();
+                    }
                 }
+                return null;
             });
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error deleting user", e);
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public ChangeSet<User> findChangedSince(Instant watermark) throws DatabaseException {
+        try {
+            ChangeSet<User> changes = Tombstones.changedSince(jdbc, "users", watermark, PUBLIC_MAPPER, User::getUpdatedAt);
+            logger.log(Level.INFO, "Changed users query executed: {0} changed, {1} deleted",
+                    new Object[]{changes.changed().size(), changes.deletedIds().size()});
+            return changes;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing changed users query: {0}", e.getMessage());
+            throw e;
+        }
+    }
+}
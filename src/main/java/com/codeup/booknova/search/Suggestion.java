@@ -0,0 +1,23 @@
+package com.codeup.booknova.search;
+
+/**
+ * One completion of a catalog search, from {@link SuggestionIndex#suggest}.
+ *
+ * @param field what the text is
+ * @param text the title, author name or ISBN as stored
+ * @param detail shown next to the text: the author of a title, the title of
+ *               an ISBN, or the number of books of an author
+ * @param bookId the book of a title or ISBN; {@code null} for an author
+ * @param loans the borrow count the suggestion was ranked by
+ * @version 1.0
+ * @since 1.0
+ */
+public record Suggestion(Field field, String text, String detail, Integer bookId, long loans) {
+
+    /** What a suggestion completes. */
+    public enum Field {
+        TITLE,
+        AUTHOR,
+        ISBN
+    }
+}
@@ -4,11 +4,13 @@
  */
 package com.codeup.booknova.service;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 import com.codeup.booknova.domain.Book;
 import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.repository.ChangeSet;
 
 /**
  * Service interface for Book management operations.
@@ -95,6 +97,15 @@ public interface IBookService {
      */
     List<Book> getAllBooks();
     
+    /**
+     * Retrieves the books inserted, updated or deleted since a watermark,
+     * so views can refresh by applying only the changes.
+     * 
+     * @param watermark the watermark of the previous call, or {@code null} for all books
+     * @return the changes and the watermark for the next call
+     */
+    ChangeSet<Book> getBooksChangedSince(Instant watermark);
+    
     /**
      * Retrieves all available books (stock > 0).
      * 
@@ -4,12 +4,14 @@
  */
 package com.codeup.booknova.service;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 import com.codeup.booknova.domain.Loan;
 import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.repository.ChangeSet;
 
 /**
  * Service interface for Loan management operations.
@@ -170,6 +172,15 @@ public interface ILoanService {
      */
     List<Loan> getAllLoans();
     
+    /**
+     * Retrieves the loans inserted, updated or deleted since a watermark,
+     * so views can refresh by applying only the changes.
+     * 
+     * @param watermark the watermark of the previous call, or {@code null} for all loans
+     * @return the changes and the watermark for the next call
+     */
+    ChangeSet<Loan> getLoansChangedSince(Instant watermark);
+    
     /**
      * Checks if a member has any active loans.
      * 
@@ -4,11 +4,13 @@
  */
 package com.codeup.booknova.service;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 import com.codeup.booknova.domain.Member;
 import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.repository.ChangeSet;
 
 /**
  * Service interface for Member management operations.
@@ -95,6 +97,15 @@ public interface IMemberService {
      */
     List<Member> getAllMembers();
     
+    /**
+     * Retrieves the members inserted, updated or deleted since a watermark,
+     * so views can refresh by applying only the changes.
+     * 
+     * @param watermark the watermark of the previous call, or {@code null} for all members
+     * @return the changes and the watermark for the next call
+     */
+    ChangeSet<Member> getMembersChangedSince(Instant watermark);
+    
     /**
      * Retrieves all active members in the system.
      * 
@@ -2,7 +2,9 @@ package com.codeup.booknova.service;
 
 import com.codeup.booknova.domain.MembershipRequest;
 import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.repository.ChangeSet;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,6 +39,15 @@ public interface IMembershipRequestService {
      */
     List<MembershipRequest> getAllRequests();
     
+    /**
+     * Retrieves the requests inserted, updated or deleted since a watermark,
+     * so views can refresh by applying only the changes.
+     * 
+     * @param watermark the watermark of the previous call, or {@code null} for all requests
+     * @return the changes and the watermark for the next call
+     */
+    ChangeSet<MembershipRequest> getRequestsChangedSince(Instant watermark);
+    
     /**
      * Finds a membership request by ID
      * 
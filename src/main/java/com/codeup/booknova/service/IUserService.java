@@ -4,11 +4,13 @@
  */
 package com.codeup.booknova.service;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 import com.codeup.booknova.domain.User;
 import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.repository.ChangeSet;
 
 /**
  * Service interface for User management operations.
@@ -118,6 +120,15 @@ public interface IUserService {
      */
     List<User> getAllUsers();
     
+    /**
+     * Retrieves the users inserted, updated or deleted since a watermark,
+     * so views can refresh by applying only the changes.
+     * 
+     * @param watermark the watermark of the previous call, or {@code null} for all users
+     * @return the changes and the watermark for the next call
+     */
+    ChangeSet<User> getUsersChangedSince(Instant watermark);
+    
     /**
      * Retrieves all active users in the system.
      * 
@@ -7,11 +7,21 @@ package com.codeup.booknova.service.impl;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import com.codeup.booknova.domain.Book;
 import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.events.BookChanged;
+import com.codeup.booknova.infra.events.EventPublisher;
+import com.codeup.booknova.infra.jfr.ServiceOperationEvent;
+import com.codeup.booknova.infra.exec.SingleFlight;
+import com.codeup.booknova.infra.trace.Span;
+import com.codeup.booknova.infra.trace.Tracer;
+import com.codeup.booknova.repository.BatchLoader;
+import com.codeup.booknova.repository.ChangeSet;
 import com.codeup.booknova.repository.IBookRepository;
 import com.codeup.booknova.service.IBookService;
 import com.codeup.booknova.util.ValidationUtils;
@@ -30,6 +40,11 @@ import com.codeup.booknova.util.ValidationUtils;
  * <li>Book search and discovery</li>
  * <li>Availability checking for lending operations</li>
  * </ul>
+ * <p>
+ * With an {@link EventPublisher} every committed change is also published
+ * as a {@link BookChanged} event, so caches and indexes kept in this process
+ * can follow the catalog.
+ * </p>
  * @version 1.0
  * @since 1.0
  * @see IBookRepository
@@ -37,6 +52,9 @@ import com.codeup.booknova.util.ValidationUtils;
  */
 public class BookService implements IBookService {
     private final IBookRepository repo;
+    private final BatchLoader<Integer, Book> byId;
+    private final SingleFlight lists;
+    private final EventPublisher events;
     
     /**
      * Constructs a BookService with the specified repository.
@@ -45,7 +63,52 @@ public class BookService implements IBookService {
      * @throws IllegalArgumentException if repo is null
      */
     public BookService(IBookRepository repo) { 
-        this.repo = repo; 
+        this(repo, null, null);
+    }
+
+    /**
+     * Constructs a BookService whose {@link #findBookById} calls go through a
+     * {@link BatchLoader}, so lookups from concurrent threads share one
+     * {@code findByIds} query.
+     * 
+     * @param repo the book repository implementation for data access
+     * @param byId the loader over {@code repo.findByIds}; {@code null} looks each ID up on its own
+     */
+    public BookService(IBookRepository repo, BatchLoader<Integer, Book> byId) {
+        this(repo, byId, null);
+    }
+
+    /**
+     * Constructs a BookService whose catalogue lists are also shared between
+     * concurrent callers: identical list queries that overlap run once, and
+     * within the reuse window of {@code lists} a finished list is handed out
+     * again. The lists are then unmodifiable and their books shared. Writes
+     * made through this service invalidate them; stock changes made by loans
+     * show up once the reuse window has passed.
+     * 
+     * @param repo the book repository implementation for data access
+     * @param byId the loader over {@code repo.findByIds}; {@code null} looks each ID up on its own
+     * @param lists the single-flight group for list queries; {@code null} runs each query
+     */
+    public BookService(IBookRepository repo, BatchLoader<Integer, Book> byId, SingleFlight lists) {
+        this(repo, byId, lists, null);
+    }
+
+    /**
+     * Constructs a BookService that publishes a {@link BookChanged} event
+     * after each add, edit, stock change and removal commits.
+     * 
+     * @param repo the book repository implementation for data access
+     * @param byId the loader over {@code repo.findByIds}; {@code null} looks each ID up on its own
+     * @param lists the single-flight group for list queries; {@code null} runs each query
+     * @param events the publisher of book changes; {@code null} publishes none
+     */
+    public BookService(IBookRepository repo, BatchLoader<Integer, Book> byId, SingleFlight lists,
+                       EventPublisher events) {
+        this.repo = repo;
+        this.byId = byId;
+        this.lists = lists;
+        this.events = events != null ? events : EventPublisher.NONE;
     }
 
     @Override
@@ -59,7 +122,10 @@ public class BookService implements IBookService {
         }
         
         Book book = new Book(isbn, title, author, initialStock);
-        return repo.create(book);
+        Book created = repo.create(book);
+        listsChanged();
+        published(BookChanged.Kind.ADDED, created.getId(), created);
+        return created;
     }
 
     @Override
@@ -71,7 +137,10 @@ public class BookService implements IBookService {
         // Validate book data
         ValidationUtils.validateBook(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getStock());
         
-        return repo.update(book);
+        Book updated = repo.update(book);
+        listsChanged();
+        published(BookChanged.Kind.UPDATED, updated.getId(), updated);
+        return updated;
     }
 
     @Override
@@ -79,6 +148,14 @@ public class BookService implements IBookService {
         if (id == null || id <= 0) {
             return Optional.empty();
         }
+        if (byId != null) {
+            try {
+                return byId.get(id);
+            } catch (DatabaseException e) {
+                // the repository has logged it; same result as a failed findById
+                return Optional.empty();
+            }
+        }
         return repo.findById(id);
     }
 
@@ -95,7 +172,16 @@ public class BookService implements IBookService {
         if (title == null || title.trim().isEmpty()) {
             return List.of();
         }
-        return repo.findByTitle(title);
+        ServiceOperationEvent event = ServiceOperationEvent.start("BookService.searchBooksByTitle", null, null);
+        Span span = Tracer.startSpan("BookService.searchBooksByTitle");
+        List<Book> books = null;
+        try {
+            books = shared("books.title:" + title, () -> repo.findByTitle(title));
+            return books;
+        } finally {
+            event.finish(books != null, books != null ? books.size() : 0);
+            span.setAttribute("result.count", books != null ? books.size() : null).end(books != null);
+        }
     }
 
     @Override
@@ -103,17 +189,31 @@ public class BookService implements IBookService {
         if (author == null || author.trim().isEmpty()) {
             return List.of();
         }
-        return repo.findByAuthor(author);
+        ServiceOperationEvent event = ServiceOperationEvent.start("BookService.searchBooksByAuthor", null, null);
+        Span span = Tracer.startSpan("BookService.searchBooksByAuthor");
+        List<Book> books = null;
+        try {
+            books = shared("books.author:" + author, () -> repo.findByAuthor(author));
+            return books;
+        } finally {
+            event.finish(books != null, books != null ? books.size() : 0);
+            span.setAttribute("result.count", books != null ? books.size() : null).end(books != null);
+        }
     }
 
     @Override
     public List<Book> getAllBooks() {
-        return repo.findAll();
+        return shared("books.all", repo::findAll);
+    }
+
+    @Override
+    public ChangeSet<Book> getBooksChangedSince(Instant watermark) {
+        return repo.findChangedSince(watermark);
     }
 
     @Override
     public List<Book> getAvailableBooks() {
-        return repo.findAvailableBooks();
+        return shared("books.available", repo::findAvailableBooks);
     }
 
     @Override
@@ -145,6 +245,8 @@ public class BookService implements IBookService {
         }
         
         repo.updateStock(bookId, newStock);
+        listsChanged();
+        published(BookChanged.Kind.STOCK_CHANGED, bookId, null);
     }
 
     @Override
@@ -162,6 +264,8 @@ public class BookService implements IBookService {
         Book book = bookOpt.get();
         int newStock = book.getStock() + quantity;
         repo.updateStock(bookId, newStock);
+        listsChanged();
+        published(BookChanged.Kind.STOCK_CHANGED, bookId, null);
     }
 
     @Override
@@ -177,6 +281,8 @@ public class BookService implements IBookService {
         // In a more complete implementation, we would check for active loans here
         // For now, we'll allow deletion
         repo.delete(bookId);
+        listsChanged();
+        published(BookChanged.Kind.DELETED, bookId, null);
     }
 
     @Override
@@ -189,6 +295,22 @@ public class BookService implements IBookService {
         return bookOpt.map(Book::getStock).orElse(0);
     }
 
+    private List<Book> shared(String key, Supplier<List<Book>> query) {
+        return lists == null ? query.get() : lists.execute(key, () -> List.copyOf(query.get()));
+    }
+
+    private void listsChanged() {
+        if (lists != null) {
+            lists.invalidate();
+        }
+    }
+
+    private void published(BookChanged.Kind kind, Integer bookId, Book book) {
+        if (events != EventPublisher.NONE) {
+            events.publishAfterCommit(new BookChanged(kind, bookId, book));
+        }
+    }
+
     /**
      * Exporta el catálogo de libros a un archivo CSV.
      *
@@ -196,12 +318,21 @@ public class BookService implements IBookService {
      * @throws IOException si ocurre un error al escribir el archivo
      */
     public void exportBooksToCSV(String filePath) throws IOException {
-        List<Book> books = getAllBooks();
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            writer.write("ID,ISBN,Título,Autor,Stock\n"); // Cabecera
-            for (Book book : books) {
-                writer.write(book.getId() + "," + book.getIsbn() + "," + book.getTitle() + "," + book.getAuthor() + "," + book.getStock() + "\n");
+        ServiceOperationEvent event = ServiceOperationEvent.start("BookService.exportBooksToCSV", null, null);
+        Span span = Tracer.startSpan("BookService.exportBooksToCSV");
+        int rows = -1;
+        try {
+            List<Book> books = getAllBooks();
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+                writer.write("ID,ISBN,Título,Autor,Stock\n"); // Cabecera
+                for (Book book : books) {
+                    writer.write(book.getId() + "," + book.getIsbn() + "," + book.getTitle() + "," + book.getAuthor() + "," + book.getStock() + "\n");
+                }
             }
+            rows = books.size();
+        } finally {
+            event.finish(rows >= 0, Math.max(rows, 0));
+            span.setAttribute("result.count", Math.max(rows, 0)).end(rows >= 0);
         }
     }
 }
\ No newline at end of file
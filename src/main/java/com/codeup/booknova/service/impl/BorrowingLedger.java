@@ -0,0 +1,306 @@
+package com.codeup.booknova.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.domain.Member;
+import com.codeup.booknova.domain.MemberRole;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.jdbc.TransactionContext;
+import com.codeup.booknova.repository.ILoanRepository;
+import com.codeup.booknova.repository.IMemberRepository;
+import com.codeup.booknova.util.IntIntConcurrentMap;
+
+/**
+ * In-memory count of each member's active loans and cache of their loan
+ * limits, so the borrowing-limit check needs no database round trip.
+ * <p>
+ * The counts are loaded by {@link #reconcile()} from one
+ * {@code GROUP BY member_id} query and kept current by routing every checkout
+ * and return through {@link #checkout} and {@link #giveBack}, which update
+ * the count together with the transaction. {@code checkout} reserves the slot
+ * before the transaction runs, so two concurrent checkouts cannot both take a
+ * member's last slot.
+ * </p>
+ * <p>
+ * When they run inside an outer transaction, e.g. a bulk operation calling
+ * {@link LoanService}, the work returning means only that its savepoint was
+ * released. A checkout's slot is then given back through
+ * {@link TransactionContext#afterRollback} if the outer transaction rolls
+ * back, and a return frees its slot through
+ * {@link TransactionContext#afterCommit} once the outer transaction commits.
+ * </p>
+ * <p>
+ * Running {@link #reconcile()} periodically repairs drift from loans changed
+ * by other processes. It only overwrites the counts if no checkout or return
+ * ran while the database was read; otherwise it leaves them and tries again
+ * on the next run. Until the first reconcile succeeds {@link #isLoaded()} is
+ * {@code false} and callers count in the database instead. {@link #close()}
+ * stops the periodic reconcile.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ * @see LoanService
+ */
+public class BorrowingLedger implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(BorrowingLedger.class.getName());
+
+    /** Loan limit of regular members. */
+    public static final int REGULAR_MEMBER_LIMIT = 3;
+    /** Loan limit of premium members. */
+    public static final int PREMIUM_MEMBER_LIMIT = 5;
+
+    private static final int UNKNOWN = -1;
+
+    private final ILoanRepository loanRepo;
+    private final IMemberRepository memberRepo;
+    private final IntIntConcurrentMap activeLoans = new IntIntConcurrentMap();
+    private final IntIntConcurrentMap limits = new IntIntConcurrentMap();
+
+    // checkouts and returns share the read lock; reconcile applies under the write lock
+    private final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+    private final AtomicLong changes = new AtomicLong();
+    // checkouts and returns waiting for an outer transaction to complete
+    private final AtomicInteger unsettled = new AtomicInteger();
+    private volatile boolean loaded;
+    private ScheduledExecutorService scheduler;
+
+    public BorrowingLedger(ILoanRepository loanRepo, IMemberRepository memberRepo) {
+        this.loanRepo = loanRepo;
+        this.memberRepo = memberRepo;
+    }
+
+    /**
+     * Returns the loan limit of a role.
+     *
+     * @param role the member role; {@code null} counts as regular
+     * @return the maximum number of active loans
+     */
+    public static int limitOf(MemberRole role) {
+        return role == MemberRole.PREMIUM ? PREMIUM_MEMBER_LIMIT : REGULAR_MEMBER_LIMIT;
+    }
+
+    /**
+     * Tells whether the counts have been loaded from the database.
+     *
+     * @return {@code true} after the first successful {@link #reconcile()}
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns a member's active loans.
+     *
+     * @param memberId the member ID
+     * @return the count; {@code 0} for unknown members
+     */
+    public int activeLoans(int memberId) {
+        return activeLoans.get(memberId, 0);
+    }
+
+    /**
+     * Returns a member's cached loan limit.
+     *
+     * @param memberId the member ID
+     * @return the limit, or {@code -1} if the member's role is not cached
+     */
+    public int cachedLimit(int memberId) {
+        return limits.get(memberId, UNKNOWN);
+    }
+
+    /**
+     * Caches a member's role, e.g. after reading the member anyway.
+     *
+     * @param memberId the member ID
+     * @param role the member's current role
+     */
+    public void cacheRole(int memberId, MemberRole role) {
+        limits.put(memberId, limitOf(role));
+    }
+
+    /**
+     * Reserves one of a member's loan slots and runs the checkout. The slot
+     * is released again if the work throws, or if the transaction the
+     * checkout joined rolls back later.
+     *
+     * @param <T> the type of the result
+     * @param memberId the member ID
+     * @param limit the member's loan limit
+     * @param work the checkout transaction
+     * @return the result of the work
+     * @throws DatabaseException if the member has reached the limit
+     */
+    public <T> T checkout(int memberId, int limit, Supplier<T> work) throws DatabaseException {
+        gate.readLock().lock();
+        try {
+            if (!activeLoans.addIfInRange(memberId, 1, 0, limit)) {
+                throw new DatabaseException("Member has reached borrowing limit");
+            }
+            T result;
+            try {
+                result = work.get();
+            } catch (RuntimeException e) {
+                release(memberId);
+                throw e;
+            }
+            if (TransactionContext.isActive()) {
+                unsettled.incrementAndGet();
+                TransactionContext.afterCommit(this::settled);
+                TransactionContext.afterRollback(() -> {
+                    release(memberId);
+                    settled();
+                });
+            }
+            return result;
+        } finally {
+            changes.incrementAndGet();
+            gate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a return and frees one of the member's loan slots once it has
+     * committed: right away, or when the transaction the return joined
+     * commits.
+     *
+     * @param memberId the member ID
+     * @param work the return transaction
+     */
+    public void giveBack(int memberId, Runnable work) {
+        gate.readLock().lock();
+        try {
+            work.run();
+            if (TransactionContext.isActive()) {
+                unsettled.incrementAndGet();
+                TransactionContext.afterCommit(() -> {
+                    release(memberId);
+                    settled();
+                });
+                TransactionContext.afterRollback(this::settled);
+            } else {
+                release(memberId);
+            }
+        } finally {
+            changes.incrementAndGet();
+            gate.readLock().unlock();
+        }
+    }
+
+    private void release(int memberId) {
+        activeLoans.addIfInRange(memberId, -1, 0, Integer.MAX_VALUE);
+    }
+
+    // an outer transaction completed; counts it as a change so a reconcile reading meanwhile is skipped
+    private void settled() {
+        gate.readLock().lock();
+        try {
+            unsettled.decrementAndGet();
+        } finally {
+            changes.incrementAndGet();
+            gate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads every member's role and active loan count from the database.
+     *
+     * @return {@code true} if the counts were replaced, {@code false} if a
+     *         checkout or return ran meanwhile and they were left as they are
+     * @throws DatabaseException if a query fails
+     */
+    public boolean reconcile() throws DatabaseException {
+        long before = changes.get();
+        Map<Integer, Integer> counts = loanRepo.countActiveLoansPerMember();
+        for (Member member : memberRepo.findAll()) {
+            if (member.getId() != null) {
+                cacheRole(member.getId(), member.getRole());
+            }
+        }
+        // a checkout in progress holds the read lock; it may not have committed yet
+        if (!gate.writeLock().tryLock()) {
+            logger.fine("Ledger reconcile skipped: checkout or return in progress");
+            return false;
+        }
+        try {
+            if (changes.get() != before) {
+                logger.fine("Ledger reconcile skipped: loans changed while counting");
+                return false;
+            }
+            if (unsettled.get() > 0) {
+                logger.fine("Ledger reconcile skipped: checkout or return waiting for its transaction");
+                return false;
+            }
+            AtomicInteger corrected = new AtomicInteger();
+            activeLoans.forEach((memberId, active) -> {
+                if (active != 0 && !counts.containsKey(memberId)) {
+                    activeLoans.put(memberId, 0);
+                    corrected.incrementAndGet();
+                }
+            });
+            counts.forEach((memberId, active) -> {
+                if (activeLoans.get(memberId, 0) != active) {
+                    activeLoans.put(memberId, active);
+                    corrected.incrementAndGet();
+                }
+            });
+            if (loaded && corrected.get() > 0) {
+                logger.log(Level.INFO, "Ledger reconcile corrected {0} members", corrected.get());
+            }
+            loaded = true;
+            return true;
+        } finally {
+            gate.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs {@link #reconcile()} now and then every {@code periodSeconds} on a
+     * daemon thread. Failures are logged and retried on the next run.
+     *
+     * @param periodSeconds the period; {@code 0} or less reconciles once
+     */
+    public synchronized void startReconciling(long periodSeconds) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Ledger is already reconciling");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "borrowing-ledger");
+            t.setDaemon(true);
+            return t;
+        });
+        Runnable task = () -> {
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Ledger reconcile failed", e);
+            }
+        };
+        if (periodSeconds > 0) {
+            scheduler.scheduleWithFixedDelay(task, 0, periodSeconds, TimeUnit.SECONDS);
+        } else {
+            scheduler.execute(task);
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Stops the periodic reconcile; one in progress is interrupted. The
+     * ledger keeps counting checkouts and returns.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -7,15 +7,30 @@ package com.codeup.booknova.service.impl;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import com.codeup.booknova.analytics.CirculationRollups;
 import com.codeup.booknova.domain.Book;
 import com.codeup.booknova.domain.Loan;
 import com.codeup.booknova.domain.Member;
 import com.codeup.booknova.domain.MemberRole;
 import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.events.BookChanged;
+import com.codeup.booknova.infra.events.EventPublisher;
+import com.codeup.booknova.infra.events.LoanChanged;
+import com.codeup.booknova.infra.jfr.ServiceOperationEvent;
+import com.codeup.booknova.infra.outbox.Outbox;
+import com.codeup.booknova.infra.outbox.OutboxEvent;
+import com.codeup.booknova.infra.trace.Span;
+import com.codeup.booknova.infra.trace.Tracer;
+import com.codeup.booknova.jdbc.TransactionRunner;
+import com.codeup.booknova.repository.ChangeSet;
 import com.codeup.booknova.repository.IBookRepository;
 import com.codeup.booknova.repository.ILoanRepository;
 import com.codeup.booknova.repository.IMemberRepository;
@@ -37,6 +52,20 @@ import com.codeup.booknova.util.ValidationUtils;
  * <li>Overdue loan management</li>
  * <li>Member borrowing limit enforcement</li>
  * </ul>
+ * <p>
+ * With a {@link BorrowingLedger} the limit check reads in-memory counts and
+ * cached roles instead of querying {@code loan} and {@code member}.
+ * </p>
+ * <p>
+ * With an {@link Outbox} every checkout, return and extension also records
+ * a {@code loan.*} event in its transaction, for systems that must follow
+ * loans without polling.
+ * </p>
+ * <p>
+ * With an {@link EventPublisher} each of them is also published in this
+ * process once committed, as a {@link LoanChanged} and, when the stock
+ * moved, a {@link BookChanged} event.
+ * </p>
  * @version 1.0
  * @since 1.0
  * @see ILoanRepository
@@ -48,10 +77,12 @@ public class LoanService implements ILoanService {
     private final ILoanRepository loanRepo;
     private final IBookRepository bookRepo;
     private final IMemberRepository memberRepo;
+    private final TransactionRunner tx;
+    private final CirculationRollups rollups;
+    private final BorrowingLedger ledger;
+    private final Outbox outbox;
+    private final EventPublisher events;
 
-    // Default loan limits
-    private static final int REGULAR_MEMBER_LIMIT = 3;
-    private static final int PREMIUM_MEMBER_LIMIT = 5;
     private static final int DEFAULT_LOAN_PERIOD_DAYS = 14;
 
     /**
@@ -63,13 +94,114 @@ public class LoanService implements ILoanService {
      * @throws IllegalArgumentException if any repository is null
      */
     public LoanService(ILoanRepository loanRepo, IBookRepository bookRepo, IMemberRepository memberRepo) {
+        this(loanRepo, bookRepo, memberRepo, TransactionRunner.DIRECT);
+    }
+
+    /**
+     * Constructs a LoanService whose stock and loan updates run in one transaction.
+     *
+     * @param loanRepo   the loan repository implementation for data access
+     * @param bookRepo   the book repository implementation for data access
+     * @param memberRepo the member repository implementation for data access
+     * @param tx         the transaction runner; {@code null} runs without a transaction
+     */
+    public LoanService(ILoanRepository loanRepo, IBookRepository bookRepo, IMemberRepository memberRepo,
+                       TransactionRunner tx) {
+        this(loanRepo, bookRepo, memberRepo, tx, CirculationRollups.NONE);
+    }
+
+    /**
+     * Constructs a LoanService that also maintains the circulation rollups in
+     * its checkout and return transactions.
+     *
+     * @param loanRepo   the loan repository implementation for data access
+     * @param bookRepo   the book repository implementation for data access
+     * @param memberRepo the member repository implementation for data access
+     * @param tx         the transaction runner; {@code null} runs without a transaction
+     * @param rollups    the rollups to update; {@code null} updates none
+     */
+    public LoanService(ILoanRepository loanRepo, IBookRepository bookRepo, IMemberRepository memberRepo,
+                       TransactionRunner tx, CirculationRollups rollups) {
+        this(loanRepo, bookRepo, memberRepo, tx, rollups, null);
+    }
+
+    /**
+     * Constructs a LoanService that checks borrowing limits against an
+     * in-memory ledger instead of counting loans in the database. Every
+     * checkout and return of this service updates the ledger.
+     *
+     * @param loanRepo   the loan repository implementation for data access
+     * @param bookRepo   the book repository implementation for data access
+     * @param memberRepo the member repository implementation for data access
+     * @param tx         the transaction runner; {@code null} runs without a transaction
+     * @param rollups    the rollups to update; {@code null} updates none
+     * @param ledger     the borrowing ledger; {@code null} counts loans in the database
+     */
+    public LoanService(ILoanRepository loanRepo, IBookRepository bookRepo, IMemberRepository memberRepo,
+                       TransactionRunner tx, CirculationRollups rollups, BorrowingLedger ledger) {
+        this(loanRepo, bookRepo, memberRepo, tx, rollups, ledger, null);
+    }
+
+    /**
+     * Constructs a LoanService that records an outbox event in each checkout,
+     * return and extension transaction.
+     *
+     * @param loanRepo   the loan repository implementation for data access
+     * @param bookRepo   the book repository implementation for data access
+     * @param memberRepo the member repository implementation for data access
+     * @param tx         the transaction runner; {@code null} runs without a transaction
+     * @param rollups    the rollups to update; {@code null} updates none
+     * @param ledger     the borrowing ledger; {@code null} counts loans in the database
+     * @param outbox     the outbox; {@code null} records no events
+     */
+    public LoanService(ILoanRepository loanRepo, IBookRepository bookRepo, IMemberRepository memberRepo,
+                       TransactionRunner tx, CirculationRollups rollups, BorrowingLedger ledger, Outbox outbox) {
+        this(loanRepo, bookRepo, memberRepo, tx, rollups, ledger, outbox, null);
+    }
+
+    /**
+     * Constructs a LoanService that also publishes each checkout, return and
+     * extension in this process once its transaction commits.
+     *
+     * @param loanRepo   the loan repository implementation for data access
+     * @param bookRepo   the book repository implementation for data access
+     * @param memberRepo the member repository implementation for data access
+     * @param tx         the transaction runner; {@code null} runs without a transaction
+     * @param rollups    the rollups to update; {@code null} updates none
+     * @param ledger     the borrowing ledger; {@code null} counts loans in the database
+     * @param outbox     the outbox; {@code null} records no events
+     * @param events     the publisher of loan and stock changes; {@code null} publishes none
+     */
+    public LoanService(ILoanRepository loanRepo, IBookRepository bookRepo, IMemberRepository memberRepo,
+                       TransactionRunner tx, CirculationRollups rollups, BorrowingLedger ledger, Outbox outbox,
+                       EventPublisher events) {
         this.loanRepo = loanRepo;
         this.bookRepo = bookRepo;
         this.memberRepo = memberRepo;
+        this.tx = tx != null ? tx : TransactionRunner.DIRECT;
+        this.rollups = rollups != null ? rollups : CirculationRollups.NONE;
+        this.ledger = ledger;
+        this.outbox = outbox != null ? outbox : Outbox.NONE;
+        this.events = events != null ? events : EventPublisher.NONE;
     }
 
     @Override
     public Loan createLoan(Integer memberId, Integer bookId, Integer loanPeriodDays) throws DatabaseException {
+        ServiceOperationEvent event = ServiceOperationEvent.start("LoanService.createLoan", memberId, bookId);
+        Span span = Tracer.startSpan("LoanService.createLoan")
+                .setAttribute("member.id", memberId)
+                .setAttribute("book.id", bookId);
+        Loan loan = null;
+        try {
+            loan = doCreateLoan(memberId, bookId, loanPeriodDays);
+            return loan;
+        } finally {
+            event.finish(loan != null, loan != null ? 1 : 0);
+            span.setAttribute("loan.id", loan != null ? loan.getId() : null).end(loan != null);
+        }
+    }
+
+    private Loan doCreateLoan(Integer memberId, Integer bookId, Integer loanPeriodDays) throws DatabaseException {
         // Validate input data
         ValidationUtils.validateId(memberId, "Member ID");
         ValidationUtils.validateId(bookId, "Book ID");
@@ -84,7 +216,11 @@ public class LoanService implements ILoanService {
             throw new DatabaseException("Member not found or inactive with ID: " + memberId);
         }
 
-        // Check if member can borrow more books
+        // Check if member can borrow more books; the member just read gives the current role
+        MemberRole role = memberOpt.get().getRole();
+        if (ledger != null) {
+            ledger.cacheRole(memberId, role);
+        }
         if (!canMemberBorrowMore(memberId)) {
             throw new DatabaseException("Member has reached borrowing limit");
         }
@@ -106,15 +242,23 @@ public class LoanService implements ILoanService {
 
         Loan loan = new Loan(memberId, bookId, loanDate, dueDate);
 
-        // Use transaction-like approach: create loan and decrease stock
-        try {
-            // Decrease book stock
+        // Decrease stock, create the loan record and count it in one transaction
+        Supplier<Loan> checkout = () -> tx.inTransaction(() -> {
             bookRepo.decreaseStock(bookId);
-
-            // Create loan record
-            return loanRepo.create(loan);
+            Loan created = loanRepo.create(loan);
+            rollups.recordCheckout(created, role);
+            recordEvent(OutboxEvent.LOAN_CREATED, created, null, null);
+            publishAfterCommit(LoanChanged.Kind.CREATED, created, true);
+            return created;
+        });
+        try {
+            if (ledger == null) {
+                return checkout.get();
+            }
+            // the ledger re-checks the limit atomically; before it is loaded the check above was made in the database
+            int limit = ledger.isLoaded() ? BorrowingLedger.limitOf(role) : Integer.MAX_VALUE;
+            return ledger.checkout(memberId, limit, checkout);
         } catch (DatabaseException e) {
-            // In a real transaction, this would be rolled back automatically
             throw new DatabaseException("Failed to create loan: " + e.getMessage(), e);
         }
     }
@@ -126,6 +270,19 @@ public class LoanService implements ILoanService {
 
     @Override
     public void returnBook(Integer loanId) throws DatabaseException {
+        ServiceOperationEvent event = ServiceOperationEvent.start("LoanService.returnBook", loanId, null);
+        Span span = Tracer.startSpan("LoanService.returnBook").setAttribute("loan.id", loanId);
+        boolean done = false;
+        try {
+            doReturnBook(loanId);
+            done = true;
+        } finally {
+            event.finish(done, done ? 1 : 0);
+            span.end(done);
+        }
+    }
+
+    private void doReturnBook(Integer loanId) throws DatabaseException {
         ValidationUtils.validateId(loanId, "Loan ID");
 
         // Find the loan
@@ -139,13 +296,23 @@ public class LoanService implements ILoanService {
             throw new DatabaseException("Book has already been returned");
         }
 
-        // Use transaction-like approach: mark as returned and increase stock
-        try {
-            // Mark loan as returned
+        // Mark as returned, increase stock and count the return in one transaction
+        MemberRole role = rollups == CirculationRollups.NONE ? null
+                : memberRepo.findById(loan.getMemberId()).map(Member::getRole).orElse(null);
+        LocalDate returnedOn = LocalDate.now();
+        Runnable giveBack = () -> tx.runInTransaction(() -> {
             loanRepo.markAsReturned(loanId);
-
-            // Increase book stock
             bookRepo.increaseStock(loan.getBookId());
+            rollups.recordReturn(loan, role, returnedOn);
+            recordEvent(OutboxEvent.LOAN_RETURNED, loan, "returnDate", returnedOn);
+            publishAfterCommit(LoanChanged.Kind.RETURNED, loan, true);
+        });
+        try {
+            if (ledger == null) {
+                giveBack.run();
+            } else {
+                ledger.giveBack(loan.getMemberId(), giveBack);
+            }
         } catch (DatabaseException e) {
             throw new DatabaseException("Failed to return book: " + e.getMessage(), e);
         }
@@ -191,7 +358,39 @@ public class LoanService implements ILoanService {
         LocalDate newDueDate = loan.getDateDue().plusDays(additionalDays);
         loan.setDateDue(newDueDate);
 
-        loanRepo.update(loan);
+        tx.runInTransaction(() -> {
+            loanRepo.update(loan);
+            recordEvent(OutboxEvent.LOAN_EXTENDED, loan, "additionalDays", additionalDays);
+            publishAfterCommit(LoanChanged.Kind.EXTENDED, loan, false);
+        });
+    }
+
+    // appends a loan.* event to the current transaction, with one extra field if named
+    private void recordEvent(String eventType, Loan loan, String extraName, Object extraValue) {
+        if (outbox == Outbox.NONE) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("loanId", loan.getId());
+        payload.put("memberId", loan.getMemberId());
+        payload.put("bookId", loan.getBookId());
+        payload.put("dateLoaned", loan.getDateLoaned());
+        payload.put("dateDue", loan.getDateDue());
+        if (extraName != null) {
+            payload.put(extraName, extraValue);
+        }
+        outbox.append(OutboxEvent.LOAN, loan.getId(), eventType, payload);
+    }
+
+    // publishes the change once the current transaction commits, with the stock change it made if any
+    private void publishAfterCommit(LoanChanged.Kind kind, Loan loan, boolean stockChanged) {
+        if (events == EventPublisher.NONE) {
+            return;
+        }
+        events.publishAfterCommit(new LoanChanged(kind, loan.getId(), loan.getMemberId(), loan.getBookId()));
+        if (stockChanged) {
+            events.publishAfterCommit(new BookChanged(BookChanged.Kind.STOCK_CHANGED, loan.getBookId(), null));
+        }
     }
 
     @Override
@@ -265,6 +464,11 @@ public class LoanService implements ILoanService {
         return loanRepo.findAll();
     }
 
+    @Override
+    public ChangeSet<Loan> getLoansChangedSince(Instant watermark) {
+        return loanRepo.findChangedSince(watermark);
+    }
+
     @Override
     public boolean hasActiveLoans(Integer memberId) {
         if (memberId == null || memberId <= 0) {
@@ -278,6 +482,9 @@ public class LoanService implements ILoanService {
         if (memberId == null || memberId <= 0) {
             return 0;
         }
+        if (ledger != null && ledger.isLoaded()) {
+            return ledger.activeLoans(memberId);
+        }
         return loanRepo.countActiveLoansByMember(memberId);
     }
 
@@ -298,6 +505,12 @@ public class LoanService implements ILoanService {
         if (memberId == null || memberId <= 0) {
             return 0;
         }
+        if (ledger != null) {
+            int cached = ledger.cachedLimit(memberId);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
 
         Optional<Member> memberOpt = memberRepo.findById(memberId);
         if (memberOpt.isEmpty()) {
@@ -305,7 +518,10 @@ public class LoanService implements ILoanService {
         }
 
         Member member = memberOpt.get();
-        return member.getRole() == MemberRole.PREMIUM ? PREMIUM_MEMBER_LIMIT : REGULAR_MEMBER_LIMIT;
+        if (ledger != null) {
+            ledger.cacheRole(memberId, member.getRole());
+        }
+        return BorrowingLedger.limitOf(member.getRole());
     }
 
     /**
@@ -353,12 +569,21 @@ public class LoanService implements ILoanService {
      * @throws IOException si ocurre un error al escribir el archivo
      */
     public void exportOverdueLoansToCSV(String filePath) throws IOException {
-        List<Loan> overdueLoans = getOverdueLoans();
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            writer.write("ID Préstamo,ID Miembro,ID Libro,Fecha Préstamo,Fecha Vencimiento\n"); // Cabecera
-            for (Loan loan : overdueLoans) {
-                writer.write(loan.getId() + "," + loan.getMemberId() + "," + loan.getBookId() + "," + loan.getDateLoaned() + "," + loan.getDateDue() + "\n");
+        ServiceOperationEvent event = ServiceOperationEvent.start("LoanService.exportOverdueLoansToCSV", null, null);
+        Span span = Tracer.startSpan("LoanService.exportOverdueLoansToCSV");
+        int rows = -1;
+        try {
+            List<Loan> overdueLoans = getOverdueLoans();
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+                writer.write("ID Préstamo,ID Miembro,ID Libro,Fecha Préstamo,Fecha Vencimiento\n"); // Cabecera
+                for (Loan loan : overdueLoans) {
+                    writer.write(loan.getId() + "," + loan.getMemberId() + "," + loan.getBookId() + "," + loan.getDateLoaned() + "," + loan.getDateDue() + "\n");
+                }
             }
+            rows = overdueLoans.size();
+        } finally {
+            event.finish(rows >= 0, Math.max(rows, 0));
+            span.setAttribute("result.count", Math.max(rows, 0)).end(rows >= 0);
         }
     }
 
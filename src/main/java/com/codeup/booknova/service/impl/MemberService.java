@@ -4,6 +4,7 @@
  */
 package com.codeup.booknova.service.impl;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,6 +12,8 @@ import com.codeup.booknova.domain.AccessLevel;
 import com.codeup.booknova.domain.Member;
 import com.codeup.booknova.domain.MemberRole;
 import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.repository.BatchLoader;
+import com.codeup.booknova.repository.ChangeSet;
 import com.codeup.booknova.repository.IMemberRepository;
 import com.codeup.booknova.repository.impl.MemberJdbcRepository;
 import com.codeup.booknova.service.IMemberService;
@@ -37,6 +40,7 @@ import com.codeup.booknova.util.ValidationUtils;
  */
 public class MemberService implements IMemberService {
     private final IMemberRepository repo;
+    private final BatchLoader<Integer, Member> byId;
     
     /**
      * Constructs a MemberService with the specified repository.
@@ -45,7 +49,20 @@ public class MemberService implements IMemberService {
      * @throws IllegalArgumentException if repo is null
      */
     public MemberService(IMemberRepository repo) { 
-        this.repo = repo; 
+        this(repo, null);
+    }
+
+    /**
+     * Constructs a MemberService whose {@link #findMemberById} calls go through a
+     * {@link BatchLoader}, so lookups from concurrent threads share one
+     * {@code findByIds} query.
+     * 
+     * @param repo the member repository implementation for data access
+     * @param byId the loader over {@code repo.findByIds}; {@code null} looks each ID up on its own
+     */
+    public MemberService(IMemberRepository repo, BatchLoader<Integer, Member> byId) {
+        this.repo = repo;
+        this.byId = byId;
     }
 
     @Override
@@ -98,6 +115,14 @@ public class MemberService implements IMemberService {
         if (id == null || id <= 0) {
             return Optional.empty();
         }
+        if (byId != null) {
+            try {
+                return byId.get(id);
+            } catch (DatabaseException e) {
+                // the repository has logged it; same result as a failed findById
+                return Optional.empty();
+            }
+        }
         return repo.findById(id);
     }
 
@@ -122,6 +147,11 @@ public class MemberService implements IMemberService {
         return repo.findAll();
     }
 
+    @Override
+    public ChangeSet<Member> getMembersChangedSince(Instant watermark) {
+        return repo.findChangedSince(watermark);
+    }
+
     @Override
     public List<Member> getAllActiveMembers() {
         return repo.findAllActive();
@@ -3,12 +3,18 @@ package com.codeup.booknova.service.impl;
 import com.codeup.booknova.domain.Member;
 import com.codeup.booknova.domain.MembershipRequest;
 import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.outbox.Outbox;
+import com.codeup.booknova.infra.outbox.OutboxEvent;
+import com.codeup.booknova.jdbc.TransactionRunner;
+import com.codeup.booknova.repository.ChangeSet;
 import com.codeup.booknova.repository.IMemberRepository;
 import com.codeup.booknova.repository.IMembershipRequestRepository;
 import com.codeup.booknova.service.IMembershipRequestService;
 
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -18,11 +24,37 @@ public class MembershipRequestService implements IMembershipRequestService {
     
     private final IMembershipRequestRepository requestRepository;
     private final IMemberRepository memberRepository;
+    private final TransactionRunner tx;
+    private final Outbox outbox;
     
     public MembershipRequestService(IMembershipRequestRepository requestRepository, 
                                    IMemberRepository memberRepository) {
+        this(requestRepository, memberRepository, TransactionRunner.DIRECT);
+    }
+    
+    /**
+     * Creates the service so that approving a request creates the member and
+     * updates the request in one transaction.
+     */
+    public MembershipRequestService(IMembershipRequestRepository requestRepository, 
+                                   IMemberRepository memberRepository,
+                                   TransactionRunner tx) {
+        this(requestRepository, memberRepository, tx, null);
+    }
+    
+    /**
+     * Creates the service so that approving or rejecting a request also
+     * records a {@code membership.*} outbox event in its transaction.
+     *
+     * @param outbox the outbox; {@code null} records no events
+     */
+    public MembershipRequestService(IMembershipRequestRepository requestRepository, 
+                                   IMemberRepository memberRepository,
+                                   TransactionRunner tx, Outbox outbox) {
         this.requestRepository = requestRepository;
         this.memberRepository = memberRepository;
+        this.tx = tx != null ? tx : TransactionRunner.DIRECT;
+        this.outbox = outbox != null ? outbox : Outbox.NONE;
     }
     
     @Override
@@ -51,6 +83,11 @@ public class MembershipRequestService implements IMembershipRequestService {
     public List<MembershipRequest> getAllRequests() {
         return requestRepository.findAll();
     }
+
+    @Override
+    public ChangeSet<MembershipRequest> getRequestsChangedSince(Instant watermark) {
+        return requestRepository.findChangedSince(watermark);
+    }
     
     @Override
     public Optional<MembershipRequest> findRequestById(Integer id) {
@@ -77,14 +114,17 @@ public class MembershipRequestService implements IMembershipRequestService {
         Member member = new Member(request.getUserName());
         member.setUserId(request.getUserId()); // Link member to user
         member.setActive(true);
-        member = memberRepository.create(member);
         
         // Update request status
         request.setStatus("APPROVED");
         request.setApprovedByUserId(approvedByUserId);
         request.setProcessedAt(Instant.now());
         
-        requestRepository.update(request);
+        tx.runInTransaction(() -> {
+            Member created = memberRepository.create(member);
+            requestRepository.update(request);
+            recordEvent(OutboxEvent.MEMBERSHIP_APPROVED, request, created != null ? created.getId() : member.getId());
+        });
     }
     
     @Override
@@ -103,6 +143,25 @@ public class MembershipRequestService implements IMembershipRequestService {
         request.setApprovedByUserId(rejectedByUserId);
         request.setProcessedAt(Instant.now());
         
-        requestRepository.update(request);
+        tx.runInTransaction(() -> {
+            requestRepository.update(request);
+            recordEvent(OutboxEvent.MEMBERSHIP_REJECTED, request, null);
+        });
+    }
+    
+    // appends a membership.* event to the current transaction
+    private void recordEvent(String eventType, MembershipRequest request, Integer memberId) {
+        if (outbox == Outbox.NONE) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("requestId", request.getId());
+        payload.put("userId", request.getUserId());
+        payload.put("processedBy", request.getApprovedByUserId());
+        payload.put("processedAt", request.getProcessedAt());
+        if (memberId != null) {
+            payload.put("memberId", memberId);
+        }
+        outbox.append(OutboxEvent.MEMBERSHIP_REQUEST, request.getId(), eventType, payload);
     }
 }
@@ -4,6 +4,7 @@
  */
 package com.codeup.booknova.service.impl;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
@@ -12,6 +13,11 @@ import com.codeup.booknova.domain.AccessLevel;
 import com.codeup.booknova.domain.User;
 import com.codeup.booknova.domain.UserRole;
 import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.jfr.ServiceOperationEvent;
+import com.codeup.booknova.infra.trace.Span;
+import com.codeup.booknova.infra.trace.Tracer;
+import com.codeup.booknova.repository.BatchLoader;
+import com.codeup.booknova.repository.ChangeSet;
 import com.codeup.booknova.repository.IUserRepository;
 import com.codeup.booknova.service.IUserService;
 import com.codeup.booknova.util.PasswordUtils;
@@ -39,6 +45,7 @@ import com.codeup.booknova.util.ValidationUtils;
  */
 public class UserService implements IUserService {
     private final IUserRepository repo;
+    private final BatchLoader<Integer, User> byId;
     private static final Logger logger = Logger.getLogger(UserService.class.getName());
 
     /**
@@ -48,7 +55,20 @@ public class UserService implements IUserService {
      * @throws IllegalArgumentException if repo is null
      */
     public UserService(IUserRepository repo) { 
-        this.repo = repo; 
+        this(repo, null);
+    }
+
+    /**
+     * Constructs a UserService whose {@link #findUserById} calls go through a
+     * {@link BatchLoader}, so lookups from concurrent threads share one
+     * {@code findByIds} query.
+     * 
+     * @param repo the user repository implementation for data access
+     * @param byId the loader over {@code repo.findByIds}; {@code null} looks each ID up on its own
+     */
+    public UserService(IUserRepository repo, BatchLoader<Integer, User> byId) {
+        this.repo = repo;
+        this.byId = byId;
     }
 
     @Override
@@ -135,6 +155,14 @@ public class UserService implements IUserService {
         if (id == null || id <= 0) {
             return Optional.empty();
         }
+        if (byId != null) {
+            try {
+                return byId.get(id);
+            } catch (DatabaseException e) {
+                // the repository has logged it; same result as a failed findById
+                return Optional.empty();
+            }
+        }
         return repo.findById(id);
     }
 
@@ -151,6 +179,11 @@ public class UserService implements IUserService {
         return repo.findAll();
     }
 
+    @Override
+    public ChangeSet<User> getUsersChangedSince(Instant watermark) {
+        return repo.findChangedSince(watermark);
+    }
+
     @Override
     public List<User> getAllActiveUsers() {
         return repo.findAllActive();
@@ -166,6 +199,21 @@ public class UserService implements IUserService {
 
     @Override
     public Optional<User> authenticate(String email, String password) throws DatabaseException {
+        ServiceOperationEvent event = ServiceOperationEvent.start("UserService.authenticate", null, null);
+        Span span = Tracer.startSpan("UserService.authenticate");
+        Optional<User> user = null;
+        try {
+            user = doAuthenticate(email, password);
+            event.setId(user.get().getId());
+            span.setAttribute("user.id", user.get().getId());
+            return user;
+        } finally {
+            event.finish(user != null, user != null ? 1 : 0);
+            span.end(user != null);
+        }
+    }
+
+    private Optional<User> doAuthenticate(String email, String password) throws DatabaseException {
         if (email == null || email.trim().isEmpty() || password == null || password.trim().isEmpty()) {
             throw new DatabaseException("Email and password cannot be null or empty");
         }
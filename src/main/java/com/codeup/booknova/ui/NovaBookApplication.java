@@ -1,44 +1,88 @@
 package com.codeup.booknova.ui;
 
 import com.codeup.booknova.domain.User;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.infra.logging.LoggingConfigurer;
 import com.codeup.booknova.ui.controller.AdminDashboardController;
 import com.codeup.booknova.ui.controller.MemberDashboardController;
 import com.codeup.booknova.ui.controller.UserDashboardController;
+import com.codeup.booknova.ui.service.ServiceManager;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.util.logging.FileHandler;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
 
 /**
  * Main JavaFX Application class for NovaBook
+ * <p>
+ * While the login screen is shown, services are built and a first database
+ * connection is opened on a background thread, and the dashboard views are
+ * parsed into a {@link SceneCache} ({@code ui.preload}, default true).
+ * </p>
+ * <p>
+ * With {@code --cds-training} the application exits as soon as this warm-up
+ * is done. Run it once with {@code -XX:ArchiveClassesAtExit=novabook.jsa} to
+ * record the loaded classes in an AppCDS archive, then start normally with
+ * {@code -XX:SharedArchiveFile=novabook.jsa}.
+ * </p>
  */
 public class NovaBookApplication extends Application {
     
+    private static final String ADMIN_DASHBOARD = "/fxml/admin-dashboard.fxml";
+    private static final String MEMBER_DASHBOARD = "/fxml/member-dashboard.fxml";
+    private static final String USER_DASHBOARD = "/fxml/user-dashboard.fxml";
+    
     private static Stage primaryStage;
+    private static SceneCache sceneCache = new SceneCache(Platform::runLater, false);
     
     @Override
     public void start(Stage stage) throws Exception {
-        // Configuración de logging
+        // Configuración de logging (escritura asíncrona a app.log)
         Logger logger = Logger.getLogger("NovaBook");
+        AppConfig config = new AppConfig();
         try {
-            FileHandler fh = new FileHandler("app.log", true); // Append mode
-            fh.setFormatter(new SimpleFormatter());
-            logger.addHandler(fh);
+            LoggingConfigurer.install(config);
             logger.info("Aplicación iniciada");
-        } catch (IOException e) {
+        } catch (IOException | RuntimeException e) {
             System.err.println("Error al configurar logging: " + e.getMessage());
         }
+        
+        // Services and the JDBC driver warm up while the login screen is built and shown
+        CompletableFuture<Void> warmUp = CompletableFuture
+            .runAsync(() -> ServiceManager.getInstance().warmUp())
+            .exceptionally(e -> {
+                logger.log(Level.WARNING, "Warm-up failed", e);
+                return null;
+            });
 
         primaryStage = stage;
         primaryStage.setTitle("NovaBook - Sistema de Gestión de Biblioteca");
         primaryStage.setResizable(false);
         
         showLoginView();
+        StartupMetrics.loginScreenShown();
+        
+        sceneCache = new SceneCache(Platform::runLater, config.getBoolean("ui.preload", true));
+        List<CompletableFuture<?>> preloads = List.of(
+            warmUp,
+            sceneCache.preload(USER_DASHBOARD),
+            sceneCache.preload(MEMBER_DASHBOARD),
+            sceneCache.preload(ADMIN_DASHBOARD));
+        
+        if (getParameters().getRaw().contains("--cds-training")) {
+            CompletableFuture.allOf(preloads.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> {
+                    logger.info("CDS training run finished");
+                    Platform.exit();
+                });
+        }
     }
     
     public static void showLoginView() {
@@ -57,30 +101,34 @@ public class NovaBookApplication extends Application {
     public static void showDashboard(String userType, User user) {
         try {
             String fxmlFile = switch (userType.toLowerCase()) {
-                case "admin" -> "/fxml/admin-dashboard.fxml";
-                case "member" -> "/fxml/member-dashboard.fxml";
-                default -> "/fxml/user-dashboard.fxml";
+                case "admin" -> ADMIN_DASHBOARD;
+                case "member" -> MEMBER_DASHBOARD;
+                default -> USER_DASHBOARD;
             };
             
-            FXMLLoader loader = new FXMLLoader(NovaBookApplication.class.getResource(fxmlFile));
-            Scene scene = new Scene(loader.load(), 900, 600);
+            // Usually parsed while the login screen was shown
+            SceneCache.View view = sceneCache.take(fxmlFile);
+            Scene scene = new Scene(view.root(), 900, 600);
             scene.getStylesheets().add(NovaBookApplication.class.getResource("/styles/application.css").toExternalForm());
             
-            // Pass user object to the controller
-            Object controller = loader.getController();
+            // Pass user object to the controller, then load its data
+            Object controller = view.controller();
             if (controller instanceof UserDashboardController userController) {
                 userController.setCurrentUser(user);
                 
                 // Check if user has an associated member record and set member ID
                 userController.loadMembershipStatus();
+                userController.loadCatalog();
             } else if (controller instanceof AdminDashboardController adminController) {
                 adminController.setCurrentAdminId(user.getId());
-            } else if (controller instanceof MemberDashboardController) {
-                // Set member-specific data if needed in the future
+                adminController.loadData();
+            } else if (controller instanceof MemberDashboardController memberController) {
+                memberController.loadData();
             }
             
             primaryStage.setScene(scene);
             primaryStage.setTitle("NovaBook - Dashboard " + userType + " (" + user.getName() + ")");
+            StartupMetrics.dashboardShown(userType, view.preloaded());
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -0,0 +1,116 @@
+package com.codeup.booknova.ui;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+/**
+ * Dashboard views parsed ahead of time.
+ * <p>
+ * {@link #preload(String)} parses an FXML file and runs its controller's
+ * {@code initialize()} before the view is needed; {@link #take(String)} hands
+ * the parsed view out and starts parsing the next one. Each view is used
+ * once, so a later login never sees the previous user's controller state.
+ * Controllers must therefore not load data in {@code initialize()}; the
+ * caller does that after {@code take}.
+ * </p>
+ * <p>
+ * Views are parsed on the given executor. The application passes
+ * {@code Platform::runLater}, so parsing happens on the FX thread between
+ * pulses of the login screen: some controls, such as {@code ComboBox}, must
+ * not be created elsewhere.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class SceneCache {
+    private static final Logger logger = Logger.getLogger(SceneCache.class.getName());
+
+    /**
+     * A parsed FXML view.
+     *
+     * @param root the root node
+     * @param controller the controller, or {@code null}
+     * @param preloaded whether it came from the cache
+     */
+    public record View(Parent root, Object controller, boolean preloaded) {}
+
+    private final Executor executor;
+    private final boolean enabled;
+    private final Map<String, CompletableFuture<View>> views = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache.
+     *
+     * @param executor parses the views
+     * @param enabled {@code false} to parse every view on demand
+     */
+    public SceneCache(Executor executor, boolean enabled) {
+        this.executor = executor;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts parsing a view unless one is already parsed or being parsed.
+     *
+     * @param fxml the resource path, e.g. {@code /fxml/user-dashboard.fxml}
+     * @return completes when the view is parsed
+     */
+    public CompletableFuture<View> preload(String fxml) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return views.computeIfAbsent(fxml, f -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return load(f, true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor));
+    }
+
+    /**
+     * Returns the preloaded view, or parses it now if it was not preloaded or
+     * its preload failed, and starts preloading the next one.
+     * <p>Must be called on the FX thread.</p>
+     *
+     * @param fxml the resource path
+     * @return the view
+     * @throws IOException if the view cannot be parsed
+     */
+    public View take(String fxml) throws IOException {
+        CompletableFuture<View> pending = views.remove(fxml);
+        View view = null;
+        // a preload queued behind this call on the FX thread would never finish, so only use a done one
+        if (pending != null && pending.isDone()) {
+            try {
+                view = pending.join();
+            } catch (CompletionException e) {
+                logger.log(Level.WARNING, "Preloading " + fxml + " failed", e.getCause());
+            }
+        }
+        if (view == null) {
+            view = load(fxml, false);
+        }
+        preload(fxml);
+        return view;
+    }
+
+    private static View load(String fxml, boolean preloaded) throws IOException {
+        long start = System.nanoTime();
+        FXMLLoader loader = new FXMLLoader(SceneCache.class.getResource(fxml));
+        Parent root = loader.load();
+        logger.log(Level.FINE, "Parsed {0} in {1} ms", new Object[]{fxml, (System.nanoTime() - start) / 1_000_000});
+        return new View(root, loader.getController(), preloaded);
+    }
+}
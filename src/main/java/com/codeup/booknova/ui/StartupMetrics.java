@@ -0,0 +1,65 @@
+package com.codeup.booknova.ui;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Startup timings of the desktop client.
+ * <ul>
+ * <li>time to login screen - from JVM start until the login window is shown</li>
+ * <li>time to dashboard - from the login button until the dashboard is shown,
+ *     authentication included</li>
+ * </ul>
+ * <p>Both are logged at INFO and kept for the last occurrence.</p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class StartupMetrics {
+    private static final Logger logger = Logger.getLogger(StartupMetrics.class.getName());
+
+    private static volatile long timeToLoginScreenMillis = -1;
+    private static volatile long timeToDashboardMillis = -1;
+    private static volatile long loginSubmittedNanos;
+
+    private StartupMetrics() {}
+
+    /** Records that the login window is now showing. */
+    public static void loginScreenShown() {
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        timeToLoginScreenMillis = System.currentTimeMillis() - jvmStart;
+        logger.log(Level.INFO, "Time to login screen: {0} ms", timeToLoginScreenMillis);
+    }
+
+    /** Records that the user pressed the login button. */
+    public static void loginSubmitted() {
+        loginSubmittedNanos = System.nanoTime();
+    }
+
+    /**
+     * Records that a dashboard is now showing.
+     *
+     * @param dashboard the dashboard type
+     * @param preloaded whether its view came from the {@link SceneCache}
+     */
+    public static void dashboardShown(String dashboard, boolean preloaded) {
+        if (loginSubmittedNanos == 0) {
+            return;
+        }
+        timeToDashboardMillis = (System.nanoTime() - loginSubmittedNanos) / 1_000_000;
+        loginSubmittedNanos = 0;
+        logger.log(Level.INFO, "Time to {0} dashboard: {1} ms (view preloaded: {2})",
+                new Object[]{dashboard, timeToDashboardMillis, preloaded});
+    }
+
+    /** @return the last time to login screen in ms, or -1 */
+    public static long getTimeToLoginScreenMillis() {
+        return timeToLoginScreenMillis;
+    }
+
+    /** @return the last time to dashboard in ms, or -1 */
+    public static long getTimeToDashboardMillis() {
+        return timeToDashboardMillis;
+    }
+}
@@ -1,11 +1,20 @@
 package com.codeup.booknova.ui.controller;
 
+import com.codeup.booknova.analytics.BookLoanCount;
 import com.codeup.booknova.domain.*;
+import com.codeup.booknova.infra.jfr.RecordingControl;
+import com.codeup.booknova.infra.snapshot.LocalSnapshotStore;
+import com.codeup.booknova.infra.snapshot.SnapshotCodec;
+import com.codeup.booknova.infra.snapshot.SnapshotFile.Snapshot;
+import com.codeup.booknova.repository.ChangeSet;
 import com.codeup.booknova.ui.NovaBookApplication;
 import com.codeup.booknova.ui.model.*;
+import com.codeup.booknova.ui.service.DeltaSnapshot;
+import com.codeup.booknova.ui.service.RowList;
 import com.codeup.booknova.ui.service.ServiceManager;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.codeup.booknova.ui.service.TableState;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -14,23 +23,45 @@ import javafx.stage.Stage;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Controller for the Admin Dashboard view
  */
 public class AdminDashboardController {
+    private static final Logger logger = Logger.getLogger(AdminDashboardController.class.getName());
     
     @FXML private TabPane mainTabPane;
     @FXML private TableView<UserTableModel> usersTable;
     @FXML private TableView<BookTableModel> booksTable;
-    @FXML private TableView<String> loansTable;
+    @FXML private TableView<Loan> loansTable;
     @FXML private TableView<MembershipRequestTableModel> membershipRequestsTable;
+    @FXML private Label kpiLoansToday;
+    @FXML private Label kpiLoansMonth;
+    @FXML private Label kpiActiveMembers;
+    @FXML private Label kpiOverdueRate;
+    @FXML private Label kpiTopBook;
+    @FXML private Button recordingButton;
     
     private ServiceManager serviceManager;
-    private ObservableList<UserTableModel> usersList;
-    private ObservableList<BookTableModel> booksList;
-    private ObservableList<MembershipRequestTableModel> membershipRequestsList;
+    // Refreshes reach each table as one change (see DeltaSnapshot.applyInto)
+    private final RowList<UserTableModel> usersList = new RowList<>();
+    private final RowList<BookTableModel> booksList = new RowList<>();
+    private final RowList<Loan> loansList = new RowList<>();
+    private final RowList<MembershipRequestTableModel> membershipRequestsList = new RowList<>();
+    // Local copies refreshed with deltas; a refresh only reads rows changed since the last one
+    private final DeltaSnapshot<User> usersSnapshot = new DeltaSnapshot<>(User::getId);
+    private final DeltaSnapshot<Book> booksSnapshot = new DeltaSnapshot<>(Book::getId);
+    private final DeltaSnapshot<Loan> loansSnapshot = new DeltaSnapshot<>(Loan::getId);
+    private final DeltaSnapshot<MembershipRequest> requestsSnapshot = new DeltaSnapshot<>(MembershipRequest::getId);
     private Integer currentAdminId; // ID of the current admin user
     
     /**
@@ -45,16 +76,11 @@ public class AdminDashboardController {
     @FXML
     private void initialize() {
         serviceManager = ServiceManager.getInstance();
-        usersList = FXCollections.observableArrayList();
-        booksList = FXCollections.observableArrayList();
-        membershipRequestsList = FXCollections.observableArrayList();
         
         setupUsersTable();
         setupBooksTable();
         setupLoansTable();
         setupMembershipRequestsTable();
-        
-        loadData();
     }
     
     @SuppressWarnings("unchecked")
@@ -123,19 +149,42 @@ public class AdminDashboardController {
         }
     }
     
+    /**
+     * Shows the loans of the snapshot as they are; each cell reads its value
+     * from the {@link Loan}, so rows carry no properties of their own.
+     */
+    @SuppressWarnings("unchecked")
     private void setupLoansTable() {
         if (loansTable != null) {
             loansTable.getColumns().clear();
-            // TODO: Implement proper loan table columns when loan management is needed
-            // For now, show a simple message column
-            TableColumn<String, String> messageCol = new TableColumn<>("Loan Management");
-            messageCol.setPrefWidth(800);
-            messageCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue()));
-            loansTable.getColumns().add(messageCol);
-            
-            // Add placeholder message
-            loansTable.getItems().clear();
-            loansTable.getItems().add("Loan management feature - Coming soon");
+            
+            TableColumn<Loan, Integer> idCol = new TableColumn<>("ID");
+            idCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getId()));
+            idCol.setPrefWidth(50);
+            
+            TableColumn<Loan, Integer> memberCol = new TableColumn<>("Member");
+            memberCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getMemberId()));
+            memberCol.setPrefWidth(100);
+            
+            TableColumn<Loan, Integer> bookCol = new TableColumn<>("Book");
+            bookCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getBookId()));
+            bookCol.setPrefWidth(100);
+            
+            TableColumn<Loan, LocalDate> loanedCol = new TableColumn<>("Loaned");
+            loanedCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getDateLoaned()));
+            loanedCol.setPrefWidth(120);
+            
+            TableColumn<Loan, LocalDate> dueCol = new TableColumn<>("Due");
+            dueCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getDateDue()));
+            dueCol.setPrefWidth(120);
+            
+            TableColumn<Loan, String> statusCol = new TableColumn<>("Status");
+            statusCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(
+                Boolean.TRUE.equals(cell.getValue().getReturned()) ? "Returned" : "Active"));
+            statusCol.setPrefWidth(100);
+            
+            loansTable.getColumns().addAll(idCol, memberCol, bookCol, loanedCol, dueCol, statusCol);
+            loansTable.setItems(loansList);
         }
     }
     
@@ -169,30 +218,98 @@ public class AdminDashboardController {
         }
     }
     
-    private void loadData() {
-        loadUsers();
-        loadBooks();
+    /**
+     * Loads every table. Called once the view is shown, since the view may be
+     * parsed ahead of time.
+     */
+    public void loadData() {
+        // Users and books start from the copies saved by the last session
+        if (!restore(usersTable, usersSnapshot, usersList, LocalSnapshotStore.USERS_FILE, LocalSnapshotStore.USERS,
+                this::toUserRow, UserTableModel::getId, serviceManager.getUserService()::getUsersChangedSince,
+                "Users")) {
+            loadUsers();
+        }
+        if (!restore(booksTable, booksSnapshot, booksList, LocalSnapshotStore.BOOKS_FILE, LocalSnapshotStore.BOOKS,
+                this::toBookRow, BookTableModel::getId, serviceManager.getBookService()::getBooksChangedSince,
+                "The books")) {
+            loadBooks();
+        }
         loadLoans();
         loadMembershipRequests();
+        loadKpis();
+    }
+    
+    /**
+     * Fills the KPI tiles from the analytics rollups, off the FX thread.
+     * The tiles keep showing "-" if the rollups cannot be read.
+     */
+    private void loadKpis() {
+        serviceManager.getServiceExecutor()
+            .submit(() -> serviceManager.getCirculationAnalytics().kpis(LocalDate.now()))
+            .whenComplete((kpis, error) -> Platform.runLater(() -> {
+                if (error != null) {
+                    logger.log(Level.WARNING, "Could not load circulation KPIs", error);
+                    return;
+                }
+                kpiLoansToday.setText(String.valueOf(kpis.loansToday()));
+                kpiLoansMonth.setText(String.valueOf(kpis.loansThisMonth()));
+                kpiActiveMembers.setText(String.valueOf(kpis.activeMembersThisMonth()));
+                kpiOverdueRate.setText(String.format("%.1f %%", kpis.overdueRate() * 100));
+                BookLoanCount top = kpis.topBook();
+                kpiTopBook.setText(top == null ? "-"
+                    : (top.title() != null ? top.title() : "#" + top.bookId()) + " (" + top.loans() + ")");
+            }));
+    }
+    
+    /**
+     * Shows the rows saved by the last session, then applies the rows changed
+     * since then in the background and saves the result.
+     *
+     * @return {@code true} if saved rows were shown
+     */
+    private <T, R> boolean restore(TableView<R> table, DeltaSnapshot<T> snapshot, List<R> target,
+                                   String name, SnapshotCodec<T> codec,
+                                   Function<T, R> toRow, Function<R, Integer> rowKey,
+                                   Function<Instant, ChangeSet<T>> source, String what) {
+        Optional<Snapshot<T>> saved = serviceManager.getSnapshotStore().load(name, codec);
+        if (saved.isEmpty() || saved.get().watermark() == null) {
+            return false;
+        }
+        snapshot.restoreInto(target, saved.get().rows(), saved.get().watermark(), toRow);
+        
+        serviceManager.getServiceExecutor()
+            .submit(() -> snapshot.fetch(source))
+            .whenComplete((changes, error) -> Platform.runLater(() -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    showAlert("Error", what + " could not be loaded: " + cause.getMessage());
+                    return;
+                }
+                TableState.preserve(table, rowKey, () -> snapshot.applyInto(target, changes, toRow, rowKey));
+                save(snapshot, name, codec, changes);
+            }));
+        return true;
+    }
+    
+    /**
+     * Saves a snapshot for the next start, off the FX thread, if anything changed.
+     */
+    private <T> void save(DeltaSnapshot<T> snapshot, String name, SnapshotCodec<T> codec, ChangeSet<T> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<T> rows = List.copyOf(snapshot.values());
+        Instant watermark = snapshot.getWatermark();
+        serviceManager.getServiceExecutor().execute(() -> serviceManager.getSnapshotStore()
+            .save(name, codec, rows, watermark));
     }
     
     private void loadUsers() {
         try {
-            List<User> users = serviceManager.getUserService().getAllUsers();
-            usersList.clear();
-            
-            for (User user : users) {
-                UserTableModel model = new UserTableModel(
-                    user.getId(),
-                    user.getName(),
-                    user.getEmail(),
-                    user.getPhone(),
-                    user.getRole() != null ? user.getRole().toString() : "USER",
-                    user.getAccessLevel() != null ? user.getAccessLevel().toString() : "READ_WRITE",
-                    user.getActive()
-                );
-                usersList.add(model);
-            }
+            ChangeSet<User> changes = usersSnapshot.fetch(serviceManager.getUserService()::getUsersChangedSince);
+            TableState.preserve(usersTable, UserTableModel::getId,
+                () -> usersSnapshot.applyInto(usersList, changes, this::toUserRow, UserTableModel::getId));
+            save(usersSnapshot, LocalSnapshotStore.USERS_FILE, LocalSnapshotStore.USERS, changes);
         } catch (Exception e) {
             showAlert("Error", "Users could not be loaded: " + e.getMessage());
         }
@@ -200,37 +317,44 @@ public class AdminDashboardController {
     
     private void loadBooks() {
         try {
-            List<Book> books = serviceManager.getBookService().getAllBooks();
-            booksList.clear();
-            
-            for (Book book : books) {
-                BookTableModel model = new BookTableModel(
-                    book.getId(),
-                    book.getTitle(),
-                    book.getAuthor(),
-                    book.getIsbn(),
-                    "No genre", // Book doesn't have genre field
-                    book.getStock(), // total copies
-                    book.getStock()  // available copies (simplified)
-                );
-                booksList.add(model);
-            }
+            ChangeSet<Book> changes = booksSnapshot.fetch(serviceManager.getBookService()::getBooksChangedSince);
+            TableState.preserve(booksTable, BookTableModel::getId,
+                () -> booksSnapshot.applyInto(booksList, changes, this::toBookRow, BookTableModel::getId));
+            save(booksSnapshot, LocalSnapshotStore.BOOKS_FILE, LocalSnapshotStore.BOOKS, changes);
         } catch (Exception e) {
             showAlert("Error", "The books could not be loaded.: " + e.getMessage());
         }
     }
     
+    private UserTableModel toUserRow(User user) {
+        return new UserTableModel(
+            user.getId(),
+            user.getName(),
+            user.getEmail(),
+            user.getPhone(),
+            user.getRole() != null ? user.getRole().toString() : "USER",
+            user.getAccessLevel() != null ? user.getAccessLevel().toString() : "READ_WRITE",
+            user.getActive()
+        );
+    }
+    
+    private BookTableModel toBookRow(Book book) {
+        return new BookTableModel(
+            book.getId(),
+            book.getTitle(),
+            book.getAuthor(),
+            book.getIsbn(),
+            "No genre", // Book doesn't have genre field
+            book.getStock(), // total copies
+            book.getStock()  // available copies (simplified)
+        );
+    }
+    
     private void loadLoans() {
         try {
-            List<Loan> loans = serviceManager.getLoanService().getAllLoans();
-            loansTable.getItems().clear();
-            
-            for (Loan loan : loans) {
-                String loanInfo = String.format("ID: %d - Member: %d - Book: %d - Status: %s",
-                    loan.getId(), loan.getMemberId(), loan.getBookId(), 
-                    loan.getReturned() ? "Returned" : "Active");
-                loansTable.getItems().add(loanInfo);
-            }
+            ChangeSet<Loan> changes = loansSnapshot.fetch(serviceManager.getLoanService()::getLoansChangedSince);
+            TableState.preserve(loansTable, Loan::getId,
+                () -> loansSnapshot.applyInto(loansList, changes, Function.identity(), Loan::getId));
         } catch (Exception e) {
             showAlert("Error", "Loans could not be loaded: " + e.getMessage());
         }
@@ -238,28 +362,30 @@ public class AdminDashboardController {
     
     private void loadMembershipRequests() {
         try {
-            List<MembershipRequest> requests = serviceManager.getMembershipRequestService().getAllRequests();
-            membershipRequestsList.clear();
-            
-            for (MembershipRequest request : requests) {
-                String requestDate = request.getRequestedAt() != null 
-                    ? request.getRequestedAt().toString().substring(0, 19).replace('T', ' ')
-                    : "N/A";
-                
-                MembershipRequestTableModel model = new MembershipRequestTableModel(
-                    request.getId(),
-                    request.getUserName(),
-                    request.getUserEmail(),
-                    request.getStatus(),
-                    requestDate
-                );
-                membershipRequestsList.add(model);
-            }
+            ChangeSet<MembershipRequest> changes = requestsSnapshot.fetch(
+                serviceManager.getMembershipRequestService()::getRequestsChangedSince);
+            TableState.preserve(membershipRequestsTable, MembershipRequestTableModel::getId,
+                () -> requestsSnapshot.applyInto(membershipRequestsList, changes, this::toRequestRow,
+                    MembershipRequestTableModel::getId));
         } catch (Exception e) {
             showAlert("Error", "Failed to load membership requests: " + e.getMessage());
         }
     }
     
+    private MembershipRequestTableModel toRequestRow(MembershipRequest request) {
+        String requestDate = request.getRequestedAt() != null 
+            ? request.getRequestedAt().toString().substring(0, 19).replace('T', ' ')
+            : "N/A";
+        
+        return new MembershipRequestTableModel(
+            request.getId(),
+            request.getUserName(),
+            request.getUserEmail(),
+            request.getStatus(),
+            requestDate
+        );
+    }
+    
     @FXML
     private void handleAddUser() {
         try {
@@ -511,7 +637,7 @@ public class AdminDashboardController {
     
     /**
      * Handles the refresh books button action.
-     * Reloads all books from the database.
+     * Applies the books changed since the last refresh.
      */
     @FXML
     private void handleRefreshBooks() {
@@ -623,6 +749,24 @@ public class AdminDashboardController {
         showAlert("Success", "Membership requests table refreshed");
     }
     
+    @FXML
+    private void handleToggleRecording() {
+        RecordingControl recording = serviceManager.getRecordingControl();
+        try {
+            if (recording.isRecording()) {
+                Path file = recording.stop();
+                showAlert("Recording Saved", "Flight recording written to " + file);
+            } else {
+                Path file = recording.start();
+                showAlert("Recording Started", "Recording service calls and statements; stop it to write " + file);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Flight recording failed", e);
+            showAlert("Error", "Flight recording failed: " + e.getMessage());
+        }
+        recordingButton.setText(recording.isRecording() ? "Stop Recording" : "Start Recording");
+    }
+    
     @FXML
     private void handleLogout() {
         NovaBookApplication.showLoginView();
@@ -2,6 +2,7 @@ package com.codeup.booknova.ui.controller;
 
 import com.codeup.booknova.domain.User;
 import com.codeup.booknova.ui.NovaBookApplication;
+import com.codeup.booknova.ui.StartupMetrics;
 import com.codeup.booknova.ui.service.ServiceManager;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -34,6 +35,7 @@ public class LoginController {
     
     @FXML
     private void handleLogin() {
+        StartupMetrics.loginSubmitted();
         String email = usernameField.getText();
         String password = passwordField.getText();
         
@@ -31,7 +31,6 @@ public class MemberDashboardController {
         
         setupAvailableBooksTable();
         setupMyLoansTable();
-        loadData();
     }
     
     /**
@@ -89,7 +88,11 @@ public class MemberDashboardController {
         }
     }
     
-    private void loadData() {
+    /**
+     * Loads the books and the member's loans. Called once the view is shown,
+     * since the view may be parsed ahead of time.
+     */
+    public void loadData() {
         loadAvailableBooks();
         loadMyLoans();
     }
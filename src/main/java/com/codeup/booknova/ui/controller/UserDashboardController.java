@@ -2,23 +2,40 @@ package com.codeup.booknova.ui.controller;
 
 import com.codeup.booknova.domain.Book;
 import com.codeup.booknova.domain.User;
+import com.codeup.booknova.infra.snapshot.LocalSnapshotStore;
+import com.codeup.booknova.infra.snapshot.SnapshotFile.Snapshot;
+import com.codeup.booknova.infra.trace.Span;
+import com.codeup.booknova.infra.trace.Tracer;
+import com.codeup.booknova.repository.ChangeSet;
+import com.codeup.booknova.search.Suggestion;
 import com.codeup.booknova.ui.NovaBookApplication;
 import com.codeup.booknova.ui.model.BookTableModel;
+import com.codeup.booknova.ui.service.DeltaSnapshot;
+import com.codeup.booknova.ui.service.RowList;
 import com.codeup.booknova.ui.service.ServiceManager;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.codeup.booknova.ui.service.TableState;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.geometry.Side;
 import javafx.scene.control.*;
 import javafx.scene.control.ButtonBar;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.util.Duration;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller for the User Dashboard view.
  * Handles user catalog browsing, book search, and book details display.
  */
 public class UserDashboardController {
+    private static final int SUGGESTION_LIMIT = 8;
+    private static final Duration SUGGESTION_DELAY = Duration.millis(150);
     
     @FXML private TableView<BookTableModel> catalogTable;
     @FXML private TextField searchField;
@@ -28,12 +45,24 @@ public class UserDashboardController {
     @FXML private Button requestLoanButton;
     
     private ServiceManager serviceManager;
-    private ObservableList<BookTableModel> booksList;
-    private ObservableList<BookTableModel> allBooks;
+    // The table shows either the whole catalog or the results of a search or filter
+    private final RowList<BookTableModel> allBooks = new RowList<>();
+    private final RowList<BookTableModel> booksList = new RowList<>();
+    private final DeltaSnapshot<Book> booksSnapshot = new DeltaSnapshot<>(Book::getId);
     private Integer currentMemberId; // Member ID for the logged-in user
     private BookTableModel selectedBook; // Currently selected book
     private User currentUser; // Currently logged-in user
     
+    // Suggestions are looked up once typing pauses; a newer keystroke makes older lookups stale
+    private final ContextMenu suggestionsMenu = new ContextMenu();
+    private final PauseTransition suggestionDelay = new PauseTransition(SUGGESTION_DELAY);
+    private volatile long suggestionGeneration;
+    private CompletableFuture<List<Suggestion>> pendingSuggestions;
+    private boolean choosingSuggestion;
+    // Index updates run one after another, in the order the catalog changed
+    private CompletableFuture<Void> indexing = CompletableFuture.completedFuture(null);
+    private boolean suggestionsBuilt;
+    
     /**
      * Sets the current logged-in user
      * 
@@ -63,12 +92,16 @@ public class UserDashboardController {
             return;
         }
         
+        Span span = Tracer.startSpan("UserDashboardController.loadMembershipStatus")
+                .setAttribute("user.id", currentUser.getId());
+        boolean looked = false;
         try {
             // Try to find member by user_id first
             var memberOptional = serviceManager.getMemberService().findMemberByUserId(currentUser.getId());
             
             // If not found by user_id, try searching by name as fallback
             if (memberOptional.isEmpty()) {
+                span.setAttribute("member.lookup", "name");
                 var membersList = serviceManager.getMemberService().searchMembersByName(currentUser.getName());
                 
                 // Find exact match by name
@@ -76,6 +109,9 @@ public class UserDashboardController {
                     .filter(m -> m.getName().equalsIgnoreCase(currentUser.getName()))
                     .findFirst();
             }
+            // ended before the welcome alert, which waits for the user
+            looked = true;
+            span.setAttribute("member.found", memberOptional.isPresent()).end(true);
             
             if (memberOptional.isPresent()) {
                 var member = memberOptional.get();
@@ -96,22 +132,35 @@ public class UserDashboardController {
             // This prevents errors if user_id column doesn't exist yet
             System.err.println("Error loading membership status: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            if (!looked) {
+                span.end(false);
+            }
         }
     }
     
     /**
      * Initializes the controller after FXML loading.
-     * Sets up the table, loads data, and configures listeners.
+     * Sets up the table and configures listeners; the catalog is loaded by
+     * {@link #loadCatalog()} once the view is shown, since the view may be
+     * parsed ahead of time.
      */
     @FXML
     private void initialize() {
         serviceManager = ServiceManager.getInstance();
-        booksList = FXCollections.observableArrayList();
-        allBooks = FXCollections.observableArrayList();
         
         setupTable();
         setupSearchType();
-        loadBooks();
+        setupSuggestions();
+    }
+    
+    /**
+     * Shows the catalog, from the copy saved by the last session when there is one.
+     */
+    public void loadCatalog() {
+        if (!restoreBooks()) {
+            loadBooks();
+        }
     }
     
     /**
@@ -149,7 +198,7 @@ public class UserDashboardController {
             
             // Add columns in the correct order: ID, ISBN, Title, Author, Available
             catalogTable.getColumns().addAll(idColumn, isbnColumn, titleColumn, authorColumn, stockColumn);
-            catalogTable.setItems(booksList);
+            catalogTable.setItems(allBooks);
             
             // Add selection listener to show book details
             catalogTable.getSelectionModel().selectedItemProperty().addListener(
@@ -173,29 +222,168 @@ public class UserDashboardController {
     }
     
     /**
-     * Loads all books from the database and displays them in the table.
+     * Suggests titles, authors and ISBNs while the user types in the search field.
      */
-    private void loadBooks() {
+    private void setupSuggestions() {
+        if (searchField == null) {
+            return;
+        }
+        suggestionDelay.setOnFinished(e -> suggest(searchField.getText()));
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (!choosingSuggestion) {
+                suggestionDelay.playFromStart();
+            }
+        });
+        searchField.focusedProperty().addListener((observable, oldValue, focused) -> {
+            if (!focused && !suggestionsMenu.isFocused()) {
+                suggestionDelay.stop();
+                suggestionsMenu.hide();
+            }
+        });
+    }
+    
+    /**
+     * Looks up suggestions for the typed text in the background, dropping the
+     * lookup still running for earlier text.
+     */
+    private void suggest(String text) {
+        long generation = ++suggestionGeneration;
+        if (pendingSuggestions != null) {
+            pendingSuggestions.cancel(false);
+        }
+        if (text == null || text.isBlank()) {
+            suggestionsMenu.hide();
+            return;
+        }
+        pendingSuggestions = serviceManager.getServiceExecutor().submit(() -> generation == suggestionGeneration
+            ? serviceManager.getSuggestionIndex().suggest(text, SUGGESTION_LIMIT) : List.<Suggestion>of());
+        pendingSuggestions.whenComplete((suggestions, error) -> Platform.runLater(() -> {
+            if (error == null && generation == suggestionGeneration) {
+                showSuggestions(suggestions);
+            }
+        }));
+    }
+    
+    private void showSuggestions(List<Suggestion> suggestions) {
+        if (suggestions.isEmpty() || !searchField.isFocused()) {
+            suggestionsMenu.hide();
+            return;
+        }
+        List<MenuItem> items = suggestions.stream().map(suggestion -> {
+            MenuItem item = new MenuItem(suggestion.text() + "  —  " + suggestion.detail());
+            item.setMnemonicParsing(false);
+            item.setOnAction(e -> chooseSuggestion(suggestion));
+            return item;
+        }).toList();
+        suggestionsMenu.getItems().setAll(items);
+        if (!suggestionsMenu.isShowing()) {
+            suggestionsMenu.show(searchField, Side.BOTTOM, 0, 0);
+        }
+    }
+    
+    /**
+     * Shows a chosen title or ISBN selected in the catalog, or a chosen author's books.
+     */
+    private void chooseSuggestion(Suggestion suggestion) {
+        suggestionDelay.stop();
+        suggestionGeneration++;
+        suggestionsMenu.hide();
+        choosingSuggestion = true;
         try {
-            List<Book> books = serviceManager.getBookService().getAllBooks();
-            booksList.clear();
-            allBooks.clear();
-            
-            for (Book book : books) {
-                BookTableModel model = new BookTableModel(
-                    book.getId(),
-                    book.getTitle(),
-                    book.getAuthor(),
-                    book.getIsbn(),
-                    "", // Genre not available in Book entity
-                    book.getStock(), // Total copies
-                    book.getStock()  // Available copies (simplified - same as total)
-                );
-                booksList.add(model);
-                allBooks.add(model);
+            searchField.setText(suggestion.text());
+            searchField.positionCaret(suggestion.text().length());
+        } finally {
+            choosingSuggestion = false;
+        }
+        if (suggestion.field() == Suggestion.Field.AUTHOR) {
+            searchTypeComboBox.getSelectionModel().select("Author");
+            showResults(booksSnapshot.values().stream()
+                .filter(book -> suggestion.text().equalsIgnoreCase(book.getAuthor()))
+                .toList());
+            bookDetailsArea.clear();
+            return;
+        }
+        searchTypeComboBox.getSelectionModel().select(suggestion.field() == Suggestion.Field.ISBN ? "ISBN" : "Title");
+        showAllBooks();
+        for (int i = 0; i < allBooks.size(); i++) {
+            if (suggestion.bookId().equals(allBooks.get(i).getId())) {
+                catalogTable.getSelectionModel().clearAndSelect(i);
+                catalogTable.scrollTo(i);
+                return;
             }
+        }
+    }
+    
+    /**
+     * Brings the suggestion index up to date with catalog changes in the
+     * background: built from the whole catalog the first time, then updated
+     * with just the changed books.
+     */
+    private void indexBooks(ChangeSet<Book> changes) {
+        Runnable update;
+        if (!suggestionsBuilt) {
+            suggestionsBuilt = true;
+            List<Book> catalog = List.copyOf(booksSnapshot.values());
+            update = () -> serviceManager.rebuildSuggestions(catalog);
+        } else if (!changes.isEmpty()) {
+            update = () -> serviceManager.getSuggestionIndex().apply(changes);
+        } else {
+            return;
+        }
+        indexing = indexing
+            .thenCompose(done -> serviceManager.getServiceExecutor().execute(update))
+            .exceptionally(error -> {
+                System.err.println("Error updating search suggestions: " + error.getMessage());
+                return null;
+            });
+    }
+    
+    /**
+     * Shows the catalog saved by the last session, then applies the books
+     * changed since then in the background.
+     *
+     * @return {@code true} if a saved catalog was shown
+     */
+    private boolean restoreBooks() {
+        Optional<Snapshot<Book>> saved = serviceManager.getSnapshotStore()
+            .load(LocalSnapshotStore.BOOKS_FILE, LocalSnapshotStore.BOOKS);
+        if (saved.isEmpty() || saved.get().watermark() == null) {
+            return false;
+        }
+        booksSnapshot.restoreInto(allBooks, saved.get().rows(), saved.get().watermark(), this::toRow);
+        indexBooks(new ChangeSet<>(List.of(), List.of(), saved.get().watermark()));
+        
+        serviceManager.getServiceExecutor()
+            .submit(() -> booksSnapshot.fetch(serviceManager.getBookService()::getBooksChangedSince))
+            .whenComplete((changes, error) -> Platform.runLater(() -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    showAlert("Error", "Could not refresh books: " + cause.getMessage());
+                    return;
+                }
+                TableState.preserve(catalogTable, BookTableModel::getId,
+                    () -> booksSnapshot.applyInto(allBooks, changes, this::toRow, BookTableModel::getId));
+                saveBooks(changes);
+                indexBooks(changes);
+            }));
+        return true;
+    }
+    
+    /**
+     * Loads the catalog and displays it in the table. The first call reads
+     * every book; later calls apply only the books changed since then.
+     */
+    private void loadBooks() {
+        try {
+            // Only the books changed since the last refresh are read
+            ChangeSet<Book> changes = booksSnapshot.fetch(serviceManager.getBookService()::getBooksChangedSince);
+            showAllBooks();
+            TableState.preserve(catalogTable, BookTableModel::getId,
+                () -> booksSnapshot.applyInto(allBooks, changes, this::toRow, BookTableModel::getId));
+            saveBooks(changes);
+            indexBooks(changes);
             
-            if (booksList.isEmpty()) {
+            if (allBooks.isEmpty()) {
                 showAlert("Information", "No books available in the catalog.");
             }
         } catch (Exception e) {
@@ -203,6 +391,50 @@ public class UserDashboardController {
         }
     }
     
+    /**
+     * Saves the catalog for the next start, off the FX thread, if anything changed.
+     */
+    private void saveBooks(ChangeSet<Book> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Book> rows = List.copyOf(booksSnapshot.values());
+        Instant watermark = booksSnapshot.getWatermark();
+        serviceManager.getServiceExecutor().execute(() -> serviceManager.getSnapshotStore()
+            .save(LocalSnapshotStore.BOOKS_FILE, LocalSnapshotStore.BOOKS, rows, watermark));
+    }
+    
+    /**
+     * Shows the whole catalog in the table.
+     */
+    private void showAllBooks() {
+        if (catalogTable != null && catalogTable.getItems() != allBooks) {
+            catalogTable.setItems(allBooks);
+        }
+    }
+    
+    /**
+     * Shows the given books, e.g. search results, in the table instead of the catalog.
+     */
+    private void showResults(List<Book> books) {
+        booksList.setAll(books.stream().map(this::toRow).toList());
+        if (catalogTable != null && catalogTable.getItems() != booksList) {
+            catalogTable.setItems(booksList);
+        }
+    }
+    
+    private BookTableModel toRow(Book book) {
+        return new BookTableModel(
+            book.getId(),
+            book.getTitle(),
+            book.getAuthor(),
+            book.getIsbn(),
+            "", // Genre not available in Book entity
+            book.getStock(), // Total copies
+            book.getStock()  // Available copies (simplified - same as total)
+        );
+    }
+    
     /**
      * Displays detailed information about the selected book.
      * Also enables/disables the request loan button based on availability and membership status.
@@ -253,11 +485,13 @@ public class UserDashboardController {
      */
     @FXML
     private void handleSearch() {
+        suggestionDelay.stop();
+        suggestionsMenu.hide();
         String searchTerm = searchField.getText().trim();
         
         if (searchTerm.isEmpty()) {
             // If search is empty, show all books
-            booksList.setAll(allBooks);
+            showAllBooks();
             bookDetailsArea.clear();
             return;
         }
@@ -284,20 +518,7 @@ public class UserDashboardController {
                 default -> searchResults = List.of();
             }
             
-            // Convert to BookTableModel
-            booksList.clear();
-            for (Book book : searchResults) {
-                BookTableModel model = new BookTableModel(
-                    book.getId(),
-                    book.getTitle(),
-                    book.getAuthor(),
-                    book.getIsbn(),
-                    "",
-                    book.getStock(),
-                    book.getStock()
-                );
-                booksList.add(model);
-            }
+            showResults(searchResults);
             
             if (booksList.isEmpty()) {
                 showAlert("Search Results", 
@@ -316,7 +537,7 @@ public class UserDashboardController {
     
     /**
      * Handles the refresh button action.
-     * Reloads all books from the database.
+     * Applies the books changed since the last refresh.
      */
     @FXML
     private void handleRefresh() {
@@ -435,20 +656,7 @@ public class UserDashboardController {
     private void handleViewAvailableOnly() {
         try {
             List<Book> availableBooks = serviceManager.getBookService().getAvailableBooks();
-            booksList.clear();
-            
-            for (Book book : availableBooks) {
-                BookTableModel model = new BookTableModel(
-                    book.getId(),
-                    book.getTitle(),
-                    book.getAuthor(),
-                    book.getIsbn(),
-                    "",
-                    book.getStock(),
-                    book.getStock()
-                );
-                booksList.add(model);
-            }
+            showResults(availableBooks);
             
             showAlert("Available Books", 
                 String.format("Showing %d available book(s).", booksList.size()));
@@ -475,7 +683,7 @@ public class UserDashboardController {
     private void handleClearSearch() {
         searchField.clear();
         bookDetailsArea.clear();
-        booksList.setAll(allBooks);
+        showAllBooks();
     }
     
     /**
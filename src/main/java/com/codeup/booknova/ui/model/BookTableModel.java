@@ -3,65 +3,97 @@ package com.codeup.booknova.ui.model;
 import javafx.beans.property.*;
 
 /**
- * JavaFX Property wrapper for Book entity to use in TableViews
+ * JavaFX Property wrapper for Book entity to use in TableViews.
+ * <p>
+ * Values are kept in plain fields and a property is only created when a
+ * cell asks for it, so a catalog of 100k rows holds properties for the few
+ * rows that were ever on screen rather than eight per book.
+ * </p>
  */
 public class BookTableModel {
-    private final IntegerProperty id;
-    private final StringProperty title;
-    private final StringProperty author;
-    private final StringProperty isbn;
-    private final StringProperty genre;
-    private final IntegerProperty totalCopies;
-    private final IntegerProperty availableCopies;
-    private final BooleanProperty available;
-    
+    private int id;
+    private String title;
+    private String author;
+    private String isbn;
+    private String genre;
+    private int totalCopies;
+    private int availableCopies;
+
+    private IntegerProperty idProperty;
+    private StringProperty titleProperty;
+    private StringProperty authorProperty;
+    private StringProperty isbnProperty;
+    private StringProperty genreProperty;
+    private IntegerProperty totalCopiesProperty;
+    private IntegerProperty availableCopiesProperty;
+    private BooleanProperty availableProperty;
+
     public BookTableModel() {
-        this.id = new SimpleIntegerProperty();
-        this.title = new SimpleStringProperty();
-        this.author = new SimpleStringProperty();
-        this.isbn = new SimpleStringProperty();
-        this.genre = new SimpleStringProperty();
-        this.totalCopies = new SimpleIntegerProperty();
-        this.availableCopies = new SimpleIntegerProperty();
-        this.available = new SimpleBooleanProperty();
+        this(null, null, null, null, null, null, null);
     }
-    
-    public BookTableModel(Integer id, String title, String author, String isbn, 
+
+    public BookTableModel(Integer id, String title, String author, String isbn,
                          String genre, Integer totalCopies, Integer availableCopies) {
-        this();
-        this.id.set(id != null ? id : 0);
-        this.title.set(title != null ? title : "");
-        this.author.set(author != null ? author : "");
-        this.isbn.set(isbn != null ? isbn : "");
-        this.genre.set(genre != null ? genre : "");
-        this.totalCopies.set(totalCopies != null ? totalCopies : 0);
-        this.availableCopies.set(availableCopies != null ? availableCopies : 0);
-        this.available.set(availableCopies != null && availableCopies > 0);
+        this.id = id != null ? id : 0;
+        this.title = title != null ? title : "";
+        this.author = author != null ? author : "";
+        this.isbn = isbn != null ? isbn : "";
+        this.genre = genre != null ? genre : "";
+        this.totalCopies = totalCopies != null ? totalCopies : 0;
+        this.availableCopies = availableCopies != null ? availableCopies : 0;
+    }
+
+    // Property getters, created on first use
+    public IntegerProperty idProperty() {
+        if (idProperty == null) idProperty = new SimpleIntegerProperty(this, "id", id);
+        return idProperty;
+    }
+    public StringProperty titleProperty() {
+        if (titleProperty == null) titleProperty = new SimpleStringProperty(this, "title", title);
+        return titleProperty;
+    }
+    public StringProperty authorProperty() {
+        if (authorProperty == null) authorProperty = new SimpleStringProperty(this, "author", author);
+        return authorProperty;
+    }
+    public StringProperty isbnProperty() {
+        if (isbnProperty == null) isbnProperty = new SimpleStringProperty(this, "isbn", isbn);
+        return isbnProperty;
     }
-    
-    // Property getters
-    public IntegerProperty idProperty() { return id; }
-    public StringProperty titleProperty() { return title; }
-    public StringProperty authorProperty() { return author; }
-    public StringProperty isbnProperty() { return isbn; }
-    public StringProperty genreProperty() { return genre; }
-    public IntegerProperty totalCopiesProperty() { return totalCopies; }
-    public IntegerProperty availableCopiesProperty() { return availableCopies; }
-    public BooleanProperty availableProperty() { return available; }
-    
-    // Value getters
-    public Integer getId() { return id.get(); }
-    public String getTitle() { return title.get(); }
-    public String getAuthor() { return author.get(); }
-    public String getIsbn() { return isbn.get(); }
-    public String getGenre() { return genre.get(); }
-    public Integer getTotalCopies() { return totalCopies.get(); }
-    public Integer getAvailableCopies() { return availableCopies.get(); }
-    public Boolean getAvailable() { return available.get(); }
-    
+    public StringProperty genreProperty() {
+        if (genreProperty == null) genreProperty = new SimpleStringProperty(this, "genre", genre);
+        return genreProperty;
+    }
+    public IntegerProperty totalCopiesProperty() {
+        if (totalCopiesProperty == null) totalCopiesProperty = new SimpleIntegerProperty(this, "totalCopies", totalCopies);
+        return totalCopiesProperty;
+    }
+    public IntegerProperty availableCopiesProperty() {
+        if (availableCopiesProperty == null) {
+            availableCopiesProperty = new SimpleIntegerProperty(this, "availableCopies", availableCopies);
+        }
+        return availableCopiesProperty;
+    }
+    public BooleanProperty availableProperty() {
+        if (availableProperty == null) availableProperty = new SimpleBooleanProperty(this, "available", availableCopies > 0);
+        return availableProperty;
+    }
+
+    // Value getters, from the property once it exists since a cell may have changed it
+    public Integer getId() { return idProperty != null ? idProperty.get() : id; }
+    public String getTitle() { return titleProperty != null ? titleProperty.get() : title; }
+    public String getAuthor() { return authorProperty != null ? authorProperty.get() : author; }
+    public String getIsbn() { return isbnProperty != null ? isbnProperty.get() : isbn; }
+    public String getGenre() { return genreProperty != null ? genreProperty.get() : genre; }
+    public Integer getTotalCopies() { return totalCopiesProperty != null ? totalCopiesProperty.get() : totalCopies; }
+    public Integer getAvailableCopies() {
+        return availableCopiesProperty != null ? availableCopiesProperty.get() : availableCopies;
+    }
+    public Boolean getAvailable() { return availableProperty != null ? availableProperty.get() : availableCopies > 0; }
+
     // Display method for tables
     public String getDisplayText() {
-        return String.format("%s - %s (%s disponibles)", 
-                           title.get(), author.get(), availableCopies.get());
+        return String.format("%s - %s (%s disponibles)",
+                           getTitle(), getAuthor(), getAvailableCopies());
     }
-}
\ No newline at end of file
+}
@@ -3,28 +3,33 @@ package com.codeup.booknova.ui.model;
 import javafx.beans.property.*;
 
 /**
- * JavaFX Property wrapper for User entity to use in TableViews
+ * JavaFX Property wrapper for User entity to use in TableViews.
+ * <p>
+ * Like {@link BookTableModel}, values live in plain fields and a property is
+ * only created when a cell asks for it.
+ * </p>
  */
 public class UserTableModel {
-    private final IntegerProperty id;
-    private final StringProperty name;
-    private final StringProperty email;
-    private final StringProperty phone;
-    private final StringProperty role;
-    private final StringProperty accessLevel;
-    private final BooleanProperty active;
-    
+    private int id;
+    private String name = "";
+    private String email = "";
+    private String phone = "";
+    private String role = "";
+    private String accessLevel = "";
+    private boolean active;
+
+    private IntegerProperty idProperty;
+    private StringProperty nameProperty;
+    private StringProperty emailProperty;
+    private StringProperty phoneProperty;
+    private StringProperty roleProperty;
+    private StringProperty accessLevelProperty;
+    private BooleanProperty activeProperty;
+
     public UserTableModel() {
-        this.id = new SimpleIntegerProperty();
-        this.name = new SimpleStringProperty();
-        this.email = new SimpleStringProperty();
-        this.phone = new SimpleStringProperty();
-        this.role = new SimpleStringProperty();
-        this.accessLevel = new SimpleStringProperty();
-        this.active = new SimpleBooleanProperty();
-    }
-    
-    public UserTableModel(Integer id, String name, String email, String phone, 
+    }
+
+    public UserTableModel(Integer id, String name, String email, String phone,
                          String role, String accessLevel, Boolean active) {
         this();
         setId(id);
@@ -35,31 +40,73 @@ public class UserTableModel {
         setAccessLevel(accessLevel);
         setActive(active != null ? active : false);
     }
-    
-    // Property getters
-    public IntegerProperty idProperty() { return id; }
-    public StringProperty nameProperty() { return name; }
-    public StringProperty emailProperty() { return email; }
-    public StringProperty phoneProperty() { return phone; }
-    public StringProperty roleProperty() { return role; }
-    public StringProperty accessLevelProperty() { return accessLevel; }
-    public BooleanProperty activeProperty() { return active; }
-    
+
+    // Property getters, created on first use
+    public IntegerProperty idProperty() {
+        if (idProperty == null) idProperty = new SimpleIntegerProperty(this, "id", id);
+        return idProperty;
+    }
+    public StringProperty nameProperty() {
+        if (nameProperty == null) nameProperty = new SimpleStringProperty(this, "name", name);
+        return nameProperty;
+    }
+    public StringProperty emailProperty() {
+        if (emailProperty == null) emailProperty = new SimpleStringProperty(this, "email", email);
+        return emailProperty;
+    }
+    public StringProperty phoneProperty() {
+        if (phoneProperty == null) phoneProperty = new SimpleStringProperty(this, "phone", phone);
+        return phoneProperty;
+    }
+    public StringProperty roleProperty() {
+        if (roleProperty == null) roleProperty = new SimpleStringProperty(this, "role", role);
+        return roleProperty;
+    }
+    public StringProperty accessLevelProperty() {
+        if (accessLevelProperty == null) accessLevelProperty = new SimpleStringProperty(this, "accessLevel", accessLevel);
+        return accessLevelProperty;
+    }
+    public BooleanProperty activeProperty() {
+        if (activeProperty == null) activeProperty = new SimpleBooleanProperty(this, "active", active);
+        return activeProperty;
+    }
+
     // Value getters
-    public Integer getId() { return id.get(); }
-    public String getName() { return name.get(); }
-    public String getEmail() { return email.get(); }
-    public String getPhone() { return phone.get(); }
-    public String getRole() { return role.get(); }
-    public String getAccessLevel() { return accessLevel.get(); }
-    public Boolean getActive() { return active.get(); }
-    
-    // Value setters
-    public void setId(Integer id) { this.id.set(id != null ? id : 0); }
-    public void setName(String name) { this.name.set(name != null ? name : ""); }
-    public void setEmail(String email) { this.email.set(email != null ? email : ""); }
-    public void setPhone(String phone) { this.phone.set(phone != null ? phone : ""); }
-    public void setRole(String role) { this.role.set(role != null ? role : ""); }
-    public void setAccessLevel(String accessLevel) { this.accessLevel.set(accessLevel != null ? accessLevel : ""); }
-    public void setActive(Boolean active) { this.active.set(active != null ? active : false); }
-}
\ No newline at end of file
+    public Integer getId() { return idProperty != null ? idProperty.get() : id; }
+    public String getName() { return nameProperty != null ? nameProperty.get() : name; }
+    public String getEmail() { return emailProperty != null ? emailProperty.get() : email; }
+    public String getPhone() { return phoneProperty != null ? phoneProperty.get() : phone; }
+    public String getRole() { return roleProperty != null ? roleProperty.get() : role; }
+    public String getAccessLevel() { return accessLevelProperty != null ? accessLevelProperty.get() : accessLevel; }
+    public Boolean getActive() { return activeProperty != null ? activeProperty.get() : active; }
+
+    // Value setters, through the property once it exists so bound cells update
+    public void setId(Integer id) {
+        this.id = id != null ? id : 0;
+        if (idProperty != null) idProperty.set(this.id);
+    }
+    public void setName(String name) {
+        this.name = name != null ? name : "";
+        if (nameProperty != null) nameProperty.set(this.name);
+    }
+    public void setEmail(String email) {
+        this.email = email != null ? email : "";
+        if (emailProperty != null) emailProperty.set(this.email);
+    }
+    public void setPhone(String phone) {
+        this.phone = phone != null ? phone : "";
+        if (phoneProperty != null) phoneProperty.set(this.phone);
+    }
+    public void setRole(String role) {
+        this.role = role != null ? role : "";
+        if (roleProperty != null) roleProperty.set(this.role);
+    }
+    public void setAccessLevel(String accessLevel) {
+        this.accessLevel = accessLevel != null ? accessLevel : "";
+        if (accessLevelProperty != null) accessLevelProperty.set(this.accessLevel);
+    }
+    public void setActive(Boolean active) {
+        this.active = active != null ? active : false;
+        if (activeProperty != null) activeProperty.set(this.active);
+    }
+}
@@ -0,0 +1,245 @@
+package com.codeup.booknova.ui.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.codeup.booknova.repository.ChangeSet;
+
+import javafx.collections.ObservableList;
+
+/**
+ * Local copy of a table, kept current by applying {@link ChangeSet}s.
+ * <p>
+ * The first {@link #refresh(Function)} loads the whole table; every later
+ * one asks only for rows changed since the last watermark, so a refresh
+ * costs in proportion to what changed rather than to the table size.
+ * {@link #fetch(Function)} and {@link #apply(ChangeSet)} split a refresh so
+ * the database read can run off the UI thread.
+ * </p>
+ * <p>
+ * A snapshot may be refreshed from several places at once, e.g. a background
+ * fetch started at restore and a refresh the user asks for. Its methods are
+ * thread-safe, and changes that arrive after newer ones were applied are
+ * dropped: the newer read already holds those rows, or later versions of
+ * them.
+ * </p>
+ * <p>Example:</p>
+ * <pre>{@code
+ * DeltaSnapshot<Book> books = new DeltaSnapshot<>(Book::getId);
+ * books.refreshInto(booksList, bookService::getBooksChangedSince, this::toRow, BookTableModel::getId);
+ * }</pre>
+ *
+ * @param <T> the entity type
+ * @version 1.0
+ * @since 1.0
+ */
+public class DeltaSnapshot<T> {
+    private final Function<T, Integer> key;
+    // guarded by this
+    private final Map<Integer, T> rows = new LinkedHashMap<>();
+    // written under the lock, read without it by getWatermark()
+    private volatile Instant watermark;
+    private boolean loaded;
+
+    /**
+     * Creates an empty snapshot.
+     *
+     * @param key returns an entity's id
+     */
+    public DeltaSnapshot(Function<T, Integer> key) {
+        this.key = key;
+    }
+
+    /**
+     * Fetches and applies the changes since the last refresh.
+     *
+     * @param source returns the changes since a watermark, e.g. {@code bookService::getBooksChangedSince}
+     * @return the applied changes
+     */
+    public ChangeSet<T> refresh(Function<Instant, ChangeSet<T>> source) {
+        return apply(fetch(source));
+    }
+
+    /**
+     * Refreshes the snapshot and applies the same changes to a list of view rows.
+     *
+     * @param <R> the view row type
+     * @param target the rows shown by a table
+     * @param source returns the changes since a watermark
+     * @param toRow converts an entity to a view row
+     * @param rowKey returns a view row's id
+     * @return the applied changes
+     * @see #applyInto(List, ChangeSet, Function, Function)
+     */
+    public <R> ChangeSet<T> refreshInto(List<R> target, Function<Instant, ChangeSet<T>> source,
+                                        Function<T, R> toRow, Function<R, Integer> rowKey) {
+        return applyInto(target, fetch(source), toRow, rowKey);
+    }
+
+    /**
+     * Reads the changes since the last refresh without applying them. Only reads
+     * state, so it can run on a background thread while the view is shown;
+     * apply the result on the UI thread. The source is called without holding
+     * the snapshot's lock.
+     *
+     * @param source returns the changes since a watermark
+     * @return the changes, to pass to {@link #apply} or {@link #applyInto}
+     */
+    public ChangeSet<T> fetch(Function<Instant, ChangeSet<T>> source) {
+        Instant since;
+        synchronized (this) {
+            since = loaded ? watermark : null;
+        }
+        return source.apply(since);
+    }
+
+    /**
+     * Applies fetched changes. Before the first load the changes replace the
+     * whole snapshot. Changes with an older watermark than the snapshot's
+     * were overtaken by a later refresh and are dropped.
+     *
+     * @param changes the changes from {@link #fetch(Function)}
+     * @return the same changes, or no changes if they were dropped
+     */
+    public synchronized ChangeSet<T> apply(ChangeSet<T> changes) {
+        if (isStale(changes)) {
+            return new ChangeSet<>(List.of(), List.of(), watermark);
+        }
+        if (!loaded) {
+            rows.clear();
+        }
+        for (Integer id : changes.deletedIds()) {
+            rows.remove(id);
+        }
+        for (T row : changes.changed()) {
+            rows.put(key.apply(row), row);
+        }
+        if (changes.watermark() != null) {
+            watermark = changes.watermark();
+        }
+        loaded = true;
+        return changes;
+    }
+
+    private boolean isStale(ChangeSet<T> changes) {
+        return loaded && watermark != null
+                && (changes.watermark() == null || changes.watermark().isBefore(watermark));
+    }
+
+    /**
+     * Applies fetched changes to the snapshot and to a list of view rows:
+     * deleted rows are removed, changed rows replaced in place and new rows
+     * appended. Before the first load the list is replaced. Rows that did not
+     * change keep their instances; a {@link RowList} or other observable list
+     * is notified once per call. Changes dropped by {@link #apply} leave the
+     * list as it is.
+     *
+     * @param <R> the view row type
+     * @param target the rows shown by a table
+     * @param fetched the changes from {@link #fetch(Function)}
+     * @param toRow converts an entity to a view row
+     * @param rowKey returns a view row's id
+     * @return the same changes, or no changes if they were dropped
+     */
+    public synchronized <R> ChangeSet<T> applyInto(List<R> target, ChangeSet<T> fetched,
+                                                   Function<T, R> toRow, Function<R, Integer> rowKey) {
+        boolean full = !loaded;
+        ChangeSet<T> changes = apply(fetched);
+        if (full) {
+            replaceAll(target, changes.changed().stream().map(toRow).toList());
+            return changes;
+        }
+        if (changes.isEmpty()) {
+            return changes;
+        }
+        if (target instanceof RowList<R> batched) {
+            batched.batch(() -> edit(target, changes, toRow, rowKey));
+        } else {
+            edit(target, changes, toRow, rowKey);
+        }
+        return changes;
+    }
+
+    private <R> void edit(List<R> target, ChangeSet<T> changes, Function<T, R> toRow, Function<R, Integer> rowKey) {
+        if (!changes.deletedIds().isEmpty()) {
+            Set<Integer> deleted = new HashSet<>(changes.deletedIds());
+            target.removeIf(row -> deleted.contains(rowKey.apply(row)));
+        }
+        if (!changes.changed().isEmpty()) {
+            Map<Integer, Integer> positions = new HashMap<>();
+            for (int i = 0; i < target.size(); i++) {
+                positions.put(rowKey.apply(target.get(i)), i);
+            }
+            for (T entity : changes.changed()) {
+                Integer position = positions.get(key.apply(entity));
+                if (position != null) {
+                    target.set(position, toRow.apply(entity));
+                } else {
+                    positions.put(key.apply(entity), target.size());
+                    target.add(toRow.apply(entity));
+                }
+            }
+        }
+    }
+
+    // one change notification for an observable list instead of a clear and an add
+    private static <R> void replaceAll(List<R> target, List<R> all) {
+        if (target instanceof ObservableList<R> observable) {
+            observable.setAll(all);
+        } else {
+            target.clear();
+            target.addAll(all);
+        }
+    }
+
+    /**
+     * Starts from rows saved earlier (see
+     * {@link com.codeup.booknova.infra.snapshot.LocalSnapshotStore}) instead of a
+     * full load, and shows them. The next refresh only asks for changes since
+     * {@code watermark}.
+     *
+     * @param <R> the view row type
+     * @param target the rows shown by a table
+     * @param saved the saved rows
+     * @param watermark the watermark they are current to
+     * @param toRow converts an entity to a view row
+     */
+    public synchronized <R> void restoreInto(List<R> target, Collection<T> saved, Instant watermark, Function<T, R> toRow) {
+        rows.clear();
+        for (T row : saved) {
+            rows.put(key.apply(row), row);
+        }
+        this.watermark = watermark;
+        this.loaded = watermark != null;
+        replaceAll(target, saved.stream().map(toRow).toList());
+    }
+
+    /**
+     * Forgets the watermark, so the next refresh reloads the whole table.
+     */
+    public synchronized void reset() {
+        loaded = false;
+        watermark = null;
+        rows.clear();
+    }
+
+    /**
+     * Returns a copy of the rows, in load order.
+     *
+     * @return the rows
+     */
+    public synchronized Collection<T> values() {
+        return List.copyOf(rows.values());
+    }
+
+    public Instant getWatermark() {
+        return watermark;
+    }
+}
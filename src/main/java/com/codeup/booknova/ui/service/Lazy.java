@@ -0,0 +1,39 @@
+package com.codeup.booknova.ui.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Value created by its factory on the first {@link #get()}, exactly once even
+ * when several threads ask at the same time.
+ *
+ * @param <T> the value type
+ * @version 1.0
+ * @since 1.0
+ */
+final class Lazy<T> implements Supplier<T> {
+    private final Supplier<T> factory;
+    private volatile T value;
+
+    Lazy(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public T get() {
+        T v = value;
+        if (v == null) {
+            synchronized (this) {
+                v = value;
+                if (v == null) {
+                    v = factory.get();
+                    value = v;
+                }
+            }
+        }
+        return v;
+    }
+
+    boolean isInitialized() {
+        return value != null;
+    }
+}
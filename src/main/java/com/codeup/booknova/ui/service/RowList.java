@@ -0,0 +1,93 @@
+package com.codeup.booknova.ui.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javafx.collections.ModifiableObservableListBase;
+
+/**
+ * The rows of a table, as an observable list whose edits can be grouped into
+ * one change notification.
+ * <p>
+ * An {@code ObservableList} from {@code FXCollections} notifies its listeners
+ * once per {@code add}, {@code set} or {@code remove}; applying a refresh row
+ * by row makes a table, its selection model and its sort re-run once per
+ * row. Edits made inside {@link #batch(Runnable)} reach the listeners as a
+ * single change with one sub-change per edited range. Rows that were not
+ * edited keep their instances and their cells.
+ * </p>
+ *
+ * @param <R> the row type
+ * @version 1.0
+ * @since 1.0
+ */
+public class RowList<R> extends ModifiableObservableListBase<R> {
+    private final ArrayList<R> rows = new ArrayList<>();
+
+    /**
+     * Creates an empty list.
+     */
+    public RowList() {
+    }
+
+    /**
+     * Applies edits to this list and notifies the listeners once, after the last edit.
+     *
+     * @param edits changes made to this list, e.g. by {@link DeltaSnapshot#applyInto}
+     */
+    public void batch(Runnable edits) {
+        beginChange();
+        try {
+            edits.run();
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Replaces every row with one change notification.
+     *
+     * @param all the new rows
+     * @return {@code true}, as the list changed
+     */
+    @Override
+    public boolean setAll(Collection<? extends R> all) {
+        beginChange();
+        try {
+            List<R> removed = new ArrayList<>(rows);
+            rows.clear();
+            rows.ensureCapacity(all.size());
+            rows.addAll(all);
+            nextReplace(0, rows.size(), removed);
+        } finally {
+            endChange();
+        }
+        return true;
+    }
+
+    @Override
+    public R get(int index) {
+        return rows.get(index);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    protected void doAdd(int index, R element) {
+        rows.add(index, element);
+    }
+
+    @Override
+    protected R doSet(int index, R element) {
+        return rows.set(index, element);
+    }
+
+    @Override
+    protected R doRemove(int index) {
+        return rows.remove(index);
+    }
+}
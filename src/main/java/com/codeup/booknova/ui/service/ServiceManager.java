@@ -1,78 +1,405 @@
 package com.codeup.booknova.ui.service;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.analytics.CirculationAnalytics;
+import com.codeup.booknova.analytics.JdbcCirculationRollups;
 import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.domain.Member;
+import com.codeup.booknova.domain.User;
+import com.codeup.booknova.exception.DatabaseException;
 import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.infra.events.BookChanged;
+import com.codeup.booknova.infra.events.EventBus;
+import com.codeup.booknova.infra.events.EventHandler;
+import com.codeup.booknova.infra.events.LoanChanged;
+import com.codeup.booknova.infra.exec.ServiceExecutor;
+import com.codeup.booknova.infra.exec.SingleFlight;
+import com.codeup.booknova.infra.jfr.RecordingControl;
+import com.codeup.booknova.infra.outbox.JdbcOutbox;
+import com.codeup.booknova.infra.outbox.ListenerOutboxSink;
+import com.codeup.booknova.infra.outbox.Outbox;
+import com.codeup.booknova.infra.outbox.OutboxRelay;
+import com.codeup.booknova.infra.snapshot.LocalSnapshotStore;
+import com.codeup.booknova.infra.trace.Tracer;
+import com.codeup.booknova.jdbc.Bulkhead;
+import com.codeup.booknova.jdbc.CircuitBreaker;
 import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.jdbc.QueryTimeouts;
+import com.codeup.booknova.jdbc.TransactionContext;
+import com.codeup.booknova.repository.BatchLoader;
+import com.codeup.booknova.repository.ChangeSet;
+import com.codeup.booknova.repository.ExistenceFilter;
 import com.codeup.booknova.repository.impl.*;
+import com.codeup.booknova.search.SuggestionIndex;
 import com.codeup.booknova.service.impl.*;
 
 /**
  * Service manager that provides centralized access to all business services.
  * This class manages the dependency injection and lifecycle of services.
+ * <p>
+ * The instance is created on first use by the holder idiom, and each
+ * repository and service on its first call, so the login screen only pays
+ * for what it touches. {@link #warmUp()} builds everything and opens a first
+ * connection ahead of time.
+ * </p>
+ * <p>
+ * Book and loan changes made through the services are published on an
+ * {@link EventBus} once committed; its subscribers drop the shared catalogue
+ * lists and update the autocomplete index, so they follow local writes
+ * without waiting for a reuse window or the next refresh.
+ * </p>
+ * <p>
+ * A manager runs background threads: the service executor, the event bus
+ * subscribers, the outbox relay, the borrowing ledger's reconcile, the
+ * existence filter rebuilds and the replica health check. The shared
+ * instance lives as long as the application; a manager from
+ * {@link #create(AppConfig)} is closed by whoever created it.
+ * </p>
  */
-public class ServiceManager {
-    private static ServiceManager instance;
+public class ServiceManager implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ServiceManager.class.getName());
     
+    private final ConnectionFactory connectionFactory;
     private final JdbcTemplateLight jdbcTemplate;
-    private final UserService userService;
-    private final BookService bookService;
-    private final MemberService memberService;
-    private final LoanService loanService;
-    private final MembershipRequestService membershipRequestService;
+    private final ServiceExecutor serviceExecutor;
+    private final LocalSnapshotStore snapshotStore;
+    private final SingleFlight catalogQueries;
+    private final RecordingControl recordingControl;
+    private final ExistenceFilter emailFilter;
+    private final ExistenceFilter isbnFilter;
+    private final SuggestionIndex suggestionIndex = new SuggestionIndex();
+    private final int suggestionPopularityDays;
+    private final ListenerOutboxSink outboxListeners = new ListenerOutboxSink();
+    private final Outbox outbox;
+    private final OutboxRelay outboxRelay;
+    private final EventBus eventBus;
+    
+    private final Lazy<UserJdbcRepository> userRepo;
+    private final Lazy<BookJdbcRepository> bookRepo;
+    private final Lazy<MemberJdbcRepository> memberRepo;
+    private final Lazy<LoanJdbcRepository> loanRepo;
+    private final Lazy<MembershipRequestJdbcRepository> requestRepo;
+    private final Lazy<BorrowingLedger> ledger;
+    
+    private final Lazy<UserService> userService;
+    private final Lazy<BookService> bookService;
+    private final Lazy<MemberService> memberService;
+    private final Lazy<LoanService> loanService;
+    private final Lazy<MembershipRequestService> membershipRequestService;
+    private final Lazy<CirculationAnalytics> circulationAnalytics;
     
     private ServiceManager() {
-        // Initialize configuration and connection
-        AppConfig config = new AppConfig();
-        ConnectionFactory connectionFactory = new ConnectionFactory(config);
-        this.jdbcTemplate = new JdbcTemplateLight(connectionFactory);
+        this(new AppConfig());
+    }
+    
+    private ServiceManager(AppConfig config) {
+        // Initialize connection
+        this.connectionFactory = new ConnectionFactory(config);
+        this.jdbcTemplate = new JdbcTemplateLight(connectionFactory, QueryTimeouts.fromConfig(config),
+            CircuitBreaker.fromConfig(config),
+            new Bulkhead("reports", config.getInt("db.report.maxConcurrent", 2), config.getLong("db.report.queueMillis", 2000)));
+        this.serviceExecutor = ServiceExecutor.fromConfig(config);
+        this.snapshotStore = LocalSnapshotStore.fromConfig(config);
+        // a session just back from a write, or inside a transaction, reads its own data
+        this.catalogQueries = new SingleFlight(config.getLong("service.singleFlight.reuseMillis", 0),
+            () -> TransactionContext.isActive() || connectionFactory.isPinnedToPrimary());
+        this.recordingControl = RecordingControl.fromConfig(config);
+        Tracer.install(config);
+        this.suggestionPopularityDays = config.getInt("search.suggest.popularityDays", 365);
+        if (config.getBoolean("outbox.enabled", false)) {
+            JdbcOutbox jdbcOutbox = new JdbcOutbox(jdbcTemplate);
+            this.outbox = jdbcOutbox;
+            this.outboxRelay = OutboxRelay.fromConfig(config, jdbcOutbox, outboxListeners);
+            outboxRelay.start();
+        } else {
+            this.outbox = Outbox.NONE;
+            this.outboxRelay = null;
+        }
+        this.eventBus = EventBus.fromConfig(config);
+        eventBus.subscribe("catalogQueries", Object.class, new EventHandler<Object>() {
+            private boolean changed;
+
+            @Override
+            public void onEvent(Object event) {
+                changed |= event instanceof BookChanged || event instanceof LoanChanged;
+            }
+
+            @Override
+            public void onEndOfBatch() {
+                if (changed) {
+                    changed = false;
+                    catalogQueries.invalidate();
+                }
+            }
+        });
+        eventBus.subscribe("suggestions", BookChanged.class, new SuggestionUpdater());
         
-        // Initialize repositories
-        UserJdbcRepository userRepo = new UserJdbcRepository(jdbcTemplate);
-        BookJdbcRepository bookRepo = new BookJdbcRepository(jdbcTemplate);
-        MemberJdbcRepository memberRepo = new MemberJdbcRepository(jdbcTemplate);
-        LoanJdbcRepository loanRepo = new LoanJdbcRepository(jdbcTemplate);
-        MembershipRequestJdbcRepository requestRepo = new MembershipRequestJdbcRepository(jdbcTemplate);
+        // Repositories and services are built on first use
+        this.emailFilter = existenceFilter(config, "users.email", UserJdbcRepository.emails(jdbcTemplate));
+        this.isbnFilter = existenceFilter(config, "book.isbn", BookJdbcRepository.isbns(jdbcTemplate));
+        long filterCheckSeconds = config.getLong("repo.existenceFilter.checkSeconds", 600);
+        this.userRepo = new Lazy<>(() -> new UserJdbcRepository(jdbcTemplate, started(emailFilter, filterCheckSeconds)));
+        this.bookRepo = new Lazy<>(() -> new BookJdbcRepository(jdbcTemplate, started(isbnFilter, filterCheckSeconds)));
+        this.memberRepo = new Lazy<>(() -> new MemberJdbcRepository(jdbcTemplate));
+        this.loanRepo = new Lazy<>(() -> new LoanJdbcRepository(jdbcTemplate));
+        this.requestRepo = new Lazy<>(() -> new MembershipRequestJdbcRepository(jdbcTemplate));
         
-        // Initialize services
-        this.userService = new UserService(userRepo);
-        this.bookService = new BookService(bookRepo);
-        this.memberService = new MemberService(memberRepo);
-        this.loanService = new LoanService(loanRepo, bookRepo, memberRepo);
-        this.membershipRequestService = new MembershipRequestService(requestRepo, memberRepo);
+        long coalesceMillis = config.getLong("repo.coalesceWindowMillis", 1);
+        this.userService = new Lazy<>(() -> new UserService(userRepo.get(),
+            byIdLoader(userRepo.get()::findByIds, User::getId, coalesceMillis)));
+        this.bookService = new Lazy<>(() -> new BookService(bookRepo.get(),
+            byIdLoader(bookRepo.get()::findByIds, Book::getId, coalesceMillis), catalogQueries, eventBus));
+        this.memberService = new Lazy<>(() -> new MemberService(memberRepo.get(),
+            byIdLoader(memberRepo.get()::findByIds, Member::getId, coalesceMillis)));
+        long ledgerReconcileSeconds = config.getLong("ledger.reconcileSeconds", 300);
+        this.ledger = new Lazy<>(() -> {
+            BorrowingLedger started = new BorrowingLedger(loanRepo.get(), memberRepo.get());
+            started.startReconciling(ledgerReconcileSeconds);
+            return started;
+        });
+        this.loanService = new Lazy<>(() -> new LoanService(loanRepo.get(), bookRepo.get(), memberRepo.get(),
+            jdbcTemplate, new JdbcCirculationRollups(jdbcTemplate), ledger.get(), outbox, eventBus));
+        this.membershipRequestService = new Lazy<>(
+            () -> new MembershipRequestService(requestRepo.get(), memberRepo.get(), jdbcTemplate, outbox));
+        this.circulationAnalytics = new Lazy<>(() -> new CirculationAnalytics(jdbcTemplate));
     }
     
-    public static ServiceManager getInstance() {
-        if (instance == null) {
-            synchronized (ServiceManager.class) {
-                if (instance == null) {
-                    instance = new ServiceManager();
+    // skips the existence query for keys the filter rules out, or none if disabled
+    private static ExistenceFilter existenceFilter(AppConfig config, String name, ExistenceFilter.KeySource keys) {
+        if (!config.getBoolean("repo.existenceFilter.enabled", true)) {
+            return null;
+        }
+        return new ExistenceFilter(name, keys,
+            config.getLong("repo.existenceFilter.minKeys", 100_000), config.getDouble("repo.existenceFilter.fpp", 0.01));
+    }
+    
+    // the first build scans the table in the background once its repository is used
+    private static ExistenceFilter started(ExistenceFilter filter, long checkSeconds) {
+        if (filter != null) {
+            filter.startRebuilding(checkSeconds);
+        }
+        return filter;
+    }
+    
+    // applies the books added, edited and removed in a batch of events as one change, once the index is built
+    private final class SuggestionUpdater implements EventHandler<BookChanged> {
+        private final List<Book> changed = new ArrayList<>();
+        private final List<Integer> deleted = new ArrayList<>();
+
+        @Override
+        public void onEvent(BookChanged event) {
+            switch (event.kind()) {
+                case ADDED, UPDATED -> changed.add(event.book());
+                case DELETED -> deleted.add(event.bookId());
+                default -> {
+                    // stock does not change suggestions
                 }
             }
         }
-        return instance;
+
+        @Override
+        public void onEndOfBatch() {
+            if (suggestionIndex.size() > 0 && (!changed.isEmpty() || !deleted.isEmpty())) {
+                suggestionIndex.apply(new ChangeSet<>(List.copyOf(changed), List.copyOf(deleted), null));
+            }
+            changed.clear();
+            deleted.clear();
+        }
+    }
+    
+    // coalesces by-id lookups of concurrent threads, or none with a zero window
+    private static <V> BatchLoader<Integer, V> byIdLoader(Function<Collection<Integer>, List<V>> findByIds,
+                                                         Function<V, Integer> id, long windowMillis) {
+        return windowMillis > 0 ? new BatchLoader<>(findByIds, id, windowMillis, JdbcTemplateLight.IN_CHUNK_SIZE) : null;
+    }
+    
+    // initialized by the JVM on first access, which is lazy and thread-safe
+    private static final class Holder {
+        static final ServiceManager INSTANCE = new ServiceManager();
+    }
+    
+    public static ServiceManager getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    /**
+     * Creates a manager of its own on the given configuration instead of
+     * {@code application.properties}, e.g. for a load generator pointed at
+     * another database. The application uses {@link #getInstance()}.
+     *
+     * @param config the configuration
+     * @return a new manager
+     */
+    public static ServiceManager create(AppConfig config) {
+        return new ServiceManager(config);
+    }
+    
+    /**
+     * Builds every service and opens and closes one connection, so the JDBC
+     * driver, its classes and the server handshake are ready before the
+     * first real call. Meant to run in the background while the login
+     * screen is shown; failures are logged, the first real call reports them.
+     */
+    public void warmUp() {
+        long start = System.nanoTime();
+        getUserService();
+        getBookService();
+        getMemberService();
+        getLoanService();
+        getMembershipRequestService();
+        try (Connection c = connectionFactory.open()) {
+            c.isValid(2);
+            logger.log(Level.INFO, "Services warmed up in {0} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException | RuntimeException e) {
+            logger.log(Level.WARNING, "Connection warm-up failed", e);
+        }
     }
     
     public UserService getUserService() {
-        return userService;
+        return userService.get();
     }
     
     public BookService getBookService() {
-        return bookService;
+        return bookService.get();
     }
     
     public MemberService getMemberService() {
-        return memberService;
+        return memberService.get();
     }
     
     public LoanService getLoanService() {
-        return loanService;
+        return loanService.get();
     }
     
     public MembershipRequestService getMembershipRequestService() {
-        return membershipRequestService;
+        return membershipRequestService.get();
+    }
+    
+    public CirculationAnalytics getCirculationAnalytics() {
+        return circulationAnalytics.get();
+    }
+    
+    /**
+     * Returns the autocomplete index of the catalog search. It is empty until
+     * {@link #rebuildSuggestions} runs.
+     */
+    public SuggestionIndex getSuggestionIndex() {
+        return suggestionIndex;
+    }
+    
+    /**
+     * Rebuilds the autocomplete index from a catalog, ranked by the loans of
+     * the last {@code search.suggest.popularityDays} days. If the loan counts
+     * cannot be read the index is built unranked.
+     *
+     * @param catalog every book
+     */
+    public void rebuildSuggestions(Collection<Book> catalog) {
+        Map<Integer, Long> loans;
+        try {
+            LocalDate today = LocalDate.now();
+            loans = getCirculationAnalytics().loansPerBook(today.minusDays(suggestionPopularityDays), today);
+        } catch (DatabaseException e) {
+            logger.log(Level.WARNING, "Loan counts unavailable, suggestions are unranked", e);
+            loans = Map.of();
+        }
+        suggestionIndex.rebuild(catalog, loans);
     }
     
     public JdbcTemplateLight getJdbcTemplate() {
         return jdbcTemplate;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Returns the executor for running service calls concurrently, e.g. from a
+     * headless process. The dashboards use it to reconcile their snapshots in
+     * the background; other UI actions call the services directly.
+     */
+    public ServiceExecutor getServiceExecutor() {
+        return serviceExecutor;
+    }
+    
+    /**
+     * Returns the local store the dashboards start from before the database answers.
+     */
+    public LocalSnapshotStore getSnapshotStore() {
+        return snapshotStore;
+    }
+    
+    /**
+     * Returns the group that collapses concurrent catalogue list queries, for its counters.
+     */
+    public SingleFlight getCatalogQueries() {
+        return catalogQueries;
+    }
+    
+    /**
+     * Returns the control of the on-demand Flight Recorder recording.
+     */
+    public RecordingControl getRecordingControl() {
+        return recordingControl;
+    }
+    
+    /**
+     * Returns the sink that hands loan and membership events to listeners in
+     * this process. Listeners only hear events while {@code outbox.enabled}
+     * is set and {@code outbox.sinks} includes {@code listeners}.
+     */
+    public ListenerOutboxSink getOutboxListeners() {
+        return outboxListeners;
+    }
+    
+    /**
+     * Returns the relay of the outbox, for its lag counters; {@code null} if the outbox is disabled.
+     */
+    public OutboxRelay getOutboxRelay() {
+        return outboxRelay;
+    }
+    
+    /**
+     * Returns the bus that book and loan changes are published on once
+     * committed, e.g. to subscribe a cache of one's own.
+     */
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+    
+    /**
+     * Returns the filters in front of the email and ISBN existence checks, for
+     * their counters; empty if they are disabled.
+     */
+    public List<ExistenceFilter> getExistenceFilters() {
+        return emailFilter == null ? List.of() : List.of(emailFilter, isbnFilter);
+    }
+    
+    /**
+     * Stops the background threads of this manager: waits briefly for
+     * running service calls, releases the outbox relay's leases and stops the
+     * event bus, the ledger's reconcile, the existence filter rebuilds and the
+     * replica health check. Services must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        serviceExecutor.close();
+        if (outboxRelay != null) {
+            outboxRelay.close();
+        }
+        eventBus.close();
+        if (ledger.isInitialized()) {
+            ledger.get().close();
+        }
+        getExistenceFilters().forEach(ExistenceFilter::close);
+        connectionFactory.close();
+    }
+}
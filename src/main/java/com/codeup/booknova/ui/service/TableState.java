@@ -0,0 +1,103 @@
+package com.codeup.booknova.ui.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+
+/**
+ * Keeps a table's selection, focus and scroll position across a refresh of
+ * its rows.
+ * <p>
+ * Replacing or re-sorting rows moves them to other indices, and a replaced
+ * selected row is dropped from the selection. {@link #preserve} remembers
+ * the selected, focused and top visible rows by key, runs the refresh and
+ * puts them back wherever they ended up; rows that were deleted are left out.
+ * </p>
+ * <p>Example:</p>
+ * <pre>{@code
+ * TableState.preserve(booksTable, BookTableModel::getId,
+ *     () -> booksSnapshot.refreshInto(booksList, source, this::toRow, BookTableModel::getId));
+ * }</pre>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class TableState {
+
+    private TableState() {}
+
+    /**
+     * Runs a refresh of a table's rows and restores its selection, focus and scroll position.
+     *
+     * @param <R> the row type
+     * @param <K> the key type
+     * @param table the table; {@code null} just runs the refresh
+     * @param key returns a row's key, e.g. its id
+     * @param refresh changes the table's rows
+     */
+    public static <R, K> void preserve(TableView<R> table, Function<R, K> key, Runnable refresh) {
+        if (table == null) {
+            refresh.run();
+            return;
+        }
+        List<R> items = table.getItems();
+        List<K> selected = new ArrayList<>();
+        for (R row : table.getSelectionModel().getSelectedItems()) {
+            if (row != null) {
+                selected.add(key.apply(row));
+            }
+        }
+        R focused = table.getFocusModel().getFocusedItem();
+        K focusedKey = focused != null ? key.apply(focused) : null;
+        int top = firstVisibleIndex(table);
+        K topKey = top >= 0 && top < items.size() ? key.apply(items.get(top)) : null;
+
+        refresh.run();
+
+        if (selected.isEmpty() && focusedKey == null && topKey == null) {
+            return;
+        }
+        items = table.getItems();
+        Map<K, Integer> positions = new HashMap<>(items.size() * 2);
+        for (int i = 0; i < items.size(); i++) {
+            positions.put(key.apply(items.get(i)), i);
+        }
+        List<Integer> wanted = new ArrayList<>(selected.size());
+        for (K k : selected) {
+            Integer position = positions.get(k);
+            if (position != null) {
+                wanted.add(position);
+            }
+        }
+        if (!wanted.equals(table.getSelectionModel().getSelectedIndices())) {
+            table.getSelectionModel().clearSelection();
+            if (!wanted.isEmpty()) {
+                int[] rest = wanted.subList(1, wanted.size()).stream().mapToInt(Integer::intValue).toArray();
+                table.getSelectionModel().selectIndices(wanted.get(0), rest);
+            }
+        }
+        Integer focusedAt = focusedKey != null ? positions.get(focusedKey) : null;
+        if (focusedAt != null && focusedAt != table.getFocusModel().getFocusedIndex()) {
+            table.getFocusModel().focus(focusedAt);
+        }
+        Integer topAt = topKey != null ? positions.get(topKey) : null;
+        if (topAt != null && topAt != top) {
+            table.scrollTo(topAt);
+        }
+    }
+
+    // -1 before the table is shown
+    private static int firstVisibleIndex(TableView<?> table) {
+        if (table.lookup(".virtual-flow") instanceof VirtualFlow<?> flow) {
+            IndexedCell<?> first = flow.getFirstVisibleCell();
+            return first != null ? first.getIndex() : -1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,132 @@
+package com.codeup.booknova.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * <p>
+ * {@link #mightContain} never returns {@code false} for a string that was
+ * {@link #put}, and returns {@code true} for other strings with roughly the
+ * false-positive probability the filter was sized for, as long as no more
+ * than the expected number of strings are added. Strings cannot be removed.
+ * </p>
+ * <p>
+ * Each string is hashed once to 64 bits; the bit positions are derived from
+ * the two halves of the hash by double hashing. Bits are set with
+ * compare-and-set, so adds and lookups need no lock.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Creates a filter sized for a number of strings and a false-positive probability.
+     *
+     * @param expectedInsertions the number of strings the filter is sized for
+     * @param fpp the false-positive probability at that size, between 0 and 1 exclusive
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive and fpp between 0 and 1");
+        }
+        // m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        long wordCount = Math.max(1, (bits + 63) >>> 6);
+        // bit indexes are derived from int hashes
+        if (wordCount << 6 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filter too large: " + bits + " bits");
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitCount = wordCount << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Adds a string.
+     *
+     * @param value the string
+     */
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long old;
+            do {
+                old = words.get(word);
+                if ((old & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, old, old | mask));
+        }
+    }
+
+    /**
+     * Tells whether a string may have been added.
+     *
+     * @param value the string
+     * @return {@code false} if it was definitely not added
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the false-positive probability at the current fill, i.e. the
+     * fraction of set bits to the power of the number of hashes. Counts every
+     * bit, so it takes time proportional to the filter size.
+     *
+     * @return the estimated probability
+     */
+    public double expectedFpp() {
+        long set = 0;
+        for (int i = 0; i < words.length(); i++) {
+            set += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) set / bitCount, hashCount);
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private long index(int combined) {
+        // a negative combined hash is flipped rather than wrapped, as in Guava
+        return (combined < 0 ? ~combined : combined) % bitCount;
+    }
+
+    // FNV-1a over the chars, finished with the MurmurHash3 64-bit mix
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
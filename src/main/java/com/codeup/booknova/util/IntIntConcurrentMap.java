@@ -0,0 +1,217 @@
+package com.codeup.booknova.util;
+
+import java.util.Arrays;
+
+/**
+ * Thread-safe hash map from non-negative {@code int} keys to {@code int}
+ * values, without boxing.
+ * <p>
+ * Keys are spread over a fixed number of segments, each an open-addressing
+ * table with linear probing guarded by its own monitor, so operations on
+ * keys of different segments do not contend. Every operation is O(1) on
+ * average and allocation-free except when a segment grows. Entries are never
+ * removed; callers store a neutral value such as {@code 0} instead.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class IntIntConcurrentMap {
+    private static final int FREE = -1;
+    private static final int SEGMENTS = 16;
+
+    /**
+     * Receives the entries of {@link #forEach}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public IntIntConcurrentMap() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key
+     * @param missing the value returned when the key is absent
+     * @return the value, or {@code missing}
+     */
+    public int get(int key, int missing) {
+        Segment s = segment(key);
+        synchronized (s) {
+            int slot = s.find(key);
+            return slot < 0 ? missing : s.values[slot];
+        }
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void put(int key, int value) {
+        Segment s = segment(key);
+        synchronized (s) {
+            int slot = s.slotFor(key);
+            s.values[slot] = value;
+        }
+    }
+
+    /**
+     * Adds to the value of a key, treating an absent key as {@code 0}.
+     *
+     * @param key the key
+     * @param delta the amount to add
+     * @return the new value
+     */
+    public int addAndGet(int key, int delta) {
+        Segment s = segment(key);
+        synchronized (s) {
+            int slot = s.slotFor(key);
+            return s.values[slot] += delta;
+        }
+    }
+
+    /**
+     * Adds to the value of a key, treating an absent key as {@code 0}, only if
+     * the result stays within {@code [min, max]}.
+     *
+     * @param key the key
+     * @param delta the amount to add
+     * @param min the smallest allowed result
+     * @param max the largest allowed result
+     * @return {@code true} if the value was changed
+     */
+    public boolean addIfInRange(int key, int delta, int min, int max) {
+        Segment s = segment(key);
+        synchronized (s) {
+            int slot = s.find(key);
+            long next = (long) (slot < 0 ? 0 : s.values[slot]) + delta;
+            if (next < min || next > max) {
+                return false;
+            }
+            if (slot < 0) {
+                slot = s.slotFor(key);
+            }
+            s.values[slot] = (int) next;
+            return true;
+        }
+    }
+
+    /**
+     * Visits every entry. Each segment is visited under its lock, so entries
+     * of one segment are consistent with each other but not with the others.
+     *
+     * @param action receives each key and value
+     */
+    public void forEach(EntryConsumer action) {
+        for (Segment s : segments) {
+            synchronized (s) {
+                for (int i = 0; i < s.keys.length; i++) {
+                    if (s.keys[i] != FREE) {
+                        action.accept(s.keys[i], s.values[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return the number of keys ever stored
+     */
+    public int size() {
+        int n = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                n += s.size;
+            }
+        }
+        return n;
+    }
+
+    private Segment segment(int key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Key must not be negative: " + key);
+        }
+        return segments[mix(key) & (SEGMENTS - 1)];
+    }
+
+    // spreads sequential ids over segments and slots
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Segment {
+        int[] keys = newKeys(16);
+        int[] values = new int[16];
+        int size;
+
+        // slot of the key, or -1
+        int find(int key) {
+            int mask = keys.length - 1;
+            for (int i = (mix(key) >>> 4) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return i;
+                }
+                if (keys[i] == FREE) {
+                    return -1;
+                }
+            }
+        }
+
+        // slot of the key, inserting it with value 0 if absent
+        int slotFor(int key) {
+            int mask = keys.length - 1;
+            int i = (mix(key) >>> 4) & mask;
+            while (keys[i] != FREE) {
+                if (keys[i] == key) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+                return slotFor(key);
+            }
+            keys[i] = key;
+            values[i] = 0;
+            size++;
+            return i;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != FREE) {
+                    int i = (mix(oldKeys[j]) >>> 4) & mask;
+                    while (keys[i] != FREE) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, FREE);
+            return keys;
+        }
+    }
+}
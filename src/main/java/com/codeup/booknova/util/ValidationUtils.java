@@ -4,9 +4,8 @@
  */
 package com.codeup.booknova.util;
 
-import java.util.regex.Pattern;
-
 import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.util.validation.TextScanners;
 
 /**
  * Comprehensive validation utility class for NovaBook domain objects.
@@ -15,6 +14,11 @@ import com.codeup.booknova.exception.DatabaseException;
  * in the NovaBook system including users, books, members, and loans.
  * It enforces business rules and data integrity constraints.
  * </p>
+ * <p>
+ * Each method throws at the first invalid field. To collect every violation,
+ * for example during bulk imports, use
+ * {@link com.codeup.booknova.util.validation.ValidationEngine}.
+ * </p>
  * 
  * @author tonys-dev
  * @version 1.0
@@ -22,21 +26,6 @@ import com.codeup.booknova.exception.DatabaseException;
  */
 public class ValidationUtils {
     
-    // Email validation pattern
-    private static final Pattern EMAIL_PATTERN = Pattern.compile(
-        "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$"
-    );
-    
-    // Phone validation pattern (digits only, 10-15 digits)
-    private static final Pattern PHONE_PATTERN = Pattern.compile(
-        "^\\d{10,15}$"
-    );
-    
-    // ISBN pattern (basic validation)
-    private static final Pattern ISBN_PATTERN = Pattern.compile(
-        "^(?:ISBN(?:-1[03])?:? )?(?=[0-9X]{10}$|(?=(?:[0-9]+[- ]){3})[- 0-9X]{13}$|97[89][0-9]{10}$|(?=(?:[0-9]+[- ]){4})[- 0-9]{17}$)(?:97[89][- ]?)?[0-9]{1,5}[- ]?[0-9]+[- ]?[0-9]+[- ]?[0-9X]$"
-    );
-    
     /**
      * Private constructor to prevent instantiation of utility class.
      */
@@ -72,7 +61,7 @@ public class ValidationUtils {
         if (name.length() > 100) {
             throw new DatabaseException("Name cannot exceed 100 characters");
         }
-        if (name.trim().matches("^\\d+$")) {
+        if (TextScanners.isDigitsOnly(name)) {
             throw new DatabaseException("Name cannot contain only numbers");
         }
     }
@@ -90,7 +79,7 @@ public class ValidationUtils {
         if (email.length() > 120) {
             throw new DatabaseException("Email cannot exceed 120 characters");
         }
-        if (!EMAIL_PATTERN.matcher(email).matches()) {
+        if (!TextScanners.isEmail(email)) {
             throw new DatabaseException("Invalid email format");
         }
     }
@@ -126,9 +115,8 @@ public class ValidationUtils {
         if (phone.length() > 30) {
             throw new DatabaseException("Phone cannot exceed 30 characters");
         }
-        // Remove common phone number characters for validation
-        String cleanPhone = phone.replaceAll("[\\s\\-\\(\\)\\+]", "");
-        if (!PHONE_PATTERN.matcher(cleanPhone).matches()) {
+        // Spaces, hyphens, parentheses and plus signs are ignored
+        if (!TextScanners.isPhone(phone)) {
             throw new DatabaseException("Invalid phone number format");
         }
     }
@@ -163,9 +151,9 @@ public class ValidationUtils {
         if (isbn.length() > 20) {
             throw new DatabaseException("ISBN cannot exceed 20 characters");
         }
-        // Basic ISBN format validation
-        String cleanIsbn = isbn.replaceAll("[\\s\\-]", "");
-        if (cleanIsbn.length() != 10 && cleanIsbn.length() != 13) {
+        // Basic ISBN format validation; the check digit is verified by ValidationEngine
+        int length = TextScanners.isbnLength(isbn);
+        if (length != 10 && length != 13) {
             throw new DatabaseException("ISBN must be 10 or 13 digits");
         }
     }
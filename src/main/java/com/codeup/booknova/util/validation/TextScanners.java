@@ -0,0 +1,211 @@
+package com.codeup.booknova.util.validation;
+
+/**
+ * Hand-written, allocation-free scanners for the formats NovaBook validates.
+ * <p>
+ * Each method walks the characters once, without regular expressions,
+ * {@code replaceAll} or substrings, so checking a valid value creates no
+ * garbage. The accepted formats are the same as the patterns
+ * {@link com.codeup.booknova.util.ValidationUtils} has always used, except for
+ * {@link #isIsbn(CharSequence)}, which also verifies the check digit.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class TextScanners {
+
+    private TextScanners() {}
+
+    /**
+     * Checks for an empty or whitespace-only value ({@link String#trim()} semantics).
+     *
+     * @param s the value, may be {@code null}
+     * @return {@code true} if {@code s} is {@code null} or blank
+     */
+    public static boolean isBlank(CharSequence s) {
+        if (s == null) {
+            return true;
+        }
+        for (int i = 0, n = s.length(); i < n; i++) {
+            if (s.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the trimmed value consists only of ASCII digits.
+     *
+     * @param s the value
+     * @return {@code true} if the trimmed value is non-empty and all digits
+     */
+    public static boolean isDigitsOnly(CharSequence s) {
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (!isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks an email address: {@code local@domain.tld}, where the local part uses
+     * letters, digits and {@code + _ . -}, the domain letters, digits, dots and
+     * hyphens, and the top-level domain at least two letters.
+     *
+     * @param s the value
+     * @return {@code true} if the address is well formed
+     */
+    public static boolean isEmail(CharSequence s) {
+        int n = s.length();
+        int at = -1;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '@') {
+                at = i;
+                break;
+            }
+            if (!isAsciiLetterOrDigit(c) && c != '+' && c != '_' && c != '.' && c != '-') {
+                return false;
+            }
+        }
+        if (at < 1) {
+            return false;
+        }
+        int lastDot = -1;
+        for (int i = at + 1; i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                lastDot = i;
+            } else if (!isAsciiLetterOrDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        // the domain needs at least one character before the last dot
+        if (lastDot < at + 2 || n - lastDot - 1 < 2) {
+            return false;
+        }
+        for (int i = lastDot + 1; i < n; i++) {
+            if (!isAsciiLetter(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks a phone number: 10 to 15 digits once spaces, hyphens, parentheses
+     * and plus signs are ignored.
+     *
+     * @param s the value
+     * @return {@code true} if the number is well formed
+     */
+    public static boolean isPhone(CharSequence s) {
+        int digits = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (isDigit(c)) {
+                digits++;
+            } else if (!isWhitespace(c) && c != '-' && c != '(' && c != ')' && c != '+') {
+                return false;
+            }
+        }
+        return digits >= 10 && digits <= 15;
+    }
+
+    /**
+     * Counts the characters of an ISBN that are not whitespace or hyphens.
+     *
+     * @param s the value
+     * @return the number of significant characters
+     */
+    public static int isbnLength(CharSequence s) {
+        int count = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (!isWhitespace(c) && c != '-') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks an ISBN-10 or ISBN-13, ignoring spaces and hyphens, including its
+     * check digit.
+     * <ul>
+     * <li>ISBN-10: nine digits and a digit or {@code X}; the sum of each digit
+     *     times its weight 10..1 is a multiple of 11</li>
+     * <li>ISBN-13: thirteen digits starting with 978 or 979; the digits weighted
+     *     alternately 1 and 3 sum to a multiple of 10</li>
+     * </ul>
+     *
+     * @param s the value
+     * @return {@code true} if the ISBN is well formed and its check digit matches
+     */
+    public static boolean isIsbn(CharSequence s) {
+        int count = 0;
+        int sum10 = 0;
+        int sum13 = 0;
+        int prefix = 0;
+        boolean lastIsX = false;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (isWhitespace(c) || c == '-') {
+                continue;
+            }
+            if (lastIsX || count == 13) {
+                return false;
+            }
+            int d;
+            if (isDigit(c)) {
+                d = c - '0';
+            } else if ((c == 'X' || c == 'x') && count == 9) {
+                d = 10;
+                lastIsX = true;
+            } else {
+                return false;
+            }
+            sum10 += d * (10 - count);
+            sum13 += (count & 1) == 0 ? d : 3 * d;
+            if (count < 3) {
+                prefix = prefix * 10 + d;
+            }
+            count++;
+        }
+        if (count == 10) {
+            return sum10 % 11 == 0;
+        }
+        return count == 13 && (prefix == 978 || prefix == 979) && sum13 % 10 == 0;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isDigit(c) || isAsciiLetter(c);
+    }
+
+    // same set as the regex class \s
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,203 @@
+package com.codeup.booknova.util.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.domain.User;
+
+/**
+ * Bulk validation for imports and registration bursts.
+ * <p>
+ * Applies the same rules as {@link com.codeup.booknova.util.ValidationUtils},
+ * but instead of throwing at the first invalid field it checks every field
+ * and returns a {@link ValidationResult} with all violations. Formats are
+ * checked with {@link TextScanners} instead of regular expressions, ISBN check
+ * digits are verified, and a valid record allocates nothing.
+ * </p>
+ * <p>
+ * {@link #validateAll(List, Function)} validates large batches in parallel on
+ * the common fork/join pool.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ValidationEngine {
+
+    /** Batches smaller than this are validated on the calling thread. */
+    static final int PARALLEL_THRESHOLD = 2048;
+
+    static final Violation NAME_EMPTY = new Violation("name", "name.empty", "Name cannot be null or empty");
+    static final Violation NAME_TOO_LONG = new Violation("name", "name.length", "Name cannot exceed 100 characters");
+    static final Violation NAME_DIGITS = new Violation("name", "name.digits", "Name cannot contain only numbers");
+    static final Violation EMAIL_EMPTY = new Violation("email", "email.empty", "Email cannot be null or empty");
+    static final Violation EMAIL_TOO_LONG = new Violation("email", "email.length", "Email cannot exceed 120 characters");
+    static final Violation EMAIL_FORMAT = new Violation("email", "email.format", "Invalid email format");
+    static final Violation PASSWORD_EMPTY = new Violation("password", "password.empty", "Password cannot be null or empty");
+    static final Violation PASSWORD_TOO_SHORT = new Violation("password", "password.length", "Password must be at least 8 characters long");
+    static final Violation PASSWORD_TOO_LONG = new Violation("password", "password.length", "Password cannot exceed 255 characters");
+    static final Violation PHONE_EMPTY = new Violation("phone", "phone.empty", "Phone cannot be null or empty");
+    static final Violation PHONE_TOO_LONG = new Violation("phone", "phone.length", "Phone cannot exceed 30 characters");
+    static final Violation PHONE_FORMAT = new Violation("phone", "phone.format", "Invalid phone number format");
+    static final Violation ISBN_EMPTY = new Violation("isbn", "isbn.empty", "ISBN cannot be null or empty");
+    static final Violation ISBN_TOO_LONG = new Violation("isbn", "isbn.length", "ISBN cannot exceed 20 characters");
+    static final Violation ISBN_FORMAT = new Violation("isbn", "isbn.format", "ISBN must be a valid ISBN-10 or ISBN-13");
+    static final Violation TITLE_EMPTY = new Violation("title", "title.empty", "Title cannot be null or empty");
+    static final Violation TITLE_TOO_LONG = new Violation("title", "title.length", "Title cannot exceed 100 characters");
+    static final Violation AUTHOR_EMPTY = new Violation("author", "author.empty", "Author cannot be null or empty");
+    static final Violation AUTHOR_TOO_LONG = new Violation("author", "author.length", "Author cannot exceed 100 characters");
+    static final Violation STOCK_NULL = new Violation("stock", "stock.null", "Stock cannot be null");
+    static final Violation STOCK_NEGATIVE = new Violation("stock", "stock.negative", "Stock cannot be negative");
+
+    private ValidationEngine() {}
+
+    /**
+     * Validates user registration data.
+     *
+     * @param name the user's name
+     * @param email the user's email
+     * @param password the user's password
+     * @param phone the user's phone number
+     * @return every violation found
+     */
+    public static ValidationResult validateUser(String name, String email, String password, String phone) {
+        List<Violation> v = checkName(name, null);
+        v = checkEmail(email, v);
+        v = checkPassword(password, v);
+        v = checkPhone(phone, v);
+        return ValidationResult.of(v);
+    }
+
+    public static ValidationResult validateUser(User user) {
+        return validateUser(user.getName(), user.getEmail(), user.getPassword(), user.getPhone());
+    }
+
+    /**
+     * Validates book data, including the ISBN check digit.
+     *
+     * @param isbn the book's ISBN
+     * @param title the book's title
+     * @param author the book's author
+     * @param stock the book's stock
+     * @return every violation found
+     */
+    public static ValidationResult validateBook(String isbn, String title, String author, Integer stock) {
+        List<Violation> v = checkIsbn(isbn, null);
+        v = checkText(title, 100, TITLE_EMPTY, TITLE_TOO_LONG, v);
+        v = checkText(author, 100, AUTHOR_EMPTY, AUTHOR_TOO_LONG, v);
+        if (stock == null) {
+            v = add(v, STOCK_NULL);
+        } else if (stock < 0) {
+            v = add(v, STOCK_NEGATIVE);
+        }
+        return ValidationResult.of(v);
+    }
+
+    public static ValidationResult validateBook(Book book) {
+        return validateBook(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getStock());
+    }
+
+    /**
+     * Validates a batch of records, in parallel once it reaches
+     * {@value #PARALLEL_THRESHOLD} records.
+     *
+     * @param <T> the record type
+     * @param records the records
+     * @param rule validates one record, e.g. {@code ValidationEngine::validateBook}
+     * @return one result per record, in the same order
+     */
+    public static <T> List<ValidationResult> validateAll(List<? extends T> records,
+                                                         Function<? super T, ValidationResult> rule) {
+        List<? extends T> source = records instanceof RandomAccess ? records : new ArrayList<>(records);
+        ValidationResult[] results = new ValidationResult[source.size()];
+        IntStream indexes = IntStream.range(0, results.length);
+        if (results.length >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> results[i] = rule.apply(source.get(i)));
+        return Arrays.asList(results);
+    }
+
+    public static List<ValidationResult> validateBooks(List<Book> books) {
+        return validateAll(books, ValidationEngine::validateBook);
+    }
+
+    public static List<ValidationResult> validateUsers(List<User> users) {
+        return validateAll(users, ValidationEngine::validateUser);
+    }
+
+    private static List<Violation> checkName(String name, List<Violation> v) {
+        if (TextScanners.isBlank(name)) {
+            return add(v, NAME_EMPTY);
+        }
+        if (name.length() > 100) {
+            v = add(v, NAME_TOO_LONG);
+        }
+        if (TextScanners.isDigitsOnly(name)) {
+            v = add(v, NAME_DIGITS);
+        }
+        return v;
+    }
+
+    private static List<Violation> checkEmail(String email, List<Violation> v) {
+        if (TextScanners.isBlank(email)) {
+            return add(v, EMAIL_EMPTY);
+        }
+        if (email.length() > 120) {
+            return add(v, EMAIL_TOO_LONG);
+        }
+        return TextScanners.isEmail(email) ? v : add(v, EMAIL_FORMAT);
+    }
+
+    private static List<Violation> checkPassword(String password, List<Violation> v) {
+        if (TextScanners.isBlank(password)) {
+            return add(v, PASSWORD_EMPTY);
+        }
+        if (password.length() < 8) {
+            return add(v, PASSWORD_TOO_SHORT);
+        }
+        return password.length() > 255 ? add(v, PASSWORD_TOO_LONG) : v;
+    }
+
+    private static List<Violation> checkPhone(String phone, List<Violation> v) {
+        if (TextScanners.isBlank(phone)) {
+            return add(v, PHONE_EMPTY);
+        }
+        if (phone.length() > 30) {
+            return add(v, PHONE_TOO_LONG);
+        }
+        return TextScanners.isPhone(phone) ? v : add(v, PHONE_FORMAT);
+    }
+
+    private static List<Violation> checkIsbn(String isbn, List<Violation> v) {
+        if (TextScanners.isBlank(isbn)) {
+            return add(v, ISBN_EMPTY);
+        }
+        if (isbn.length() > 20) {
+            return add(v, ISBN_TOO_LONG);
+        }
+        return TextScanners.isIsbn(isbn) ? v : add(v, ISBN_FORMAT);
+    }
+
+    private static List<Violation> checkText(String value, int maxLength, Violation empty, Violation tooLong,
+                                             List<Violation> v) {
+        if (TextScanners.isBlank(value)) {
+            return add(v, empty);
+        }
+        return value.length() > maxLength ? add(v, tooLong) : v;
+    }
+
+    // the list is created with the first violation, so valid records allocate nothing
+    private static List<Violation> add(List<Violation> v, Violation violation) {
+        if (v == null) {
+            v = new ArrayList<>(4);
+        }
+        v.add(violation);
+        return v;
+    }
+}
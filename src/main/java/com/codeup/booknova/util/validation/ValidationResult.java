@@ -0,0 +1,66 @@
+package com.codeup.booknova.util.validation;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.codeup.booknova.exception.DatabaseException;
+
+/**
+ * The violations found in one record.
+ * <p>
+ * Every rule is checked, so a caller sees all problems at once instead of
+ * only the first. Valid records share the {@link #VALID} instance.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ValidationResult {
+
+    /** The result of a record without violations. */
+    public static final ValidationResult VALID = new ValidationResult(List.of());
+
+    private final List<Violation> violations;
+
+    private ValidationResult(List<Violation> violations) {
+        this.violations = violations;
+    }
+
+    /**
+     * Wraps collected violations.
+     *
+     * @param violations the violations, or {@code null} if none were found
+     * @return the result
+     */
+    static ValidationResult of(List<Violation> violations) {
+        return violations == null || violations.isEmpty() ? VALID : new ValidationResult(Collections.unmodifiableList(violations));
+    }
+
+    public boolean isValid() {
+        return violations.isEmpty();
+    }
+
+    public List<Violation> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Throws the violations the way {@link com.codeup.booknova.util.ValidationUtils}
+     * reports them, for callers that want a single exception.
+     *
+     * @throws DatabaseException listing every violation, if there are any
+     */
+    public void throwIfInvalid() {
+        if (!isValid()) {
+            throw new DatabaseException(violations.stream()
+                    .map(Violation::message)
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "valid" : violations.toString();
+    }
+}
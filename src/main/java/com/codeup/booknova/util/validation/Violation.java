@@ -0,0 +1,24 @@
+package com.codeup.booknova.util.validation;
+
+/**
+ * A single failed validation rule.
+ * <p>
+ * A plain value rather than an exception, so reporting it costs no stack
+ * trace. The violations produced by {@link ValidationEngine} are shared
+ * constants; only the list that collects them is allocated, and only for
+ * invalid records.
+ * </p>
+ *
+ * @param field the field that failed, e.g. {@code email}
+ * @param code a stable, machine-readable code, e.g. {@code email.format}
+ * @param message the human-readable message
+ * @version 1.0
+ * @since 1.0
+ */
+public record Violation(String field, String code, String message) {
+
+    @Override
+    public String toString() {
+        return field + ": " + message;
+    }
+}
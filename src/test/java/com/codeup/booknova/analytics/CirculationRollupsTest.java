@@ -0,0 +1,149 @@
+package com.codeup.booknova.analytics;
+
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.domain.MemberRole;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CirculationRollupsTest {
+    private static final LocalDate DAY1 = LocalDate.of(2024, 3, 30);
+    private static final LocalDate DAY2 = LocalDate.of(2024, 4, 2);
+
+    private JdbcTemplateLight jdbc;
+    private JdbcCirculationRollups rollups;
+    private CirculationAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        jdbc = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+        jdbc.update("CREATE TABLE book (id INT PRIMARY KEY, title VARCHAR(100))", null);
+        jdbc.update("CREATE TABLE member (id INT PRIMARY KEY, role VARCHAR(10))", null);
+        jdbc.update("CREATE TABLE loan (id INT AUTO_INCREMENT PRIMARY KEY, member_id INT, book_id INT, "
+                + "date_loaned DATE, date_due DATE, returned BOOLEAN, updated_at TIMESTAMP)", null);
+        jdbc.update("CREATE TABLE loan_daily_book (stat_date DATE NOT NULL, book_id INT NOT NULL, "
+                + "loans INT NOT NULL DEFAULT 0, returned INT NOT NULL DEFAULT 0, PRIMARY KEY (stat_date, book_id))", null);
+        jdbc.update("CREATE TABLE loan_daily_role (stat_date DATE NOT NULL, member_role VARCHAR(10) NOT NULL, "
+                + "loans INT NOT NULL DEFAULT 0, returned INT NOT NULL DEFAULT 0, returned_late INT NOT NULL DEFAULT 0, "
+                + "PRIMARY KEY (stat_date, member_role))", null);
+        jdbc.update("CREATE TABLE member_month_activity (stat_month DATE NOT NULL, member_id INT NOT NULL, "
+                + "PRIMARY KEY (stat_month, member_id))", null);
+        jdbc.update("INSERT INTO book VALUES (1, 'Dune'), (2, 'Emma')", null);
+        jdbc.update("INSERT INTO member VALUES (10, 'REGULAR'), (11, 'PREMIUM')", null);
+        rollups = new JdbcCirculationRollups(jdbc);
+        analytics = new CirculationAnalytics(jdbc);
+    }
+
+    private static Loan loan(int memberId, int bookId, LocalDate loaned, LocalDate due) {
+        Loan loan = new Loan();
+        loan.setMemberId(memberId);
+        loan.setBookId(bookId);
+        loan.setDateLoaned(loaned);
+        loan.setDateDue(due);
+        return loan;
+    }
+
+    // Writes the loan to the loan table as the service would leave it, and counts it incrementally
+    private void checkout(Loan loan, MemberRole role, LocalDate returnedOn) {
+        jdbc.update("INSERT INTO loan (member_id, book_id, date_loaned, date_due, returned, updated_at) VALUES ("
+                + loan.getMemberId() + ", " + loan.getBookId() + ", DATE '" + loan.getDateLoaned() + "', DATE '"
+                + loan.getDateDue() + "', " + (returnedOn != null) + ", TIMESTAMP '"
+                + (returnedOn != null ? returnedOn : loan.getDateLoaned()) + " 12:00:00')", null);
+        jdbc.txExecute(conn -> {
+            rollups.recordCheckout(loan, role);
+            return null;
+        });
+        if (returnedOn != null) {
+            rollups.recordReturn(loan, role, returnedOn);
+        }
+    }
+
+    private void seed() {
+        checkout(loan(10, 1, DAY1, DAY1.plusDays(14)), MemberRole.REGULAR, DAY2);
+        checkout(loan(10, 1, DAY1, DAY1.plusDays(1)), MemberRole.REGULAR, DAY2);
+        checkout(loan(11, 2, DAY1, DAY1.plusDays(14)), MemberRole.PREMIUM, null);
+        checkout(loan(11, 1, DAY2, DAY2.plusDays(14)), MemberRole.PREMIUM, null);
+    }
+
+    @Test
+    void recordCheckoutAndReturn_Incremental_FeedEveryReport() {
+        seed();
+
+        assertEquals(List.of(new BookLoanCount(1, "Dune", 3), new BookLoanCount(2, "Emma", 1)),
+                analytics.topBooks(DAY1, DAY2, 10));
+        assertEquals(List.of(new PeriodCount(DAY1, 3), new PeriodCount(DAY2, 1)), analytics.loansPerDay(DAY1, DAY2));
+        assertEquals(List.of(new PeriodCount(LocalDate.of(2024, 3, 1), 3), new PeriodCount(LocalDate.of(2024, 4, 1), 1)),
+                analytics.loansPerMonth(DAY1, DAY2));
+        assertEquals(List.of(new PeriodCount(LocalDate.of(2024, 3, 1), 2), new PeriodCount(LocalDate.of(2024, 4, 1), 1)),
+                analytics.activeMembersPerMonth(DAY1, DAY2));
+        List<RoleOverdueRate> rates = analytics.overdueRateByRole(DAY1, DAY2);
+        assertEquals(List.of(new RoleOverdueRate(MemberRole.REGULAR, 2, 1)), rates);
+        assertEquals(0.5, rates.get(0).rate());
+    }
+
+    @Test
+    void kpis_ReadsTodayMonthAndLast30Days() {
+        seed();
+
+        CirculationKpis kpis = analytics.kpis(DAY2);
+
+        assertEquals(1, kpis.loansToday());
+        assertEquals(1, kpis.loansThisMonth());
+        assertEquals(1, kpis.activeMembersThisMonth());
+        assertEquals(0.5, kpis.overdueRate());
+        assertEquals(new BookLoanCount(1, "Dune", 3), kpis.topBook());
+    }
+
+    @Test
+    void run_Backfill_MatchesIncrementalRollupsWithAnyPartitioning() {
+        seed();
+        List<BookLoanCount> top = analytics.topBooks(DAY1, DAY2, 10);
+        List<PeriodCount> perDay = analytics.loansPerDay(DAY1, DAY2);
+        List<PeriodCount> active = analytics.activeMembersPerMonth(DAY1, DAY2);
+        List<RoleOverdueRate> rates = analytics.overdueRateByRole(DAY1, DAY2);
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            for (int partitions : new int[]{1, 3, 16}) {
+                jdbc.update("DELETE FROM loan_daily_book", null);
+                jdbc.update("UPDATE loan_daily_role SET loans = 99", null);
+
+                RollupBackfillJob.Result result = new RollupBackfillJob(jdbc, pool, partitions).run();
+
+                assertEquals(Math.min(partitions, 4), result.partitions());
+                assertEquals(top, analytics.topBooks(DAY1, DAY2, 10));
+                assertEquals(perDay, analytics.loansPerDay(DAY1, DAY2));
+                assertEquals(active, analytics.activeMembersPerMonth(DAY1, DAY2));
+                assertEquals(rates, analytics.overdueRateByRole(DAY1, DAY2));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void run_EmptyLoanTable_ClearsRollups() {
+        rollups.recordCheckout(loan(10, 1, DAY1, DAY2), MemberRole.REGULAR);
+
+        RollupBackfillJob.Result result = new RollupBackfillJob(jdbc, Runnable::run, 4).run();
+
+        assertEquals(0, result.partitions());
+        assertTrue(analytics.loansPerDay(DAY1, DAY2).isEmpty());
+        assertTrue(analytics.activeMembersPerMonth(DAY1, DAY2).isEmpty());
+    }
+}
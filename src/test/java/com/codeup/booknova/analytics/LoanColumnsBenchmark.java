@@ -0,0 +1,98 @@
+package com.codeup.booknova.analytics;
+
+import com.codeup.booknova.domain.Loan;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * A report over the whole loan history: {@link LoanColumns} vs. a
+ * {@code List<Loan>}.
+ * <p>
+ * Each benchmark counts loans per book for one quarter (loaned in the
+ * quarter and returned late) and keeps the ten most borrowed books, first
+ * with a parallel stream over {@link Loan} objects and then with the
+ * columnar snapshot. The {@code List<Loan>} alone fills most of a 4 GB heap at 10M rows;
+ * pass a smaller {@code -p rows=} on small machines.
+ * </p>
+ * <p>Run with:</p>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-cp.txt) \
+ *     org.openjdk.jmh.Main LoanColumnsBenchmark -jvmArgsAppend -Xmx8g
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanColumnsBenchmark {
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+    private static final LocalDate FROM = LocalDate.of(2022, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2022, 3, 31);
+
+    @Param({"10000000"})
+    public int rows;
+
+    private List<Loan> loans;
+    private LoanColumns columns;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        loans = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            LocalDate loaned = START.plusDays(random.nextInt(5 * 365));
+            Loan loan = new Loan();
+            loan.setId(i + 1);
+            loan.setMemberId(1 + random.nextInt(200_000));
+            loan.setBookId(1 + random.nextInt(50_000));
+            loan.setDateLoaned(loaned);
+            loan.setDateDue(loaned.plusDays(14));
+            boolean returned = random.nextInt(10) < 8;
+            loan.setReturned(returned);
+            loan.setReturnDate(returned ? loaned.plusDays(random.nextInt(30)) : null);
+            loans.add(loan);
+        }
+        columns = LoanColumns.of(loans);
+    }
+
+    @Benchmark
+    public List<Map.Entry<Integer, Long>> topBooks_List() {
+        return loans.parallelStream()
+                .filter(l -> !l.getDateLoaned().isBefore(FROM) && !l.getDateLoaned().isAfter(TO)
+                        && Boolean.TRUE.equals(l.getReturned()) && l.getReturnDate() != null
+                        && l.getReturnDate().isAfter(l.getDateDue()))
+                .collect(Collectors.groupingByConcurrent(Loan::getBookId, Collectors.counting()))
+                .entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(10)
+                .toList();
+    }
+
+    @Benchmark
+    public List<LoanColumns.KeyCount> topBooks_Columns() {
+        return columns.topK(LoanColumns.Column.BOOK,
+                columns.loanedBetween(FROM, TO).and(columns.returnedLate()), 10);
+    }
+
+    @Benchmark
+    public long countActive_List() {
+        return loans.parallelStream().filter(l -> !Boolean.TRUE.equals(l.getReturned())).count();
+    }
+
+    @Benchmark
+    public long countActive_Columns() {
+        return columns.count(columns.active());
+    }
+}
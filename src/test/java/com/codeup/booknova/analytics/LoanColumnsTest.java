@@ -0,0 +1,132 @@
+package com.codeup.booknova.analytics;
+
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoanColumnsTest {
+    private static final LocalDate DAY1 = LocalDate.of(2024, 3, 30);
+    private static final LocalDate DAY2 = LocalDate.of(2024, 4, 2);
+
+    private static Loan loan(int id, int memberId, int bookId, LocalDate loaned, LocalDate due, LocalDate returnedOn) {
+        Loan loan = new Loan();
+        loan.setId(id);
+        loan.setMemberId(memberId);
+        loan.setBookId(bookId);
+        loan.setDateLoaned(loaned);
+        loan.setDateDue(due);
+        loan.setReturned(returnedOn != null);
+        loan.setReturnDate(returnedOn);
+        return loan;
+    }
+
+    // spans several fork/join leaves
+    private static List<Loan> randomLoans(int n) {
+        Random random = new Random(7);
+        List<Loan> loans = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            LocalDate loaned = DAY1.plusDays(random.nextInt(60));
+            LocalDate due = loaned.plusDays(14);
+            LocalDate returnedOn = random.nextBoolean() ? loaned.plusDays(random.nextInt(30)) : null;
+            loans.add(loan(i + 1, 1 + random.nextInt(500), 1 + random.nextInt(2000), loaned, due, returnedOn));
+        }
+        return loans;
+    }
+
+    @Test
+    void filterCountAndGroup_ManyChunks_MatchStreamsOverLoans() {
+        List<Loan> loans = randomLoans(3 * LoanColumns.CHUNK + 123);
+        LoanColumns columns = LoanColumns.of(loans);
+        LoanColumns.Filter late = columns.loanedBetween(DAY1.plusDays(10), DAY1.plusDays(40)).and(columns.returnedLate());
+        Predicate<Loan> isLate = l -> !l.getDateLoaned().isBefore(DAY1.plusDays(10))
+                && !l.getDateLoaned().isAfter(DAY1.plusDays(40))
+                && l.getReturnDate() != null && l.getReturnDate().isAfter(l.getDateDue());
+
+        BitSet rows = columns.filter(late);
+        for (int i = 0; i < loans.size(); i++) {
+            assertEquals(isLate.test(loans.get(i)), rows.get(i), "row " + i);
+        }
+        assertEquals(loans.stream().filter(isLate).count(), columns.count(late));
+
+        Map<Integer, Long> byBook = loans.stream().filter(isLate)
+                .collect(Collectors.groupingBy(Loan::getBookId, Collectors.counting()));
+        List<LoanColumns.KeyCount> grouped = columns.countBy(LoanColumns.Column.BOOK, late);
+        assertEquals(byBook.size(), grouped.size());
+        grouped.forEach(kc -> assertEquals(byBook.get(kc.key()), kc.count()));
+
+        List<LoanColumns.KeyCount> expectedTop = byBook.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(10)
+                .map(e -> new LoanColumns.KeyCount(e.getKey(), e.getValue()))
+                .toList();
+        assertEquals(expectedTop, columns.topK(LoanColumns.Column.BOOK, late, 10));
+    }
+
+    @Test
+    void countBy_DateColumn_SkipsMissingDatesAndUsesEpochDays() {
+        LoanColumns columns = LoanColumns.of(List.of(
+                loan(1, 10, 1, DAY1, DAY1.plusDays(14), DAY2),
+                loan(2, 10, 1, DAY1, DAY1.plusDays(1), DAY2),
+                loan(3, 11, 2, DAY2, DAY2.plusDays(14), null)));
+
+        assertEquals(List.of(new LoanColumns.KeyCount((int) DAY2.toEpochDay(), 2)),
+                columns.countBy(LoanColumns.Column.RETURNED_ON, columns.all()));
+        assertEquals(List.of(new LoanColumns.KeyCount(1, 2), new LoanColumns.KeyCount(2, 1)),
+                columns.topK(LoanColumns.Column.BOOK, columns.all(), 5));
+        assertEquals(1, columns.count(columns.returnedLate()));
+        assertEquals(1, columns.count(columns.overdueOn(DAY2.plusDays(15))));
+        assertEquals(0, columns.count(columns.overdueOn(DAY2)));
+        assertEquals(2, columns.count(columns.ofMember(10)));
+    }
+
+    @Test
+    void topK_EmptySnapshotOrZeroK_ReturnsEmpty() {
+        LoanColumns empty = LoanColumns.of(List.of());
+
+        assertEquals(0, empty.count(empty.all()));
+        assertTrue(empty.filter(empty.all()).isEmpty());
+        assertTrue(empty.topK(LoanColumns.Column.MEMBER, empty.all(), 3).isEmpty());
+        LoanColumns one = LoanColumns.of(List.of(loan(1, 10, 1, DAY1, DAY2, null)));
+        assertTrue(one.topK(LoanColumns.Column.MEMBER, one.all(), 0).isEmpty());
+    }
+
+    @Test
+    void load_LoanTable_StreamsRowsIntoColumns() {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+        jdbc.update("CREATE TABLE loan (id INT AUTO_INCREMENT PRIMARY KEY, member_id INT, book_id INT, "
+                + "date_loaned DATE, date_due DATE, returned BOOLEAN, updated_at TIMESTAMP)", null);
+        jdbc.update("INSERT INTO loan (member_id, book_id, date_loaned, date_due, returned, updated_at) VALUES "
+                + "(10, 1, DATE '2024-03-30', DATE '2024-03-31', TRUE, TIMESTAMP '2024-04-02 12:00:00'), "
+                + "(11, 2, DATE '2024-04-02', DATE '2024-04-16', FALSE, TIMESTAMP '2024-04-02 09:00:00')", null);
+
+        LoanColumns columns = LoanColumns.load(jdbc);
+
+        assertEquals(2, columns.size());
+        assertEquals(10, columns.getMemberId(0));
+        assertTrue(columns.isReturned(0));
+        assertEquals(DAY2.toEpochDay(), columns.getReturnedDay(0));
+        assertFalse(columns.isReturned(1));
+        assertEquals(LoanColumns.NO_DATE, columns.getReturnedDay(1));
+        assertEquals(DAY2.plusDays(14).toEpochDay(), columns.getDueDay(1));
+        assertEquals(1, columns.count(columns.returnedLate()));
+    }
+}
@@ -0,0 +1,267 @@
+package com.codeup.booknova.api;
+
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.domain.User;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.service.IBookService;
+import com.codeup.booknova.service.ILoanService;
+import com.codeup.booknova.service.IMemberService;
+import com.codeup.booknova.service.IMembershipRequestService;
+import com.codeup.booknova.service.IUserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ApiServerTest {
+    @Mock
+    private IBookService bookService;
+
+    @Mock
+    private ILoanService loanService;
+
+    @Mock
+    private IMemberService memberService;
+
+    @Mock
+    private IUserService userService;
+
+    @Mock
+    private IMembershipRequestService requestService;
+
+    private ApiServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        server = new ApiServer(new InetSocketAddress("127.0.0.1", 0), null, null,
+                bookService, loanService, memberService, userService, requestService);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void getBooks_ReturnsJsonArray() throws Exception {
+        when(bookService.getAllBooks()).thenReturn(List.of(book(1, "Dune"), book(2, "Emma \"E\"")));
+
+        HttpResponse<String> response = get("/api/books");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+        assertTrue(response.body().startsWith("[{\"id\":1,\"isbn\":\"978-0000000001\",\"title\":\"Dune\""));
+        assertTrue(response.body().contains("\"title\":\"Emma \\\"E\\\"\""));
+    }
+
+    @Test
+    void getBooks_MatchingIfNoneMatch_Returns304() throws Exception {
+        when(bookService.getAllBooks()).thenReturn(List.of(book(1, "Dune")));
+        String etag = get("/api/books").headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> response = send(request("/api/books").header("If-None-Match", etag).GET());
+
+        assertEquals(304, response.statusCode());
+        assertEquals("", response.body());
+    }
+
+    @Test
+    void getBooks_CatalogueChanged_EtagChanges() throws Exception {
+        Book book = book(1, "Dune");
+        when(bookService.getAllBooks()).thenReturn(List.of(book));
+        String before = get("/api/books").headers().firstValue("ETag").orElseThrow();
+
+        book.setStock(book.getStock() - 1);
+        HttpResponse<String> response = send(request("/api/books").header("If-None-Match", before).GET());
+
+        assertEquals(200, response.statusCode());
+        assertNotEquals(before, response.headers().firstValue("ETag").orElseThrow());
+    }
+
+    @Test
+    void getBooks_AcceptsGzip_StreamsCompressedBody() throws Exception {
+        List<Book> many = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            many.add(book(i, "Title " + i));
+        }
+        when(bookService.getAllBooks()).thenReturn(many);
+
+        HttpResponse<byte[]> response = client.send(request("/api/books").header("Accept-Encoding", "gzip").GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        String json;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(json.endsWith("\"title\":\"Title 2000\",\"author\":\"Author\",\"stock\":3,"
+                + "\"createdAt\":null,\"updatedAt\":\"2024-01-01T00:00:00Z\"}]"));
+        assertTrue(response.body().length < json.length() / 4, "Repetitive catalogue JSON should compress well.");
+    }
+
+    @Test
+    void getUser_NeverIncludesPassword() throws Exception {
+        User user = new User("Ana", "ana@example.com", "$2a$10$hash", "3001234567");
+        user.setId(7);
+        when(userService.findUserById(7)).thenReturn(Optional.of(user));
+
+        HttpResponse<String> response = get("/api/users/7");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"email\":\"ana@example.com\""));
+        assertFalse(response.body().contains("password"));
+        assertFalse(response.body().contains("$2a$10$hash"));
+    }
+
+    @Test
+    void postUser_WithRole_Returns400AndCreatesNoUser() throws Exception {
+        HttpResponse<String> response = send(request("/api/users")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\": \"Eve\", \"email\": \"eve@example.com\", "
+                        + "\"password\": \"secret123\", \"phone\": \"3001234567\", \"role\": \"ADMIN\"}")));
+
+        assertEquals(400, response.statusCode());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void deleteUser_NotExposed_Returns405() throws Exception {
+        HttpResponse<String> response = send(request("/api/users/7").DELETE());
+
+        assertEquals(405, response.statusCode());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void postMember_WithRole_Returns400AndCreatesNoMember() throws Exception {
+        HttpResponse<String> response = send(request("/api/members")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\": \"Eve\", \"role\": \"PREMIUM\"}")));
+
+        assertEquals(400, response.statusCode());
+        verifyNoInteractions(memberService);
+    }
+
+    @Test
+    void adminMutations_NotExposed_AreRejected() throws Exception {
+        assertEquals(405, send(request("/api/books/1")
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"stock\": 0}"))).statusCode());
+        assertEquals(405, send(request("/api/books/1").DELETE()).statusCode());
+        assertEquals(404, send(request("/api/books/1/stock")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"quantity\": 5}"))).statusCode());
+        assertEquals(405, send(request("/api/members/3").DELETE()).statusCode());
+        assertEquals(404, send(request("/api/members/3/premium")
+                .POST(HttpRequest.BodyPublishers.noBody())).statusCode());
+        assertEquals(404, send(request("/api/membership-requests/4/approve")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"userId\": 1}"))).statusCode());
+
+        verifyNoInteractions(bookService, memberService, requestService);
+    }
+
+    @Test
+    void postLoan_CreatesLoan() throws Exception {
+        Loan loan = new Loan(3, 5, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15));
+        loan.setId(11);
+        when(loanService.createLoan(3, 5)).thenReturn(loan);
+
+        HttpResponse<String> response = send(request("/api/loans")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"memberId\": 3, \"bookId\": 5}")));
+
+        assertEquals(201, response.statusCode());
+        assertTrue(response.body().contains("\"dateDue\":\"2024-01-15\""));
+    }
+
+    @Test
+    void postLoan_BusinessRuleViolated_Returns409() throws Exception {
+        when(loanService.createLoan(3, 5)).thenThrow(new DatabaseException("Member has reached borrowing limit"));
+
+        HttpResponse<String> response = send(request("/api/loans")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"memberId\": 3, \"bookId\": 5}")));
+
+        assertEquals(409, response.statusCode());
+        assertEquals("{\"error\":\"Member has reached borrowing limit\"}", response.body());
+    }
+
+    @Test
+    void postLoan_MissingField_Returns400() throws Exception {
+        HttpResponse<String> response = send(request("/api/loans")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"memberId\": 3}")));
+
+        assertEquals(400, response.statusCode());
+        verifyNoInteractions(loanService);
+    }
+
+    @Test
+    void getBook_Unknown_Returns404() throws Exception {
+        when(bookService.findBookById(99)).thenReturn(Optional.empty());
+
+        assertEquals(404, get("/api/books/99").statusCode());
+        assertEquals(404, get("/api/nothing-here").statusCode());
+    }
+
+    @Test
+    void metrics_RecordLatencyPerRoute() throws Exception {
+        when(bookService.getAllBooks()).thenReturn(List.of());
+        for (int i = 0; i < 3; i++) {
+            get("/api/books");
+        }
+
+        ApiMetrics.RouteStats stats = server.getMetrics().get("GET /api/books");
+
+        assertEquals(3, stats.count());
+        assertTrue(stats.percentileMicros(99) <= stats.maxMicros());
+        assertTrue(get("/api/metrics").body().contains("\"GET /api/books\":{\"count\":3"));
+    }
+
+    @Test
+    void apiKey_Configured_RejectsRequestsWithoutIt() throws Exception {
+        server.close();
+        server = new ApiServer(new InetSocketAddress("127.0.0.1", 0), "secret", null,
+                bookService, loanService, memberService, userService, requestService);
+        server.start();
+        when(bookService.getAllBooks()).thenReturn(List.of());
+
+        assertEquals(401, get("/api/books").statusCode());
+        assertEquals(200, send(request("/api/books").header("X-Api-Key", "secret").GET()).statusCode());
+    }
+
+    private static Book book(int id, String title) {
+        Book book = new Book("978-" + String.format("%010d", id), title, "Author", 3);
+        book.setId(id);
+        book.setUpdatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        return book;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path));
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return send(request(path).GET());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder builder) throws Exception {
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,109 @@
+package com.codeup.booknova.api.json;
+
+import com.codeup.booknova.domain.AccessLevel;
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.domain.Member;
+import com.codeup.booknova.domain.MemberRole;
+import com.codeup.booknova.domain.MembershipRequest;
+import com.codeup.booknova.domain.User;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DomainJsonWritersTest {
+
+    @Test
+    void writers_MatchReflectiveMapperForEveryDomainClass() throws IOException {
+        Book book = new Book("978-3-16-148410-0", "Cien años de soledad", "García Márquez", 4);
+        book.setId(1);
+        book.setCreatedAt(Instant.parse("2024-03-01T08:30:00Z"));
+        book.setUpdatedAt(Instant.parse("2024-03-02T08:30:00.123456789Z"));
+
+        Loan loan = new Loan(2, 1, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 15));
+        loan.setId(9);
+        loan.setUpdatedAt(Instant.parse("1969-12-31T23:59:59.5Z"));
+
+        Member member = new Member("Zoë \"Z\" O'Neil");
+        member.setId(3);
+        member.setRole(MemberRole.PREMIUM);
+        member.setAccessLevel(AccessLevel.MANAGE);
+
+        User user = new User("Ana", "ana@example.com", "$2a$10$secret", "300 123 4567");
+        user.setId(4);
+
+        MembershipRequest request = new MembershipRequest(4, "Ana\tTab", "ana@example.com");
+        request.setId(5);
+        request.setRequestReason("Line\nbreak \\ emoji 📚 and \u2028 and \u0001");
+
+        for (Object value : List.of(book, loan, member, user, request)) {
+            assertEquals(reflective(value), handWritten(value), value.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void userWriter_NeverWritesPassword() throws IOException {
+        User user = new User("Ana", "ana@example.com", "$2a$10$secret", "3001234567");
+
+        String json = handWritten(user);
+
+        assertFalse(json.contains("password"));
+        assertFalse(json.contains("$2a$10$secret"));
+    }
+
+    @Test
+    void writeArray_StreamingLargerThanBuffer_WritesEveryElement() throws IOException {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Book b = new Book("isbn-" + i, "Title " + i, "Author", i);
+            b.setId(i);
+            books.add(b);
+        }
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+        try (JsonOutput out = JsonOutput.to(sink)) {
+            new BookJsonWriter().writeArray(out, books);
+        }
+
+        assertTrue(sink.size() > JsonOutput.BUFFER_SIZE);
+        assertEquals(reflective(books), sink.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void longValues_MatchToString() throws IOException {
+        long[] values = {0, 7, -7, 10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long v : values) {
+            try (JsonOutput out = JsonOutput.buffered()) {
+                out.value(v);
+                assertEquals(Long.toString(v), new String(out.toByteArray(), StandardCharsets.US_ASCII));
+            }
+        }
+    }
+
+    private static String handWritten(Object value) throws IOException {
+        @SuppressWarnings("unchecked")
+        ObjectJsonWriter<Object> writer = (ObjectJsonWriter<Object>) DomainJsonWriters.forClass(value.getClass());
+        try (JsonOutput out = JsonOutput.buffered()) {
+            writer.write(out, value);
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String reflective(Object value) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (Writer w = new OutputStreamWriter(buffer, StandardCharsets.UTF_8)) {
+            new JsonMapper().write(new JsonWriter(w), value);
+        }
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
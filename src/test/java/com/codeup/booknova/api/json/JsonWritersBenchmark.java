@@ -0,0 +1,122 @@
+package com.codeup.booknova.api.json;
+
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.domain.Loan;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a list response: hand-written {@link ObjectJsonWriter}s vs. the
+ * reflective {@link JsonMapper}.
+ * <p>
+ * Both paths stream {@code size} books or loans as one JSON array into an
+ * {@link OutputStream} that discards the bytes, the way a list endpoint
+ * writes its response. Add {@code -prof gc} to compare allocation per
+ * operation.
+ * </p>
+ * <p>Run with:</p>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-cp.txt) \
+ *     org.openjdk.jmh.Main JsonWritersBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonWritersBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    private List<Book> books;
+    private List<Loan> loans;
+    private final JsonMapper mapper = new JsonMapper();
+    private final BookJsonWriter bookWriter = new BookJsonWriter();
+    private final LoanJsonWriter loanWriter = new LoanJsonWriter();
+
+    /** Discards bytes but keeps them observable so the writes are not optimized away. */
+    private static final class SinkStream extends OutputStream {
+        private final Blackhole bh;
+
+        SinkStream(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void write(int b) {
+            bh.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bh.consume(b);
+            bh.consume(len);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        books = new ArrayList<>(size);
+        loans = new ArrayList<>(size);
+        Instant now = Instant.parse("2024-05-01T10:15:30Z");
+        for (int i = 0; i < size; i++) {
+            Book b = new Book("978-0-00-" + (100000 + i), "Título del libro número " + i, "Autor " + (i % 50), i % 7);
+            b.setId(i + 1);
+            b.setCreatedAt(now.minusSeconds(i));
+            b.setUpdatedAt(now);
+            books.add(b);
+
+            Loan l = new Loan(i % 300 + 1, i + 1, LocalDate.of(2024, 4, 1), LocalDate.of(2024, 4, 15));
+            l.setId(i + 1);
+            l.setCreatedAt(now);
+            l.setUpdatedAt(now);
+            loans.add(l);
+        }
+    }
+
+    @Benchmark
+    public void booksHandWritten(Blackhole bh) throws IOException {
+        try (JsonOutput out = JsonOutput.to(new SinkStream(bh))) {
+            bookWriter.writeArray(out, books);
+        }
+    }
+
+    @Benchmark
+    public void booksReflective(Blackhole bh) throws IOException {
+        reflective(bh, books);
+    }
+
+    @Benchmark
+    public void loansHandWritten(Blackhole bh) throws IOException {
+        try (JsonOutput out = JsonOutput.to(new SinkStream(bh))) {
+            loanWriter.writeArray(out, loans);
+        }
+    }
+
+    @Benchmark
+    public void loansReflective(Blackhole bh) throws IOException {
+        reflective(bh, loans);
+    }
+
+    private void reflective(Blackhole bh, List<?> items) throws IOException {
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(new SinkStream(bh), StandardCharsets.UTF_8), JsonOutput.BUFFER_SIZE)) {
+            mapper.write(new JsonWriter(w), items);
+        }
+    }
+}
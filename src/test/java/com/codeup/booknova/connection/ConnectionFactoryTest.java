@@ -0,0 +1,131 @@
+package com.codeup.booknova.connection;
+
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionFactoryTest {
+    private String primaryUrl;
+    private String replicaUrl;
+    private final List<ConnectionFactory> factories = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primaryUrl = "jdbc:h2:mem:primary-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        replicaUrl = "jdbc:h2:mem:replica-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        // Each database reports its own name so the test can see which one served a read
+        createOrigin(primaryUrl, "primary");
+        createOrigin(replicaUrl, "replica");
+    }
+
+    @AfterEach
+    void tearDown() {
+        factories.forEach(ConnectionFactory::close);
+    }
+
+    @Test
+    void query_WithReplica_ReadsFromReplica() {
+        JdbcTemplateLight jdbc = jdbc(replicaUrl, 60_000);
+
+        assertEquals("replica", origin(jdbc));
+    }
+
+    @Test
+    void query_AfterWrite_ReadsFromPrimaryWithinStickyWindow() throws InterruptedException {
+        JdbcTemplateLight jdbc = jdbc(replicaUrl, 200);
+
+        jdbc.update("UPDATE origin SET name = name", null);
+        assertEquals("primary", origin(jdbc), "Reads right after a write should see the primary.");
+
+        Thread.sleep(400);
+        assertEquals("replica", origin(jdbc), "Reads should return to the replica after the window.");
+    }
+
+    @Test
+    void query_AfterWriteInOtherSession_ReadsFromReplica() {
+        JdbcTemplateLight jdbc = jdbc(replicaUrl, 60_000);
+
+        ReadSession.set("kiosk-1");
+        try {
+            jdbc.update("UPDATE origin SET name = name", null);
+        } finally {
+            ReadSession.clear();
+        }
+
+        assertEquals("replica", origin(jdbc));
+    }
+
+    @Test
+    void query_ReplicaDown_FallsBackToPrimary() {
+        String missing = "jdbc:h2:mem:missing-" + UUID.randomUUID() + ";IFEXISTS=TRUE";
+        JdbcTemplateLight jdbc = jdbc(missing + "," + replicaUrl, 60_000);
+
+        // Round-robin skips the unreachable replica once it has been marked down
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica", origin(jdbc));
+        }
+    }
+
+    @Test
+    void txExecute_AlwaysUsesPrimary() {
+        JdbcTemplateLight jdbc = jdbc(replicaUrl, 60_000);
+
+        String name = jdbc.txExecute(conn -> origin(jdbc));
+
+        assertEquals("primary", name);
+    }
+
+    @Test
+    void close_WithReplicas_StopsHealthCheckButKeepsServingReads() {
+        ConnectionFactory factory = factory(replicaUrl, 60_000);
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(factory);
+        assertTrue(factory.isCheckingReplicaHealth());
+
+        factory.close();
+
+        assertFalse(factory.isCheckingReplicaHealth());
+        assertEquals("replica", origin(jdbc));
+    }
+
+    private JdbcTemplateLight jdbc(String replicas, long stickyMillis) {
+        return new JdbcTemplateLight(factory(replicas, stickyMillis));
+    }
+
+    private ConnectionFactory factory(String replicas, long stickyMillis) {
+        Properties props = new Properties();
+        props.setProperty("db.url", primaryUrl);
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        props.setProperty("db.replicas", replicas);
+        props.setProperty("db.replica.stickyMillis", String.valueOf(stickyMillis));
+        ConnectionFactory factory = new ConnectionFactory(new AppConfig(props));
+        factories.add(factory);
+        return factory;
+    }
+
+    private static String origin(JdbcTemplateLight jdbc) {
+        List<String> names = jdbc.query("SELECT name FROM origin", null, rs -> rs.getString(1));
+        return names.get(0);
+    }
+
+    private static void createOrigin(String url, String name) throws SQLException {
+        try (Connection c = DriverManager.getConnection(url, "sa", "");
+             Statement st = c.createStatement()) {
+            st.execute("CREATE TABLE origin (name VARCHAR(20))");
+            st.execute("INSERT INTO origin VALUES ('" + name + "')");
+        }
+    }
+}
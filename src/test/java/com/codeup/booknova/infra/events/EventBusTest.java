@@ -0,0 +1,212 @@
+package com.codeup.booknova.infra.events;
+
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.load.DatasetSeeder;
+import com.codeup.booknova.repository.impl.BookJdbcRepository;
+import com.codeup.booknova.service.impl.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventBusTest {
+
+    private EventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) {
+            bus.close();
+        }
+    }
+
+    @Test
+    void publish_TypedSubscriber_ReceivesOnlyItsEventsInOrder() throws InterruptedException {
+        bus = new EventBus(8, WaitStrategy.BLOCKING);
+        List<LoanChanged> loans = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(3);
+        bus.subscribe("loans", LoanChanged.class, event -> {
+            loans.add(event);
+            done.countDown();
+        });
+
+        bus.publish(new LoanChanged(LoanChanged.Kind.CREATED, 1, 10, 100));
+        bus.publish(new BookChanged(BookChanged.Kind.STOCK_CHANGED, 100, null));
+        bus.publish(new LoanChanged(LoanChanged.Kind.EXTENDED, 1, 10, 100));
+        bus.publish(new LoanChanged(LoanChanged.Kind.RETURNED, 1, 10, 100));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(LoanChanged.Kind.CREATED, LoanChanged.Kind.EXTENDED, LoanChanged.Kind.RETURNED),
+                loans.stream().map(LoanChanged::kind).toList());
+    }
+
+    @Test
+    void publish_ManyProducersOnSmallRing_DeliversEveryEventOnceInProducerOrder() throws InterruptedException {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            publishConcurrently(strategy);
+            bus.close();
+        }
+    }
+
+    private void publishConcurrently(WaitStrategy strategy) throws InterruptedException {
+        int producers = 4;
+        int perProducer = 5_000;
+        bus = new EventBus(16, strategy);
+        int[] next = new int[producers];
+        AtomicInteger outOfOrder = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(producers * perProducer);
+        bus.subscribe("checker", LoanChanged.class, event -> {
+            // loanId is the producer, bookId the producer's sequence
+            if (next[event.loanId()]++ != event.bookId()) {
+                outOfOrder.incrementAndGet();
+            }
+            done.countDown();
+        });
+        AtomicInteger slowSeen = new AtomicInteger();
+        bus.subscribe("slow", Object.class, event -> {
+            if (slowSeen.incrementAndGet() % 1000 == 0) {
+                Thread.yield();
+            }
+        });
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread t = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    bus.publish(new LoanChanged(LoanChanged.Kind.CREATED, producer, 0, i));
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS), strategy + ": missing " + done.getCount() + " events");
+        assertEquals(0, outOfOrder.get(), strategy + ": events out of order");
+        assertEquals((long) producers * perProducer, bus.toMap().get("published"));
+        awaitCounter("checker.handled", (long) producers * perProducer);
+    }
+
+    @Test
+    void subscribe_BurstOfEvents_EndsBatchOnceAfterEvents() throws InterruptedException {
+        bus = new EventBus(64, WaitStrategy.BLOCKING);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch ended = new CountDownLatch(2);
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe("batcher", BookChanged.class, new EventHandler<>() {
+            @Override
+            public void onEvent(BookChanged event) {
+                calls.add("event " + event.bookId());
+                if (event.bookId() == 0) {
+                    entered.countDown();
+                    await(release);
+                }
+            }
+
+            @Override
+            public void onEndOfBatch() {
+                calls.add("end");
+                ended.countDown();
+            }
+        });
+
+        bus.publish(new BookChanged(BookChanged.Kind.STOCK_CHANGED, 0, null));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        // published while the handler is busy, so taken as one batch
+        for (int i = 1; i <= 3; i++) {
+            bus.publish(new BookChanged(BookChanged.Kind.STOCK_CHANGED, i, null));
+        }
+        release.countDown();
+
+        assertTrue(ended.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("event 0", "end", "event 1", "event 2", "event 3", "end"), calls);
+    }
+
+    @Test
+    void subscribe_HandlerThrows_KeepsDeliveringAndCountsFailure() throws InterruptedException {
+        bus = new EventBus(8, WaitStrategy.SLEEPING);
+        CountDownLatch done = new CountDownLatch(1);
+        bus.subscribe("flaky", BookChanged.class, event -> {
+            if (event.bookId() == 1) {
+                throw new IllegalStateException("cache unavailable");
+            }
+            done.countDown();
+        });
+
+        bus.publish(new BookChanged(BookChanged.Kind.DELETED, 1, null));
+        bus.publish(new BookChanged(BookChanged.Kind.DELETED, 2, null));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        awaitCounter("flaky.handled", 1);
+        assertEquals(1L, bus.toMap().get("flaky.failures"));
+    }
+
+    @Test
+    void publishAfterCommit_RolledBackChangesAreNotPublished() throws InterruptedException {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+        DatasetSeeder.createSchema(jdbc, Path.of("src/main/java/com/codeup/booknova/db/DatabaseSchema.sql"));
+        bus = new EventBus(8, WaitStrategy.BLOCKING);
+        List<String> titles = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2);
+        bus.subscribe("titles", BookChanged.class, event -> {
+            titles.add(event.book().getTitle());
+            done.countDown();
+        });
+        BookService books = new BookService(new BookJdbcRepository(jdbc), null, null, bus);
+
+        assertThrows(DatabaseException.class, () -> jdbc.runInTransaction(() -> {
+            books.addBook("9780441013593", "Dune", "Herbert", 1);
+            throw new DatabaseException("rolled back");
+        }));
+        jdbc.runInTransaction(() -> {
+            books.addBook("9780141439587", "Emma", "Austen", 1);
+            assertThrows(DatabaseException.class, () -> jdbc.runInTransaction(() -> {
+                books.addBook("9780199535675", "Ulysses", "Joyce", 1);
+                throw new DatabaseException("rolled back to savepoint");
+            }));
+            assertTrue(titles.isEmpty(), "published before commit");
+        });
+        books.addBook("9780691096124", "Walden", "Thoreau", 1);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("Emma", "Walden"), titles);
+    }
+
+    // counters are updated once the handler returns, after it has counted down
+    private void awaitCounter(String name, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bus.toMap().get(name) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, bus.toMap().get(name), name);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
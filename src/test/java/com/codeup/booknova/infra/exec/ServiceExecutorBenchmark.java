@@ -0,0 +1,105 @@
+package com.codeup.booknova.infra.exec;
+
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.domain.Member;
+import com.codeup.booknova.repository.IBookRepository;
+import com.codeup.booknova.repository.ILoanRepository;
+import com.codeup.booknova.repository.IMemberRepository;
+import com.codeup.booknova.service.impl.LoanService;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checkout throughput of {@link ServiceExecutor} in virtual vs. platform mode.
+ * <p>
+ * Each operation submits {@value #CHECKOUTS} concurrent {@link LoanService#createLoan}
+ * calls. The repositories are stubs that park for {@code dbLatencyMicros} per
+ * call to stand in for a database round trip; a checkout makes six calls.
+ * Results are reported as checkouts per second.
+ * </p>
+ * <p>Run with (VIRTUAL needs a Java 21+ JVM, otherwise it measures the fallback):</p>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-cp.txt) \
+ *     org.openjdk.jmh.Main ServiceExecutorBenchmark
+ * </pre>
+ */
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceExecutorBenchmark {
+    static final int CHECKOUTS = 2000;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ServiceExecutor.Mode mode;
+
+    @Param({"100"})
+    public int dbConnections;
+
+    @Param({"64"})
+    public int platformThreads;
+
+    @Param({"500"})
+    public long dbLatencyMicros;
+
+    private ServiceExecutor executor;
+    private LoanService loanService;
+
+    @Setup
+    public void setUp() {
+        executor = new ServiceExecutor(mode, dbConnections, platformThreads, 60_000);
+
+        Answer<Object> roundTrip = invocation -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbLatencyMicros));
+            return null;
+        };
+        Member member = new Member("Bench Member");
+        member.setId(1);
+        Book book = new Book("1234567890", "Bench Book", "Author", 1_000_000);
+        book.setId(1);
+        Loan loan = new Loan(1, 1, LocalDate.now(), LocalDate.now().plusDays(14));
+
+        // stubOnly keeps Mockito from recording millions of invocations
+        IMemberRepository memberRepo = mock(IMemberRepository.class, withSettings().stubOnly().defaultAnswer(roundTrip));
+        IBookRepository bookRepo = mock(IBookRepository.class, withSettings().stubOnly().defaultAnswer(roundTrip));
+        ILoanRepository loanRepo = mock(ILoanRepository.class, withSettings().stubOnly().defaultAnswer(roundTrip));
+        when(memberRepo.findActiveById(anyInt())).thenAnswer(inv -> { roundTrip.answer(inv); return Optional.of(member); });
+        when(memberRepo.findById(anyInt())).thenAnswer(inv -> { roundTrip.answer(inv); return Optional.of(member); });
+        when(bookRepo.findById(anyInt())).thenAnswer(inv -> { roundTrip.answer(inv); return Optional.of(book); });
+        when(loanRepo.countActiveLoansByMember(anyInt())).thenAnswer(inv -> { roundTrip.answer(inv); return 0; });
+        when(loanRepo.create(any(Loan.class))).thenAnswer(inv -> { roundTrip.answer(inv); return loan; });
+
+        loanService = new LoanService(loanRepo, bookRepo, memberRepo);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHECKOUTS)
+    public void concurrentCheckouts() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[CHECKOUTS];
+        for (int i = 0; i < CHECKOUTS; i++) {
+            futures[i] = executor.submit(() -> loanService.createLoan(1, 1));
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+}
@@ -0,0 +1,190 @@
+package com.codeup.booknova.infra.exec;
+
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.connection.ReadSession;
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.repository.IBookRepository;
+import com.codeup.booknova.service.impl.BookService;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SingleFlightTest {
+
+    private static Book book(int id) {
+        Book book = new Book();
+        book.setId(id);
+        book.setStock(1);
+        return book;
+    }
+
+    // holds the query until the other callers have joined it
+    private static void awaitCollapsed(SingleFlight flights, long collapsed) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (flights.getCollapsed() < collapsed && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void getAvailableBooks_ConcurrentBursts_QueryDatabaseOncePerBurst() throws Exception {
+        IBookRepository repo = mock(IBookRepository.class);
+        SingleFlight flights = new SingleFlight(0);
+        BookService service = new BookService(repo, null, flights);
+        int threads = 32;
+        int bursts = 5;
+        AtomicInteger burst = new AtomicInteger();
+        when(repo.findAvailableBooks()).thenAnswer(inv -> {
+            awaitCollapsed(flights, (long) (threads - 1) * burst.get());
+            return List.of(book(1), book(2));
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int b = 1; b <= bursts; b++) {
+                burst.set(b);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<List<Book>>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return service.getAvailableBooks();
+                    }));
+                }
+                start.countDown();
+                List<Book> first = results.get(0).get(10, TimeUnit.SECONDS);
+                for (Future<List<Book>> result : results) {
+                    assertSame(first, result.get(10, TimeUnit.SECONDS));
+                }
+                verify(repo, times(b)).findAvailableBooks();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals((long) threads * bursts, flights.getCalls());
+        assertEquals(bursts, flights.getExecutions());
+        assertEquals((long) (threads - 1) * bursts, flights.getCollapsed());
+        assertEquals(0, flights.getReused());
+    }
+
+    @Test
+    void execute_WithinReuseWindow_ReusesUntilInvalidated() throws Exception {
+        IBookRepository repo = mock(IBookRepository.class);
+        SingleFlight flights = new SingleFlight(60_000);
+        BookService service = new BookService(repo, null, flights);
+        when(repo.findAll()).thenReturn(List.of(book(1)));
+        when(repo.findById(1)).thenReturn(Optional.of(book(1)));
+
+        service.getAllBooks();
+        service.getAllBooks();
+        verify(repo, times(1)).findAll();
+        assertEquals(1, flights.getReused());
+
+        service.addStock(1, 2);
+        service.getAllBooks();
+        verify(repo, times(2)).findAll();
+        assertThrows(UnsupportedOperationException.class, () -> service.getAllBooks().clear());
+    }
+
+    @Test
+    void execute_ReuseWindowPassed_RunsAgain() throws Exception {
+        SingleFlight flights = new SingleFlight(20);
+        AtomicInteger runs = new AtomicInteger();
+
+        flights.execute("k", runs::incrementAndGet);
+        Thread.sleep(50);
+        flights.execute("k", runs::incrementAndGet);
+
+        assertEquals(2, runs.get());
+        assertEquals(0, flights.getReused());
+    }
+
+    @Test
+    void execute_QueryFails_ThrowsToJoinersAndRetriesNextTime() throws Exception {
+        SingleFlight flights = new SingleFlight(60_000);
+        CountDownLatch running = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> leader = pool.submit(() -> flights.execute("k", () -> {
+                running.countDown();
+                try {
+                    awaitCollapsed(flights, 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new DatabaseException("Connection refused");
+            }));
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+
+            DatabaseException e = assertThrows(DatabaseException.class, () -> flights.execute("k", () -> "unused"));
+
+            assertEquals("Connection refused", e.getMessage());
+            assertThrows(Exception.class, () -> leader.get(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals("ok", flights.execute("k", () -> "ok"));
+        assertEquals(2, flights.getExecutions());
+        assertEquals(1, flights.getCollapsed());
+    }
+
+    @Test
+    void execute_SessionPinnedToPrimary_RunsItsOwnQuery() throws Exception {
+        String primaryUrl = "jdbc:h2:mem:primary-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        String replicaUrl = "jdbc:h2:mem:replica-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        for (String url : List.of(primaryUrl, replicaUrl)) {
+            try (Connection c = DriverManager.getConnection(url, "sa", "");
+                 Statement st = c.createStatement()) {
+                st.execute("CREATE TABLE origin (name VARCHAR(20))");
+                st.execute("INSERT INTO origin VALUES ('" + (url.equals(primaryUrl) ? "primary" : "replica") + "')");
+            }
+        }
+        Properties props = new Properties();
+        props.setProperty("db.url", primaryUrl);
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        props.setProperty("db.replicas", replicaUrl);
+        props.setProperty("db.replica.stickyMillis", "60000");
+        try (ConnectionFactory factory = new ConnectionFactory(new AppConfig(props))) {
+            JdbcTemplateLight jdbc = new JdbcTemplateLight(factory);
+            SingleFlight flights = new SingleFlight(60_000, factory::isPinnedToPrimary);
+            ReadSession.set("other");
+            assertEquals("replica", flights.execute("origin", () -> origin(jdbc)));
+
+            ReadSession.set("writer");
+            jdbc.update("UPDATE origin SET name = name", null);
+            String read = flights.execute("origin", () -> origin(jdbc));
+
+            assertEquals("primary", read, "the writer must not get the other session's replica read");
+            assertEquals(1, flights.getBypassed());
+            assertEquals(0, flights.getReused());
+        } finally {
+            ReadSession.clear();
+        }
+    }
+
+    private static String origin(JdbcTemplateLight jdbc) {
+        return jdbc.query("SELECT name FROM origin", null, rs -> rs.getString(1)).get(0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.codeup.booknova.infra.jfr;
+
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.repository.IBookRepository;
+import com.codeup.booknova.service.impl.BookService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class RecordingControlTest {
+
+    private static JdbcTemplateLight h2() {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        return new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+    }
+
+    private static List<RecordedEvent> events(Path file, String name) throws Exception {
+        return RecordingFile.readAllEvents(file).stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+    }
+
+    @Test
+    void stop_AfterStatementsAndServiceCalls_WritesTheirEvents(@TempDir Path dir) throws Exception {
+        JdbcTemplateLight jdbc = h2();
+        jdbc.update("CREATE TABLE note (id INT AUTO_INCREMENT PRIMARY KEY, body VARCHAR(20))", null);
+        IBookRepository repo = mock(IBookRepository.class);
+        when(repo.findByTitle("Dune")).thenReturn(List.of(new Book("1", "Dune", "Herbert", 1), new Book("2", "Dune II", "Herbert", 1)));
+        BookService books = new BookService(repo);
+        RecordingControl control = new RecordingControl(dir, "default", 16 * 1024 * 1024, Duration.ofMinutes(5));
+
+        Path file = control.start();
+        assertTrue(control.isRecording());
+        assertEquals(file, control.start(), "a second start keeps the running recording");
+        jdbc.update("INSERT INTO note (body) VALUES ('a'), ('b')", null);
+        jdbc.query("SELECT body FROM note", null, rs -> rs.getString(1));
+        assertThrows(DatabaseException.class, () -> jdbc.query("SELECT missing FROM note", null, rs -> rs.getString(1)));
+        books.searchBooksByTitle("Dune");
+        Path written = control.stop();
+
+        assertEquals(file, written);
+        assertFalse(control.isRecording());
+        assertTrue(Files.size(written) > 0);
+        List<RecordedEvent> statements = events(written, "com.codeup.booknova.JdbcStatement");
+        assertEquals(3, statements.size());
+        RecordedEvent insert = statements.get(0);
+        assertEquals(StatementEvent.UPDATE, insert.getString("kind"));
+        assertEquals(2, insert.getLong("rows"));
+        assertEquals(2, statements.get(1).getLong("rows"));
+        assertTrue(statements.get(2).getBoolean("failed"));
+        RecordedEvent search = events(written, "com.codeup.booknova.ServiceOperation").get(0);
+        assertEquals("BookService.searchBooksByTitle", search.getString("operation"));
+        assertEquals(2, search.getLong("rows"));
+        assertFalse(search.getBoolean("failed"));
+    }
+
+    @Test
+    void stop_NothingRecording_ReturnsNull(@TempDir Path dir) {
+        RecordingControl control = new RecordingControl(dir, "default", 1024 * 1024, Duration.ofMinutes(1));
+
+        assertNull(control.stop());
+        assertFalse(control.isRecording());
+    }
+}
@@ -0,0 +1,145 @@
+package com.codeup.booknova.infra.logging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncLogHandlerTest {
+
+    @TempDir
+    Path dir;
+
+    private static LogRecord record(String logger, Level level, String message) {
+        LogRecord r = new LogRecord(level, message);
+        r.setLoggerName(logger);
+        return r;
+    }
+
+    @Test
+    void ringBuffer_OfferAndPoll_AreFifoAndBounded() {
+        LogRingBuffer<Integer> ring = new LogRingBuffer<>(3);
+        assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(99));
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, ring.poll());
+        }
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void publish_ManyThreadsWithBlockPolicy_WritesEveryRecord() throws Exception {
+        Path file = dir.resolve("app.log");
+        AsyncLogHandler handler = new AsyncLogHandler(file, 16, AsyncLogHandler.OverflowPolicy.BLOCK,
+                null, 0, 0, null);
+        int threads = 4;
+        int perThread = 2_000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    handler.publish(record("test", Level.INFO, "t" + id + "-" + i));
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        handler.close();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(threads * perThread, lines.size());
+        assertEquals(threads * perThread, handler.getWrittenCount());
+        assertEquals(0, handler.getDroppedCount());
+        assertTrue(lines.get(0).contains(" INFO [test] t"));
+    }
+
+    @Test
+    void publish_BufferFullWithDropPolicy_CountsDroppedRecords() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        AsyncLogHandler handler = new AsyncLogHandler(dir.resolve("app.log"), 4, AsyncLogHandler.OverflowPolicy.DROP,
+                null, 0, 0, null);
+        handler.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                writerBusy.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return record.getMessage() + "\n";
+            }
+        });
+
+        handler.publish(record("test", Level.INFO, "first"));
+        assertTrue(writerBusy.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            handler.publish(record("test", Level.INFO, "m" + i));
+        }
+        release.countDown();
+        handler.close();
+
+        assertEquals(6, handler.getDroppedCount());
+        assertEquals(5, handler.getWrittenCount());
+    }
+
+    @Test
+    void write_ExceedsMaxBytes_RotatesAndKeepsMaxFiles() throws IOException {
+        Path file = dir.resolve("app.log");
+        AsyncLogHandler handler = new AsyncLogHandler(file, 64, AsyncLogHandler.OverflowPolicy.BLOCK,
+                null, 200, 2, null);
+        for (int i = 0; i < 40; i++) {
+            handler.publish(record("test", Level.INFO, "line " + i + " " + "x".repeat(40)));
+            handler.flush();
+        }
+        handler.close();
+
+        assertTrue(handler.getRotationCount() >= 3);
+        assertTrue(Files.exists(file));
+        assertTrue(Files.exists(dir.resolve("app.log.1")));
+        assertTrue(Files.exists(dir.resolve("app.log.2")));
+        assertFalse(Files.exists(dir.resolve("app.log.3")));
+        assertTrue(Files.size(file) <= 200);
+    }
+
+    @Test
+    void keep_SampledLogger_KeepsOneInNAndAllWarnings() {
+        LogSamplingPolicy policy = new LogSamplingPolicy(Map.of(
+                "com.codeup.booknova.repository", 10,
+                "com.codeup.booknova.repository.impl.LoanRepository", 1));
+
+        int kept = 0;
+        for (int i = 0; i < 100; i++) {
+            if (policy.keep(record("com.codeup.booknova.repository.impl.BookRepository", Level.INFO, "q"))) {
+                kept++;
+            }
+        }
+        assertEquals(10, kept);
+        assertTrue(policy.keep(record("com.codeup.booknova.repository.impl.BookRepository", Level.WARNING, "w")));
+        assertTrue(policy.keep(record("com.codeup.booknova.repository.impl.LoanRepository", Level.INFO, "q")));
+        assertTrue(policy.keep(record("com.codeup.booknova.repositoryX", Level.INFO, "q")));
+        assertTrue(policy.keep(record("com.codeup.booknova.service.impl.BookService", Level.INFO, "q")));
+    }
+}
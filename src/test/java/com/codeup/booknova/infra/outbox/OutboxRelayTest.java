@@ -0,0 +1,233 @@
+package com.codeup.booknova.infra.outbox;
+
+import com.codeup.booknova.api.json.JsonParser;
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.load.DatasetSeeder;
+import com.codeup.booknova.repository.impl.BookJdbcRepository;
+import com.codeup.booknova.repository.impl.LoanJdbcRepository;
+import com.codeup.booknova.repository.impl.MemberJdbcRepository;
+import com.codeup.booknova.service.impl.LoanService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutboxRelayTest {
+
+    private JdbcTemplateLight jdbc;
+    private JdbcOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        jdbc = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+        DatasetSeeder.createSchema(jdbc, Path.of("src/main/java/com/codeup/booknova/db/DatabaseSchema.sql"));
+        outbox = new JdbcOutbox(jdbc);
+    }
+
+    @Test
+    void createLoan_WithOutbox_RecordsEventInLoanTransaction() {
+        long memberId = jdbc.insert("INSERT INTO member (name) VALUES ('Ana')", null, "id");
+        long bookId = jdbc.insert("INSERT INTO book (isbn, title, author, stock) VALUES ('111', 'Dune', 'Herbert', 1)",
+                null, "id");
+        LoanService loans = new LoanService(new LoanJdbcRepository(jdbc), new BookJdbcRepository(jdbc),
+                new MemberJdbcRepository(jdbc), jdbc, null, null, outbox);
+
+        Loan loan = loans.createLoan((int) memberId, (int) bookId, 14);
+        loans.returnBook(loan.getId());
+        assertThrows(DatabaseException.class, () -> loans.createLoan((int) memberId, 999, 14));
+
+        List<OutboxEvent> events = outbox.readAfter(0, 10);
+        assertEquals(List.of(OutboxEvent.LOAN_CREATED, OutboxEvent.LOAN_RETURNED),
+                events.stream().map(OutboxEvent::eventType).toList());
+        assertEquals(loan.getId(), events.get(0).aggregateId());
+        Map<String, Object> payload = JsonParser.parseObject(events.get(0).payload());
+        assertEquals((long) bookId, ((Number) payload.get("bookId")).longValue());
+        assertEquals(loan.getDateDue().toString(), payload.get("dateDue"));
+    }
+
+    @Test
+    void append_TransactionRolledBack_LeavesNoEvent() {
+        assertThrows(DatabaseException.class, () -> jdbc.runInTransaction(() -> {
+            outbox.append(OutboxEvent.LOAN, 1, OutboxEvent.LOAN_CREATED, Map.of());
+            throw new DatabaseException("checkout failed");
+        }));
+
+        assertTrue(outbox.readAfter(0, 10).isEmpty());
+    }
+
+    @Test
+    void runOnce_SinksDeliverInOrderAndResumeFromStoredCursor(@TempDir Path dir) throws IOException {
+        ListenerOutboxSink listeners = new ListenerOutboxSink();
+        List<Long> heard = new ArrayList<>();
+        listeners.addListener(event -> heard.add(event.id()));
+        Path file = dir.resolve("outbox.jsonl");
+        OutboxRelay relay = relay(List.of(listeners, new FileOutboxSink(file)), 2, 5000);
+        assertEquals(0, relay.runOnce());
+        appendLoanEvents(5);
+
+        assertEquals(4, relay.runOnce());
+        assertEquals(4, relay.runOnce());
+        assertEquals(2, relay.runOnce());
+        assertEquals(0, relay.runOnce());
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), heard);
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(5, lines.size());
+        assertEquals(OutboxEvent.LOAN_CREATED, JsonParser.parseObject(lines.get(0)).get("eventType"));
+
+        relay.close();
+        appendLoanEvents(1);
+        OutboxRelay restarted = relay(List.of(new FileOutboxSink(file)), 10, 5000);
+        assertEquals(1, restarted.runOnce());
+        assertEquals(6, Files.readAllLines(file).size());
+    }
+
+    @Test
+    void runOnce_SinkFails_RetriesWholeBatchWithoutHoldingBackOthers() {
+        List<Long> received = new ArrayList<>();
+        int[] calls = {0};
+        OutboxSink flaky = new OutboxSink() {
+            @Override
+            public String name() {
+                return "flaky";
+            }
+
+            @Override
+            public void deliver(List<OutboxEvent> events) throws IOException {
+                if (calls[0]++ == 0) {
+                    received.add(events.get(0).id());
+                    throw new IOException("endpoint down");
+                }
+                events.forEach(event -> received.add(event.id()));
+            }
+        };
+        ListenerOutboxSink listeners = new ListenerOutboxSink();
+        List<Long> heard = new ArrayList<>();
+        listeners.addListener(event -> heard.add(event.id()));
+        OutboxRelay relay = relay(List.of(flaky, listeners), 10, 5000);
+        assertEquals(0, relay.runOnce());
+        appendLoanEvents(3);
+
+        assertEquals(3, relay.runOnce());
+        assertEquals(3, relay.runOnce());
+
+        assertEquals(List.of(1L, 1L, 2L, 3L), received);
+        assertEquals(List.of(1L, 2L, 3L), heard);
+        assertEquals(1L, relay.toMap().get("flaky.failures"));
+        assertEquals(3L, relay.toMap().get("flaky.cursor"));
+    }
+
+    @Test
+    void runOnce_GapInIds_HoldsLaterEventsUntilGapWaitPasses() {
+        appendLoanEvents(1);
+        jdbc.update("INSERT INTO outbox_event (id, aggregate_type, aggregate_id, event_type, payload) "
+                + "VALUES (3, 'loan', 3, 'loan.created', '{}')", null);
+        List<Long> heard = new ArrayList<>();
+
+        OutboxRelay waiting = relay(List.of(collecting("collector", heard)), 10, 60_000);
+        assertEquals(1, waiting.runOnce());
+        assertEquals(0, waiting.runOnce());
+        assertEquals(List.of(1L), heard);
+        Map<String, Long> lag = waiting.toMap();
+        assertEquals(3L, lag.get("headId"));
+        assertEquals(2L, lag.get("collector.lagEvents"));
+        waiting.close();
+
+        OutboxRelay impatient = relay(List.of(collecting("collector", heard)), 10, 0);
+        assertEquals(1, impatient.runOnce());
+        assertEquals(List.of(1L, 3L), heard);
+        assertEquals(0L, impatient.toMap().get("collector.lagEvents"));
+    }
+
+    @Test
+    void runOnce_TwoClients_EachClientsListenersHearEveryEvent() {
+        List<Long> heardByA = new ArrayList<>();
+        List<Long> heardByB = new ArrayList<>();
+        ListenerOutboxSink listenersA = new ListenerOutboxSink();
+        listenersA.addListener(event -> heardByA.add(event.id()));
+        ListenerOutboxSink listenersB = new ListenerOutboxSink();
+        listenersB.addListener(event -> heardByB.add(event.id()));
+        OutboxRelay a = relay(List.of(listenersA), 10, 5000);
+        OutboxRelay b = relay(List.of(listenersB), 10, 5000);
+        a.runOnce();
+        b.runOnce();
+
+        appendLoanEvents(2);
+        assertEquals(2, a.runOnce());
+        assertEquals(2, b.runOnce());
+
+        assertEquals(List.of(1L, 2L), heardByA);
+        assertEquals(List.of(1L, 2L), heardByB);
+    }
+
+    @Test
+    void runOnce_TwoClients_SharedSinkFedOnceByLeaseHolder() throws InterruptedException {
+        List<Long> received = new ArrayList<>();
+        OutboxRelay a = relay(List.of(collecting("collector", received)), 10, 5000);
+        OutboxRelay b = relay(List.of(collecting("collector", received)), 10, 5000);
+        appendLoanEvents(3);
+
+        assertEquals(3, a.runOnce());
+        assertEquals(0, b.runOnce());
+        assertEquals(1L, a.toMap().get("collector.leased"));
+        assertEquals(0L, b.toMap().get("collector.leased"));
+
+        appendLoanEvents(2);
+        assertEquals(0, b.runOnce());
+        a.close();
+        assertEquals(2, b.runOnce());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), received);
+
+        // a holder that stops renewing loses the sink once its lease lapses
+        OutboxRelay brief = new OutboxRelay(outbox, List.of(collecting("audit", received)), 10, 0, 5000,
+                Duration.ZERO, Duration.ofMillis(1));
+        OutboxRelay standby = relay(List.of(collecting("audit", received)), 10, 5000);
+        assertEquals(5, brief.runOnce());
+        Thread.sleep(20);
+        assertEquals(0, standby.runOnce());
+        assertEquals(1L, standby.toMap().get("audit.leased"));
+    }
+
+    private static OutboxSink collecting(String name, List<Long> received) {
+        return new OutboxSink() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void deliver(List<OutboxEvent> events) {
+                events.forEach(event -> received.add(event.id()));
+            }
+        };
+    }
+
+    private OutboxRelay relay(List<OutboxSink> sinks, int batchSize, long gapWaitMillis) {
+        return new OutboxRelay(outbox, sinks, batchSize, 0, gapWaitMillis, Duration.ZERO);
+    }
+
+    private void appendLoanEvents(int count) {
+        for (int i = 0; i < count; i++) {
+            outbox.append(OutboxEvent.LOAN, i + 1, OutboxEvent.LOAN_CREATED, Map.of("loanId", i + 1));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.codeup.booknova.infra.snapshot;
+
+import com.codeup.booknova.domain.AccessLevel;
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.domain.User;
+import com.codeup.booknova.domain.UserRole;
+import com.codeup.booknova.infra.snapshot.SnapshotFile.Snapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotFileTest {
+
+    private static final long SOURCE = 42L;
+    private static final Instant WATERMARK = Instant.parse("2025-03-01T10:15:30.123456789Z");
+
+    @TempDir
+    Path dir;
+
+    private static Book book(int id, String isbn, String title, String author, Integer stock) {
+        Book book = new Book();
+        book.setId(id);
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setStock(stock);
+        book.setCreatedAt(Instant.parse("2025-01-01T00:00:00Z"));
+        return book;
+    }
+
+    @Test
+    void writeThenRead_Books_RoundTripsAllFields() throws IOException {
+        Path file = dir.resolve("books.snap");
+        List<Book> books = List.of(
+                book(1, "9780306406157", "Cien años de soledad", "García Márquez", 3),
+                book(2, null, "", "作者", null));
+
+        SnapshotFile.write(file, LocalSnapshotStore.BOOKS, SOURCE, books, WATERMARK);
+        Optional<Snapshot<Book>> read = SnapshotFile.read(file, LocalSnapshotStore.BOOKS, SOURCE);
+
+        assertTrue(read.isPresent());
+        assertEquals(WATERMARK, read.get().watermark());
+        List<Book> rows = read.get().rows();
+        assertEquals(2, rows.size());
+        assertEquals("Cien años de soledad", rows.get(0).getTitle());
+        assertEquals(3, rows.get(0).getStock());
+        assertEquals(Instant.parse("2025-01-01T00:00:00Z"), rows.get(0).getCreatedAt());
+        assertNull(rows.get(0).getUpdatedAt());
+        assertNull(rows.get(1).getIsbn());
+        assertEquals("", rows.get(1).getTitle());
+        assertEquals("作者", rows.get(1).getAuthor());
+        assertNull(rows.get(1).getStock());
+    }
+
+    @Test
+    void writeThenRead_Users_RoundTripsWithoutPassword() throws IOException {
+        Path file = dir.resolve("users.snap");
+        User user = new User();
+        user.setId(7);
+        user.setName("Ana");
+        user.setEmail("ana@example.com");
+        user.setPassword("secret-password");
+        user.setRole(UserRole.ADMIN);
+        user.setAccessLevel(AccessLevel.READ_WRITE);
+        user.setActive(true);
+
+        SnapshotFile.write(file, LocalSnapshotStore.USERS, SOURCE, List.of(user), null);
+        Snapshot<User> read = SnapshotFile.read(file, LocalSnapshotStore.USERS, SOURCE).orElseThrow();
+
+        assertNull(read.watermark());
+        User copy = read.rows().get(0);
+        assertEquals(7, copy.getId());
+        assertEquals("ana@example.com", copy.getEmail());
+        assertEquals(UserRole.ADMIN, copy.getRole());
+        assertEquals(AccessLevel.READ_WRITE, copy.getAccessLevel());
+        assertTrue(copy.getActive());
+        assertFalse(copy.getDeleted());
+        assertNull(copy.getPhone());
+        assertNull(copy.getPassword());
+        assertFalse(new String(Files.readAllBytes(file)).contains("secret-password"));
+    }
+
+    @Test
+    void read_CorruptedPayload_ReturnsEmpty() throws IOException {
+        Path file = dir.resolve("books.snap");
+        SnapshotFile.write(file, LocalSnapshotStore.BOOKS, SOURCE,
+                List.of(book(1, "9780306406157", "Title", "Author", 1)), WATERMARK);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[SnapshotFile.HEADER_BYTES + 5] ^= 0x01;
+        Files.write(file, bytes);
+
+        assertTrue(SnapshotFile.read(file, LocalSnapshotStore.BOOKS, SOURCE).isEmpty());
+    }
+
+    @Test
+    void read_OtherSourceOrCodecVersion_ReturnsEmpty() throws IOException {
+        Path file = dir.resolve("books.snap");
+        SnapshotFile.write(file, LocalSnapshotStore.BOOKS, SOURCE,
+                List.of(book(1, "9780306406157", "Title", "Author", 1)), WATERMARK);
+        SnapshotCodec<Book> newer = new SnapshotCodec<>() {
+            @Override
+            public int version() {
+                return LocalSnapshotStore.BOOKS.version() + 1;
+            }
+
+            @Override
+            public void write(SnapshotOutput out, Book value) throws IOException {
+                LocalSnapshotStore.BOOKS.write(out, value);
+            }
+
+            @Override
+            public Book read(SnapshotInput in) {
+                return LocalSnapshotStore.BOOKS.read(in);
+            }
+        };
+
+        assertTrue(SnapshotFile.read(file, LocalSnapshotStore.BOOKS, SOURCE + 1).isEmpty());
+        assertTrue(SnapshotFile.read(file, newer, SOURCE).isEmpty());
+        assertTrue(SnapshotFile.read(dir.resolve("missing.snap"), LocalSnapshotStore.BOOKS, SOURCE).isEmpty());
+    }
+
+    @Test
+    void write_ExistingFile_ReplacesItAndLeavesNoTemporaryFiles() throws IOException {
+        Path file = dir.resolve("books.snap");
+        SnapshotFile.write(file, LocalSnapshotStore.BOOKS, SOURCE,
+                List.of(book(1, "9780306406157", "Old", "Author", 1)), WATERMARK);
+        SnapshotFile.write(file, LocalSnapshotStore.BOOKS, SOURCE,
+                List.of(book(1, "9780306406157", "New", "Author", 1), book(2, "0306406152", "Other", "B", 0)),
+                WATERMARK.plusSeconds(60));
+
+        Snapshot<Book> read = SnapshotFile.read(file, LocalSnapshotStore.BOOKS, SOURCE).orElseThrow();
+        assertEquals(2, read.rows().size());
+        assertEquals("New", read.rows().get(0).getTitle());
+        assertEquals(WATERMARK.plusSeconds(60), read.watermark());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    void load_DisabledStore_ReturnsEmptyAndSavesNothing() {
+        LocalSnapshotStore store = new LocalSnapshotStore(dir, SOURCE, false);
+        store.save(LocalSnapshotStore.BOOKS_FILE, LocalSnapshotStore.BOOKS,
+                List.of(book(1, "9780306406157", "Title", "Author", 1)), WATERMARK);
+
+        assertTrue(store.load(LocalSnapshotStore.BOOKS_FILE, LocalSnapshotStore.BOOKS).isEmpty());
+        assertFalse(Files.exists(dir.resolve("books.snap")));
+    }
+}
@@ -0,0 +1,57 @@
+package com.codeup.booknova.infra.trace;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Test assertions on the statements a piece of work issues, to catch N+1
+ * loops and lost batching before they reach a slow database, e.g.
+ * <pre>{@code
+ * Loan loan = QueryBudget.atMost(5, () -> loans.createLoan(memberId, bookId, 14));
+ * }</pre>
+ * The work runs through {@link Tracer#capture}, so only statements issued on
+ * the calling thread are counted.
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {}
+
+    /**
+     * Runs work and fails if it issued more than {@code max} statements,
+     * listing them in the failure message.
+     *
+     * @param <T> the work's result type
+     * @param max the most statements allowed
+     * @param work the work
+     * @return the work's result
+     */
+    public static <T> T atMost(int max, Supplier<T> work) {
+        Object[] result = new Object[1];
+        atMost(max, () -> {
+            result[0] = work.get();
+        });
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    /**
+     * Runs work and fails if it issued more than {@code max} statements.
+     *
+     * @param max the most statements allowed
+     * @param work the work
+     * @return the captured spans, for further checks
+     */
+    public static CapturedTrace atMost(int max, Runnable work) {
+        CapturedTrace trace = Tracer.capture(work);
+        if (trace.getStatementCount() > max) {
+            fail("Expected at most " + max + " statements but " + trace.getStatementCount() + " were issued:\n"
+                    + trace.describeStatements());
+        }
+        return trace;
+    }
+}
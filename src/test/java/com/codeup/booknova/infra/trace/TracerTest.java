@@ -0,0 +1,176 @@
+package com.codeup.booknova.infra.trace;
+
+import com.codeup.booknova.api.json.JsonParser;
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.load.DatasetSeeder;
+import com.codeup.booknova.repository.impl.BookJdbcRepository;
+import com.codeup.booknova.repository.impl.LoanJdbcRepository;
+import com.codeup.booknova.repository.impl.MemberJdbcRepository;
+import com.codeup.booknova.service.impl.LoanService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentest4j.AssertionFailedError;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TracerTest {
+
+    private static JdbcTemplateLight h2() {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        return new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Tracer.configure(0, SpanExporter.NONE);
+    }
+
+    @Test
+    void startSpan_NotSampled_ReturnsNoopAndTracesNoStatements() {
+        List<List<Span>> exported = new CopyOnWriteArrayList<>();
+        Tracer.configure(0, exported::add);
+        JdbcTemplateLight jdbc = h2();
+
+        Span span = Tracer.startSpan("BookService.searchBooksByTitle");
+        jdbc.query("SELECT 1", null, rs -> rs.getInt(1));
+        span.end(true);
+
+        assertSame(Span.NOOP, span);
+        assertFalse(span.isRecording());
+        assertSame(Span.NOOP, Tracer.startStatement("query", "SELECT 1"));
+        assertTrue(exported.isEmpty());
+    }
+
+    @Test
+    void startSpan_Sampled_ExportsServiceSpanWithStatementChildren() {
+        List<List<Span>> exported = new CopyOnWriteArrayList<>();
+        Tracer.configure(1, exported::add);
+        JdbcTemplateLight jdbc = h2();
+        jdbc.update("CREATE TABLE note (id INT AUTO_INCREMENT PRIMARY KEY, body VARCHAR(20))", null);
+
+        Span root = Tracer.startSpan("NoteService.save").setAttribute("note.count", 2);
+        jdbc.update("INSERT INTO note (body) VALUES ('a'), ('b')", null);
+        jdbc.inTransaction(() -> jdbc.query("SELECT body FROM note", null, rs -> rs.getString(1)));
+        root.end(true);
+
+        assertEquals(1, exported.size());
+        List<Span> spans = exported.get(0);
+        assertEquals(3, spans.size());
+        Span insert = spans.get(0);
+        Span select = spans.get(1);
+        assertSame(root, spans.get(2));
+        assertEquals(Span.Kind.CLIENT, insert.getKind());
+        assertEquals(root.getSpanId(), insert.getParentSpanId());
+        assertEquals(root.getTraceId(), select.getTraceId());
+        assertEquals(32, root.getTraceId().length());
+        assertNull(root.getParentSpanId());
+        assertEquals("INSERT INTO note (body) VALUES ('a'), ('b')", insert.getAttributes().get(Tracer.DB_STATEMENT));
+        assertEquals(2, insert.getAttributes().get(Tracer.DB_ROWS));
+        assertTrue(insert.getAttributes().containsKey(Tracer.DB_CONNECTION_ACQUIRE_MICROS));
+        assertFalse(select.getAttributes().containsKey(Tracer.DB_CONNECTION_ACQUIRE_MICROS),
+                "a statement on the transaction's connection opened none");
+        assertTrue(root.getDurationNanos() >= insert.getDurationNanos() + select.getDurationNanos());
+        assertSame(Span.NOOP, Tracer.startStatement("query", "SELECT 1"), "the trace ended with its root span");
+    }
+
+    @Test
+    void toJson_FailedStatement_WritesOtlpSpans() {
+        Tracer.configure(0, SpanExporter.NONE);
+        JdbcTemplateLight jdbc = h2();
+
+        CapturedTrace trace = Tracer.capture(() -> assertThrows(RuntimeException.class,
+                () -> jdbc.query("SELECT missing FROM nowhere", null, rs -> rs.getString(1))));
+        Map<String, Object> request = JsonParser.parseObject(OtlpJsonFileExporter.toJson(trace.getSpans(), "novabook"));
+
+        Map<String, Object> resourceSpans = first(request.get("resourceSpans"));
+        Map<String, Object> resource = cast(resourceSpans.get("resource"));
+        Map<String, Object> serviceName = first(resource.get("attributes"));
+        assertEquals("service.name", serviceName.get("key"));
+        assertEquals(Map.of("stringValue", "novabook"), serviceName.get("value"));
+        List<Object> spans = cast(((Map<String, Object>) first(resourceSpans.get("scopeSpans"))).get("spans"));
+        assertEquals(2, spans.size());
+        Map<String, Object> statement = cast(spans.get(0));
+        Map<String, Object> root = cast(spans.get(1));
+        assertEquals(trace.getStatements().get(0).getSpanId(), statement.get("spanId"));
+        assertEquals(root.get("spanId"), statement.get("parentSpanId"));
+        assertEquals(root.get("traceId"), statement.get("traceId"));
+        assertFalse(root.containsKey("parentSpanId"));
+        assertEquals(3, ((Number) statement.get("kind")).intValue());
+        assertEquals(1, ((Number) root.get("kind")).intValue());
+        assertEquals(Map.of("code", 2L), normalize(statement.get("status")));
+        assertTrue(Long.parseLong((String) statement.get("endTimeUnixNano"))
+                >= Long.parseLong((String) statement.get("startTimeUnixNano")));
+        List<Object> attributes = cast(statement.get("attributes"));
+        assertTrue(attributes.contains(Map.of("key", Tracer.DB_STATEMENT,
+                "value", Map.of("stringValue", "SELECT missing FROM nowhere"))));
+        assertTrue(attributes.contains(Map.of("key", Tracer.DB_ROWS, "value", Map.of("intValue", "0"))));
+    }
+
+    @Test
+    void install_SampledConfig_AppendsOneLinePerTrace(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("traces").resolve("traces.jsonl");
+        Properties props = new Properties();
+        props.setProperty("trace.sampleRate", "1");
+        props.setProperty("trace.file", file.toString());
+        Tracer.install(new AppConfig(props));
+
+        Tracer.startSpan("First.call").end(true);
+        Tracer.startSpan("Second.call").end(false);
+        Tracer.configure(0, SpanExporter.NONE); // closes the exporter, writing its queue
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"name\":\"First.call\""));
+        assertTrue(lines.get(1).contains("\"status\":{\"code\":2}"));
+    }
+
+    @Test
+    void atMost_CreateLoan_StaysWithinItsStatementBudget() {
+        JdbcTemplateLight jdbc = h2();
+        DatasetSeeder.createSchema(jdbc, Path.of("src/main/java/com/codeup/booknova/db/DatabaseSchema.sql"));
+        long userId = jdbc.insert("INSERT INTO users (name, email, password, phone) VALUES ('Ana', 'ana@x.test', 'x', '1')",
+                null, "id");
+        long memberId = jdbc.insert("INSERT INTO member (user_id, name) VALUES (" + userId + ", 'Ana')", null, "id");
+        long bookId = jdbc.insert("INSERT INTO book (isbn, title, author, stock) VALUES ('111', 'Dune', 'Herbert', 2)",
+                null, "id");
+        LoanService loans = new LoanService(new LoanJdbcRepository(jdbc), new BookJdbcRepository(jdbc),
+                new MemberJdbcRepository(jdbc), jdbc);
+
+        // member, borrowing count, member role, book, stock, insert and the re-read of the new loan
+        Loan loan = QueryBudget.atMost(7, () -> loans.createLoan((int) memberId, (int) bookId, 14));
+
+        assertNotNull(loan.getId());
+        AssertionFailedError error = assertThrows(AssertionFailedError.class,
+                () -> QueryBudget.atMost(6, () -> loans.createLoan((int) memberId, (int) bookId, 14)));
+        assertTrue(error.getMessage().contains("INSERT INTO loan"), error.getMessage());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    private static <T> T first(Object list) {
+        return cast(((List<Object>) cast(list)).get(0));
+    }
+
+    private static Map<String, Object> normalize(Object status) {
+        Map<String, Object> map = cast(status);
+        return Map.of("code", ((Number) map.get("code")).longValue());
+    }
+}
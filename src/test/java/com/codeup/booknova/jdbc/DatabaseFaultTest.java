@@ -0,0 +1,173 @@
+package com.codeup.booknova.jdbc;
+
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLTimeoutException;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatabaseFaultTest {
+
+    private Server h2;
+    private LatencyProxy proxy;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        h2 = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        proxy = new LatencyProxy("127.0.0.1", h2.getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        proxy.close();
+        h2.stop();
+    }
+
+    private static ConnectionFactory factory(String url) {
+        Properties props = new Properties();
+        props.setProperty("db.url", url);
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        props.setProperty("db.connectTimeoutMillis", "300");
+        props.setProperty("db.socketTimeoutMillis", "300");
+        return new ConnectionFactory(new AppConfig(props));
+    }
+
+    private JdbcTemplateLight throughProxy(CircuitBreaker breaker) {
+        String url = "jdbc:h2:tcp://127.0.0.1:" + proxy.getPort() + "/mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        return new JdbcTemplateLight(factory(url), new QueryTimeouts(5, 5, 5), breaker, null);
+    }
+
+    private static JdbcTemplateLight inMemory(QueryTimeouts timeouts, CircuitBreaker breaker, Bulkhead reports) {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        return new JdbcTemplateLight(factory(url), timeouts, breaker, reports);
+    }
+
+    private static int one(JdbcTemplateLight jdbc) {
+        return jdbc.query("SELECT 1", null, rs -> rs.getInt(1)).get(0);
+    }
+
+    @Test
+    void report_RunawayQuery_CancelledAtReportTimeout() {
+        JdbcTemplateLight jdbc = inMemory(new QueryTimeouts(30, 30, 1), null, null);
+
+        long start = System.nanoTime();
+        DatabaseException e = assertThrows(DatabaseException.class, () -> jdbc.report(
+                () -> jdbc.query("SELECT SUM(X) FROM SYSTEM_RANGE(1, 10000000000)", null, rs -> rs.getLong(1))));
+
+        assertInstanceOf(SQLTimeoutException.class, e.getCause());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    void open_StalledMySqlServer_FailsAtSocketTimeout() {
+        proxy.setMode(LatencyProxy.Mode.BLACK_HOLE);
+        ConnectionFactory factory = factory("jdbc:mysql://127.0.0.1:" + proxy.getPort() + "/novabook?useSSL=false");
+
+        long start = System.nanoTime();
+        DatabaseException e = assertThrows(DatabaseException.class, factory::open);
+
+        assertTrue(CircuitBreaker.isOutage(e), e.toString());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(1, proxy.getConnections());
+    }
+
+    @Test
+    void breaker_ServerDown_FailsFastThenProbesAndCloses() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(3, 300);
+        JdbcTemplateLight jdbc = throughProxy(breaker);
+        assertEquals(1, one(jdbc));
+        proxy.setMode(LatencyProxy.Mode.REFUSE);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(DatabaseException.class, () -> one(jdbc));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        int connections = proxy.getConnections();
+        assertThrows(DatabaseException.class, () -> one(jdbc));
+        assertEquals(connections, proxy.getConnections(), "an open breaker must not touch the network");
+        assertEquals(1, breaker.getRejected());
+
+        Thread.sleep(350);
+        assertThrows(DatabaseException.class, () -> one(jdbc));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "a failed probe opens it again");
+
+        proxy.setMode(LatencyProxy.Mode.FORWARD);
+        Thread.sleep(350);
+        assertEquals(1, one(jdbc));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void breaker_SlowNetwork_StaysClosed() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 60_000);
+        JdbcTemplateLight jdbc = throughProxy(breaker);
+        proxy.setLatencyMillis(20);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(1, one(jdbc));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void breaker_ConstraintViolations_DoNotCountAsOutage() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 60_000);
+        JdbcTemplateLight jdbc = inMemory(QueryTimeouts.NONE, breaker, null);
+        jdbc.update("CREATE TABLE t (id INT PRIMARY KEY)", null);
+        jdbc.update("INSERT INTO t VALUES (1)", null);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(DatabaseException.class, () -> jdbc.update("INSERT INTO t VALUES (1)", null));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0L, breaker.toMap().get("consecutiveFailures"));
+    }
+
+    @Test
+    void report_AllSlotsBusy_RejectsReportsButNotOtherQueries() throws Exception {
+        Bulkhead reports = new Bulkhead("reports", 1, 50);
+        JdbcTemplateLight jdbc = inMemory(QueryTimeouts.NONE, null, reports);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> slow = pool.submit(() -> jdbc.report(() -> {
+                running.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return jdbc.report(() -> one(jdbc));
+            }));
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+
+            DatabaseException e = assertThrows(DatabaseException.class, () -> jdbc.report(() -> one(jdbc)));
+            assertTrue(e.getMessage().contains("Too many concurrent reports"), e.getMessage());
+            assertEquals(1, one(jdbc));
+
+            release.countDown();
+            assertEquals(1, slow.get(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, reports.getRejected());
+        assertEquals(1, jdbc.report(() -> one(jdbc)));
+    }
+}
@@ -0,0 +1,78 @@
+package com.codeup.booknova.jdbc;
+
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.repository.impl.BookJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JdbcTemplateLightTest {
+    private JdbcTemplateLight jdbc;
+    private BookJdbcRepository bookRepo;
+
+    @BeforeEach
+    void setUp() {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        jdbc = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+        jdbc.update("CREATE TABLE book (id INT AUTO_INCREMENT PRIMARY KEY, isbn VARCHAR(20) NOT NULL UNIQUE, "
+                + "title VARCHAR(100) NOT NULL, author VARCHAR(100) NOT NULL, stock INT NOT NULL, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)", null);
+        bookRepo = new BookJdbcRepository(jdbc);
+    }
+
+    @Test
+    void txExecute_RepositoryCallsFail_RollsBackAllWork() {
+        assertThrows(DatabaseException.class, () -> jdbc.inTransaction(() -> {
+            bookRepo.create(new Book("1234567890", "First", "Author", 1));
+            throw new DatabaseException("boom");
+        }));
+
+        assertTrue(bookRepo.findAll().isEmpty(), "The insert should have been rolled back with the transaction.");
+    }
+
+    @Test
+    void txExecute_RepositoryCalls_ShareTransactionConnection() {
+        Book created = jdbc.inTransaction(() -> {
+            assertTrue(TransactionContext.isActive());
+            bookRepo.create(new Book("1234567890", "First", "Author", 1));
+            // Read-your-own-write inside the transaction goes through the bound connection
+            return bookRepo.findByIsbn("1234567890").orElseThrow();
+        });
+
+        assertNotNull(created.getId());
+        assertFalse(TransactionContext.isActive(), "The connection should be unbound after commit.");
+    }
+
+    @Test
+    void txExecute_NestedFailure_RollsBackToSavepointOnly() {
+        jdbc.runInTransaction(() -> {
+            bookRepo.create(new Book("1111111111", "Outer", "Author", 1));
+            assertThrows(DatabaseException.class, () -> jdbc.runInTransaction(() -> {
+                assertEquals(2, TransactionContext.depth());
+                bookRepo.create(new Book("2222222222", "Inner", "Author", 1));
+                throw new DatabaseException("inner failure");
+            }));
+        });
+
+        List<Book> books = bookRepo.findAll();
+        assertEquals(1, books.size(), "Only the outer insert should survive.");
+        assertEquals("Outer", books.get(0).getTitle());
+    }
+
+    @Test
+    void txExecuteReadOnly_Update_ThrowsDatabaseException() {
+        assertThrows(DatabaseException.class, () -> jdbc.inReadOnlyTransaction(() ->
+                bookRepo.create(new Book("1234567890", "First", "Author", 1))));
+    }
+}
@@ -0,0 +1,121 @@
+package com.codeup.booknova.jdbc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local TCP proxy for fault injection, standing in for a slow or broken
+ * network between the application and the database.
+ * <p>
+ * In {@link Mode#FORWARD} it relays both directions, holding back every
+ * chunk for the configured latency; in {@link Mode#REFUSE} it closes new
+ * connections at once, like a server that is down; in
+ * {@link Mode#BLACK_HOLE} it accepts them and never answers, like a stalled
+ * server. The mode applies to new connections.
+ * </p>
+ */
+public class LatencyProxy implements AutoCloseable {
+
+    public enum Mode {
+        FORWARD, REFUSE, BLACK_HOLE
+    }
+
+    private final String targetHost;
+    private final int targetPort;
+    private final ServerSocket server;
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile Mode mode = Mode.FORWARD;
+    private volatile long latencyMillis;
+
+    public LatencyProxy(String targetHost, int targetPort) throws IOException {
+        this.targetHost = targetHost;
+        this.targetPort = targetPort;
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        daemon(this::acceptLoop, "latency-proxy");
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /** Returns the number of connections accepted so far, in any mode. */
+    public int getConnections() {
+        return connections.get();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket client = server.accept();
+                connections.incrementAndGet();
+                sockets.add(client);
+                switch (mode) {
+                    case REFUSE -> client.close();
+                    case BLACK_HOLE -> { }
+                    case FORWARD -> {
+                        Socket upstream = new Socket(targetHost, targetPort);
+                        sockets.add(upstream);
+                        daemon(() -> pipe(client, upstream), "latency-proxy-up");
+                        daemon(() -> pipe(upstream, client), "latency-proxy-down");
+                    }
+                }
+            } catch (IOException e) {
+                // closed, or the target is gone: the client sees a broken connection
+            }
+        }
+    }
+
+    private void pipe(Socket from, Socket to) {
+        byte[] buffer = new byte[8192];
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis);
+                }
+                out.write(buffer, 0, n);
+                out.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            // one side closed
+        } finally {
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(server);
+        sockets.forEach(LatencyProxy::closeQuietly);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    private static void daemon(Runnable task, String name) {
+        Thread t = new Thread(task, name);
+        t.setDaemon(true);
+        t.start();
+    }
+}
@@ -0,0 +1,113 @@
+package com.codeup.booknova.jdbc.dialect;
+
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MySqlDialectTest {
+    private JdbcTemplateLight jdbc;
+
+    @BeforeEach
+    void setUp() {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        jdbc = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+        jdbc.update("CREATE TABLE counter (stat_day DATE NOT NULL, item INT NOT NULL, hits INT NOT NULL, "
+                + "misses INT NOT NULL, PRIMARY KEY (stat_day, item))", null);
+        jdbc.update("CREATE TABLE note (id INT AUTO_INCREMENT PRIMARY KEY, stat_day DATE, body VARCHAR(100), "
+                + "flag BOOLEAN, score BIGINT)", null);
+    }
+
+    private void add(String sql, int item, int hits, int misses) {
+        jdbc.update(sql, ps -> {
+            try {
+                ps.setObject(1, LocalDate.of(2024, 5, 1));
+                ps.setInt(2, item);
+                ps.setInt(3, hits);
+                ps.setInt(4, misses);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Test
+    void forUrl_ChoosesDialectByUrl() {
+        assertInstanceOf(PostgresDialect.class, SqlDialect.forUrl("jdbc:postgresql://db:5432/novabook", false));
+        assertInstanceOf(MySqlDialect.class, SqlDialect.forUrl("jdbc:mysql://db:3306/novabook", false));
+        assertInstanceOf(MySqlDialect.class, SqlDialect.forUrl("jdbc:h2:mem:x;MODE=MySQL", false));
+        assertEquals("MySQL", jdbc.getDialect().getName());
+    }
+
+    @Test
+    void upsertAdding_ExistingKey_AddsCounters() {
+        String sql = jdbc.getDialect().upsertAdding("counter", List.of("stat_day", "item"), List.of("hits", "misses"));
+
+        add(sql, 1, 1, 0);
+        add(sql, 1, 2, 1);
+        add(sql, 2, 0, 1);
+
+        assertEquals(List.of("1:3:1", "2:0:1"), jdbc.query("SELECT item, hits, misses FROM counter ORDER BY item", null,
+                rs -> rs.getInt(1) + ":" + rs.getInt(2) + ":" + rs.getInt(3)));
+    }
+
+    @Test
+    void insertIgnore_ExistingKey_KeepsRow() {
+        String sql = jdbc.getDialect().insertIgnore("counter", List.of("stat_day", "item", "hits", "misses"),
+                List.of("stat_day", "item"));
+
+        add(sql, 1, 5, 0);
+        add(sql, 1, 7, 0);
+
+        assertEquals(List.of(5), jdbc.query("SELECT hits FROM counter", null, rs -> rs.getInt(1)));
+    }
+
+    @Test
+    void insert_NewRow_ReturnsGeneratedKey() {
+        long first = jdbc.insert("INSERT INTO note (body) VALUES ('a')", null, "id");
+        long second = jdbc.insert("INSERT INTO note (body) VALUES ('b')", null, "id");
+
+        assertEquals(first + 1, second);
+        assertEquals(List.of("b"), jdbc.query("SELECT body FROM note WHERE id = " + second, null, rs -> rs.getString(1)));
+    }
+
+    @Test
+    void bulkInsert_MoreRowsThanOneStatement_InsertsEveryRow() {
+        int count = SqlDialect.VALUES_ROWS * 2 + 17;
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{LocalDate.of(2024, 1, 1).plusDays(i % 300), i % 7 == 0 ? null : "row \"" + i + "\", ok",
+                    i % 2 == 0, (long) i});
+        }
+
+        long inserted = jdbc.bulkInsert("note", List.of("stat_day", "body", "flag", "score"), rows);
+
+        assertEquals(count, inserted);
+        assertEquals(List.of((long) count), jdbc.query("SELECT COUNT(*) FROM note", null, rs -> rs.getLong(1)));
+        assertEquals(List.of("row \"1\", ok"), jdbc.query("SELECT body FROM note WHERE score = 1", null, rs -> rs.getString(1)));
+        assertEquals(List.of((long) (count + 6) / 7), jdbc.query("SELECT COUNT(*) FROM note WHERE body IS NULL", null,
+                rs -> rs.getLong(1)));
+    }
+
+    @Test
+    void infile_FormatsQuotesEscapesAndNulls() {
+        String file = MySqlDialect.infile(List.of(
+                new Object[]{1, "say \"hi\"", null},
+                new Object[]{LocalDate.of(2024, 2, 3), "C:\\tmp", true}));
+
+        assertEquals("1,\"say \\\"hi\\\"\",\\N\n2024-02-03,\"C:\\\\tmp\",1\n", file);
+    }
+}
@@ -0,0 +1,169 @@
+package com.codeup.booknova.jdbc.dialect;
+
+import com.codeup.booknova.analytics.CirculationAnalytics;
+import com.codeup.booknova.analytics.JdbcCirculationRollups;
+import com.codeup.booknova.analytics.PeriodCount;
+import com.codeup.booknova.analytics.RollupBackfillJob;
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.domain.Member;
+import com.codeup.booknova.domain.MemberRole;
+import com.codeup.booknova.domain.MembershipRequest;
+import com.codeup.booknova.domain.User;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.repository.ChangeSet;
+import com.codeup.booknova.repository.impl.BookJdbcRepository;
+import com.codeup.booknova.repository.impl.LoanJdbcRepository;
+import com.codeup.booknova.repository.impl.MemberJdbcRepository;
+import com.codeup.booknova.repository.impl.MembershipRequestJdbcRepository;
+import com.codeup.booknova.repository.impl.UserJdbcRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the repositories and the PostgreSQL fast paths on an embedded server with db/DatabaseSchemaPostgres.sql
+public class PostgresDialectTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 30);
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplateLight jdbc;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        Properties props = new Properties();
+        props.setProperty("db.url", postgres.getJdbcUrl("postgres", "postgres"));
+        props.setProperty("db.user", "postgres");
+        props.setProperty("db.password", "");
+        jdbc = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+        String schema = Files.readString(Path.of("src/main/java/com/codeup/booknova/db/DatabaseSchemaPostgres.sql"));
+        try (Connection c = postgres.getPostgresDatabase().getConnection(); Statement st = c.createStatement()) {
+            st.execute(schema);
+        }
+    }
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void clear() {
+        jdbc.update("TRUNCATE loan_daily_book, loan_daily_role, member_month_activity, deleted_row, "
+                + "membership_request, loan, member, book, users RESTART IDENTITY CASCADE", null);
+    }
+
+    @Test
+    void repositories_CreateAndQuery_RunOnPostgres() {
+        assertInstanceOf(PostgresDialect.class, jdbc.getDialect());
+        User user = new UserJdbcRepository(jdbc).create(new User("Ana", "ana@mail.com", "Secret123!", "3001234567"));
+        BookJdbcRepository books = new BookJdbcRepository(jdbc);
+        Book book = books.create(new Book("978-0441013593", "Dune", "Frank Herbert", 3));
+        Member member = new Member("Ana");
+        member.setUserId(user.getId());
+        member.setRole(MemberRole.PREMIUM);
+        member = new MemberJdbcRepository(jdbc).create(member);
+        LoanJdbcRepository loans = new LoanJdbcRepository(jdbc);
+        Loan overdue = loans.create(new Loan(member.getId(), book.getId(), DAY, DAY.plusDays(14)));
+        loans.create(new Loan(member.getId(), book.getId(), LocalDate.now(), LocalDate.now().plusDays(14)));
+        MembershipRequest request = new MembershipRequestJdbcRepository(jdbc)
+                .create(new MembershipRequest(user.getId(), "Ana", "ana@mail.com"));
+
+        assertEquals(1, user.getId());
+        assertEquals(MemberRole.PREMIUM, member.getRole());
+        assertEquals(1, overdue.getId());
+        assertEquals(List.of(overdue.getId()), loans.findOverdueLoans().stream().map(Loan::getId).toList());
+        assertEquals(1, request.getId());
+        assertTrue(books.bookExists("978-0441013593"));
+
+        ChangeSet<Book> before = books.findChangedSince(null);
+        books.updateStock(book.getId(), 7);
+        ChangeSet<Book> after = books.findChangedSince(before.watermark());
+        assertEquals(7, after.changed().get(0).getStock());
+        assertTrue(after.changed().get(0).getUpdatedAt().isAfter(book.getUpdatedAt()), "the trigger moves updated_at");
+    }
+
+    @Test
+    void rollups_UpsertsAndCopyBackfill_Agree() {
+        jdbc.update("INSERT INTO book (isbn, title, author, stock) VALUES ('1', 'Dune', 'Herbert', 1)", null);
+        jdbc.update("INSERT INTO member (name, role) VALUES ('Ana', 'REGULAR')", null);
+        JdbcCirculationRollups rollups = new JdbcCirculationRollups(jdbc);
+        CirculationAnalytics analytics = new CirculationAnalytics(jdbc);
+        LoanJdbcRepository loans = new LoanJdbcRepository(jdbc);
+        for (int i = 0; i < 3; i++) {
+            Loan loan = loans.create(new Loan(1, 1, DAY, DAY.plusDays(14)));
+            jdbc.txExecute(conn -> {
+                rollups.recordCheckout(loan, MemberRole.REGULAR);
+                return null;
+            });
+        }
+        List<PeriodCount> incremental = analytics.loansPerDay(DAY, DAY);
+        List<PeriodCount> active = analytics.activeMembersPerMonth(DAY, DAY);
+
+        RollupBackfillJob.Result result = new RollupBackfillJob(jdbc, Runnable::run, 2).run();
+
+        assertEquals(List.of(new PeriodCount(DAY, 3)), incremental);
+        assertEquals(List.of(new PeriodCount(DAY.withDayOfMonth(1), 1)), active);
+        assertEquals(1, result.dailyBookRows());
+        assertEquals(incremental, analytics.loansPerDay(DAY, DAY));
+        assertEquals(active, analytics.activeMembersPerMonth(DAY, DAY));
+    }
+
+    @Test
+    void bulkInsert_Copy_LoadsQuotesNullsAndBooleans() {
+        jdbc.update("CREATE TABLE IF NOT EXISTS note (day DATE, body TEXT, flag BOOLEAN, score BIGINT)", null);
+        jdbc.update("DELETE FROM note", null);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rows.add(new Object[]{DAY.plusDays(i % 10), i % 5 == 0 ? null : "line, \"" + i + "\"\nnext", i % 2 == 0, (long) i});
+        }
+        rows.add(new Object[]{null, "", null, null});
+
+        long inserted = jdbc.bulkInsert("note", List.of("day", "body", "flag", "score"), rows);
+
+        assertEquals(5001, inserted);
+        assertEquals(List.of("line, \"3\"\nnext"), jdbc.query("SELECT body FROM note WHERE score = 3", null, rs -> rs.getString(1)));
+        assertEquals(List.of(1000L), jdbc.query("SELECT COUNT(*) FROM note WHERE body IS NULL", null, rs -> rs.getLong(1)));
+        assertEquals(List.of(1L), jdbc.query("SELECT COUNT(*) FROM note WHERE body = ''", null, rs -> rs.getLong(1)));
+        assertEquals(List.of(2500L), jdbc.query("SELECT COUNT(*) FROM note WHERE flag", null, rs -> rs.getLong(1)));
+    }
+
+    @Test
+    void upsertAdding_ExistingKey_AddsCounters() {
+        String sql = jdbc.getDialect().upsertAdding("loan_daily_role", List.of("stat_date", "member_role"),
+                List.of("loans", "returned", "returned_late"));
+        for (int late = 0; late < 2; late++) {
+            int l = late;
+            jdbc.update(sql, ps -> {
+                try {
+                    ps.setObject(1, DAY);
+                    ps.setString(2, "PREMIUM");
+                    ps.setInt(3, 1);
+                    ps.setInt(4, 1);
+                    ps.setInt(5, l);
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        assertEquals(List.of("2:2:1"), jdbc.query("SELECT loans, returned, returned_late FROM loan_daily_role", null,
+                rs -> rs.getInt(1) + ":" + rs.getInt(2) + ":" + rs.getInt(3)));
+    }
+}
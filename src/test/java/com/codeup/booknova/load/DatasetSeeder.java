@@ -0,0 +1,240 @@
+package com.codeup.booknova.load;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.util.PasswordUtils;
+
+/**
+ * Seeds a library of realistic size for {@link DeskWorkloadSimulator} with
+ * {@link JdbcTemplateLight#bulkInsert}, i.e. multi-row inserts, {@code COPY}
+ * or {@code LOAD DATA} depending on the dialect.
+ * <p>
+ * Every row carries a random tag in its email, ISBN or name, so a run can
+ * seed into a database that already has data, e.g. a local MySQL, and find
+ * its own rows again. All users share one password, hashed once; hashing
+ * each would take longer than the rest of the seeding.
+ * </p>
+ * <p>Configuration ({@code load.*}):</p>
+ * <ul>
+ * <li>{@code load.books} - default 20000</li>
+ * <li>{@code load.users} - default 10000, the first is an administrator</li>
+ * <li>{@code load.members} - default 8000 of the users</li>
+ * <li>{@code load.pendingRequests} - default 1000 membership requests of users that are not members</li>
+ * <li>{@code load.loans} - default 50000 returned loans of the past two years</li>
+ * <li>{@code load.activeLoans} - default 4000 open loans, a few of them overdue</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class DatasetSeeder {
+    private static final Logger logger = Logger.getLogger(DatasetSeeder.class.getName());
+
+    /** Password of every seeded user. */
+    public static final String PASSWORD = "Load#Test2024";
+
+    private static final String[] ADJECTIVES = {"Silent", "Hidden", "Broken", "Golden", "Last", "Distant",
+            "Burning", "Frozen", "Secret", "Endless", "Crimson", "Quiet", "Wild", "Lost", "Bright", "Hollow"};
+    private static final String[] NOUNS = {"River", "Garden", "Empire", "Tide", "Letter", "Mountain", "Library",
+            "Harbor", "Orchard", "Kingdom", "Window", "Forest", "Bridge", "Compass", "Lantern", "Island",
+            "Winter", "Voyage", "Mirror", "Citadel"};
+    private static final String[] FIRST_NAMES = {"Ana", "Luis", "Maria", "Jorge", "Sofia", "Carlos", "Elena",
+            "Mateo", "Lucia", "Diego", "Valeria", "Andres", "Camila", "Pablo", "Isabel", "Tomas"};
+    private static final String[] LAST_NAMES = {"Garcia", "Martinez", "Lopez", "Rodriguez", "Hernandez",
+            "Gomez", "Diaz", "Torres", "Ramirez", "Vargas", "Castro", "Rojas", "Moreno", "Ortiz"};
+
+    /** Words of the seeded titles, for title searches. */
+    static final List<String> TITLE_WORDS = List.of(NOUNS);
+    /** Surnames of the seeded authors, for author searches. */
+    static final List<String> AUTHOR_NAMES = List.of(LAST_NAMES);
+
+    /**
+     * The seeded rows the simulated clients work on.
+     *
+     * @param emails the emails of the seeded users, who all have {@link #PASSWORD}
+     * @param adminUserId the administrator who approves membership requests
+     * @param memberIds the seeded members
+     * @param bookIds the seeded books
+     * @param activeLoans open loans, taken from the front to return or extend; checkouts add at the back
+     * @param pendingRequests membership requests waiting for approval
+     */
+    public record Dataset(List<String> emails, int adminUserId, int[] memberIds, int[] bookIds,
+                          ConcurrentLinkedDeque<Integer> activeLoans, ConcurrentLinkedQueue<Integer> pendingRequests) {
+    }
+
+    private final JdbcTemplateLight jdbc;
+    private final AppConfig config;
+    private final Random random;
+    private final String tag;
+
+    /**
+     * Creates a seeder.
+     *
+     * @param jdbc the database to seed
+     * @param config the {@code load.*} sizes
+     * @param seed the random seed, so two runs seed the same library
+     */
+    public DatasetSeeder(JdbcTemplateLight jdbc, AppConfig config, long seed) {
+        this.jdbc = jdbc;
+        this.config = config;
+        this.random = new Random(seed);
+        // differs between runs even with the same seed, so runs on one database do not collide
+        StringBuilder letters = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            letters.append((char) ('A' + ThreadLocalRandom.current().nextInt(26)));
+        }
+        this.tag = letters.toString();
+    }
+
+    /**
+     * Creates the tables and indexes of {@code db/DatabaseSchema.sql}, e.g. in
+     * an empty embedded database. Statements other than {@code CREATE TABLE}
+     * and {@code CREATE INDEX} (database, user and migration statements) are skipped.
+     *
+     * @param jdbc the database
+     * @param schema the schema file
+     */
+    public static void createSchema(JdbcTemplateLight jdbc, Path schema) {
+        String script;
+        try {
+            script = Files.readString(schema);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + schema, e);
+        }
+        for (String statement : script.split(";")) {
+            StringBuilder sql = new StringBuilder();
+            for (String line : statement.split("\n")) {
+                if (!line.trim().startsWith("--")) {
+                    sql.append(line).append('\n');
+                }
+            }
+            String text = sql.toString().trim();
+            String upper = text.toUpperCase(Locale.ROOT);
+            if (upper.startsWith("CREATE TABLE") || upper.startsWith("CREATE INDEX")) {
+                jdbc.update(text, null);
+            }
+        }
+    }
+
+    /**
+     * Inserts the users, members, requests, books and loans and reads back
+     * their generated ids.
+     *
+     * @return the seeded rows
+     */
+    public Dataset seed() {
+        long start = System.nanoTime();
+        int users = config.getInt("load.users", 10_000);
+        int members = Math.min(config.getInt("load.members", 8_000), users - 1);
+        int pending = Math.min(config.getInt("load.pendingRequests", 1_000), users - 1 - members);
+        int books = config.getInt("load.books", 20_000);
+        if (users < 2 || members < 1 || books < 1) {
+            throw new IllegalArgumentException("Need at least 2 users, 1 member and 1 book");
+        }
+
+        String hash = PasswordUtils.hashPassword(PASSWORD);
+        List<Object[]> rows = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            rows.add(new Object[]{name(i), email(i), hash, String.format("300%07d", i),
+                    i == 0 ? "ADMIN" : "USER", i == 0 ? "MANAGE" : "READ_WRITE", true, false});
+        }
+        jdbc.bulkInsert("users", List.of("name", "email", "password", "phone", "role", "access_level", "active", "deleted"), rows);
+        int[] userIds = new int[users];
+        jdbc.query("SELECT id, email FROM users WHERE email LIKE 'u%." + tag + "@load.test'", null,
+                rs -> userIds[index(rs.getString(2))] = rs.getInt(1));
+
+        rows = new ArrayList<>(members);
+        for (int i = 1; i <= members; i++) {
+            rows.add(new Object[]{userIds[i], name(i), true, false, i % 5 == 0 ? "PREMIUM" : "REGULAR", "READ_WRITE"});
+        }
+        jdbc.bulkInsert("member", List.of("user_id", "name", "active", "deleted", "role", "access_level"), rows);
+        int[] memberIds = ids("SELECT id FROM member WHERE name LIKE '% " + tag + "'");
+
+        rows = new ArrayList<>(pending);
+        for (int i = members + 1; i <= members + pending; i++) {
+            rows.add(new Object[]{userIds[i], name(i), email(i), "PENDING", "Wants to borrow books"});
+        }
+        jdbc.bulkInsert("membership_request", List.of("user_id", "user_name", "user_email", "status", "request_reason"), rows);
+        int[] requestIds = ids("SELECT id FROM membership_request WHERE user_email LIKE '%." + tag + "@load.test'");
+
+        rows = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            rows.add(new Object[]{tag + String.format("%09d", i),
+                    pick(ADJECTIVES) + " " + pick(NOUNS) + (i % 3 == 0 ? " of the " + pick(NOUNS) : ""),
+                    pick(FIRST_NAMES) + " " + pick(LAST_NAMES), 1 + random.nextInt(5)});
+        }
+        jdbc.bulkInsert("book", List.of("isbn", "title", "author", "stock"), rows);
+        int[] bookIds = ids("SELECT id FROM book WHERE isbn LIKE '" + tag + "%'");
+
+        LocalDate today = LocalDate.now();
+        int loans = config.getInt("load.loans", 50_000);
+        rows = new ArrayList<>(loans);
+        for (int i = 0; i < loans; i++) {
+            LocalDate loaned = today.minusDays(15 + random.nextInt(715));
+            rows.add(new Object[]{pick(memberIds), pick(bookIds), loaned, loaned.plusDays(14), true});
+        }
+        // one open loan per member at most, so checkouts stay within the borrowing limits
+        int active = Math.min(config.getInt("load.activeLoans", 4_000), memberIds.length);
+        for (int i = 0; i < active; i++) {
+            LocalDate loaned = today.minusDays(random.nextInt(20));
+            rows.add(new Object[]{memberIds[i], pick(bookIds), loaned, loaned.plusDays(14), false});
+        }
+        jdbc.bulkInsert("loan", List.of("member_id", "book_id", "date_loaned", "date_due", "returned"), rows);
+        List<Integer> open = jdbc.query("SELECT l.id FROM loan l JOIN member m ON m.id = l.member_id "
+                + "WHERE m.name LIKE '% " + tag + "' AND l.returned = FALSE", null, rs -> rs.getInt(1));
+        Collections.shuffle(open, random);
+
+        List<String> emails = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            emails.add(email(i));
+        }
+        ConcurrentLinkedQueue<Integer> requests = new ConcurrentLinkedQueue<>();
+        for (int id : requestIds) {
+            requests.add(id);
+        }
+        logger.log(Level.INFO, "Seeded {0} users, {1} members, {2} books and {3} loans in {4} ms",
+                new Object[]{users, members, books, rows.size(), (System.nanoTime() - start) / 1_000_000});
+        return new Dataset(emails, userIds[0], memberIds, bookIds, new ConcurrentLinkedDeque<>(open), requests);
+    }
+
+    private String name(int i) {
+        return FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[i / FIRST_NAMES.length % LAST_NAMES.length]
+                + " " + tag;
+    }
+
+    private String email(int i) {
+        return "u" + i + "." + tag + "@load.test";
+    }
+
+    private static int index(String email) {
+        return Integer.parseInt(email.substring(1, email.indexOf('.')));
+    }
+
+    private int[] ids(String sql) {
+        return jdbc.query(sql, null, rs -> rs.getInt(1)).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private int pick(int[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,318 @@
+package com.codeup.booknova.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.infra.exec.ServiceExecutor;
+import com.codeup.booknova.infra.logging.LoggingConfigurer;
+import com.codeup.booknova.load.WorkloadMix.Operation;
+import com.codeup.booknova.ui.service.ServiceManager;
+
+/**
+ * Closed-loop load generator: simulated circulation desks and self-service
+ * kiosks call the {@link ServiceManager} services with a configurable mix of
+ * operations and think times, and the run ends with throughput and
+ * p50/p95/p99/p99.9 latency per operation in {@code load-report.json} and
+ * {@code load-report.html}.
+ * <p>
+ * Each client runs on its own virtual thread (platform threads before Java
+ * 21, see {@link ServiceExecutor#newVirtualThreadExecutor()}): it picks an
+ * operation, waits for the call, then thinks for an exponentially
+ * distributed time before the next one. Calls made during the warm-up are
+ * not recorded. Latencies are also recorded corrected for coordinated
+ * omission with the mean think time as the expected interval, see
+ * {@link LoadReport}.
+ * </p>
+ * <p>
+ * By default the run seeds an embedded H2 database in MySQL mode with
+ * {@link DatasetSeeder}. With {@code db.url} etc. it runs against another
+ * database, e.g. a local MySQL where {@code db/DatabaseSchema.sql} has been
+ * run; the seeded rows are tagged and stay there afterwards.
+ * </p>
+ * <p>Configuration ({@code load.*}, besides the seeder's sizes):</p>
+ * <ul>
+ * <li>{@code load.desks} - default 40 circulation desks</li>
+ * <li>{@code load.desk.mix} - default {@value #DESK_MIX}</li>
+ * <li>{@code load.desk.thinkMillis} - default 3000, mean pause between a desk's calls</li>
+ * <li>{@code load.kiosks} - default 300 self-service kiosks</li>
+ * <li>{@code load.kiosk.mix} - default {@value #KIOSK_MIX}</li>
+ * <li>{@code load.kiosk.thinkMillis} - default 8000</li>
+ * <li>{@code load.warmupSeconds} - default 15</li>
+ * <li>{@code load.durationSeconds} - default 60, measured after the warm-up</li>
+ * <li>{@code load.seed} - default 42, for the dataset and the clients' choices</li>
+ * <li>{@code load.createSchema} - default true for H2 URLs</li>
+ * <li>{@code load.out} - default {@code target/load-report}</li>
+ * </ul>
+ * <p>Run with settings as arguments, and optionally a properties file:</p>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-cp.txt) \
+ *     com.codeup.booknova.load.DeskWorkloadSimulator load.desks=40 load.kiosks=300 \
+ *     [--config=mysql-load.properties]
+ * </pre>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class DeskWorkloadSimulator {
+    private static final Logger logger = Logger.getLogger(DeskWorkloadSimulator.class.getName());
+
+    static final String DESK_MIX = "checkout:30,return:30,extend:10,search:20,approve:5,login:5";
+    static final String KIOSK_MIX = "search:70,login:15,extend:10,checkout:5";
+    static final Path SCHEMA = Path.of("src/main/java/com/codeup/booknova/db/DatabaseSchema.sql");
+
+    private static final int EXTEND_DAYS = 7;
+
+    private final AppConfig config;
+    private ServiceManager services;
+    private DatasetSeeder.Dataset dataset;
+    private LoadReport report;
+    private volatile long measureFrom;
+
+    /**
+     * Creates a simulator.
+     *
+     * @param config the {@code db.*} and {@code load.*} settings, e.g. from {@link #configure(String...)}
+     */
+    public DeskWorkloadSimulator(AppConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Builds the configuration of a run: an embedded database, no local
+     * snapshots and no per-query repository logging, overridden by the {@code --config=} file and then by the
+     * {@code key=value} arguments.
+     *
+     * @param args the command line
+     * @return the configuration
+     * @throws IOException if the file cannot be read
+     */
+    public static AppConfig configure(String... args) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:load-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        props.setProperty("snapshot.enabled", "false");
+        props.setProperty("log.file", "target/load.log");
+        props.setProperty("log.level.com.codeup.booknova.repository", "WARNING");
+        for (String arg : args) {
+            if (arg.startsWith("--config=")) {
+                try (InputStream in = Files.newInputStream(Path.of(arg.substring("--config=".length())))) {
+                    props.load(in);
+                }
+            }
+        }
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") && eq > 0) {
+                props.setProperty(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+            }
+        }
+        return new AppConfig(props);
+    }
+
+    /**
+     * Seeds the database, runs the clients for the warm-up and the measured
+     * time and writes the report.
+     *
+     * @return the report
+     * @throws IOException if the report cannot be written
+     * @throws InterruptedException if interrupted while the clients run
+     */
+    public LoadReport run() throws IOException, InterruptedException {
+        long seed = config.getLong("load.seed", 42);
+        String url = config.get("db.url", "");
+        try (ServiceManager managed = ServiceManager.create(config)) {
+            services = managed;
+            return run(seed, url);
+        }
+    }
+
+    private LoadReport run(long seed, String url) throws IOException, InterruptedException {
+        if (config.getBoolean("load.createSchema", url.startsWith("jdbc:h2:"))) {
+            DatasetSeeder.createSchema(services.getJdbcTemplate(), SCHEMA);
+        }
+        long seedStart = System.nanoTime();
+        dataset = new DatasetSeeder(services.getJdbcTemplate(), config, seed).seed();
+        long seedMillis = (System.nanoTime() - seedStart) / 1_000_000;
+
+        int desks = config.getInt("load.desks", 40);
+        int kiosks = config.getInt("load.kiosks", 300);
+        WorkloadMix deskMix = WorkloadMix.parse(config.get("load.desk.mix", DESK_MIX));
+        WorkloadMix kioskMix = WorkloadMix.parse(config.get("load.kiosk.mix", KIOSK_MIX));
+        long deskThink = TimeUnit.MILLISECONDS.toNanos(config.getLong("load.desk.thinkMillis", 3000));
+        long kioskThink = TimeUnit.MILLISECONDS.toNanos(config.getLong("load.kiosk.thinkMillis", 8000));
+        long warmup = TimeUnit.SECONDS.toNanos(config.getLong("load.warmupSeconds", 15));
+        long duration = TimeUnit.SECONDS.toNanos(config.getLong("load.durationSeconds", 60));
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("startedAt", Instant.now().toString());
+        settings.put("database", services.getJdbcTemplate().getDialect().getName() + " " + url.split("\\?")[0]);
+        settings.put("desks", desks);
+        settings.put("deskMix", deskMix.toString());
+        settings.put("deskThinkMillis", TimeUnit.NANOSECONDS.toMillis(deskThink));
+        settings.put("kiosks", kiosks);
+        settings.put("kioskMix", kioskMix.toString());
+        settings.put("kioskThinkMillis", TimeUnit.NANOSECONDS.toMillis(kioskThink));
+        settings.put("virtualThreads", ServiceExecutor.virtualThreadsAvailable());
+        settings.put("seedMillis", seedMillis);
+        report = new LoadReport(settings);
+
+        long start = System.nanoTime();
+        measureFrom = start + warmup;
+        long end = measureFrom + duration;
+        logger.log(Level.INFO, "Running {0} desks and {1} kiosks for {2} s after a {3} s warm-up",
+                new Object[]{desks, kiosks, TimeUnit.NANOSECONDS.toSeconds(duration), TimeUnit.NANOSECONDS.toSeconds(warmup)});
+        ExecutorService clients = ServiceExecutor.newVirtualThreadExecutor();
+        try {
+            for (int i = 0; i < desks + kiosks; i++) {
+                boolean desk = i < desks;
+                SplittableRandom random = new SplittableRandom(seed * 31 + i);
+                clients.execute(() -> client(desk ? deskMix : kioskMix, desk ? deskThink : kioskThink, random, end));
+            }
+        } finally {
+            clients.shutdown();
+        }
+        // a call may still be running at the end; give it the time a statement may take
+        if (!clients.awaitTermination(TimeUnit.NANOSECONDS.toSeconds(end - System.nanoTime()) + 60, TimeUnit.SECONDS)) {
+            clients.shutdownNow();
+        }
+        report.setMeasuredSeconds(Math.max(0, Math.min(System.nanoTime(), end) - measureFrom) / 1e9);
+
+        Path out = Path.of(config.get("load.out", "target/load-report"));
+        Files.createDirectories(out);
+        report.writeJson(out.resolve("load-report.json"));
+        report.writeHtml(out.resolve("load-report.html"));
+        logger.log(Level.INFO, "Wrote {0}", out.resolve("load-report.html").toAbsolutePath());
+        return report;
+    }
+
+    // one desk or kiosk: call, think, repeat until the end of the run
+    private void client(WorkloadMix mix, long thinkNanos, SplittableRandom random, long end) {
+        try {
+            // spread the first calls over one think time instead of starting all clients at once
+            TimeUnit.NANOSECONDS.sleep(random.nextLong(Math.max(1, thinkNanos)));
+            while (System.nanoTime() < end) {
+                Operation op = mix.next(random);
+                long start = System.nanoTime();
+                Boolean ok = perform(op, random);
+                long latency = System.nanoTime() - start;
+                if (start >= measureFrom) {
+                    if (ok == null) {
+                        report.get(op).skip();
+                    } else {
+                        report.get(op).record(latency, ok, thinkNanos);
+                    }
+                }
+                TimeUnit.NANOSECONDS.sleep(think(random, thinkNanos));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // true if the call succeeded, false if it failed, null if there was nothing to call it on
+    private Boolean perform(Operation op, SplittableRandom random) {
+        try {
+            switch (op) {
+                case SEARCH -> {
+                    if (random.nextBoolean()) {
+                        services.getBookService().searchBooksByTitle(pick(DatasetSeeder.TITLE_WORDS, random));
+                    } else {
+                        services.getBookService().searchBooksByAuthor(pick(DatasetSeeder.AUTHOR_NAMES, random));
+                    }
+                }
+                case CHECKOUT -> {
+                    int[] members = dataset.memberIds();
+                    int[] books = dataset.bookIds();
+                    Loan loan = services.getLoanService().createLoan(members[random.nextInt(members.length)],
+                            books[random.nextInt(books.length)]);
+                    dataset.activeLoans().addLast(loan.getId());
+                }
+                case RETURN -> {
+                    Integer loanId = dataset.activeLoans().pollFirst();
+                    if (loanId == null) {
+                        return null;
+                    }
+                    services.getLoanService().returnBook(loanId);
+                }
+                case EXTEND -> {
+                    Integer loanId = dataset.activeLoans().pollFirst();
+                    if (loanId == null) {
+                        return null;
+                    }
+                    try {
+                        services.getLoanService().extendLoan(loanId, EXTEND_DAYS);
+                    } finally {
+                        dataset.activeLoans().addLast(loanId);
+                    }
+                }
+                case APPROVE -> {
+                    Integer requestId = dataset.pendingRequests().poll();
+                    if (requestId == null) {
+                        return null;
+                    }
+                    services.getMembershipRequestService().approveRequest(requestId, dataset.adminUserId());
+                }
+                case LOGIN -> services.getUserService().authenticate(pick(dataset.emails(), random), DatasetSeeder.PASSWORD);
+            }
+            return true;
+        } catch (DatabaseException e) {
+            // business rules (borrowing limit, no stock) as well as timeouts and an open circuit breaker
+            logger.log(Level.FINE, op + " failed: " + e.getMessage());
+            return false;
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, op + " failed", e);
+            return false;
+        }
+    }
+
+    private static long think(SplittableRandom random, long meanNanos) {
+        // exponential, capped at ten times the mean
+        return (long) Math.min(-Math.log(1 - random.nextDouble()) * meanNanos, 10.0 * meanNanos);
+    }
+
+    private static <T> T pick(List<T> values, SplittableRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * Runs the simulator from the command line.
+     *
+     * @param args {@code key=value} settings and an optional {@code --config=file}
+     * @throws Exception if the run fails
+     */
+    public static void main(String[] args) throws Exception {
+        AppConfig config = configure(args);
+        LoggingConfigurer.install(config);
+        LoadReport report = new DeskWorkloadSimulator(config).run();
+        List<String> lines = new ArrayList<>();
+        for (Operation op : Operation.values()) {
+            LatencyHistogram corrected = report.get(op).getCorrected();
+            if (corrected.getCount() > 0) {
+                lines.add(String.format("%-9s %8.2f ops/s  p50 %8.2f  p95 %8.2f  p99 %8.2f  p99.9 %8.2f ms", op,
+                        report.throughput(op), corrected.percentile(50) / 1e6, corrected.percentile(95) / 1e6,
+                        corrected.percentile(99) / 1e6, corrected.percentile(99.9) / 1e6));
+            }
+        }
+        lines.forEach(System.out::println);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,78 @@
+package com.codeup.booknova.load;
+
+import com.codeup.booknova.load.WorkloadMix.Operation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeskWorkloadSimulatorTest {
+
+    @Test
+    void parse_Weights_PicksInProportion() {
+        WorkloadMix mix = WorkloadMix.parse("Search:3, checkout:1, login:0");
+        SplittableRandom random = new SplittableRandom(1);
+        int searches = 0;
+        for (int i = 0; i < 10_000; i++) {
+            Operation op = mix.next(random);
+            assertNotEquals(Operation.LOGIN, op);
+            searches += op == Operation.SEARCH ? 1 : 0;
+        }
+
+        assertEquals(7_500, searches, 250);
+        assertEquals("search:3,checkout:1", mix.toString());
+        assertThrows(IllegalArgumentException.class, () -> WorkloadMix.parse("search"));
+        assertThrows(IllegalArgumentException.class, () -> WorkloadMix.parse("login:0"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_SmallLibrary_ReportsEveryOperation(@TempDir Path out) throws Exception {
+        DeskWorkloadSimulator simulator = new DeskWorkloadSimulator(DeskWorkloadSimulator.configure(
+                "load.users=60", "load.members=40", "load.pendingRequests=15", "load.books=300", "load.loans=500",
+                "load.activeLoans=30", "load.desks=6", "load.kiosks=10", "load.desk.thinkMillis=20",
+                "load.kiosk.thinkMillis=50", "load.warmupSeconds=1", "load.durationSeconds=2",
+                "load.out=" + out));
+        Set<Thread> before = Thread.getAllStackTraces().keySet();
+
+        LoadReport report = simulator.run();
+
+        for (Operation op : Operation.values()) {
+            assertTrue(report.get(op).getService().getCount() > 0, op + " was called");
+            assertTrue(report.get(op).getCorrected().getCount() >= report.get(op).getService().getCount());
+        }
+        assertTrue(report.throughput(Operation.SEARCH) > 0);
+        Map<String, Object> checkout = (Map<String, Object>) ((Map<String, Object>) report.toMap().get("operations")).get("checkout");
+        assertTrue(((Map<String, Object>) checkout.get("correctedMicros")).containsKey("p99.9"));
+        String json = Files.readString(out.resolve("load-report.json"));
+        assertTrue(json.contains("\"operations\"") && json.contains("\"p99.9\""), json);
+        assertTrue(Files.readString(out.resolve("load-report.html")).contains("<td>approve</td>"));
+        assertEquals(List.of(), backgroundThreadsStartedSince(before), "the run must stop the threads it started");
+    }
+
+    // threads of the services still alive, waiting a little for them to wind down
+    private static List<String> backgroundThreadsStartedSince(Set<Thread> before) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            List<String> left = Thread.getAllStackTraces().keySet().stream()
+                    .filter(t -> t.isAlive() && !before.contains(t))
+                    .map(Thread::getName)
+                    .filter(name -> name.startsWith("event-bus-") || name.startsWith("borrowing-ledger")
+                            || name.startsWith("existence-filter-") || name.startsWith("outbox-relay")
+                            || name.startsWith("replica-health-check") || name.startsWith("service-exec"))
+                    .toList();
+            if (left.isEmpty() || System.nanoTime() > deadline) {
+                return left;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
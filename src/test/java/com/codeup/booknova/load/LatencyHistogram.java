@@ -0,0 +1,125 @@
+package com.codeup.booknova.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent latency histogram with log-linear buckets.
+ * <p>
+ * Values up to 127 ns get a bucket each; above that every power of two is
+ * split into 64 buckets, so a percentile is reported within about 1.6% of
+ * the true value whatever the magnitude, in a fixed 29 KB. Client threads
+ * record into the same histogram without locking.
+ * </p>
+ * <p>
+ * {@link #recordCorrected} corrects for coordinated omission the way
+ * HdrHistogram's {@code recordValueWithExpectedInterval} does: a closed-loop
+ * client that waits for a slow call skips the calls it would have made
+ * meanwhile, so one stall of {@code n} intervals also records the
+ * {@code n - 1} shorter waits those calls would have seen.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class LatencyHistogram {
+    private static final int LINEAR = 128;
+    private static final int SUB_BITS = 6;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = LINEAR + (63 - 7) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos the latency in nanoseconds; negative values count as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        total.incrementAndGet();
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Records one latency and, if it is longer than the client's pacing
+     * interval, the latencies of the calls the client did not make while it
+     * waited: {@code nanos - interval}, {@code nanos - 2 * interval}, ... down
+     * to the interval.
+     *
+     * @param nanos the latency in nanoseconds
+     * @param expectedIntervalNanos the time between the client's calls when nothing stalls; 0 records {@code nanos} only
+     */
+    public void recordCorrected(long nanos, long expectedIntervalNanos) {
+        record(nanos);
+        if (expectedIntervalNanos <= 0) {
+            return;
+        }
+        for (long missing = nanos - expectedIntervalNanos; missing >= expectedIntervalNanos; missing -= expectedIntervalNanos) {
+            record(missing);
+        }
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return total.get();
+    }
+
+    /**
+     * Returns the largest recorded value, exactly.
+     *
+     * @return the maximum in nanoseconds, 0 if empty
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of the
+     * recorded values fall, as the upper edge of its bucket.
+     *
+     * @param percentile between 0 and 100, e.g. 99.9
+     * @return the latency in nanoseconds, 0 if empty
+     */
+    public long percentile(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highest(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int index(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) - SUB;
+        return LINEAR + (exponent - 7) * SUB + sub;
+    }
+
+    static long highest(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int exponent = (index - LINEAR) / SUB + 7;
+        long sub = (index - LINEAR) % SUB + SUB;
+        int shift = exponent - SUB_BITS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
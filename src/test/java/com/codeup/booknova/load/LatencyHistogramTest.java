@@ -0,0 +1,53 @@
+package com.codeup.booknova.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void percentile_UniformValues_WithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5_000_000, histogram.percentile(50), 5_000_000 * 0.02);
+        assertEquals(9_990_000, histogram.percentile(99.9), 9_990_000 * 0.02);
+        assertEquals(10_000_000, histogram.percentile(100));
+        assertEquals(10_000_000, histogram.getMax());
+    }
+
+    @Test
+    void index_EveryBucket_CoversItsValues() {
+        for (long value : new long[]{0, 1, 127, 128, 129, 255, 256, 1_000_003, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.highest(index) >= value, "upper edge of " + value);
+            assertTrue(index == 0 || LatencyHistogram.highest(index - 1) < value, "lower edge of " + value);
+        }
+    }
+
+    @Test
+    void recordCorrected_StallLongerThanInterval_AddsMissedCalls() {
+        LatencyHistogram raw = new LatencyHistogram();
+        LatencyHistogram corrected = new LatencyHistogram();
+        long interval = TimeUnit.MILLISECONDS.toNanos(10);
+        for (int i = 0; i < 99; i++) {
+            raw.record(TimeUnit.MILLISECONDS.toNanos(1));
+            corrected.recordCorrected(TimeUnit.MILLISECONDS.toNanos(1), interval);
+        }
+        raw.record(TimeUnit.SECONDS.toNanos(1));
+        corrected.recordCorrected(TimeUnit.SECONDS.toNanos(1), interval);
+
+        // the client would have called 99 more times during the one-second stall: 990, 980, ... 10 ms
+        assertEquals(100, raw.getCount());
+        assertEquals(199, corrected.getCount());
+        assertTrue(raw.percentile(99) < TimeUnit.MILLISECONDS.toNanos(2));
+        assertTrue(corrected.percentile(75) > TimeUnit.MILLISECONDS.toNanos(400));
+        assertEquals(raw.getMax(), corrected.getMax());
+    }
+}
@@ -0,0 +1,245 @@
+package com.codeup.booknova.load;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.codeup.booknova.api.json.JsonMapper;
+import com.codeup.booknova.api.json.JsonWriter;
+import com.codeup.booknova.load.WorkloadMix.Operation;
+
+/**
+ * Throughput and latency percentiles per operation of one
+ * {@link DeskWorkloadSimulator} run, written as JSON and as an HTML page.
+ * <p>
+ * Each operation has two histograms: the service time of the calls that were
+ * made, and the same corrected for coordinated omission (see
+ * {@link LatencyHistogram#recordCorrected}), which is what a patron waiting
+ * at the desk experiences. When the two differ in the high percentiles the
+ * system stalled for longer than the clients' think time.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public class LoadReport {
+    static final double[] PERCENTILES = {50, 95, 99, 99.9};
+
+    /** Counters and histograms of one operation, recorded into by every client. */
+    public static final class OperationStats {
+        private final LatencyHistogram service = new LatencyHistogram();
+        private final LatencyHistogram corrected = new LatencyHistogram();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+
+        /**
+         * Records a completed call.
+         *
+         * @param nanos how long the call took
+         * @param ok {@code false} if the service rejected or failed it
+         * @param intervalNanos the client's mean think time, the correction's expected interval
+         */
+        public void record(long nanos, boolean ok, long intervalNanos) {
+            service.record(nanos);
+            corrected.recordCorrected(nanos, intervalNanos);
+            if (!ok) {
+                failed.increment();
+            }
+        }
+
+        /** Counts a call that was not made because there was nothing to work on, e.g. no open loan. */
+        public void skip() {
+            skipped.increment();
+        }
+
+        public LatencyHistogram getService() {
+            return service;
+        }
+
+        public LatencyHistogram getCorrected() {
+            return corrected;
+        }
+
+        public long getFailed() {
+            return failed.sum();
+        }
+
+        public long getSkipped() {
+            return skipped.sum();
+        }
+    }
+
+    private final Map<Operation, OperationStats> operations = new EnumMap<>(Operation.class);
+    private final Map<String, Object> settings;
+    private volatile double measuredSeconds;
+
+    /**
+     * Creates an empty report.
+     *
+     * @param settings what was run, e.g. database, clients and mixes, written at the top of the report
+     */
+    public LoadReport(Map<String, Object> settings) {
+        this.settings = settings;
+        for (Operation op : Operation.values()) {
+            operations.put(op, new OperationStats());
+        }
+    }
+
+    /**
+     * Returns the recorder of an operation.
+     *
+     * @param op the operation
+     * @return its stats
+     */
+    public OperationStats get(Operation op) {
+        return operations.get(op);
+    }
+
+    /**
+     * Sets the length of the measured window, after the warm-up.
+     *
+     * @param seconds the measured time
+     */
+    public void setMeasuredSeconds(double seconds) {
+        this.measuredSeconds = seconds;
+    }
+
+    /**
+     * Returns the completed calls per second of an operation.
+     *
+     * @param op the operation
+     * @return the throughput, 0 before the window is set
+     */
+    public double throughput(Operation op) {
+        return measuredSeconds > 0 ? get(op).getService().getCount() / measuredSeconds : 0;
+    }
+
+    /**
+     * Returns the report as nested maps: settings, then per operation the
+     * counts, throughput and service and corrected percentiles in microseconds.
+     *
+     * @return the report
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> out = new LinkedHashMap<>(settings);
+        out.put("measuredSeconds", round(measuredSeconds));
+        Map<String, Object> ops = new LinkedHashMap<>();
+        long total = 0;
+        for (Operation op : Operation.values()) {
+            OperationStats stats = get(op);
+            long count = stats.getService().getCount();
+            if (count == 0 && stats.getSkipped() == 0) {
+                continue;
+            }
+            total += count;
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", count);
+            entry.put("failed", stats.getFailed());
+            entry.put("skipped", stats.getSkipped());
+            entry.put("throughputPerSecond", round(throughput(op)));
+            entry.put("serviceMicros", percentiles(stats.getService()));
+            entry.put("correctedMicros", percentiles(stats.getCorrected()));
+            ops.put(op.name().toLowerCase(Locale.ROOT), entry);
+        }
+        out.put("operations", ops);
+        out.put("totalCount", total);
+        out.put("totalThroughputPerSecond", round(measuredSeconds > 0 ? total / measuredSeconds : 0));
+        return out;
+    }
+
+    private static Map<String, Object> percentiles(LatencyHistogram histogram) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            out.put(label(p), histogram.percentile(p) / 1_000);
+        }
+        out.put("max", histogram.getMax() / 1_000);
+        out.put("samples", histogram.getCount());
+        return out;
+    }
+
+    /**
+     * Writes {@link #toMap()} as JSON.
+     *
+     * @param file the destination
+     * @throws IOException if writing fails
+     */
+    public void writeJson(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            JsonWriter json = new JsonWriter(out);
+            new JsonMapper().write(json, toMap());
+            json.flush();
+        }
+    }
+
+    /**
+     * Writes a self-contained HTML page with the settings and one table row
+     * per operation, latencies in milliseconds.
+     *
+     * @param file the destination
+     * @throws IOException if writing fails
+     */
+    public void writeHtml(Path file) throws IOException {
+        StringBuilder html = new StringBuilder(8192);
+        html.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>NovaBook load report</title>\n")
+            .append("<style>body{font-family:sans-serif;margin:2em}table{border-collapse:collapse}")
+            .append("th,td{border:1px solid #ccc;padding:4px 8px;text-align:right}th{background:#eee}")
+            .append("td:first-child{text-align:left}.c{background:#fff7e0}</style></head><body>\n")
+            .append("<h1>NovaBook load report</h1>\n<table>\n");
+        settings.forEach((key, value) -> html.append("<tr><td>").append(escape(key)).append("</td><td>")
+                .append(escape(String.valueOf(value))).append("</td></tr>\n"));
+        html.append("<tr><td>measured seconds</td><td>").append(round(measuredSeconds)).append("</td></tr>\n</table>\n")
+            .append("<h2>Latency per operation (ms)</h2>\n<p>Corrected columns include the calls clients could not ")
+            .append("make while waiting for a stalled one (coordinated omission).</p>\n<table>\n<tr><th>operation</th>")
+            .append("<th>count</th><th>failed</th><th>skipped</th><th>ops/s</th>");
+        for (double p : PERCENTILES) {
+            html.append("<th class=\"c\">").append(label(p)).append("</th>");
+        }
+        html.append("<th class=\"c\">max</th>");
+        for (double p : PERCENTILES) {
+            html.append("<th>service ").append(label(p)).append("</th>");
+        }
+        html.append("</tr>\n");
+        for (Operation op : Operation.values()) {
+            OperationStats stats = get(op);
+            if (stats.getService().getCount() == 0 && stats.getSkipped() == 0) {
+                continue;
+            }
+            html.append("<tr><td>").append(op.name().toLowerCase(Locale.ROOT)).append("</td><td>")
+                .append(stats.getService().getCount()).append("</td><td>").append(stats.getFailed()).append("</td><td>")
+                .append(stats.getSkipped()).append("</td><td>").append(round(throughput(op))).append("</td>");
+            for (double p : PERCENTILES) {
+                html.append("<td class=\"c\">").append(millis(stats.getCorrected().percentile(p))).append("</td>");
+            }
+            html.append("<td class=\"c\">").append(millis(stats.getCorrected().getMax())).append("</td>");
+            for (double p : PERCENTILES) {
+                html.append("<td>").append(millis(stats.getService().percentile(p))).append("</td>");
+            }
+            html.append("</tr>\n");
+        }
+        html.append("</table>\n</body></html>\n");
+        Files.writeString(file, html, StandardCharsets.UTF_8);
+    }
+
+    private static String label(double percentile) {
+        return percentile == Math.rint(percentile) ? "p" + (int) percentile : "p" + percentile;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,88 @@
+package com.codeup.booknova.load;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted choice of the next operation a simulated client performs, e.g.
+ * {@code checkout:30,return:30,extend:10,search:20,approve:5,login:5}.
+ *
+ * @version 1.0
+ * @since 1.0
+ */
+public final class WorkloadMix {
+
+    /** Operations a client can perform, each through one service call. */
+    public enum Operation {
+        SEARCH, CHECKOUT, RETURN, EXTEND, APPROVE, LOGIN
+    }
+
+    private final Operation[] operations;
+    private final int[] cumulative;
+    private final Map<Operation, Integer> weights;
+
+    private WorkloadMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulative = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += weights.get(operations[i]);
+            cumulative[i] = sum;
+        }
+    }
+
+    /**
+     * Parses a mix of {@code operation:weight} pairs separated by commas.
+     *
+     * @param spec the mix, operation names in any case
+     * @return the mix
+     * @throws IllegalArgumentException if an entry is malformed or no weight is positive
+     */
+    public static WorkloadMix parse(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in mix: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix: " + entry);
+            }
+            if (weight > 0) {
+                weights.merge(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight, Integer::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no operations: " + spec);
+        }
+        return new WorkloadMix(weights);
+    }
+
+    /**
+     * Picks an operation with probability proportional to its weight.
+     *
+     * @param random the client's random source
+     * @return the operation
+     */
+    public Operation next(SplittableRandom random) {
+        int pick = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (pick < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        weights.forEach((op, weight) -> out.append(out.length() > 0 ? "," : "")
+                .append(op.name().toLowerCase(Locale.ROOT)).append(':').append(weight));
+        return out.toString();
+    }
+}
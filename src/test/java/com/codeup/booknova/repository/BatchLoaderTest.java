@@ -0,0 +1,219 @@
+package com.codeup.booknova.repository;
+
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.connection.ReadSession;
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.repository.impl.BookJdbcRepository;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchLoaderTest {
+
+    private static BookJdbcRepository bookRepo(int books) {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+        jdbc.update("CREATE TABLE book (id INT AUTO_INCREMENT PRIMARY KEY, isbn VARCHAR(20) NOT NULL UNIQUE, "
+                + "title VARCHAR(100) NOT NULL, author VARCHAR(100) NOT NULL, stock INT NOT NULL, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)", null);
+        jdbc.update("INSERT INTO book (isbn, title, author, stock) "
+                + "SELECT CAST(X AS VARCHAR), CONCAT('Title ', X), 'Author', 1 FROM SYSTEM_RANGE(1, " + books + ")", null);
+        return new BookJdbcRepository(jdbc);
+    }
+
+    private static Book book(int id) {
+        Book book = new Book();
+        book.setId(id);
+        return book;
+    }
+
+    @Test
+    void findByIds_MoreIdsThanOneChunk_ReturnsEachFoundRowOnce() {
+        BookJdbcRepository repo = bookRepo(1300);
+        List<Integer> ids = new ArrayList<>(IntStream.rangeClosed(1, 1400).boxed().toList());
+        ids.addAll(List.of(5, 5, 700));
+        ids.add(null);
+
+        List<Book> books = repo.findByIds(ids);
+
+        assertEquals(1300, books.size());
+        assertEquals(1300, books.stream().map(Book::getId).distinct().count());
+        assertEquals(List.of("Title 3"), repo.findByIds(List.of(3, 3, 3)).stream().map(Book::getTitle).toList());
+        assertTrue(repo.findByIds(List.of()).isEmpty());
+    }
+
+    @Test
+    void get_ConcurrentLookups_ShareBatchesAndDeduplicateKeys() throws Exception {
+        BookJdbcRepository repo = bookRepo(50);
+        List<Collection<Integer>> batches = new CopyOnWriteArrayList<>();
+        BatchLoader<Integer, Book> loader = new BatchLoader<>(keys -> {
+            batches.add(keys);
+            return repo.findByIds(keys);
+        }, Book::getId, 200, 512);
+
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Optional<Book>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int id = i % 8 + 1;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return loader.get(id);
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < threads; i++) {
+                assertEquals("Title " + (i % 8 + 1), results.get(i).get().orElseThrow().getTitle());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(threads, loader.getRequestCount());
+        assertTrue(batches.size() < threads, "batches: " + batches);
+        assertEquals(batches.stream().mapToInt(Collection::size).sum(), loader.getFetchedKeyCount());
+        batches.forEach(keys -> assertEquals(keys.size(), keys.stream().distinct().count()));
+        assertTrue(loader.get(999).isEmpty());
+    }
+
+    @Test
+    void getAll_OneCall_FetchesOnceAndFillsByKey() {
+        List<Collection<Integer>> batches = new ArrayList<>();
+        BatchLoader<Integer, Book> loader = new BatchLoader<>(keys -> {
+            batches.add(keys);
+            return keys.stream().filter(k -> k % 2 == 0).map(BatchLoaderTest::book).toList();
+        }, Book::getId, 0, 3);
+
+        Map<Integer, Book> found = loader.getAll(Arrays.asList(2, 3, 4, 2, 6, 8));
+
+        assertEquals(List.of(2, 4, 6, 8), List.copyOf(found.keySet()));
+        assertEquals(List.of(List.of(2, 3, 4), List.of(6, 8)), batches);
+    }
+
+    @Test
+    void get_FetchFails_ThrowsToEveryCaller() {
+        BatchLoader<Integer, Book> loader = new BatchLoader<>(keys -> {
+            throw new DatabaseException("Connection refused");
+        }, Book::getId, 0, 10);
+
+        var pending = loader.load(1);
+        DatabaseException e = assertThrows(DatabaseException.class, () -> loader.get(2));
+
+        assertEquals("Connection refused", e.getMessage());
+        assertTrue(pending.isCompletedExceptionally());
+    }
+
+    @Test
+    void get_StickyWriterAndOtherSession_EachReadsFromItsOwnSource() throws Exception {
+        String primaryUrl = "jdbc:h2:mem:primary-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        String replicaUrl = "jdbc:h2:mem:replica-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        // the same book carries the name of the database that served it
+        createBook(primaryUrl, "primary");
+        createBook(replicaUrl, "replica");
+        Properties props = new Properties();
+        props.setProperty("db.url", primaryUrl);
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        props.setProperty("db.replicas", replicaUrl);
+        props.setProperty("db.replica.stickyMillis", "60000");
+        try (ConnectionFactory factory = new ConnectionFactory(new AppConfig(props))) {
+            JdbcTemplateLight jdbc = new JdbcTemplateLight(factory);
+            BookJdbcRepository repo = new BookJdbcRepository(jdbc);
+            BatchLoader<Integer, Book> loader = new BatchLoader<>(repo::findByIds, Book::getId, 200, 512);
+
+            ExecutorService pool = Executors.newFixedThreadPool(2);
+            CountDownLatch start = new CountDownLatch(1);
+            try {
+                Future<String> writer = pool.submit(() -> {
+                    ReadSession.set("writer");
+                    try {
+                        jdbc.update("UPDATE book SET stock = stock", null);
+                        start.await();
+                        return loader.get(1).orElseThrow().getTitle();
+                    } finally {
+                        ReadSession.clear();
+                    }
+                });
+                Future<String> other = pool.submit(() -> {
+                    ReadSession.set("other");
+                    try {
+                        start.await();
+                        return loader.get(1).orElseThrow().getTitle();
+                    } finally {
+                        ReadSession.clear();
+                    }
+                });
+                start.countDown();
+
+                assertEquals("primary", writer.get());
+                assertEquals("replica", other.get());
+                assertEquals(2, loader.getBatchCount());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void get_InTransaction_FetchesAtOnceWithoutOtherQueuedKeys() {
+        List<Collection<Integer>> batches = new ArrayList<>();
+        BatchLoader<Integer, Book> loader = new BatchLoader<>(keys -> {
+            batches.add(List.copyOf(keys));
+            return keys.stream().map(BatchLoaderTest::book).toList();
+        }, Book::getId, 1000, 10);
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+
+        var queued = loader.load(1);
+        Map<Integer, Book> found = jdbc.txExecute(conn -> {
+            assertEquals(2, loader.get(2).orElseThrow().getId());
+            return loader.getAll(List.of(3, 4, 3));
+        });
+
+        assertEquals(List.of(3, 4), List.copyOf(found.keySet()));
+        assertEquals(List.of(List.of(2), List.of(3, 4)), batches);
+        assertFalse(queued.isDone(), "a key queued outside the transaction must not join it");
+        loader.dispatch();
+        assertEquals(1, queued.join().orElseThrow().getId());
+    }
+
+    private static void createBook(String url, String title) throws SQLException {
+        try (Connection c = DriverManager.getConnection(url, "sa", "");
+             Statement st = c.createStatement()) {
+            st.execute("CREATE TABLE book (id INT AUTO_INCREMENT PRIMARY KEY, isbn VARCHAR(20) NOT NULL UNIQUE, "
+                    + "title VARCHAR(100) NOT NULL, author VARCHAR(100) NOT NULL, stock INT NOT NULL, "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            st.execute("INSERT INTO book (isbn, title, author, stock) VALUES ('1', '" + title + "', 'Author', 1)");
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.codeup.booknova.repository;
+
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.repository.impl.UserJdbcRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The email check made before each user insert, on a table of {@code rows}
+ * users: the {@code COUNT(*)} query alone vs. behind an
+ * {@link ExistenceFilter}.
+ * <p>
+ * {@code newEmail_*} checks emails that are not taken, as in bulk
+ * provisioning, which the filter mostly answers without a query;
+ * {@code takenEmail_Filter} checks taken ones, which still need the query.
+ * The table lives in an in-memory H2 database, so the query numbers leave
+ * out the network round trip a real server adds. Setup builds the table and
+ * the filter, which takes a while at 5M rows; the table needs about 2 GB of heap.
+ * </p>
+ * <p>Run with:</p>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-cp.txt) \
+ *     org.openjdk.jmh.Main ExistenceFilterBenchmark -jvmArgsAppend -Xmx4g
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExistenceFilterBenchmark {
+
+    @Param({"5000000"})
+    public int rows;
+
+    private UserJdbcRepository plain;
+    private UserJdbcRepository filtered;
+    private ExistenceFilter emails;
+    private long next;
+
+    @Setup
+    public void setUp() {
+        Logger.getLogger("com.codeup.booknova").setLevel(Level.WARNING);
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+        jdbc.update("CREATE TABLE users (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100) NOT NULL, "
+                + "email VARCHAR(120) NOT NULL UNIQUE, password VARCHAR(255) NOT NULL, phone VARCHAR(30) NOT NULL, "
+                + "role VARCHAR(10) NOT NULL DEFAULT 'USER', access_level VARCHAR(10) NOT NULL DEFAULT 'READ_WRITE', "
+                + "active BOOLEAN NOT NULL DEFAULT TRUE, deleted BOOLEAN NOT NULL DEFAULT FALSE, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)", null);
+        jdbc.update("INSERT INTO users (name, email, password, phone) "
+                + "SELECT 'User', CONCAT('user', X, '@mail.com'), 'x', '3001234567' FROM SYSTEM_RANGE(1, " + rows + ")", null);
+        emails = new ExistenceFilter("users.email", UserJdbcRepository.emails(jdbc), rows, 0.01);
+        emails.rebuild();
+        plain = new UserJdbcRepository(jdbc);
+        filtered = new UserJdbcRepository(jdbc, emails);
+    }
+
+    @TearDown
+    public void report() {
+        System.out.println();
+        System.out.println("existence filter: " + emails.toMap());
+    }
+
+    @Benchmark
+    public boolean newEmail_Query() {
+        return plain.userExists("new" + next++ + "@mail.com");
+    }
+
+    @Benchmark
+    public boolean newEmail_Filter() {
+        return filtered.userExists("new" + next++ + "@mail.com");
+    }
+
+    @Benchmark
+    public boolean takenEmail_Filter() {
+        return filtered.userExists("user" + (1 + next++ % rows) + "@mail.com");
+    }
+}
@@ -0,0 +1,135 @@
+package com.codeup.booknova.repository;
+
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.domain.User;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.repository.impl.UserJdbcRepository;
+import com.codeup.booknova.util.BloomFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExistenceFilterTest {
+
+    private JdbcTemplateLight jdbc;
+    private ExistenceFilter emails;
+    private UserJdbcRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        jdbc = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+        jdbc.update("CREATE TABLE users (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100) NOT NULL, "
+                + "email VARCHAR(120) NOT NULL UNIQUE, password VARCHAR(255) NOT NULL, phone VARCHAR(30) NOT NULL, "
+                + "role VARCHAR(10) NOT NULL DEFAULT 'USER', access_level VARCHAR(10) NOT NULL DEFAULT 'READ_WRITE', "
+                + "active BOOLEAN NOT NULL DEFAULT TRUE, deleted BOOLEAN NOT NULL DEFAULT FALSE, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)", null);
+        jdbc.update("CREATE TABLE deleted_row (id BIGINT AUTO_INCREMENT PRIMARY KEY, table_name VARCHAR(40) NOT NULL, "
+                + "row_id INT NOT NULL, deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)", null);
+        jdbc.update("INSERT INTO users (name, email, password, phone) "
+                + "SELECT 'User', CONCAT('user', X, '@mail.com'), 'x', '3001234567' FROM SYSTEM_RANGE(1, 1000)", null);
+        emails = new ExistenceFilter("users.email", UserJdbcRepository.emails(jdbc), 2000, 0.01);
+        repo = new UserJdbcRepository(jdbc, emails);
+    }
+
+    @Test
+    void mightContain_AddedStrings_NeverFalseAndFppNearTarget() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("user" + i + "@mail.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@mail.com"));
+            if (filter.mightContain("other" + i + "@mail.com")) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+        assertEquals(0.01, filter.expectedFpp(), 0.005);
+    }
+
+    @Test
+    void userExists_Loaded_AnswersAbsentEmailsWithoutQuery() {
+        assertTrue(repo.userExists("user5@mail.com"));
+        assertFalse(emails.isLoaded());
+        assertEquals(1000, emails.rebuild());
+
+        int present = 0;
+        for (int i = 1; i <= 1000; i++) {
+            present += repo.userExists("user" + i + "@mail.com") ? 1 : 0;
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(repo.userExists("new" + i + "@mail.com"));
+        }
+
+        assertEquals(1000, present);
+        assertEquals(1000 - emails.getFalsePositives(), emails.getSkipped());
+        assertTrue(emails.observedFpp() < 0.05, "observed: " + emails.observedFpp());
+        assertEquals(emails.getFalsePositives(), emails.toMap().get("falsePositives"));
+    }
+
+    @Test
+    void createAndDelete_KeepFilterInStepUntilRebuild() {
+        emails.rebuild();
+        User user = new User("Ana", "ana@mail.com", "Secret123!", "3001234567");
+
+        User created = repo.create(user);
+        assertTrue(repo.userExists("ana@mail.com"));
+        assertThrows(DatabaseException.class, () -> repo.create(user));
+
+        assertFalse(emails.needsRebuild());
+        for (int id = 1; id <= 101; id++) {
+            repo.delete(id);
+        }
+        repo.delete(created.getId());
+        assertTrue(emails.needsRebuild());
+        assertEquals(899, emails.rebuild());
+        assertFalse(emails.needsRebuild());
+        assertFalse(repo.userExists("ana@mail.com"));
+    }
+
+    @Test
+    void rebuild_MoreKeysThanSized_ReadsAgainIntoBiggerFilter() {
+        AtomicInteger scans = new AtomicInteger();
+        ExistenceFilter.KeySource source = action -> {
+            scans.incrementAndGet();
+            List.of("a", "b", "c", "d", "e").forEach(action);
+            return 5;
+        };
+        ExistenceFilter filter = new ExistenceFilter("test", source, 2, 0.01);
+
+        assertEquals(5, filter.rebuild());
+
+        assertEquals(2, scans.get());
+        assertTrue(filter.exists("c", key -> true));
+        assertTrue(filter.toMap().get("bits") >= 64);
+        assertFalse(filter.needsRebuild());
+    }
+
+    @Test
+    void rebuild_SourceFails_KeepsQueryingDatabase() {
+        ExistenceFilter filter = new ExistenceFilter("test", action -> {
+            throw new DatabaseException("Connection refused");
+        }, 10, 0.01);
+
+        assertThrows(DatabaseException.class, filter::rebuild);
+
+        assertFalse(filter.isLoaded());
+        assertTrue(filter.exists("anything", key -> true));
+        assertEquals(0, filter.getSkipped());
+    }
+}
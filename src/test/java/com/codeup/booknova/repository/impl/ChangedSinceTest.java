@@ -0,0 +1,126 @@
+package com.codeup.booknova.repository.impl;
+
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.domain.User;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.load.DatasetSeeder;
+import com.codeup.booknova.repository.ChangeSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangedSinceTest {
+    private JdbcTemplateLight jdbc;
+    private BookJdbcRepository bookRepo;
+
+    @BeforeEach
+    void setUp() {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        jdbc = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+        jdbc.update("CREATE TABLE book (id INT AUTO_INCREMENT PRIMARY KEY, isbn VARCHAR(20) NOT NULL UNIQUE, "
+                + "title VARCHAR(100) NOT NULL, author VARCHAR(100) NOT NULL, stock INT NOT NULL, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)", null);
+        jdbc.update("CREATE TABLE deleted_row (id BIGINT AUTO_INCREMENT PRIMARY KEY, table_name VARCHAR(40) NOT NULL, "
+                + "row_id INT NOT NULL, deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)", null);
+        bookRepo = new BookJdbcRepository(jdbc);
+    }
+
+    private void setUpdatedAt(Book book, String timestamp) {
+        jdbc.update("UPDATE book SET updated_at = TIMESTAMP '" + timestamp + "' WHERE id = " + book.getId(), null);
+    }
+
+    private static List<Integer> ids(List<Book> books) {
+        return books.stream().map(Book::getId).toList();
+    }
+
+    @Test
+    void findChangedSince_NoWatermark_ReturnsAllRowsAndLatestUpdate() {
+        Book first = bookRepo.create(new Book("1111111111", "First", "Author", 1));
+        Book second = bookRepo.create(new Book("2222222222", "Second", "Author", 1));
+        setUpdatedAt(first, "2024-01-01 10:00:00");
+        setUpdatedAt(second, "2024-01-01 10:05:00");
+
+        ChangeSet<Book> changes = bookRepo.findChangedSince(null);
+
+        assertEquals(List.of(first.getId(), second.getId()), ids(changes.changed()));
+        assertTrue(changes.deletedIds().isEmpty());
+        assertEquals(bookRepo.findById(second.getId()).orElseThrow().getUpdatedAt(), changes.watermark());
+    }
+
+    @Test
+    void findChangedSince_Watermark_ReturnsOnlyChangesAndTombstones() {
+        Book kept = bookRepo.create(new Book("1111111111", "Kept", "Author", 1));
+        Book edited = bookRepo.create(new Book("2222222222", "Edited", "Author", 1));
+        Book deleted = bookRepo.create(new Book("3333333333", "Deleted", "Author", 1));
+        setUpdatedAt(kept, "2024-01-01 09:00:00");
+        setUpdatedAt(edited, "2024-01-01 09:00:00");
+        setUpdatedAt(deleted, "2024-01-01 10:00:00");
+        Instant watermark = bookRepo.findChangedSince(null).watermark();
+
+        setUpdatedAt(edited, "2024-01-01 11:00:00");
+        bookRepo.delete(deleted.getId());
+        ChangeSet<Book> changes = bookRepo.findChangedSince(watermark);
+
+        assertEquals(List.of(edited.getId()), ids(changes.changed()));
+        assertEquals(List.of(deleted.getId()), changes.deletedIds());
+        assertTrue(changes.watermark().isAfter(watermark));
+    }
+
+    @Test
+    void findChangedSince_NothingChanged_KeepsWatermark() {
+        Book book = bookRepo.create(new Book("1111111111", "Only", "Author", 1));
+        setUpdatedAt(book, "2024-01-01 09:00:00");
+        Instant watermark = bookRepo.findChangedSince(null).watermark();
+
+        ChangeSet<Book> changes = bookRepo.findChangedSince(watermark.plus(Tombstones.OVERLAP).plusSeconds(1));
+
+        assertTrue(changes.isEmpty());
+        assertEquals(watermark.plus(Tombstones.OVERLAP).plusSeconds(1), changes.watermark());
+    }
+
+    @Test
+    void findChangedSince_Users_OmitsPasswords() {
+        jdbc.update("CREATE TABLE users (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100) NOT NULL, "
+                + "email VARCHAR(120) NOT NULL UNIQUE, password VARCHAR(255) NOT NULL, phone VARCHAR(30) NOT NULL, "
+                + "role VARCHAR(10) NOT NULL DEFAULT 'USER', access_level VARCHAR(10) NOT NULL DEFAULT 'READ_WRITE', "
+                + "active BOOLEAN NOT NULL DEFAULT TRUE, deleted BOOLEAN NOT NULL DEFAULT FALSE, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)", null);
+        jdbc.update("INSERT INTO users (name, email, password, phone) VALUES ('Ana', 'ana@mail.com', 'hash', '3001234567')", null);
+
+        List<User> users = new UserJdbcRepository(jdbc).findChangedSince(null).changed();
+
+        assertEquals(1, users.size());
+        assertEquals("ana@mail.com", users.get(0).getEmail());
+        assertNull(users.get(0).getPassword());
+    }
+
+    @Test
+    void schemaScript_RunTwice_KeepsUpdatedAtIndexes() {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        JdbcTemplateLight fresh = new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+        Path schema = Path.of("src/main/java/com/codeup/booknova/db/DatabaseSchema.sql");
+
+        DatasetSeeder.createSchema(fresh, schema);
+        DatasetSeeder.createSchema(fresh, schema);
+
+        List<String> indexes = fresh.query("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES "
+                + "WHERE INDEX_NAME LIKE 'IDX_%_UPDATED_AT' ORDER BY INDEX_NAME", null, rs -> rs.getString(1));
+        assertEquals(List.of("IDX_BOOK_UPDATED_AT", "IDX_LOAN_UPDATED_AT", "IDX_MEMBERSHIP_REQUEST_UPDATED_AT",
+                "IDX_MEMBER_UPDATED_AT", "IDX_USERS_UPDATED_AT"), indexes);
+    }
+}
@@ -0,0 +1,83 @@
+package com.codeup.booknova.search;
+
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.repository.ChangeSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One keystroke of the catalog search box: the top 8 suggestions for a
+ * one-, three- and six-character prefix from a {@link SuggestionIndex} of
+ * {@code books} generated books, with a small overlay of changed books.
+ * <p>
+ * {@code build} measures a full rebuild, as done after the catalog loads.
+ * </p>
+ * <p>Run with:</p>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-cp.txt) \
+ *     org.openjdk.jmh.Main SuggestionIndexBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuggestionIndexBenchmark {
+    private static final String[] WORDS = {"the", "night", "garden", "river", "shadow", "empire", "silent",
+            "lost", "winter", "city", "dream", "fire", "stone", "house", "secret", "storm", "glass", "last",
+            "kingdom", "ocean", "memory", "wild", "golden", "dark", "journey", "letters", "mountain", "war"};
+    private static final String[] NAMES = {"Ana", "Luis", "Maria", "John", "Sofia", "Pedro", "Elena",
+            "Carlos", "Laura", "David", "Isabel", "Jorge"};
+
+    @Param({"100000"})
+    public int books;
+
+    @Param({"s", "sec", "secret"})
+    public String prefix;
+
+    private List<Book> catalog;
+    private Map<Integer, Long> loans;
+    private SuggestionIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        catalog = new ArrayList<>(books);
+        loans = new HashMap<>();
+        for (int i = 1; i <= books; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            String author = NAMES[random.nextInt(NAMES.length)] + " Author" + random.nextInt(books / 4);
+            Book book = new Book(String.format("978-%010d", i), title, author, 1);
+            book.setId(i);
+            catalog.add(book);
+            loans.put(i, (long) random.nextInt(500));
+        }
+        index = new SuggestionIndex();
+        index.rebuild(catalog, loans);
+        index.apply(new ChangeSet<>(catalog.subList(0, 200), List.of(), null));
+    }
+
+    @Benchmark
+    public List<Suggestion> suggest() {
+        return index.suggest(prefix, 8);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SuggestionIndex build() {
+        SuggestionIndex fresh = new SuggestionIndex();
+        fresh.rebuild(catalog, loans);
+        return fresh;
+    }
+}
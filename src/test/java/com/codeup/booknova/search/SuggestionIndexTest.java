@@ -0,0 +1,143 @@
+package com.codeup.booknova.search;
+
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.repository.ChangeSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SuggestionIndex();
+        index.rebuild(List.of(
+                book(1, "978-0-441-17271-9", "Dune", "Frank Herbert"),
+                book(2, "978-0-441-10266-2", "Dune Messiah", "Frank Herbert"),
+                book(3, "978-0-14-118776-1", "Dubliners", "James Joyce"),
+                book(4, "978-84-322-1750-4", "El Túnel", "Ernesto Sábato"),
+                book(5, "978-0-06-112008-4", "To Kill a Mockingbird", "Harper Lee")),
+                Map.of(1, 50L, 2, 10L, 3, 30L, 4, 5L));
+    }
+
+    @Test
+    void suggest_Prefix_MostBorrowedFirst() {
+        List<Suggestion> result = index.suggest("Du", 10);
+
+        assertEquals(List.of("Dune", "Dubliners", "Dune Messiah"), texts(result));
+        assertEquals(Suggestion.Field.TITLE, result.get(0).field());
+        assertEquals("Frank Herbert", result.get(0).detail());
+        assertEquals(1, result.get(0).bookId());
+    }
+
+    @Test
+    void suggest_Limit_KeepsTopOnly() {
+        assertEquals(List.of("Dune", "Dubliners"), texts(index.suggest("du", 2)));
+    }
+
+    @Test
+    void suggest_LaterWord_MatchesWordStartsOnly() {
+        assertEquals(List.of("To Kill a Mockingbird"), texts(index.suggest("mock", 5)));
+        assertEquals(List.of("Dune Messiah"), texts(index.suggest("messiah", 5)));
+        assertTrue(index.suggest("ockingbird", 5).isEmpty());
+    }
+
+    @Test
+    void suggest_AccentsAndCase_Ignored() {
+        assertEquals(List.of("El Túnel"), texts(index.suggest("el tun", 5)));
+        assertEquals(List.of("Ernesto Sábato"), texts(index.suggest("SABA", 5)));
+    }
+
+    @Test
+    void suggest_TrailingSpace_MatchesWholeWordOnly() {
+        assertEquals(List.of("Dune", "Dune Messiah"), texts(index.suggest("dune ", 5)));
+        assertTrue(index.suggest("dun ", 5).isEmpty());
+        assertEquals(List.of("Frank Herbert"), texts(index.suggest("herbert ", 5)));
+    }
+
+    @Test
+    void suggest_Author_SummedOverBooks() {
+        Suggestion author = index.suggest("herb", 5).get(0);
+
+        assertEquals(Suggestion.Field.AUTHOR, author.field());
+        assertEquals("Frank Herbert", author.text());
+        assertEquals("2 books", author.detail());
+        assertEquals(60L, author.loans());
+        assertNull(author.bookId());
+    }
+
+    @Test
+    void suggest_IsbnWithOrWithoutHyphens_FindsBook() {
+        List<Suggestion> plain = index.suggest("9780441172", 5);
+        List<Suggestion> hyphenated = index.suggest("978-0-441-1", 5);
+
+        assertEquals(List.of("978-0-441-17271-9"), texts(plain));
+        assertEquals("Dune", plain.get(0).detail());
+        assertEquals(List.of("978-0-441-17271-9", "978-0-441-10266-2"), texts(hyphenated));
+    }
+
+    @Test
+    void suggest_BlankPrefix_ReturnsNothing() {
+        assertTrue(index.suggest("  ", 5).isEmpty());
+        assertTrue(index.suggest(null, 5).isEmpty());
+        assertTrue(index.suggest("du", 0).isEmpty());
+    }
+
+    @Test
+    void apply_AddedRenamedAndDeleted_SeenByNextLookup() {
+        index.apply(new ChangeSet<>(List.of(
+                book(6, "978-0-441-47812-5", "Dune Encyclopedia", "Willis McNelly"),
+                book(3, "978-0-14-118776-1", "Ulysses", "James Joyce")),
+                List.of(1), Instant.now()));
+
+        assertEquals(List.of("Dune Messiah", "Dune Encyclopedia"), texts(index.suggest("dune", 5)));
+        assertEquals(List.of("Ulysses"), texts(index.suggest("uly", 5)));
+        assertEquals(30L, index.suggest("uly", 5).get(0).loans());
+        assertTrue(index.suggest("dubl", 5).isEmpty());
+
+        Suggestion herbert = index.suggest("frank", 5).get(0);
+        assertEquals("1 book", herbert.detail());
+        assertEquals(10L, herbert.loans());
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void apply_LastBookOfAuthorDeleted_DropsAuthor() {
+        index.apply(new ChangeSet<>(List.of(), List.of(5), Instant.now()));
+
+        assertTrue(index.suggest("harper", 5).isEmpty());
+        assertTrue(index.suggest("mocking", 5).isEmpty());
+    }
+
+    @Test
+    void apply_ManyChanges_RebuildsWithSameResults() {
+        List<Book> added = new ArrayList<>();
+        for (int i = 100; i < 1200; i++) {
+            added.add(book(i, "isbn-" + i, "Volume " + i, "Anonymous"));
+        }
+        index.apply(new ChangeSet<>(added, List.of(), Instant.now()));
+
+        assertEquals(1105, index.size());
+        assertEquals(List.of("Dune", "Dubliners", "Dune Messiah"), texts(index.suggest("du", 3)));
+        assertEquals(List.of("Volume 100"), texts(index.suggest("volume 100 ", 3)));
+        assertEquals("1100 books", index.suggest("anon", 1).get(0).detail());
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+
+    private static Book book(int id, String isbn, String title, String author) {
+        Book book = new Book(isbn, title, author, 1);
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,188 @@
+package com.codeup.booknova.service;
+
+import com.codeup.booknova.analytics.CirculationRollups;
+import com.codeup.booknova.connection.ConnectionFactory;
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.domain.Loan;
+import com.codeup.booknova.domain.Member;
+import com.codeup.booknova.domain.MemberRole;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.infra.config.AppConfig;
+import com.codeup.booknova.jdbc.JdbcTemplateLight;
+import com.codeup.booknova.jdbc.TransactionRunner;
+import com.codeup.booknova.repository.IBookRepository;
+import com.codeup.booknova.repository.ILoanRepository;
+import com.codeup.booknova.repository.IMemberRepository;
+import com.codeup.booknova.service.impl.BorrowingLedger;
+import com.codeup.booknova.service.impl.LoanService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class BorrowingLedgerTest {
+    @Mock
+    private ILoanRepository loanRepo;
+
+    @Mock
+    private IBookRepository bookRepo;
+
+    @Mock
+    private IMemberRepository memberRepo;
+
+    private BorrowingLedger ledger;
+    private LoanService loanService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ledger = new BorrowingLedger(loanRepo, memberRepo);
+        loanService = new LoanService(loanRepo, bookRepo, memberRepo, TransactionRunner.DIRECT,
+                CirculationRollups.NONE, ledger);
+        when(memberRepo.findAll()).thenReturn(List.of(member(1, MemberRole.REGULAR), member(2, MemberRole.PREMIUM)));
+        when(loanRepo.countActiveLoansPerMember()).thenReturn(Map.of(1, 2, 2, 5));
+    }
+
+    private static Member member(int id, MemberRole role) {
+        Member member = new Member();
+        member.setId(id);
+        member.setRole(role);
+        return member;
+    }
+
+    private void stubCheckout(int memberId, MemberRole role) {
+        when(memberRepo.findActiveById(memberId)).thenReturn(Optional.of(member(memberId, role)));
+        Book book = new Book();
+        book.setId(9);
+        book.setStock(10);
+        when(bookRepo.findById(9)).thenReturn(Optional.of(book));
+        when(loanRepo.create(any(Loan.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void canMemberBorrowMore_Reconciled_NeedsNoDatabaseRoundTrip() {
+        assertTrue(ledger.reconcile());
+        clearInvocations(loanRepo, memberRepo);
+
+        assertTrue(loanService.canMemberBorrowMore(1));
+        assertFalse(loanService.canMemberBorrowMore(2));
+        assertFalse(loanService.canMemberBorrowMore(3));
+        assertEquals(5, loanService.getMemberLoanLimit(2));
+
+        verifyNoInteractions(loanRepo);
+        verify(memberRepo).findById(3);
+        verifyNoMoreInteractions(memberRepo);
+    }
+
+    @Test
+    void createLoanAndReturn_UpdateLedgerUntilLimit() {
+        ledger.reconcile();
+        stubCheckout(1, MemberRole.REGULAR);
+
+        Loan loan = loanService.createLoan(1, 9);
+        assertEquals(3, ledger.activeLoans(1));
+        assertThrows(DatabaseException.class, () -> loanService.createLoan(1, 9));
+        assertEquals(3, ledger.activeLoans(1));
+
+        loan.setId(40);
+        loan.setReturned(false);
+        when(loanRepo.findById(40)).thenReturn(Optional.of(loan));
+        loanService.returnBook(40);
+        assertEquals(2, ledger.activeLoans(1));
+        verify(loanRepo, never()).countActiveLoansByMember(anyInt());
+    }
+
+    @Test
+    void createLoan_TransactionFails_ReleasesReservedSlot() {
+        ledger.reconcile();
+        stubCheckout(1, MemberRole.REGULAR);
+        doThrow(new DatabaseException("Out of stock")).when(bookRepo).decreaseStock(9);
+
+        assertThrows(DatabaseException.class, () -> loanService.createLoan(1, 9));
+
+        assertEquals(2, ledger.activeLoans(1));
+    }
+
+    @Test
+    void reconcile_CheckoutWhileCounting_KeepsLedgerAndRetriesLater() {
+        ledger.reconcile();
+        stubCheckout(1, MemberRole.REGULAR);
+        when(loanRepo.countActiveLoansPerMember()).thenAnswer(inv -> {
+            loanService.createLoan(1, 9);
+            return Map.of(1, 2);
+        });
+
+        assertFalse(ledger.reconcile());
+        assertEquals(3, ledger.activeLoans(1));
+
+        doReturn(Map.of(1, 1)).when(loanRepo).countActiveLoansPerMember();
+        assertTrue(ledger.reconcile());
+        assertEquals(1, ledger.activeLoans(1));
+        assertEquals(0, ledger.activeLoans(2));
+    }
+
+    @Test
+    void checkout_OuterTransactionRollsBack_ReleasesSlot() {
+        ledger.reconcile();
+        JdbcTemplateLight jdbc = h2();
+
+        assertThrows(DatabaseException.class, () -> jdbc.runInTransaction(() -> {
+            ledger.checkout(1, 3, () -> jdbc.inTransaction(() -> "loan"));
+            assertEquals(3, ledger.activeLoans(1));
+            assertFalse(ledger.reconcile(), "reconciled while the checkout could still roll back");
+            throw new DatabaseException("bulk checkout failed");
+        }));
+        assertEquals(2, ledger.activeLoans(1));
+
+        jdbc.runInTransaction(() -> ledger.checkout(1, 3, () -> jdbc.inTransaction(() -> "loan")));
+        assertEquals(3, ledger.activeLoans(1));
+    }
+
+    @Test
+    void giveBack_InOuterTransaction_FreesSlotOnlyOnCommit() {
+        ledger.reconcile();
+        JdbcTemplateLight jdbc = h2();
+
+        assertThrows(DatabaseException.class, () -> jdbc.runInTransaction(() -> {
+            ledger.giveBack(1, () -> jdbc.runInTransaction(() -> { }));
+            throw new DatabaseException("bulk return failed");
+        }));
+        assertEquals(2, ledger.activeLoans(1));
+
+        jdbc.runInTransaction(() -> {
+            ledger.giveBack(1, () -> jdbc.runInTransaction(() -> { }));
+            assertEquals(2, ledger.activeLoans(1));
+        });
+        assertEquals(1, ledger.activeLoans(1));
+        doReturn(Map.of(1, 1)).when(loanRepo).countActiveLoansPerMember();
+        assertTrue(ledger.reconcile());
+    }
+
+    private static JdbcTemplateLight h2() {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        return new JdbcTemplateLight(new ConnectionFactory(new AppConfig(props)));
+    }
+
+    @Test
+    void getActiveLoanCount_NotYetLoaded_CountsInDatabase() {
+        when(loanRepo.countActiveLoansByMember(1)).thenReturn(2);
+
+        assertFalse(ledger.isLoaded());
+        assertEquals(2, loanService.getActiveLoanCount(1));
+        verify(loanRepo).countActiveLoansByMember(1);
+    }
+}
@@ -0,0 +1,125 @@
+package com.codeup.booknova.ui.service;
+
+import com.codeup.booknova.repository.ChangeSet;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeltaSnapshotTest {
+
+    private record Row(int id, String value) {}
+
+    @Test
+    void refreshInto_AppliesDeltasInPlace() {
+        DeltaSnapshot<Row> snapshot = new DeltaSnapshot<>(Row::id);
+        List<String> view = new ArrayList<>();
+        Instant t0 = Instant.parse("2024-01-01T10:00:00Z");
+        Instant t1 = t0.plusSeconds(60);
+        List<Instant> requested = new ArrayList<>();
+
+        snapshot.refreshInto(view, since -> {
+            requested.add(since);
+            return new ChangeSet<>(List.of(new Row(1, "a"), new Row(2, "b"), new Row(3, "c")), List.of(), t0);
+        }, r -> r.id() + ":" + r.value(), s -> Integer.parseInt(s.substring(0, s.indexOf(':'))));
+        snapshot.refreshInto(view, since -> {
+            requested.add(since);
+            return new ChangeSet<>(List.of(new Row(3, "C"), new Row(4, "d")), List.of(2), t1);
+        }, r -> r.id() + ":" + r.value(), s -> Integer.parseInt(s.substring(0, s.indexOf(':'))));
+
+        assertEquals(List.of("1:a", "3:C", "4:d"), view);
+        assertEquals(3, snapshot.values().size());
+        assertEquals(t1, snapshot.getWatermark());
+        assertNull(requested.get(0));
+        assertEquals(t0, requested.get(1));
+    }
+
+    @Test
+    void reset_NextRefreshLoadsEverything() {
+        DeltaSnapshot<Row> snapshot = new DeltaSnapshot<>(Row::id);
+        Instant t0 = Instant.parse("2024-01-01T10:00:00Z");
+        snapshot.refresh(since -> new ChangeSet<>(List.of(new Row(1, "a")), List.of(), t0));
+
+        snapshot.reset();
+        List<Instant> requested = new ArrayList<>();
+        snapshot.refresh(since -> {
+            requested.add(since);
+            return new ChangeSet<>(List.of(new Row(2, "b")), List.of(), t0);
+        });
+
+        assertEquals(1, requested.size());
+        assertNull(requested.get(0));
+        assertEquals(List.of(new Row(2, "b")), List.copyOf(snapshot.values()));
+    }
+
+    @Test
+    void restoreInto_ThenFetchAndApply_AsksOnlyForChangesSinceSavedWatermark() {
+        DeltaSnapshot<Row> snapshot = new DeltaSnapshot<>(Row::id);
+        List<String> view = new ArrayList<>();
+        Instant saved = Instant.parse("2024-01-01T10:00:00Z");
+        snapshot.restoreInto(view, List.of(new Row(1, "a"), new Row(2, "b")), saved, r -> r.id() + ":" + r.value());
+        assertEquals(List.of("1:a", "2:b"), view);
+
+        List<Instant> requested = new ArrayList<>();
+        ChangeSet<Row> changes = snapshot.fetch(since -> {
+            requested.add(since);
+            return new ChangeSet<>(List.of(new Row(2, "B")), List.of(1), saved.plusSeconds(5));
+        });
+        assertEquals(List.of(saved), requested);
+        assertEquals(2, snapshot.values().size());
+
+        snapshot.applyInto(view, changes, r -> r.id() + ":" + r.value(),
+                s -> Integer.parseInt(s.substring(0, s.indexOf(':'))));
+        assertEquals(List.of("2:B"), view);
+        assertEquals(saved.plusSeconds(5), snapshot.getWatermark());
+    }
+
+    @Test
+    void applyInto_RowList_NotifiesOnceAndKeepsUnchangedRows() {
+        DeltaSnapshot<Row> snapshot = new DeltaSnapshot<>(Row::id);
+        RowList<Row> view = new RowList<>();
+        Instant t0 = Instant.parse("2024-01-01T10:00:00Z");
+        List<Row> all = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            all.add(new Row(i, "v" + i));
+        }
+        List<Integer> notifications = new ArrayList<>();
+        view.addListener((ListChangeListener<Row>) change -> notifications.add(view.size()));
+
+        snapshot.refreshInto(view, since -> new ChangeSet<>(all, List.of(), t0), r -> r, Row::id);
+        Row untouched = view.get(499);
+        snapshot.refreshInto(view, since -> new ChangeSet<>(List.of(new Row(10, "x"), new Row(20, "y"), new Row(1001, "z")),
+                List.of(5, 6), t0.plusSeconds(1)), r -> r, Row::id);
+        snapshot.refreshInto(view, since -> new ChangeSet<>(List.of(), List.of(), t0.plusSeconds(2)), r -> r, Row::id);
+
+        assertEquals(List.of(1000, 999), notifications, "one notification per refresh that changed something");
+        assertSame(untouched, view.get(497));
+        assertEquals(new Row(10, "x"), view.get(7));
+        assertEquals(new Row(1001, "z"), view.get(998));
+    }
+
+    @Test
+    void applyInto_FetchOvertakenByLaterRefresh_IsDropped() {
+        DeltaSnapshot<Row> snapshot = new DeltaSnapshot<>(Row::id);
+        List<String> view = new ArrayList<>();
+        Instant saved = Instant.parse("2024-01-01T10:00:00Z");
+        snapshot.restoreInto(view, List.of(new Row(1, "a")), saved, r -> r.id() + ":" + r.value());
+
+        // a background fetch started at restore, answered before the row changed again
+        ChangeSet<Row> early = snapshot.fetch(since -> new ChangeSet<>(List.of(new Row(1, "b")), List.of(), saved.plusSeconds(1)));
+        // a refresh the user asked for, applied first
+        snapshot.refreshInto(view, since -> new ChangeSet<>(List.of(new Row(1, "c")), List.of(), saved.plusSeconds(2)),
+                r -> r.id() + ":" + r.value(), s -> Integer.parseInt(s.substring(0, s.indexOf(':'))));
+        ChangeSet<Row> applied = snapshot.applyInto(view, early, r -> r.id() + ":" + r.value(),
+                s -> Integer.parseInt(s.substring(0, s.indexOf(':'))));
+
+        assertTrue(applied.isEmpty());
+        assertEquals(List.of("1:c"), view);
+        assertEquals(List.of(new Row(1, "c")), List.copyOf(snapshot.values()));
+        assertEquals(saved.plusSeconds(2), snapshot.getWatermark());
+    }
+}
@@ -0,0 +1,59 @@
+package com.codeup.booknova.ui.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyTest {
+
+    @Test
+    void get_NotCalled_DoesNotRunFactory() {
+        AtomicInteger created = new AtomicInteger();
+        Lazy<Object> lazy = new Lazy<>(() -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+
+        assertFalse(lazy.isInitialized());
+        assertEquals(0, created.get());
+    }
+
+    @Test
+    void get_ManyThreadsAtOnce_RunsFactoryOnceAndSharesValue() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        Lazy<Object> lazy = new Lazy<>(() -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return lazy.get();
+                }));
+            }
+            start.countDown();
+            Object first = results.get(0).get();
+            for (Future<Object> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, created.get());
+        assertTrue(lazy.isInitialized());
+    }
+}
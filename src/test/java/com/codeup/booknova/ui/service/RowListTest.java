@@ -0,0 +1,59 @@
+package com.codeup.booknova.ui.service;
+
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RowListTest {
+
+    @Test
+    void batch_SeveralEdits_NotifiesOnceWithEverySubChange() {
+        RowList<String> rows = new RowList<>();
+        rows.setAll(List.of("a", "b", "c", "d"));
+        List<String> changes = new ArrayList<>();
+        rows.addListener((ListChangeListener<String>) change -> {
+            StringBuilder seen = new StringBuilder();
+            while (change.next()) {
+                seen.append(change.wasReplaced() ? "set " : change.wasAdded() ? "add " : "remove ")
+                    .append(change.getFrom()).append(';');
+            }
+            changes.add(seen.toString());
+        });
+
+        rows.batch(() -> {
+            rows.set(1, "B");
+            rows.remove("d");
+            rows.add("e");
+        });
+
+        assertEquals(List.of("a", "B", "c", "e"), rows);
+        assertEquals(1, changes.size());
+        assertEquals("set 1;set 3;", changes.get(0), "the removal and the append at one index merge into a replace");
+    }
+
+    @Test
+    void setAll_ManyRows_NotifiesOnce() {
+        RowList<Integer> rows = new RowList<>();
+        rows.add(-1);
+        List<Integer> removedSizes = new ArrayList<>();
+        rows.addListener((ListChangeListener<Integer>) change -> {
+            while (change.next()) {
+                removedSizes.add(change.getRemovedSize());
+            }
+        });
+        List<Integer> all = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            all.add(i);
+        }
+
+        rows.setAll(all);
+
+        assertEquals(List.of(1), removedSizes);
+        assertEquals(100_000, rows.size());
+        assertEquals(99_999, rows.get(99_999));
+    }
+}
@@ -0,0 +1,63 @@
+package com.codeup.booknova.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntIntConcurrentMapTest {
+
+    @Test
+    void putAndGet_ManyKeys_GrowsAndKeepsValues() {
+        IntIntConcurrentMap map = new IntIntConcurrentMap();
+        for (int key = 0; key < 10_000; key++) {
+            map.put(key, key * 2);
+        }
+
+        assertEquals(10_000, map.size());
+        for (int key = 0; key < 10_000; key++) {
+            assertEquals(key * 2, map.get(key, -1));
+        }
+        assertEquals(-1, map.get(10_000, -1));
+        AtomicLong sum = new AtomicLong();
+        map.forEach((k, v) -> sum.addAndGet(v - 2L * k));
+        assertEquals(0, sum.get());
+    }
+
+    @Test
+    void addIfInRange_ConcurrentIncrements_NeverExceedsMax() throws InterruptedException {
+        IntIntConcurrentMap map = new IntIntConcurrentMap();
+        AtomicLong accepted = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (map.addIfInRange(i % 10, 1, 0, 500)) {
+                        accepted.incrementAndGet();
+                    }
+                    map.addAndGet(100 + i % 10, 1);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(5_000, accepted.get());
+        for (int key = 0; key < 10; key++) {
+            assertEquals(500, map.get(key, 0));
+            assertEquals(8_000, map.get(100 + key, 0));
+        }
+        assertFalse(map.addIfInRange(42, -1, 0, 10));
+        assertEquals(0, map.get(42, 0));
+    }
+
+    @Test
+    void put_NegativeKey_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new IntIntConcurrentMap().put(-1, 1));
+    }
+}
@@ -0,0 +1,68 @@
+package com.codeup.booknova.util.validation;
+
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.util.ValidationUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validating user registrations: {@link ValidationEngine} vs. {@link ValidationUtils}.
+ * <p>
+ * {@code utils*} call {@link ValidationUtils#validateUser} and catch its
+ * exception, the way a bulk import has to; {@code engine*} collect a
+ * {@link ValidationResult}. The {@code Valid} variants measure the common
+ * path, the {@code Invalid} variants a record with a bad email. Add
+ * {@code -prof gc} to compare allocation per operation.
+ * </p>
+ * <p>Run with:</p>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-cp.txt) \
+ *     org.openjdk.jmh.Main ValidationBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private final String name = "Ana Pérez";
+    private final String email = "ana.perez@mail.example.com";
+    private final String badEmail = "ana.perez@mail";
+    private final String password = "secret123";
+    private final String phone = "+57 (300) 123-4567";
+
+    @Benchmark
+    public boolean utilsValid() {
+        return utils(email);
+    }
+
+    @Benchmark
+    public boolean utilsInvalid() {
+        return utils(badEmail);
+    }
+
+    @Benchmark
+    public void engineValid(Blackhole bh) {
+        bh.consume(ValidationEngine.validateUser(name, email, password, phone));
+    }
+
+    @Benchmark
+    public void engineInvalid(Blackhole bh) {
+        bh.consume(ValidationEngine.validateUser(name, badEmail, password, phone));
+    }
+
+    private boolean utils(String mail) {
+        try {
+            ValidationUtils.validateUser(name, mail, password, phone);
+            return true;
+        } catch (DatabaseException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.codeup.booknova.util.validation;
+
+import com.codeup.booknova.domain.Book;
+import com.codeup.booknova.exception.DatabaseException;
+import com.codeup.booknova.util.ValidationUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidationEngineTest {
+
+    @Test
+    void validateUser_SeveralInvalidFields_ReportsAllViolations() {
+        ValidationResult result = ValidationEngine.validateUser("12345", "not-an-email", "short", "abc");
+
+        assertFalse(result.isValid());
+        assertEquals(List.of("name.digits", "email.format", "password.length", "phone.format"),
+                result.getViolations().stream().map(Violation::code).toList());
+        DatabaseException e = assertThrows(DatabaseException.class, result::throwIfInvalid);
+        assertTrue(e.getMessage().contains("Invalid email format"));
+    }
+
+    @Test
+    void validateUser_ValidData_ReturnsSharedValidResult() {
+        ValidationResult result = ValidationEngine.validateUser("Ana", "ana.perez+lib@mail.example.co",
+                "secret123", "+57 (300) 123-4567");
+
+        assertSame(ValidationResult.VALID, result);
+        assertDoesNotThrow(result::throwIfInvalid);
+    }
+
+    @Test
+    void isIsbn_VerifiesChecksums() {
+        assertTrue(TextScanners.isIsbn("978-3-16-148410-0"));
+        assertTrue(TextScanners.isIsbn("9780306406157"));
+        assertTrue(TextScanners.isIsbn("0-306-40615-2"));
+        assertTrue(TextScanners.isIsbn("0-8044-2957-X"));
+        assertFalse(TextScanners.isIsbn("978-3-16-148410-1"));
+        assertFalse(TextScanners.isIsbn("0-306-40615-3"));
+        assertFalse(TextScanners.isIsbn("123-4567890123"));
+        assertFalse(TextScanners.isIsbn("0-8044-X957-2"));
+        assertFalse(TextScanners.isIsbn("12345"));
+    }
+
+    @Test
+    void scanners_AgreeWithRegexRules() {
+        String[] emails = {"a@b.co", "a.b-c+d_e@x-y.z.org", "@b.co", "a@.co", "a@b.c", "a@b", "a@@b.co",
+                "a b@c.co", "a@b.c0", "a@b..co", "ñ@b.co", "a@b.co."};
+        for (String email : emails) {
+            assertEquals(email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$"),
+                    TextScanners.isEmail(email), email);
+        }
+        String[] phones = {"3001234567", "+57 (300) 123-4567", "123456789", "1234567890123456", "300-ABC-4567", "\t3001234567"};
+        for (String phone : phones) {
+            assertEquals(phone.replaceAll("[\\s\\-\\(\\)\\+]", "").matches("^\\d{10,15}$"),
+                    TextScanners.isPhone(phone), phone);
+        }
+        String[] names = {"123", " 123 ", "12a", "   ", "Ana 1"};
+        for (String name : names) {
+            assertEquals(!name.trim().isEmpty() && name.trim().matches("^\\d+$"),
+                    TextScanners.isDigitsOnly(name), name);
+        }
+    }
+
+    @Test
+    void validateBooks_LargeBatch_ReturnsResultsInOrder() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < ValidationEngine.PARALLEL_THRESHOLD * 2; i++) {
+            if (i % 7 == 0) {
+                // imported rows bypass the constructor checks
+                Book bad = new Book();
+                bad.setIsbn("978-3-16-148410-1");
+                bad.setTitle("");
+                bad.setAuthor("Author");
+                bad.setStock(-1);
+                books.add(bad);
+            } else {
+                books.add(new Book("978-3-16-148410-0", "Title " + i, "Author", i));
+            }
+        }
+
+        List<ValidationResult> results = ValidationEngine.validateBooks(books);
+
+        assertEquals(books.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            if (i % 7 == 0) {
+                assertEquals(3, results.get(i).getViolations().size());
+            } else {
+                assertTrue(results.get(i).isValid());
+            }
+        }
+    }
+
+    @Test
+    void validationUtils_StaysLenientAboutIsbnChecksum() {
+        assertDoesNotThrow(() -> ValidationUtils.validateIsbn("123-4567890123"));
+        assertThrows(DatabaseException.class, () -> ValidationUtils.validateIsbn("12345"));
+        assertThrows(DatabaseException.class, () -> ValidationUtils.validateName(" 42 "));
+    }
+}